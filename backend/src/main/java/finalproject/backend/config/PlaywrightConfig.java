@@ -21,10 +21,9 @@ import java.util.Locale;
  *       and is reused after that.
  *
  * THREAD SAFETY:
- *       Browser is thread-safe for concurrent page creation.
- *       Each PDF request opens its own BrowserContext + Page and closes
- *       them immediately, so there is no shared mutable state between
- *       concurrent calls.
+ *       The Playwright driver connection is not thread-safe. Pages are only
+ *       used through PlaywrightPagePool, which owns the BrowserContexts and
+ *       serializes driver calls.
  */
 @Slf4j
 @Configuration
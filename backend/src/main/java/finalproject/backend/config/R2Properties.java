@@ -15,4 +15,8 @@ public class R2Properties {
     private String endpoint;
     private String publicUrl;
     private String region;
+    // Objects at or above this size go up as a multipart upload, in parts of multipartPartSizeBytes
+    private long multipartThresholdBytes = 16 * 1024 * 1024L;
+    private long multipartPartSizeBytes = 8 * 1024 * 1024L;
+    private int multipartParallelism = 4;
 }
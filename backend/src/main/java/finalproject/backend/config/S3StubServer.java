@@ -0,0 +1,321 @@
+package finalproject.backend.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import finalproject.backend.exception.FileStorageException;
+import finalproject.backend.service.ObjectStorage;
+import finalproject.backend.service.impl.LocalObjectStorage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * In-process, S3-compatible stand-in for R2 (profile {@code s3-stub}).
+ *
+ * WHY:  Uploads, PDF exports and deletes could only be exercised against the
+ *       real bucket — nothing to profile or load-test them with offline.
+ *
+ * HOW:  A JDK HttpServer on {@code app.storage.s3-stub.port} speaks the
+ *       path-style subset of the S3 API the app uses — PUT / GET / HEAD /
+ *       DELETE object plus multipart create / upload part / complete /
+ *       abort — and keeps the objects in a {@link LocalObjectStorage}.
+ *       application-s3-stub.yml points R2Config's S3Client at it, so the real
+ *       SDK code path (signing, multipart, retries) runs end to end.
+ *       Request signatures are not checked. aws-chunked bodies are decoded.
+ */
+@Slf4j
+@Component
+@Profile("s3-stub")
+public class S3StubServer {
+
+    private static final String XMLNS = "http://s3.amazonaws.com/doc/2006-03-01/";
+
+    private record MultipartUpload(String key, ObjectStorage.ObjectMetadata metadata, Path partsDir) {
+    }
+
+    private final int port;
+    private final Path root;
+    private final Map<String, MultipartUpload> uploads = new ConcurrentHashMap<>();
+    private LocalObjectStorage storage;
+    private HttpServer server;
+    private ExecutorService handlers;
+
+    public S3StubServer(@Value("${app.storage.s3-stub.port:9000}") int port,
+                        @Value("${app.storage.s3-stub.root:${java.io.tmpdir}/codegrowthkh-s3-stub}") Path root) {
+        this.port = port;
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        String base = "http://localhost:" + port;
+        // One directory per bucket; public URLs are path-style like the SDK's requests
+        this.storage = new LocalObjectStorage(root.resolve("objects"), base);
+        Files.createDirectories(root.resolve("multipart"));
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        // Platform threads: the JDK server reads request bodies under a monitor, which pins a
+        // virtual thread to its carrier — with few carriers the uploading client could never run
+        handlers = Executors.newCachedThreadPool(Thread.ofPlatform().name("s3-stub-", 0).daemon(true).factory());
+        server.setExecutor(handlers);
+        server.createContext("/", this::handle);
+        server.start();
+        log.info("S3 stub listening on {} (data in {})", base, root);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (server != null) server.stop(0);
+        if (handlers != null) handlers.shutdownNow();
+    }
+
+    // ── Dispatch ──────────────────────────────────────────────────────────────
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getRawPath();
+            // /{bucket}/{key} — the bucket is part of the stored key, so each bucket is a directory
+            String key = URLDecoder.decode(path.replaceFirst("^/+", ""), StandardCharsets.UTF_8);
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            if (key.indexOf('/') < 0) {
+                error(exchange, 400, "InvalidRequest", "Only object requests are supported");
+                return;
+            }
+
+            switch (exchange.getRequestMethod()) {
+                case "PUT" -> {
+                    if (query.containsKey("uploadId")) uploadPart(exchange, query);
+                    else putObject(exchange, key);
+                }
+                case "POST" -> {
+                    if (query.containsKey("uploads")) createUpload(exchange, key);
+                    else if (query.containsKey("uploadId")) completeUpload(exchange, query);
+                    else error(exchange, 400, "InvalidRequest", "Unsupported POST");
+                }
+                case "GET", "HEAD" -> getObject(exchange, key);
+                case "DELETE" -> {
+                    if (query.containsKey("uploadId")) abortUpload(exchange, query);
+                    else {
+                        storage.delete(key);
+                        exchange.sendResponseHeaders(204, -1);
+                    }
+                }
+                default -> error(exchange, 405, "MethodNotAllowed", exchange.getRequestMethod());
+            }
+        } catch (FileStorageException e) {
+            log.warn("S3 stub request failed: {}", e.getMessage());
+        }
+    }
+
+    // ── Objects ───────────────────────────────────────────────────────────────
+
+    private void putObject(HttpExchange exchange, String key) throws IOException {
+        Path body = receiveBody(exchange, root.resolve("multipart"));
+        try {
+            storage.put(key, body, metadata(exchange));
+        } finally {
+            Files.deleteIfExists(body);
+        }
+        exchange.getResponseHeaders().set("ETag", etag());
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private void getObject(HttpExchange exchange, String key) throws IOException {
+        var stored = storage.find(key);
+        if (stored.isEmpty()) {
+            error(exchange, 404, "NoSuchKey", key);
+            return;
+        }
+        var metadata = stored.get().metadata();
+        exchange.getResponseHeaders().set("Content-Type", metadata.contentType());
+        if (metadata.cacheControl() != null) exchange.getResponseHeaders().set("Cache-Control", metadata.cacheControl());
+        if (metadata.contentDisposition() != null) {
+            exchange.getResponseHeaders().set("Content-Disposition", metadata.contentDisposition());
+        }
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Content-Length", Long.toString(stored.get().size()));
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(200, stored.get().size());
+        storage.transferTo(key, Channels.newChannel(exchange.getResponseBody()));
+    }
+
+    // ── Multipart ─────────────────────────────────────────────────────────────
+
+    private void createUpload(HttpExchange exchange, String key) throws IOException {
+        String uploadId = UUID.randomUUID().toString();
+        Path partsDir = Files.createDirectories(root.resolve("multipart").resolve(uploadId));
+        uploads.put(uploadId, new MultipartUpload(key, metadata(exchange), partsDir));
+        xml(exchange, "InitiateMultipartUploadResult", "<Bucket>" + bucket(key) + "</Bucket><Key>" + escape(key)
+                + "</Key><UploadId>" + uploadId + "</UploadId>");
+    }
+
+    private void uploadPart(HttpExchange exchange, Map<String, String> query) throws IOException {
+        MultipartUpload upload = uploads.get(query.get("uploadId"));
+        if (upload == null) {
+            error(exchange, 404, "NoSuchUpload", query.get("uploadId"));
+            return;
+        }
+        int partNumber = Integer.parseInt(query.get("partNumber"));
+        Path received = receiveBody(exchange, upload.partsDir());
+        Files.move(received, upload.partsDir().resolve(String.format("%05d", partNumber)),
+                java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        exchange.getResponseHeaders().set("ETag", etag());
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private void completeUpload(HttpExchange exchange, Map<String, String> query) throws IOException {
+        String uploadId = query.get("uploadId");
+        MultipartUpload upload = uploads.remove(uploadId);
+        if (upload == null) {
+            error(exchange, 404, "NoSuchUpload", uploadId);
+            return;
+        }
+        exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+        try {
+            List<Path> parts;
+            try (Stream<Path> files = Files.list(upload.partsDir())) {
+                parts = files.filter(p -> p.getFileName().toString().matches("\\d{5}"))
+                        .sorted(Comparator.comparing(Path::getFileName))
+                        .toList();
+            }
+            storage.compose(upload.key(), parts, upload.metadata());
+        } finally {
+            deleteTree(upload.partsDir());
+        }
+        xml(exchange, "CompleteMultipartUploadResult", "<Bucket>" + bucket(upload.key()) + "</Bucket><Key>"
+                + escape(upload.key()) + "</Key><ETag>" + escape(etag()) + "</ETag>");
+    }
+
+    private void abortUpload(HttpExchange exchange, Map<String, String> query) throws IOException {
+        MultipartUpload upload = uploads.remove(query.get("uploadId"));
+        if (upload != null) deleteTree(upload.partsDir());
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    // Body into a temp file — raw, or decoded when the SDK sends aws-chunked framing
+    private static Path receiveBody(HttpExchange exchange, Path dir) throws IOException {
+        Path tmp = Files.createTempFile(dir, ".body-", ".tmp");
+        String sha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        boolean chunked = (sha != null && sha.startsWith("STREAMING-"))
+                || (encoding != null && encoding.contains("aws-chunked"));
+        try (InputStream in = exchange.getRequestBody();
+             OutputStream out = Files.newOutputStream(tmp)) {
+            if (chunked) decodeAwsChunked(in, out);
+            else in.transferTo(out);
+        }
+        return tmp;
+    }
+
+    // <hex-size>[;chunk-signature=..]\r\n<data>\r\n ... 0[;..]\r\n[trailers]\r\n
+    private static void decodeAwsChunked(InputStream in, OutputStream out) throws IOException {
+        while (true) {
+            String header = readLine(in);
+            if (header == null) return;
+            int semicolon = header.indexOf(';');
+            long size = Long.parseLong((semicolon >= 0 ? header.substring(0, semicolon) : header).trim(), 16);
+            if (size == 0) return;
+            long copied = new finalproject.backend.util.RangeInputStream(in, size).transferTo(out);
+            if (copied != size) throw new IOException("Truncated aws-chunked body");
+            readLine(in);
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(80);
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') break;
+            if (b != '\r') line.write(b);
+        }
+        if (b == -1 && line.size() == 0) return null;
+        return line.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static ObjectStorage.ObjectMetadata metadata(HttpExchange exchange) {
+        var headers = exchange.getRequestHeaders();
+        return new ObjectStorage.ObjectMetadata(headers.getFirst("Content-Type"),
+                headers.getFirst("Cache-Control"), headers.getFirst("Content-Disposition"));
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return query;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq >= 0 ? pair.substring(0, eq) : pair, StandardCharsets.UTF_8);
+            String value = eq >= 0 ? URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8) : "";
+            query.put(name, value);
+        }
+        return query;
+    }
+
+    private static void xml(HttpExchange exchange, String element, String content) throws IOException {
+        byte[] body = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?><" + element + " xmlns=\"" + XMLNS + "\">"
+                + content + "</" + element + ">").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static void error(HttpExchange exchange, int status, String code, String message) throws IOException {
+        byte[] body = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?><Error><Code>" + code + "</Code><Message>"
+                + escape(message) + "</Message></Error>").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static String bucket(String key) {
+        return escape(key.substring(0, key.indexOf('/')));
+    }
+
+    private static String etag() {
+        return "\"" + UUID.randomUUID().toString().replace("-", "") + "\"";
+    }
+
+    private static String escape(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static void deleteTree(Path dir) throws IOException {
+        if (!Files.exists(dir)) return;
+        List<Path> paths = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(dir)) {
+            walk.forEach(paths::add);
+        }
+        for (int i = paths.size() - 1; i >= 0; i--) Files.deleteIfExists(paths.get(i));
+    }
+}
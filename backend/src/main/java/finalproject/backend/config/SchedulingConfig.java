@@ -0,0 +1,12 @@
+package finalproject.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (view-count flush, etc.).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
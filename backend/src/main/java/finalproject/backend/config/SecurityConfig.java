@@ -88,6 +88,9 @@ public class SecurityConfig {
                         .requestMatchers("/api/v1/chapters/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/v1/lessons/**").permitAll()
                         .requestMatchers("/api/v1/lessons/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/v1/search").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/local-storage/**").permitAll()   // local-storage profile only
+                        .requestMatchers(HttpMethod.GET, "/api/v1/course/pdf/jobs/**", "/api/v1/course/pdf/*/job").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/v1/course/pdf/**").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/v1/course/pdf/*/download").permitAll()
                         .requestMatchers("/api/v1/course/pdf/**").hasRole("ADMIN")
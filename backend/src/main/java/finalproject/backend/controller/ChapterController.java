@@ -4,11 +4,14 @@ import finalproject.backend.request.ChapterRequest;
 import finalproject.backend.response.ApiResponse;
 import finalproject.backend.response.ChapterResponse;
 import finalproject.backend.service.ChapterService;
+import finalproject.backend.service.ContentVersionService;
+import finalproject.backend.util.ConditionalGetUtil;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -18,15 +21,23 @@ import java.util.List;
 public class ChapterController {
 
     private final ChapterService chapterService;
+    private final ContentVersionService contentVersionService;
 
     @GetMapping("/course/{courseId}")
     public ResponseEntity<ApiResponse<List<ChapterResponse>>> getChaptersByCourse(
-            @PathVariable Long courseId) {
+            @PathVariable Long courseId,
+            WebRequest request) {
+        if (ConditionalGetUtil.isNotModified(request, contentVersionService.forCourse(courseId),
+                v -> v.etag("chapters")))
+            return null;
         return ResponseEntity.ok(chapterService.getChaptersByCourse(courseId));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<ChapterResponse>> getChapterById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<ChapterResponse>> getChapterById(@PathVariable Long id, WebRequest request) {
+        if (ConditionalGetUtil.isNotModified(request, contentVersionService.forChapter(id),
+                v -> v.etag("chapter-" + id)))
+            return null;
         return ResponseEntity.ok(chapterService.getChapterById(id));
     }
 
@@ -4,11 +4,14 @@ import finalproject.backend.request.CodeSnippetRequest;
 import finalproject.backend.response.ApiResponse;
 import finalproject.backend.response.CodeSnippetResponse;
 import finalproject.backend.service.CodeSnippetService;
+import finalproject.backend.service.ContentVersionService;
+import finalproject.backend.util.ConditionalGetUtil;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -18,15 +21,23 @@ import java.util.List;
 public class CodeSnippetController {
 
     private final CodeSnippetService codeSnippetService;
+    private final ContentVersionService contentVersionService;
 
     @GetMapping("/lesson/{lessonId}")
     public ResponseEntity<ApiResponse<List<CodeSnippetResponse>>> getSnippetsByLesson(
-            @PathVariable Long lessonId) {
+            @PathVariable Long lessonId,
+            WebRequest request) {
+        if (ConditionalGetUtil.isNotModified(request, contentVersionService.forLesson(lessonId),
+                v -> v.etag("snippets-l" + lessonId)))
+            return null;
         return ResponseEntity.ok(codeSnippetService.getSnippetsByLesson(lessonId));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<CodeSnippetResponse>> getSnippetById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<CodeSnippetResponse>> getSnippetById(@PathVariable Long id, WebRequest request) {
+        if (ConditionalGetUtil.isNotModified(request, contentVersionService.forSnippet(id),
+                v -> v.etag("snippet-" + id)))
+            return null;
         return ResponseEntity.ok(codeSnippetService.getSnippetById(id));
     }
 
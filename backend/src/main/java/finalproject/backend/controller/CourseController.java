@@ -5,9 +5,13 @@ import finalproject.backend.modal.CourseStatus;
 import finalproject.backend.request.CourseRequest;
 import finalproject.backend.response.ApiResponse;
 import finalproject.backend.response.CourseResponse;
+import finalproject.backend.response.CursorPageResponse;
 import finalproject.backend.response.LessonResponse;
 import finalproject.backend.response.PageResponse;
 import finalproject.backend.service.CourseService;
+import finalproject.backend.service.CourseViewCounterService;
+import finalproject.backend.service.ContentVersionService;
+import finalproject.backend.util.ConditionalGetUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -16,14 +20,19 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/api/v1/courses")
 @RequiredArgsConstructor
 public class CourseController {
 
     private final CourseService courseService;
+    private final ContentVersionService contentVersionService;
+    private final CourseViewCounterService courseViewCounterService;
 
     @GetMapping
     public ResponseEntity<ApiResponse<PageResponse<CourseResponse>>> getAllCourses(
@@ -50,27 +59,59 @@ public class CourseController {
                 "Courses retrieved successfully"));
     }
 
+    /**
+     * GET /api/v1/courses/cursor?cursor={nextCursor}&size=10
+     * Infinite-scroll variant of GET /api/v1/courses — fixed (orderIndex, createdAt, id)
+     * ordering, opaque nextCursor, no total count.
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<ApiResponse<CursorPageResponse<CourseResponse>>> getCoursesByCursor(
+            @RequestParam(required = false)           String  cursor,
+            @RequestParam(defaultValue = "10")        int     size,
+            @RequestParam(required = false)           String  search,
+            @RequestParam(required = false)           String  status,
+            @RequestParam(required = false)           String  level,
+            @RequestParam(required = false)           Long    categoryId,
+            @RequestParam(required = false)           Boolean isFeatured,
+            @RequestParam(required = false)           Boolean isFree
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(
+                courseService.getCoursesByCursor(
+                        cursor, size, search, status, level, categoryId, isFeatured, isFree),
+                "Courses retrieved successfully"));
+    }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<CourseResponse>> getCourseById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<CourseResponse>> getCourseById(@PathVariable Long id, WebRequest request) {
+        if (courseNotModified(request, contentVersionService.forCourse(id)))
+            return null;
         return ResponseEntity.ok(courseService.getCourseById(id));
     }
 
     @GetMapping("/slug/{slug}")
-    public ResponseEntity<ApiResponse<CourseResponse>> getCourseBySlug(@PathVariable String slug) {
+    public ResponseEntity<ApiResponse<CourseResponse>> getCourseBySlug(@PathVariable String slug, WebRequest request) {
+        if (courseNotModified(request, contentVersionService.forCourseSlug(slug)))
+            return null;
         return ResponseEntity.ok(courseService.getCourseBySlug(slug));
     }
 
     @GetMapping("/slug/{slug}/full")
     public ResponseEntity<ApiResponse<CourseResponse>> getCourseWithChapters(
-            @PathVariable String slug) {
+            @PathVariable String slug,
+            WebRequest request) {
+        if (courseNotModified(request, contentVersionService.forCourseSlug(slug)))
+            return null;
         return ResponseEntity.ok(courseService.getCourseWithChapters(slug));
     }
 
     @GetMapping("/slug/{courseSlug}/lessons/{lessonSlug}")
     public ResponseEntity<ApiResponse<LessonResponse>> getLessonBySlug(
             @PathVariable String courseSlug,
-            @PathVariable String lessonSlug) {
+            @PathVariable String lessonSlug,
+            WebRequest request) {
+        if (ConditionalGetUtil.isNotModified(request, contentVersionService.forLessonSlug(courseSlug, lessonSlug),
+                v -> v.etag("lesson-" + lessonSlug)))
+            return null;
         return ResponseEntity.ok(courseService.getLessonBySlug(courseSlug, lessonSlug));
     }
 
@@ -145,4 +186,14 @@ public class CourseController {
     public ResponseEntity<ApiResponse<Void>> deleteCourse(@PathVariable Long id) {
         return ResponseEntity.ok(courseService.deleteCourse(id));
     }
+
+    /**
+     * Course payloads embed live view/enrollment counters, so they get a weak
+     * validator. A revalidated page view still counts as a view.
+     */
+    private boolean courseNotModified(WebRequest request, Optional<ContentVersionService.ContentVersion> version) {
+        boolean notModified = ConditionalGetUtil.isNotModified(request, version, v -> v.weakEtag("course"));
+        if (notModified) courseViewCounterService.recordView(version.get().courseId());
+        return notModified;
+    }
 }
@@ -2,11 +2,13 @@ package finalproject.backend.controller;
 
 import finalproject.backend.response.ApiResponse;
 import finalproject.backend.response.CoursePdfExportResponse;
+import finalproject.backend.response.PdfJobResponse;
 import finalproject.backend.service.CoursePdfExportService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -37,10 +39,31 @@ public class CoursePdfExportController {
         return ResponseEntity.ok(coursePdfExportService.incrementDownloadCount(courseId));
     }
 
+    /**
+     * 202 Accepted with the job — poll GET /jobs/{jobId} until DONE or FAILED.
+     * 200 with the current export when the content is unchanged (skip with ?force=true).
+     */
     @PostMapping("/{courseId}/generate")
-    public ResponseEntity<ApiResponse<CoursePdfExportResponse>> generate(
-            @PathVariable Long courseId) {
-        return ResponseEntity.ok(coursePdfExportService.generatePdf(courseId));
+    public ResponseEntity<ApiResponse<PdfJobResponse>> generate(
+            @PathVariable Long courseId,
+            @RequestParam(defaultValue = "false") boolean force) {
+        ApiResponse<PdfJobResponse> response = coursePdfExportService.generatePdf(courseId, force);
+        if (response.getData().getJobId() == null) {
+            return ResponseEntity.ok(response);
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/course/pdf/jobs/" + response.getData().getJobId()))
+                .body(response);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ApiResponse<PdfJobResponse>> getGenerationJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(coursePdfExportService.getGenerationJob(jobId));
+    }
+
+    @GetMapping("/{courseId}/job")
+    public ResponseEntity<ApiResponse<PdfJobResponse>> getLatestGenerationJob(@PathVariable Long courseId) {
+        return ResponseEntity.ok(coursePdfExportService.getLatestGenerationJob(courseId));
     }
 
     @DeleteMapping("/{courseId}")
@@ -4,11 +4,14 @@ import finalproject.backend.request.LessonRequest;
 import finalproject.backend.response.ApiResponse;
 import finalproject.backend.response.LessonResponse;
 import finalproject.backend.service.LessonService;
+import finalproject.backend.service.ContentVersionService;
+import finalproject.backend.util.ConditionalGetUtil;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -18,21 +21,55 @@ import java.util.List;
 public class LessonController {
 
     private final LessonService lessonService;
+    private final ContentVersionService contentVersionService;
 
     @GetMapping("/chapter/{chapterId}")
     public ResponseEntity<ApiResponse<List<LessonResponse>>> getLessonsByChapter(
-            @PathVariable Long chapterId) {
+            @PathVariable Long chapterId,
+            WebRequest request) {
+        if (ConditionalGetUtil.isNotModified(request, contentVersionService.forChapter(chapterId),
+                v -> v.etag("lessons-ch" + chapterId)))
+            return null;
         return ResponseEntity.ok(lessonService.getLessonsByChapter(chapterId));
     }
 
     @GetMapping("/course/{courseId}")
     public ResponseEntity<ApiResponse<List<LessonResponse>>> getLessonsByCourse(
-            @PathVariable Long courseId) {
+            @PathVariable Long courseId,
+            WebRequest request) {
+        if (ConditionalGetUtil.isNotModified(request, contentVersionService.forCourse(courseId),
+                v -> v.etag("lessons")))
+            return null;
         return ResponseEntity.ok(lessonService.getLessonsByCourse(courseId));
     }
 
+    /** Sidebar/navigation rows (id, slug, title, orderIndex, chapterId) — never reads lesson content. */
+    @GetMapping("/chapter/{chapterId}/outline")
+    public ResponseEntity<ApiResponse<List<LessonResponse>>> getLessonOutlineByChapter(
+            @PathVariable Long chapterId,
+            WebRequest request) {
+        if (ConditionalGetUtil.isNotModified(request, contentVersionService.forChapter(chapterId),
+                v -> v.etag("outline-ch" + chapterId)))
+            return null;
+        return ResponseEntity.ok(lessonService.getLessonOutlineByChapter(chapterId));
+    }
+
+    @GetMapping("/course/{courseId}/outline")
+    public ResponseEntity<ApiResponse<List<LessonResponse>>> getLessonOutlineByCourse(
+            @PathVariable Long courseId,
+            WebRequest request) {
+        if (ConditionalGetUtil.isNotModified(request, contentVersionService.forCourse(courseId),
+                v -> v.etag("outline")))
+            return null;
+        return ResponseEntity.ok(lessonService.getLessonOutlineByCourse(courseId));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<LessonResponse>> getLessonById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<LessonResponse>> getLessonById(@PathVariable Long id, WebRequest request) {
+        // Version lookup only — Lesson.content is not read unless the client copy is stale
+        if (ConditionalGetUtil.isNotModified(request, contentVersionService.forLesson(id),
+                v -> v.etag("lesson-" + id)))
+            return null;
         return ResponseEntity.ok(lessonService.getLessonById(id));
     }
 
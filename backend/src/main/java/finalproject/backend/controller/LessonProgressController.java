@@ -3,7 +3,10 @@ package finalproject.backend.controller;
 import finalproject.backend.modal.User;
 import finalproject.backend.request.LessonProgressRequest;
 import finalproject.backend.response.ApiResponse;
+import finalproject.backend.response.CompactCourseProgressResponse;
+import finalproject.backend.response.LessonProgressBatchItemResponse;
 import finalproject.backend.response.LessonProgressResponse;
+import finalproject.backend.response.ProgressStatsResponse;
 import finalproject.backend.service.LessonProgressService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -41,6 +44,19 @@ public class LessonProgressController {
         return ResponseEntity.ok(lessonProgressService.upsertProgress(request));
     }
 
+    /**
+     * POST /api/v1/lesson-progress/batch
+     * Replay progress for many lessons in one call (offline / mobile sync).
+     * Always 200 — each item reports SAVED, INVALID or NOT_FOUND in request order.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<List<LessonProgressBatchItemResponse>>> upsertProgressBatch(
+            Authentication authentication,
+            @RequestBody List<LessonProgressRequest> requests) {
+        Long userId = getAuthenticatedUserId(authentication);
+        return ResponseEntity.ok(lessonProgressService.upsertProgressBatch(userId, requests));
+    }
+
     /**
      * POST /api/v1/lesson-progress/complete?lessonId={id}
      * Mark a specific lesson as completed for the authenticated user.
@@ -102,6 +118,18 @@ public class LessonProgressController {
         return ResponseEntity.ok(lessonProgressService.getProgressByCourseAndUser(courseId, userId));
     }
 
+    /**
+     * GET /api/v1/lesson-progress/course/{courseId}/compact
+     * Sidebar view: delta-encoded lesson ids, scroll percentages and a completion bitmap.
+     */
+    @GetMapping("/course/{courseId}/compact")
+    public ResponseEntity<ApiResponse<CompactCourseProgressResponse>> getCompactProgressByCourse(
+            Authentication authentication,
+            @PathVariable Long courseId) {
+        Long userId = getAuthenticatedUserId(authentication);
+        return ResponseEntity.ok(lessonProgressService.getCompactProgress(courseId, userId));
+    }
+
     /**
      * GET /api/v1/lesson-progress/me/completed-count
      * Count completed lessons globally for the authenticated user.
@@ -112,6 +140,16 @@ public class LessonProgressController {
         return ResponseEntity.ok(lessonProgressService.countCompletedByUser(userId));
     }
 
+    /**
+     * GET /api/v1/lesson-progress/me/stats
+     * Completed lessons, courses touched / finished and total reading time.
+     */
+    @GetMapping("/me/stats")
+    public ResponseEntity<ApiResponse<ProgressStatsResponse>> getMyStats(Authentication authentication) {
+        Long userId = getAuthenticatedUserId(authentication);
+        return ResponseEntity.ok(lessonProgressService.getStatsForUser(userId));
+    }
+
     /**
      * GET /api/v1/lesson-progress/course/{courseId}/completed-count
      * Count completed lessons in a specific course for the authenticated user.
@@ -0,0 +1,49 @@
+package finalproject.backend.controller;
+
+import finalproject.backend.service.impl.LocalObjectStorage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves objects of {@link LocalObjectStorage} under the URLs it hands out
+ * (profile {@code local-storage}) — stands in for the CDN on a dev box.
+ */
+@RestController
+@Profile("local-storage")
+@RequiredArgsConstructor
+public class LocalStorageController {
+
+    private static final String PREFIX = "/local-storage/";
+
+    private final LocalObjectStorage localObjectStorage;
+
+    @GetMapping(PREFIX + "**")
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String key = URLDecoder.decode(path.substring(PREFIX.length()), StandardCharsets.UTF_8);
+
+        var stored = localObjectStorage.find(key);
+        if (stored.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        var metadata = stored.get().metadata();
+        response.setContentType(metadata.contentType());
+        response.setContentLengthLong(stored.get().size());
+        if (metadata.cacheControl() != null) response.setHeader(HttpHeaders.CACHE_CONTROL, metadata.cacheControl());
+        if (metadata.contentDisposition() != null) {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, metadata.contentDisposition());
+        }
+        localObjectStorage.transferTo(key, Channels.newChannel(response.getOutputStream()));
+    }
+}
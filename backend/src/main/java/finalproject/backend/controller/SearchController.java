@@ -0,0 +1,32 @@
+package finalproject.backend.controller;
+
+import finalproject.backend.response.ApiResponse;
+import finalproject.backend.response.SearchResultResponse;
+import finalproject.backend.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/search")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final SearchService searchService;
+
+    /**
+     * GET /api/v1/search?q=react&type=LESSON&page=0&size=10
+     * Ranked results across published courses, lessons and code snippets,
+     * with highlighted title and body fragments.
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<SearchResultResponse>>> search(
+            @RequestParam                      String q,
+            @RequestParam(required = false)    String type,
+            @RequestParam(defaultValue = "0")  int    page,
+            @RequestParam(defaultValue = "10") int    size) {
+        return ResponseEntity.ok(searchService.search(q, type, page, size));
+    }
+}
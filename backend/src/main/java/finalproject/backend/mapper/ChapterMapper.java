@@ -4,17 +4,14 @@ import finalproject.backend.modal.Chapter;
 import finalproject.backend.modal.Course;
 import finalproject.backend.request.ChapterRequest;
 import finalproject.backend.response.ChapterResponse;
-import lombok.RequiredArgsConstructor;
+import finalproject.backend.response.LessonResponse;
 import org.springframework.stereotype.Component;
 
-import java.util.stream.Collectors;
+import java.util.List;
 
 @Component
-@RequiredArgsConstructor
 public class ChapterMapper {
 
-    private final LessonMapper lessonMapper;
-
     public ChapterResponse toResponse(Chapter chapter) {
         return ChapterResponse.builder()
                 .id(chapter.getId())
@@ -30,8 +27,8 @@ public class ChapterMapper {
                 .build();
     }
 
-    /** Includes nested lessons — used for the /full course endpoint. */
-    public ChapterResponse toResponseWithLessons(Chapter chapter) {
+    /** Includes nested lessons — used for the /full course endpoint; lessons are outline rows (no content). */
+    public ChapterResponse toResponseWithLessons(Chapter chapter, Course course, List<LessonResponse> lessons) {
         return ChapterResponse.builder()
                 .id(chapter.getId())
                 .title(chapter.getTitle())
@@ -41,13 +38,9 @@ public class ChapterMapper {
                 .durationMinutes(chapter.getDurationMinutes())
                 .videoUrl(chapter.getVideoUrl())
                 .createdAt(chapter.getCreatedAt())
-                .courseId(chapter.getCourse() != null ? chapter.getCourse().getId() : null)
-                .courseTitle(chapter.getCourse() != null ? chapter.getCourse().getTitle() : null)
-                .lessons(chapter.getLessons() != null
-                        ? chapter.getLessons().stream()
-                                .map(lessonMapper::toSimpleResponse)
-                                .collect(Collectors.toList())
-                        : null)
+                .courseId(course != null ? course.getId() : null)
+                .courseTitle(course != null ? course.getTitle() : null)
+                .lessons(lessons)
                 .build();
     }
 
@@ -5,37 +5,117 @@ import finalproject.backend.modal.Course;
 import finalproject.backend.modal.CourseLevel;
 import finalproject.backend.modal.CourseStatus;
 import finalproject.backend.modal.User;
+import finalproject.backend.repository.CourseCategoryView;
+import finalproject.backend.repository.CourseEnrolledCountView;
+import finalproject.backend.repository.CourseInstructorView;
+import finalproject.backend.repository.CourseRepository;
 import finalproject.backend.repository.LessonProgressRepository;
 import finalproject.backend.request.CourseRequest;
 import finalproject.backend.response.CategorySummaryResponse;
 import finalproject.backend.response.CourseResponse;
+import finalproject.backend.service.ImageVariantService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
 public class CourseMapper {
 
     private final LessonProgressRepository lessonProgressRepository;
+    private final CourseRepository courseRepository;
+    private final ImageVariantService imageVariantService;
 
     public CourseResponse toResponse(Course course) {
         long enrolled = course.getId() != null
                 ? lessonProgressRepository.countDistinctUsersByCourseId(course.getId())
                 : 0L;
-        long views = course.getViewCount() != null ? course.getViewCount() : 0L;
-        List<Category> categories = course.getCategories() == null
+        List<CategorySummaryResponse> categories = course.getCategories() == null
                 ? List.of()
                 : course.getCategories().stream()
                 .sorted(Comparator
                         .comparing((Category category) -> category.getOrderIndex() == null ? Integer.MAX_VALUE : category.getOrderIndex())
                         .thenComparing(Category::getId))
+                .map(this::toCategorySummary)
+                .toList();
+        User instructor = course.getInstructor();
+
+        return buildResponse(course, enrolled, categories,
+                instructor != null ? instructor.getId() : null,
+                instructor != null ? instructor.getUsername() : null,
+                imageVariantService.srcset(course.getThumbnail()));
+    }
+
+    /**
+     * List-level variant of {@link #toResponse(Course)} for paged endpoints.
+     *
+     * Resolves enrolled counts, categories, instructors and thumbnail srcsets
+     * for the whole list with four queries in total instead of four per course, and never
+     * touches the lazy {@code categories} / {@code instructor} associations.
+     */
+    public List<CourseResponse> toResponses(List<Course> courses) {
+        if (courses == null || courses.isEmpty()) return List.of();
+
+        List<Long> courseIds = courses.stream()
+                .map(Course::getId)
+                .filter(Objects::nonNull)
+                .toList();
+        if (courseIds.isEmpty()) return courses.stream().map(this::toResponse).toList();
+
+        Map<Long, Long> enrolledByCourseId = lessonProgressRepository.countDistinctUsersByCourseIds(courseIds)
+                .stream()
+                .collect(Collectors.toMap(
+                        CourseEnrolledCountView::getCourseId,
+                        CourseEnrolledCountView::getEnrolledCount));
+
+        Map<Long, List<CategorySummaryResponse>> categoriesByCourseId = courseRepository.findCategoriesByCourseIds(courseIds)
+                .stream()
+                .sorted(Comparator
+                        .comparing((CourseCategoryView view) -> view.getOrderIndex() == null ? Integer.MAX_VALUE : view.getOrderIndex())
+                        .thenComparing(CourseCategoryView::getCategoryId))
+                .collect(Collectors.groupingBy(
+                        CourseCategoryView::getCourseId,
+                        Collectors.mapping(this::toCategorySummary, Collectors.toList())));
+
+        Map<Long, CourseInstructorView> instructorByCourseId = courseRepository.findInstructorsByCourseIds(courseIds)
+                .stream()
+                .collect(Collectors.toMap(
+                        CourseInstructorView::getCourseId,
+                        Function.identity(),
+                        (a, b) -> a));
+
+        Map<String, Map<String, String>> srcsetByThumbnail = imageVariantService.srcsets(
+                courses.stream().map(Course::getThumbnail).toList());
+
+        return courses.stream()
+                .map(course -> {
+                    CourseInstructorView instructor = instructorByCourseId.get(course.getId());
+                    return buildResponse(course,
+                            enrolledByCourseId.getOrDefault(course.getId(), 0L),
+                            categoriesByCourseId.getOrDefault(course.getId(), List.of()),
+                            instructor != null ? instructor.getInstructorId() : null,
+                            instructor != null ? instructor.getInstructorName() : null,
+                            srcsetByThumbnail.get(course.getThumbnail()));
+                })
                 .toList();
-        Category primaryCategory = categories.isEmpty() ? null : categories.get(0);
+    }
+
+    private CourseResponse buildResponse(Course course,
+                                         long enrolled,
+                                         List<CategorySummaryResponse> categories,
+                                         Long instructorId,
+                                         String instructorName,
+                                         Map<String, String> thumbnailSrcset) {
+        long views = course.getViewCount() != null ? course.getViewCount() : 0L;
+        CategorySummaryResponse primaryCategory = categories.isEmpty() ? null : categories.get(0);
 
         return CourseResponse.builder()
                 .id(course.getId())
@@ -43,6 +123,7 @@ public class CourseMapper {
                 .slug(course.getSlug())
                 .description(course.getDescription())
                 .thumbnail(course.getThumbnail())
+                .thumbnailSrcset(thumbnailSrcset)
                 .requirements(course.getRequirements())
                 .level(course.getLevel() != null ? course.getLevel().name() : null)
                 .language(course.getLanguage())
@@ -58,11 +139,11 @@ public class CourseMapper {
                 .createdAt(course.getCreatedAt())
                 .updatedAt(course.getUpdatedAt())
                 .publishedAt(course.getPublishedAt())
-                .instructorId(course.getInstructor() != null ? course.getInstructor().getId() : null)
-                .instructorName(course.getInstructor() != null ? course.getInstructor().getUsername() : null)
+                .instructorId(instructorId)
+                .instructorName(instructorName)
                 .categoryId(primaryCategory != null ? primaryCategory.getId() : null)
                 .categoryName(primaryCategory != null ? primaryCategory.getName() : null)
-                .categories(categories.stream().map(this::toCategorySummary).toList())
+                .categories(categories)
                 .build();
     }
 
@@ -130,4 +211,12 @@ public class CourseMapper {
                 .slug(category.getSlug())
                 .build();
     }
+
+    private CategorySummaryResponse toCategorySummary(CourseCategoryView view) {
+        return CategorySummaryResponse.builder()
+                .id(view.getCategoryId())
+                .name(view.getName())
+                .slug(view.getSlug())
+                .build();
+    }
 }
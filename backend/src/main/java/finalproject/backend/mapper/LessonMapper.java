@@ -3,6 +3,7 @@ package finalproject.backend.mapper;
 import finalproject.backend.modal.Chapter;
 import finalproject.backend.modal.Course;
 import finalproject.backend.modal.Lesson;
+import finalproject.backend.repository.LessonOutlineView;
 import finalproject.backend.request.LessonRequest;
 import finalproject.backend.response.LessonResponse;
 import org.springframework.stereotype.Component;
@@ -59,6 +60,34 @@ public class LessonMapper {
                 .build();
     }
 
+    /** Sidebar entry: id, slug, title, orderIndex and chapterId only. */
+    public LessonResponse toOutlineResponse(LessonOutlineView view) {
+        return LessonResponse.builder()
+                .id(view.getId())
+                .slug(view.getSlug())
+                .title(view.getTitle())
+                .orderIndex(view.getOrderIndex() != null ? view.getOrderIndex() : 0)
+                .chapterId(view.getChapterId())
+                .build();
+    }
+
+    /** Outline entry (no content) — parent titles are passed in to avoid lazy loads. */
+    public LessonResponse toOutlineResponse(LessonOutlineView view, Chapter chapter, Course course) {
+        return LessonResponse.builder()
+                .id(view.getId())
+                .title(view.getTitle())
+                .slug(view.getSlug())
+                .description(view.getDescription())
+                .orderIndex(view.getOrderIndex() != null ? view.getOrderIndex() : 0)
+                .createdAt(view.getCreatedAt())
+                .updatedAt(view.getUpdatedAt())
+                .chapterId(view.getChapterId())
+                .chapterTitle(chapter != null ? chapter.getTitle() : null)
+                .courseId(course != null ? course.getId() : null)
+                .courseTitle(course != null ? course.getTitle() : null)
+                .build();
+    }
+
     public Lesson toEntity(LessonRequest request, Chapter chapter, Course course) {
         return Lesson.builder()
                 .title(request.getTitle())
@@ -4,6 +4,7 @@ import finalproject.backend.modal.Course;
 import finalproject.backend.modal.Lesson;
 import finalproject.backend.modal.LessonProgress;
 import finalproject.backend.modal.User;
+import finalproject.backend.repository.LessonProgressStateView;
 import finalproject.backend.response.LessonProgressResponse;
 import org.springframework.stereotype.Component;
 
@@ -43,4 +44,28 @@ public class LessonProgressMapper {
                 .courseTotalLessons(course != null ? course.getTotalLessons() : null)
                 .build();
     }
+
+    /** Same shape from the single-query state projection (progress fields default when no row exists). */
+    public LessonProgressResponse toResponse(LessonProgressStateView state) {
+        if (state == null) return null;
+
+        return LessonProgressResponse.builder()
+                .id(state.getProgressId())
+                .completed(Boolean.TRUE.equals(state.getCompleted()))
+                .completedAt(state.getCompletedAt())
+                .scrollPct(state.getScrollPct()             != null ? state.getScrollPct()       : 0)
+                .readTimeSeconds(state.getReadTimeSeconds() != null ? state.getReadTimeSeconds() : 0)
+                .pdfDownloaded(Boolean.TRUE.equals(state.getPdfDownloaded()))
+                .pdfDownloadedAt(state.getPdfDownloadedAt())
+                .createdAt(state.getCreatedAt())
+                .updatedAt(state.getUpdatedAt())
+                .userId(state.getUserId())
+                .username(state.getUsername())
+                .lessonId(state.getLessonId())
+                .lessonTitle(state.getLessonTitle())
+                .courseId(state.getCourseId())
+                .courseTitle(state.getCourseTitle())
+                .courseTotalLessons(state.getCourseTotalLessons())
+                .build();
+    }
 }
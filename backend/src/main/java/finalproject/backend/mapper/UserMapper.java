@@ -5,18 +5,37 @@ import finalproject.backend.modal.User;
 import finalproject.backend.request.UpdateUserRequest;
 import finalproject.backend.request.UserRequest;
 import finalproject.backend.response.UserResponse;
+import finalproject.backend.service.ImageVariantService;
 import finalproject.backend.util.RoleUtil;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Component
+@RequiredArgsConstructor
 public class UserMapper {
 
+    private final ImageVariantService imageVariantService;
+
     // ─── Entity → Response (Builder) ─────────────────────────────────────────
 
     public UserResponse toResponse(User user) {
+        return buildResponse(user, imageVariantService.srcset(user.getProfilePicture()));
+    }
+
+    /** List variant of {@link #toResponse} — one srcset query for the whole list. */
+    public List<UserResponse> toResponses(List<User> users) {
+        Map<String, Map<String, String>> srcsetByPicture = imageVariantService.srcsets(
+                users.stream().map(User::getProfilePicture).toList());
+        return users.stream()
+                .map(user -> buildResponse(user, srcsetByPicture.get(user.getProfilePicture())))
+                .toList();
+    }
+
+    private UserResponse buildResponse(User user, Map<String, String> profilePictureSrcset) {
         return UserResponse.builder()
                 .id(user.getId())
                 .username(user.getUsername())
@@ -26,6 +45,7 @@ public class UserMapper {
                 .bio(user.getBio())
                 .status(user.getStatus())
                 .profilePicture(user.getProfilePicture())
+                .profilePictureSrcset(profilePictureSrcset)
                 .roles(rolesToList(user))
                 .loginAttempt(user.getLoginAttempt())
                 .createdAt(user.getCreatedAt())
@@ -33,6 +33,9 @@ public class Lesson {
     private String description;
 
     // ─── Document content ───────────
+    // Lazy: only selected when read (the build's hibernate-maven-plugin enhance
+    // step makes this work) — lists and outlines never pay for the TEXT body.
+    @Basic(fetch = FetchType.LAZY)
     @Column(columnDefinition = "TEXT")
     private String content;
 
@@ -4,6 +4,7 @@ import finalproject.backend.modal.Role;
 import finalproject.backend.modal.User;
 import finalproject.backend.repository.RoleRepository;
 import finalproject.backend.repository.UserRepository;
+import finalproject.backend.service.ActivityRollupService;
 import finalproject.backend.util.RoleUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,6 +21,7 @@ public class OAuthUserProvisioningService {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final ActivityRollupService activityRollupService;
 
     public User upsertOAuthUser(String email, String profilePictureUrl) {
         return userRepository.findByEmail(email)
@@ -75,6 +77,7 @@ public class OAuthUserProvisioningService {
                 .build();
 
         User savedUser = userRepository.save(newUser);
+        activityRollupService.recordNewUser(savedUser.getCreatedAt());
         log.info("Created new OAuth user: email={}, username={}", savedUser.getEmail(), savedUser.getUsername());
         return savedUser;
     }
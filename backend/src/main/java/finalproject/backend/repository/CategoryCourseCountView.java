@@ -0,0 +1,6 @@
+package finalproject.backend.repository;
+
+public interface CategoryCourseCountView {
+    String getName();
+    Long getCourses();
+}
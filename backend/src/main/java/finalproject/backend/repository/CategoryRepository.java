@@ -1,11 +1,14 @@
 package finalproject.backend.repository;
 
 import finalproject.backend.modal.Category;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -17,4 +20,23 @@ public interface CategoryRepository
     boolean existsBySlug(String slug);
     Optional<Category> findByName(String name);
     Optional<Category> findBySlug(String slug);
+
+    // ─── Dashboard aggregates ────────────────────────────────────────────────
+
+    @Query("""
+            SELECT COUNT(c) AS total,
+                   COALESCE(SUM(CASE WHEN c.isActive = true THEN 1 ELSE 0 END), 0) AS active
+            FROM Category c
+            """)
+    CategoryTotalsView countTotals();
+
+    /** Categories with at least one course, most courses first (ties by display order). */
+    @Query("""
+            SELECT cat.name AS name, COUNT(c) AS courses
+            FROM Category cat
+            JOIN cat.courses c
+            GROUP BY cat.id, cat.name, cat.orderIndex
+            ORDER BY COUNT(c) DESC, cat.orderIndex ASC
+            """)
+    List<CategoryCourseCountView> findTopByCourseCount(Pageable pageable);
 }
@@ -0,0 +1,6 @@
+package finalproject.backend.repository;
+
+public interface CategoryTotalsView {
+    Long getTotal();
+    Long getActive();
+}
@@ -0,0 +1,9 @@
+package finalproject.backend.repository;
+
+public interface CourseCategoryView {
+    Long getCourseId();
+    Integer getCategoryId();
+    String getName();
+    String getSlug();
+    Integer getOrderIndex();
+}
@@ -0,0 +1,6 @@
+package finalproject.backend.repository;
+
+public interface CourseEnrolledCountView {
+    Long getCourseId();
+    Long getEnrolledCount();
+}
@@ -0,0 +1,11 @@
+package finalproject.backend.repository;
+
+import finalproject.backend.modal.CourseLevel;
+import finalproject.backend.modal.CourseStatus;
+
+public interface CourseFacetCountView {
+    CourseLevel getLevel();
+    CourseStatus getStatus();
+    Boolean getFeatured();
+    Long getTotal();
+}
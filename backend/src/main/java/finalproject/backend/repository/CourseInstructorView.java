@@ -0,0 +1,7 @@
+package finalproject.backend.repository;
+
+public interface CourseInstructorView {
+    Long getCourseId();
+    Long getInstructorId();
+    String getInstructorName();
+}
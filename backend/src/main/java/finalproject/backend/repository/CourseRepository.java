@@ -6,8 +6,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,4 +27,43 @@ public interface CourseRepository extends JpaRepository<Course, Long>, JpaSpecif
     Page<Course> findByStatus(CourseStatus status, Pageable pageable);
 
     Page<Course> findByIsFeaturedTrueAndStatus(CourseStatus status, Pageable pageable);
+
+    List<Course> findTop5ByOrderByCreatedAtDesc();
+
+    // ─── Dashboard aggregates ────────────────────────────────────────────────
+
+    /** One row per (level, status, featured) combination — a handful of rows at most. */
+    @Query("""
+            SELECT c.level AS level,
+                   c.status AS status,
+                   c.isFeatured AS featured,
+                   COUNT(c) AS total
+            FROM Course c
+            GROUP BY c.level, c.status, c.isFeatured
+            """)
+    List<CourseFacetCountView> countByFacets();
+
+    // ─── Batch lookups for CourseMapper.toResponses ──────────────────────────
+
+    @Query("""
+            SELECT c.id AS courseId,
+                   cat.id AS categoryId,
+                   cat.name AS name,
+                   cat.slug AS slug,
+                   cat.orderIndex AS orderIndex
+            FROM Course c
+            JOIN c.categories cat
+            WHERE c.id IN :courseIds
+            """)
+    List<CourseCategoryView> findCategoriesByCourseIds(@Param("courseIds") Collection<Long> courseIds);
+
+    @Query("""
+            SELECT c.id AS courseId,
+                   i.id AS instructorId,
+                   i.username AS instructorName
+            FROM Course c
+            JOIN c.instructor i
+            WHERE c.id IN :courseIds
+            """)
+    List<CourseInstructorView> findInstructorsByCourseIds(@Param("courseIds") Collection<Long> courseIds);
 }
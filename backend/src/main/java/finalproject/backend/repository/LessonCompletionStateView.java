@@ -0,0 +1,8 @@
+package finalproject.backend.repository;
+
+/** Lesson → course plus whether the user already completed it (null when no progress row exists). */
+public interface LessonCompletionStateView {
+    Long getLessonId();
+    Long getCourseId();
+    Boolean getCompleted();
+}
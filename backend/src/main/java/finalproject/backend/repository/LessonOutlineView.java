@@ -0,0 +1,15 @@
+package finalproject.backend.repository;
+
+import java.time.LocalDateTime;
+
+/** Lesson row without the TEXT body — for outlines / course tree rendering. */
+public interface LessonOutlineView {
+    Long getId();
+    String getSlug();
+    String getTitle();
+    String getDescription();
+    Integer getOrderIndex();
+    Long getChapterId();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+}
@@ -7,7 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +20,48 @@ public interface LessonProgressRepository extends JpaRepository<LessonProgress,
 
     boolean existsByUserIdAndLessonId(Long userId, Long lessonId);
 
+    /**
+     * Lesson, user and current progress in one round trip — used by the heartbeat path.
+     * Empty when the lesson (or user) does not exist.
+     */
+    @Query("""
+            SELECT l.id AS lessonId,
+                   l.title AS lessonTitle,
+                   c.id AS courseId,
+                   c.title AS courseTitle,
+                   c.totalLessons AS courseTotalLessons,
+                   u.id AS userId,
+                   u.username AS username,
+                   lp.id AS progressId,
+                   lp.completed AS completed,
+                   lp.completedAt AS completedAt,
+                   lp.scrollPct AS scrollPct,
+                   lp.readTimeSeconds AS readTimeSeconds,
+                   lp.pdfDownloaded AS pdfDownloaded,
+                   lp.pdfDownloadedAt AS pdfDownloadedAt,
+                   lp.createdAt AS createdAt,
+                   lp.updatedAt AS updatedAt
+            FROM Lesson l
+            JOIN l.course c
+            JOIN User u ON u.id = :userId
+            LEFT JOIN LessonProgress lp ON lp.lesson.id = l.id AND lp.user.id = u.id
+            WHERE l.id = :lessonId
+            """)
+    Optional<LessonProgressStateView> findStateByUserIdAndLessonId(@Param("userId")   Long userId,
+                                                                   @Param("lessonId") Long lessonId);
+
+    /** Batch validation: one IN query resolves course ids and prior completion of every lesson. */
+    @Query("""
+            SELECT l.id AS lessonId,
+                   l.course.id AS courseId,
+                   lp.completed AS completed
+            FROM Lesson l
+            LEFT JOIN LessonProgress lp ON lp.lesson.id = l.id AND lp.user.id = :userId
+            WHERE l.id IN :lessonIds
+            """)
+    List<LessonCompletionStateView> findCompletionStatesByUserIdAndLessonIds(@Param("userId")    Long userId,
+                                                                             @Param("lessonIds") Collection<Long> lessonIds);
+
     // ─── By user ──────────────────────────────────────────────────────────────
 
     /** All progress for a user, newest activity first (for account page activity tab). */
@@ -58,22 +100,15 @@ public interface LessonProgressRepository extends JpaRepository<LessonProgress,
     @Query("SELECT COUNT(DISTINCT lp.user.id) FROM LessonProgress lp WHERE lp.lesson.course.id = :courseId")
     long countDistinctUsersByCourseId(@Param("courseId") Long courseId);
 
+    /** Batch variant of countDistinctUsersByCourseId — one GROUP BY for a whole page of courses. */
     @Query("""
             SELECT lp.lesson.course.id AS courseId,
-                   lp.user.id AS userId,
-                   MIN(lp.createdAt) AS firstSeenAt
-            FROM LessonProgress lp
-            GROUP BY lp.lesson.course.id, lp.user.id
-            """)
-    List<CourseEnrollmentFirstSeenView> findCourseEnrollmentFirstSeen();
-
-    @Query("""
-            SELECT lp.completedAt
+                   COUNT(DISTINCT lp.user.id) AS enrolledCount
             FROM LessonProgress lp
-            WHERE lp.completed = true
-              AND lp.completedAt IS NOT NULL
+            WHERE lp.lesson.course.id IN :courseIds
+            GROUP BY lp.lesson.course.id
             """)
-    List<LocalDateTime> findCompletedAtMoments();
+    List<CourseEnrolledCountView> countDistinctUsersByCourseIds(@Param("courseIds") Collection<Long> courseIds);
 
     /**
      * NEW: Count how many distinct courses a user has at least one completed lesson in.
@@ -0,0 +1,24 @@
+package finalproject.backend.repository;
+
+import java.time.LocalDateTime;
+
+/** Lesson + user + (optional) progress row of that pair — progress columns are null when no row exists yet. */
+public interface LessonProgressStateView {
+    Long getLessonId();
+    String getLessonTitle();
+    Long getCourseId();
+    String getCourseTitle();
+    Integer getCourseTotalLessons();
+    Long getUserId();
+    String getUsername();
+
+    Long getProgressId();
+    Boolean getCompleted();
+    LocalDateTime getCompletedAt();
+    Integer getScrollPct();
+    Integer getReadTimeSeconds();
+    Boolean getPdfDownloaded();
+    LocalDateTime getPdfDownloadedAt();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+}
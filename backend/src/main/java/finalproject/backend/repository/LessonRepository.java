@@ -1,7 +1,10 @@
 package finalproject.backend.repository;
 
 import finalproject.backend.modal.Lesson;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -28,4 +31,45 @@ public interface LessonRepository extends JpaRepository<Lesson, Long> {
     Optional<Lesson> findByChapterIdAndTitle(Long chapterId, String title);
     boolean existsByCourseIdAndSlug(Long courseId, String slug);
     Optional<Lesson> findByCourse_SlugAndSlug(String courseSlug, String lessonSlug);
+
+    // ─── Outline projections (never select `content`) ───────────────────────
+
+    /** Every lesson of a course without `content` — one query for the whole course tree. */
+    @Query("""
+            SELECT l.id AS id,
+                   l.slug AS slug,
+                   l.title AS title,
+                   l.description AS description,
+                   l.orderIndex AS orderIndex,
+                   l.chapter.id AS chapterId,
+                   l.createdAt AS createdAt,
+                   l.updatedAt AS updatedAt
+            FROM Lesson l
+            WHERE l.course.id = :courseId
+            ORDER BY l.orderIndex ASC, l.id ASC
+            """)
+    List<LessonOutlineView> findOutlinesByCourseId(@Param("courseId") Long courseId);
+
+    @Query("""
+            SELECT l.id AS id,
+                   l.slug AS slug,
+                   l.title AS title,
+                   l.description AS description,
+                   l.orderIndex AS orderIndex,
+                   l.chapter.id AS chapterId,
+                   l.createdAt AS createdAt,
+                   l.updatedAt AS updatedAt
+            FROM Lesson l
+            WHERE l.chapter.id = :chapterId
+            ORDER BY l.orderIndex ASC, l.id ASC
+            """)
+    List<LessonOutlineView> findOutlinesByChapterId(@Param("chapterId") Long chapterId);
+
+    // ─── Full lessons with the lazy `content` fetched in the same select ────
+
+    @EntityGraph(attributePaths = {"content"})
+    List<Lesson> findWithContentByChapterIdOrderByOrderIndexAsc(Long chapterId);
+
+    @EntityGraph(attributePaths = {"content"})
+    List<Lesson> findWithContentByCourseIdOrderByOrderIndexAsc(Long courseId);
 }
\ No newline at end of file
@@ -1,11 +1,13 @@
 package finalproject.backend.repository;
 
 import finalproject.backend.modal.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
@@ -22,4 +24,31 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     @Query("UPDATE User u SET u.loginAttempt = 0 WHERE u.username = :username")
     void resetLoginAttempt(String username);
 
+    @EntityGraph(attributePaths = {"roles"})
+    List<User> findTop5ByOrderByCreatedAtDesc();
+
+    /**
+     * Users per primary role (ADMIN &gt; MODERATOR &gt; USER, role names with or without
+     * the ROLE_ prefix) with the number of ACTIVE ones — one row per role.
+     */
+    @Query(value = """
+            SELECT per_user.role AS role,
+                   COUNT(*) AS total,
+                   COUNT(*) FILTER (WHERE per_user.active) AS active
+            FROM (
+                SELECT CASE
+                           WHEN bool_or(UPPER(TRIM(r.name)) IN ('ROLE_ADMIN', 'ADMIN')) THEN 'ADMIN'
+                           WHEN bool_or(UPPER(TRIM(r.name)) IN ('ROLE_MODERATOR', 'MODERATOR')) THEN 'MODERATOR'
+                           ELSE 'USER'
+                       END AS role,
+                       UPPER(COALESCE(u.status, '')) = 'ACTIVE' AS active
+                FROM users u
+                LEFT JOIN user_roles ur ON ur.user_id = u.id
+                LEFT JOIN roles r ON r.id = ur.role_id
+                GROUP BY u.id, u.status
+            ) per_user
+            GROUP BY per_user.role
+            """, nativeQuery = true)
+    List<UserRoleCountView> countByPrimaryRole();
+
 }
@@ -0,0 +1,7 @@
+package finalproject.backend.repository;
+
+public interface UserRoleCountView {
+    String getRole();
+    Long getTotal();
+    Long getActive();
+}
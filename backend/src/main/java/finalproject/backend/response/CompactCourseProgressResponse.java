@@ -0,0 +1,28 @@
+package finalproject.backend.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sidebar progress of one user in one course, position-aligned arrays:
+ *
+ * - lessonIds: every lesson of the course in ascending id order, delta-encoded
+ *   (first value absolute, then the gap to the previous id)
+ * - scrollPct: scroll percentage of lessonIds[i] (0 when never opened)
+ * - completed: bitmap, base64 of little-endian bytes — bit i set when lessonIds[i] is completed
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactCourseProgressResponse {
+
+    private Long courseId;
+    private int lessonCount;
+    private int completedCount;
+    private long[] lessonIds;
+    private int[] scrollPct;
+    private String completed;
+}
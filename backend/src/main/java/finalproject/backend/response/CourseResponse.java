@@ -9,9 +9,10 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -22,6 +23,7 @@ public class CourseResponse {
     private String slug;
     private String description;
     private String thumbnail;
+    private Map<String, String> thumbnailSrcset;  // resized renditions, "480w" → URL (absent for old uploads)
     private String requirements;
     private String level;
     private String language;
@@ -0,0 +1,26 @@
+package finalproject.backend.response;
+
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Keyset (cursor) page — no total count, just an opaque cursor for the next slice.
+ * Used for infinite scroll where PageResponse's count(*) would be wasted work.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPageResponse<T> {
+    private List<T> content;
+    private int pageSize;
+    private boolean hasNext;
+    private String nextCursor;   // null on the last page
+}
@@ -0,0 +1,33 @@
+package finalproject.backend.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Outcome of one entry of POST /api/v1/lesson-progress/batch, in request order. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LessonProgressBatchItemResponse {
+
+    public static final String SAVED     = "SAVED";
+    public static final String INVALID   = "INVALID";
+    public static final String NOT_FOUND = "NOT_FOUND";
+
+    private int index;
+    private Long lessonId;
+    private Long courseId;
+
+    /** SAVED, INVALID or NOT_FOUND. */
+    private String status;
+    private String message;
+
+    // Requested values as applied (only for SAVED)
+    private Boolean completed;
+    private Integer scrollPct;
+    private Integer readTimeSeconds;
+}
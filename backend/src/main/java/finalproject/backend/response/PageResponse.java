@@ -30,4 +30,15 @@ public class PageResponse<T> {
                 .build();
     }
 
+    /** Keeps the page metadata but swaps in content that was mapped as a whole list. */
+    public static <T> PageResponse<T> of(Page<?> page, List<T> content) {
+        return PageResponse.<T>builder()
+                .content(content)
+                .pageNumber(page.getNumber())
+                .pageSize(page.getSize())
+                .totalElements(page.getTotalElements())
+                .totalPages(page.getTotalPages())
+                .build();
+    }
+
 }
@@ -0,0 +1,31 @@
+package finalproject.backend.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/** State of an asynchronous PDF generation job; {@code export} is set once the job is DONE. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PdfJobResponse {
+
+    private Long jobId;
+    private Long courseId;
+    private String status;          // QUEUED, RENDERING, UPLOADING, DONE, FAILED
+    private int attempts;
+    private int maxAttempts;
+    private LocalDateTime nextAttemptAt;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+
+    private CoursePdfExportResponse export;
+}
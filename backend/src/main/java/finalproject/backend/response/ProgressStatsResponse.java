@@ -0,0 +1,23 @@
+package finalproject.backend.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressStatsResponse {
+
+    private long completedLessons;
+
+    /** Courses with at least one completed lesson. */
+    private long distinctCourses;
+
+    /** Courses where every lesson is completed. */
+    private long completedCourses;
+
+    private long totalReadTimeSeconds;
+}
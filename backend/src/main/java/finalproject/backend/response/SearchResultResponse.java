@@ -0,0 +1,34 @@
+package finalproject.backend.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SearchResultResponse {
+
+    private String type;                // COURSE / LESSON / SNIPPET
+    private Long id;
+    private double rank;
+
+    private String title;
+    private String highlightedTitle;    // HTML-escaped, matches wrapped in <mark>
+    private List<String> fragments;     // highlighted excerpts from the body
+
+    // Course
+    private Long courseId;
+    private String courseSlug;
+    private String courseTitle;
+
+    // Lesson (lessons and snippets)
+    private Long lessonId;
+    private String lessonSlug;
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
@@ -25,6 +26,10 @@ public class UserResponse {
         @JsonProperty("profile_picture")
         private String profilePicture;
 
+        // Square renditions, "96w" → URL (absent for old uploads)
+        @JsonProperty("profile_picture_srcset")
+        private Map<String, String> profilePictureSrcset;
+
         @JsonProperty("roles")
         private List<String> roles;
 
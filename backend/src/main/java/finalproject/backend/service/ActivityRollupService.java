@@ -0,0 +1,216 @@
+package finalproject.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Daily activity rollups behind the admin dashboard time series.
+ *
+ * WHY:  Every dashboard load pulled every user, the first-seen GROUP BY over
+ *       all of lesson_progress and every completion timestamp into memory just
+ *       to bucket them by day.
+ *
+ * HOW:  `activity_daily` keeps one row per day (new users, first enrollments,
+ *       lesson completions). Writes add to it in their own transaction:
+ *       user creation calls {@link #recordNewUser}, completions come through
+ *       {@link UserCourseProgressService} and first enrollments are counted by
+ *       its upsert when it inserts a new (user, course) row. The series read at
+ *       most 91 rows. A nightly job re-derives the most recent days from the
+ *       source tables (backfill) and folds days past the retention window into
+ *       `activity_monthly` (compaction). An empty table is backfilled on startup.
+ */
+@Slf4j
+@Service
+public class ActivityRollupService {
+
+    private static final String INCREMENT_SQL = """
+            INSERT INTO activity_daily (day, new_users, first_enrollments, completions)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (day) DO UPDATE SET
+                new_users         = activity_daily.new_users + EXCLUDED.new_users,
+                first_enrollments = activity_daily.first_enrollments + EXCLUDED.first_enrollments,
+                completions       = activity_daily.completions + EXCLUDED.completions
+            """;
+
+    // Source-of-truth aggregation for days >= ? (same definitions as the incremental path)
+    private static final String BACKFILL_SQL = """
+            INSERT INTO activity_daily (day, new_users, first_enrollments, completions)
+            SELECT d, SUM(u), SUM(e), SUM(c)
+            FROM (
+                SELECT created_at::date AS d, COUNT(*) AS u, 0 AS e, 0 AS c
+                FROM users WHERE created_at >= ? GROUP BY 1
+                UNION ALL
+                SELECT first_seen::date, 0, COUNT(*), 0
+                FROM (SELECT MIN(lp.created_at) AS first_seen
+                      FROM lesson_progress lp JOIN lessons l ON l.id = lp.lesson_id
+                      GROUP BY l.course_id, lp.user_id) firsts
+                WHERE first_seen >= ? GROUP BY 1
+                UNION ALL
+                SELECT completed_at::date, 0, 0, COUNT(*)
+                FROM lesson_progress WHERE is_completed AND completed_at >= ? GROUP BY 1
+            ) source
+            WHERE d IS NOT NULL
+            GROUP BY d
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int retentionDays;
+    private final int backfillDays;
+
+    public ActivityRollupService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.analytics.rollup-retention-days:400}") int retentionDays,
+            @Value("${app.analytics.rollup-backfill-days:2}") int backfillDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retentionDays = retentionDays;
+        this.backfillDays = backfillDays;
+    }
+
+    /** Counts of one series bucket (a day, or the week starting on {@code start}). */
+    public record ActivityBucket(LocalDate start, long newUsers, long firstEnrollments, long completions) {
+    }
+
+    private static final RowMapper<ActivityBucket> BUCKET_MAPPER = (rs, i) -> new ActivityBucket(
+            rs.getDate("bucket").toLocalDate(),
+            rs.getLong("new_users"),
+            rs.getLong("first_enrollments"),
+            rs.getLong("completions"));
+
+    // ── Schema / backfill ─────────────────────────────────────────────────────
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            jdbcTemplate.execute("""
+                    CREATE TABLE IF NOT EXISTS activity_daily (
+                        day               DATE    PRIMARY KEY,
+                        new_users         INTEGER NOT NULL DEFAULT 0,
+                        first_enrollments INTEGER NOT NULL DEFAULT 0,
+                        completions       INTEGER NOT NULL DEFAULT 0
+                    )
+                    """);
+            jdbcTemplate.execute("""
+                    CREATE TABLE IF NOT EXISTS activity_monthly (
+                        month             DATE    PRIMARY KEY,
+                        new_users         INTEGER NOT NULL DEFAULT 0,
+                        first_enrollments INTEGER NOT NULL DEFAULT 0,
+                        completions       INTEGER NOT NULL DEFAULT 0
+                    )
+                    """);
+            Boolean empty = jdbcTemplate.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM activity_daily)", Boolean.class);
+            if (Boolean.TRUE.equals(empty)) backfill(LocalDate.now().minusDays(retentionDays));
+        } catch (Exception e) {
+            log.warn("Activity rollup initialization skipped: {}", e.getMessage());
+        }
+    }
+
+    /** Replaces the rows of {@code from} .. today with counts derived from the source tables. */
+    @Transactional
+    public void backfill(LocalDate from) {
+        long started = System.currentTimeMillis();
+        jdbcTemplate.update("DELETE FROM activity_daily WHERE day >= ?", Date.valueOf(from));
+        Object fromTs = from.atStartOfDay();
+        int days = jdbcTemplate.update(BACKFILL_SQL, fromTs, fromTs, fromTs);
+        log.info("Activity rollup backfilled {} day(s) since {} in {} ms", days, from, System.currentTimeMillis() - started);
+    }
+
+    /** Re-derives the most recent days (drift from deletes) and compacts expired days. */
+    @Scheduled(cron = "${app.analytics.rollup-cron:0 15 3 * * *}")
+    @Transactional
+    public void reconcileAndCompact() {
+        backfill(LocalDate.now().minusDays(backfillDays));
+
+        Date cutoff = Date.valueOf(LocalDate.now().minusDays(retentionDays));
+        jdbcTemplate.update("""
+                INSERT INTO activity_monthly (month, new_users, first_enrollments, completions)
+                SELECT date_trunc('month', day)::date, SUM(new_users), SUM(first_enrollments), SUM(completions)
+                FROM activity_daily WHERE day < ?
+                GROUP BY 1
+                ON CONFLICT (month) DO UPDATE SET
+                    new_users         = activity_monthly.new_users + EXCLUDED.new_users,
+                    first_enrollments = activity_monthly.first_enrollments + EXCLUDED.first_enrollments,
+                    completions       = activity_monthly.completions + EXCLUDED.completions
+                """, cutoff);
+        int compacted = jdbcTemplate.update("DELETE FROM activity_daily WHERE day < ?", cutoff);
+        if (compacted > 0) log.info("Compacted {} daily activity row(s) into monthly rollups", compacted);
+    }
+
+    // ── Write paths (caller's transaction) ────────────────────────────────────
+
+    public void recordNewUser(LocalDateTime createdAt) {
+        increment(day(createdAt), 1, 0, 0);
+    }
+
+    /** Lesson completions (negative when completed progress is deleted) per day. */
+    public void recordCompletions(Map<LocalDate, Integer> completionsByDay) {
+        completionsByDay.forEach((day, count) -> {
+            if (count != 0) increment(day, 0, 0, count);
+        });
+    }
+
+    public void recordCompletions(List<LocalDateTime> moments, int sign) {
+        recordCompletions(moments.stream().collect(Collectors.groupingBy(
+                ActivityRollupService::day, Collectors.summingInt(m -> sign))));
+    }
+
+    private void increment(LocalDate day, int newUsers, int firstEnrollments, int completions) {
+        jdbcTemplate.update(INCREMENT_SQL, Date.valueOf(day), newUsers, firstEnrollments, completions);
+    }
+
+    // ── Reads ─────────────────────────────────────────────────────────────────
+
+    /** One bucket per day for the last {@code days} days (oldest first, gaps filled with zeros). */
+    public List<ActivityBucket> dailySeries(int days) {
+        LocalDate start = LocalDate.now().minusDays(days - 1L);
+        List<ActivityBucket> rows = jdbcTemplate.query("""
+                SELECT day AS bucket, new_users, first_enrollments, completions
+                FROM activity_daily WHERE day >= ? ORDER BY day
+                """, BUCKET_MAPPER, Date.valueOf(start));
+        return fill(start, days, 1, rows);
+    }
+
+    /** One bucket per ISO week (Monday start) for the last {@code weeks} weeks. */
+    public List<ActivityBucket> weeklySeries(int weeks, LocalDate currentWeekStart) {
+        LocalDate start = currentWeekStart.minusWeeks(weeks - 1L);
+        List<ActivityBucket> rows = jdbcTemplate.query("""
+                SELECT date_trunc('week', day)::date AS bucket,
+                       SUM(new_users) AS new_users,
+                       SUM(first_enrollments) AS first_enrollments,
+                       SUM(completions) AS completions
+                FROM activity_daily WHERE day >= ?
+                GROUP BY 1 ORDER BY 1
+                """, BUCKET_MAPPER, Date.valueOf(start));
+        return fill(start, weeks, 7, rows);
+    }
+
+    private static List<ActivityBucket> fill(LocalDate start, int buckets, int stepDays, List<ActivityBucket> rows) {
+        Map<LocalDate, ActivityBucket> byStart = rows.stream()
+                .collect(Collectors.toMap(ActivityBucket::start, Function.identity()));
+        List<ActivityBucket> series = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            LocalDate bucketStart = start.plusDays((long) i * stepDays);
+            series.add(byStart.getOrDefault(bucketStart, new ActivityBucket(bucketStart, 0, 0, 0)));
+        }
+        return series;
+    }
+
+    private static LocalDate day(LocalDateTime moment) {
+        return moment != null ? moment.toLocalDate() : LocalDate.now();
+    }
+}
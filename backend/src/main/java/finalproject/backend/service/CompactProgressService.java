@@ -0,0 +1,121 @@
+package finalproject.backend.service;
+
+import finalproject.backend.util.SingleFlightCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Per-(user, course) progress held as primitive arrays for the course sidebar.
+ *
+ * WHY:  The sidebar only needs "which lessons are done, how far was each one
+ *       read", but /lesson-progress/course/{id} returned a full
+ *       LessonProgressResponse per row with user, lesson and course titles.
+ *
+ * HOW:  One query fills a {@link CompactProgress}: the course's lesson ids in
+ *       ascending order, a scroll percentage byte per lesson and a completion
+ *       bitmap over the same positions. Entries are cached per (user, course)
+ *       in a {@link SingleFlightCache} tagged with the user id; progress writes
+ *       evict the user's entries, course structure changes evict everything.
+ */
+@Service
+public class CompactProgressService {
+
+    private static final int BASE_WEIGHT = 64;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SingleFlightCache<String, CompactProgress> cache;
+
+    public CompactProgressService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.cache.progress.max-weight:8000000}") long maxWeight,
+            @Value("${app.cache.progress.ttl-seconds:300}") long ttlSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = new SingleFlightCache<>("compact-progress", maxWeight, Duration.ofSeconds(ttlSeconds),
+                CompactProgressService::weigh, CompactProgress::userId);
+    }
+
+    /**
+     * Immutable snapshot; position i describes lessonIds[i].
+     * Callers overlaying unflushed heartbeats must copy scrollPct first.
+     */
+    public record CompactProgress(long userId, long courseId, long[] lessonIds, byte[] scrollPct, BitSet completed) {
+
+        public int indexOf(long lessonId) {
+            return Arrays.binarySearch(lessonIds, lessonId);
+        }
+    }
+
+    public CompactProgress get(long userId, long courseId) {
+        return cache.get(userId + ":" + courseId, () -> load(userId, courseId));
+    }
+
+    /** After any progress write of the user — now and again after commit. */
+    public void evictUser(Long userId) {
+        if (userId != null) afterCommitToo(() -> cache.invalidateTag(userId));
+    }
+
+    /** After lessons were added, removed or moved between courses. */
+    public void evictAll() {
+        afterCommitToo(cache::invalidateAll);
+    }
+
+    // ── internals ─────────────────────────────────────────────────────────────
+
+    private CompactProgress load(long userId, long courseId) {
+        Rows rows = new Rows();
+        jdbcTemplate.query("""
+                SELECT l.id, lp.scroll_pct, lp.is_completed
+                FROM lessons l
+                LEFT JOIN lesson_progress lp ON lp.lesson_id = l.id AND lp.user_id = ?
+                WHERE l.course_id = ?
+                ORDER BY l.id
+                """, rs -> {
+            rows.add(rs.getLong(1), rs.getInt(2), rs.getBoolean(3));
+        }, userId, courseId);
+        return new CompactProgress(userId, courseId, Arrays.copyOf(rows.ids, rows.size),
+                Arrays.copyOf(rows.scroll, rows.size), rows.completed);
+    }
+
+    /** Growable primitive buffers — no boxing per row. */
+    private static final class Rows {
+        long[] ids = new long[32];
+        byte[] scroll = new byte[32];
+        final BitSet completed = new BitSet();
+        int size;
+
+        void add(long lessonId, int scrollPct, boolean isCompleted) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                scroll = Arrays.copyOf(scroll, size * 2);
+            }
+            ids[size] = lessonId;
+            scroll[size] = (byte) Math.clamp(scrollPct, 0, 100);
+            if (isCompleted) completed.set(size);
+            size++;
+        }
+    }
+
+    /** Same two-step eviction as {@link ContentCacheService}: no reader can cache pre-commit state. */
+    private static void afterCommitToo(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private static int weigh(CompactProgress progress) {
+        return BASE_WEIGHT + progress.lessonIds().length * (Long.BYTES + 1) + progress.completed().size() / 8;
+    }
+}
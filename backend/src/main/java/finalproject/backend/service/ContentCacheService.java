@@ -0,0 +1,161 @@
+package finalproject.backend.service;
+
+import finalproject.backend.response.CategoryResponse;
+import finalproject.backend.response.ChapterResponse;
+import finalproject.backend.response.CodeSnippetResponse;
+import finalproject.backend.response.CourseResponse;
+import finalproject.backend.response.LessonResponse;
+import finalproject.backend.response.PageResponse;
+import finalproject.backend.util.SingleFlightCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for the public course / lesson / category payloads.
+ *
+ * WHY:  Published content only changes when an admin edits it, yet every
+ *       anonymous course-by-slug, lesson-by-slug and category request went to
+ *       Postgres and re-ran the mapping.
+ *
+ * HOW:  Fully mapped responses live in weight-bounded {@link SingleFlightCache}s
+ *       (one DB trip per slug under concurrent misses). Course and lesson
+ *       entries are tagged with their course id; the write paths call
+ *       {@link #evictCourse} / {@link #evictCategories} which drop the tag now
+ *       and again after commit, so no reader can re-cache the pre-write state.
+ *       Loaders run in their own read-only transaction, so only a miss takes
+ *       a pooled connection — callers must not wrap lookups in @Transactional.
+ *       Cached objects are shared — callers must copy before mutating.
+ *
+ *       {@code app.cache.content.max-weight} (approx. chars) is one budget for
+ *       all three caches — lessons get most of it. Unset (0) it is derived from
+ *       the heap: 1/32 of -Xmx in chars, about 1/16 of the heap in bytes.
+ */
+@Service
+public class ContentCacheService {
+
+    private static final int BASE_WEIGHT = 256;
+    // Chars per byte of max heap when no budget is configured (2 bytes a char → 1/16 of the heap)
+    private static final int HEAP_DIVISOR = 32;
+
+    private final SingleFlightCache<String, CourseResponse> courses;
+    private final SingleFlightCache<String, LessonResponse> lessons;
+    private final SingleFlightCache<String, Object> categories;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ContentCacheService(
+            @Value("${app.cache.content.max-weight:0}") long maxWeight,
+            @Value("${app.cache.content.ttl-seconds:600}") long ttlSeconds,
+            PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        long budget = maxWeight > 0 ? maxWeight : Runtime.getRuntime().maxMemory() / HEAP_DIVISOR;
+        // Lesson bodies dominate; course trees are outlines only
+        this.courses    = new SingleFlightCache<>("courses", budget / 4, ttl,
+                ContentCacheService::weigh, CourseResponse::getId);
+        this.lessons    = new SingleFlightCache<>("lessons", budget * 7 / 10, ttl,
+                ContentCacheService::weigh, LessonResponse::getCourseId);
+        // Categories are tiny and carry course counts — they are always dropped as a whole
+        this.categories = new SingleFlightCache<>("categories", budget / 20, ttl,
+                value -> BASE_WEIGHT, value -> "all");
+    }
+
+    // ── Reads ─────────────────────────────────────────────────────────────────
+
+    public CourseResponse getCourse(String slug, Supplier<CourseResponse> loader) {
+        return courses.get(slug, () -> load(loader));
+    }
+
+    public LessonResponse getLesson(String courseSlug, String lessonSlug, Supplier<LessonResponse> loader) {
+        return lessons.get(courseSlug + "/" + lessonSlug, () -> load(loader));
+    }
+
+    @SuppressWarnings("unchecked")
+    public PageResponse<CategoryResponse> getCategoryPage(String key, Supplier<PageResponse<CategoryResponse>> loader) {
+        return (PageResponse<CategoryResponse>) categories.get("page:" + key, () -> load(loader));
+    }
+
+    public CategoryResponse getCategory(String key, Supplier<CategoryResponse> loader) {
+        return (CategoryResponse) categories.get("one:" + key, () -> load(loader));
+    }
+
+    // ── Eviction (write paths) ────────────────────────────────────────────────
+
+    /** Course summary, course tree and every cached lesson of the course. */
+    public void evictCourse(Long courseId) {
+        if (courseId == null) return;
+        afterCommitToo(() -> {
+            courses.invalidateTag(courseId);
+            lessons.invalidateTag(courseId);
+        });
+    }
+
+    public void evictCourses(Collection<Long> courseIds) {
+        courseIds.stream().filter(Objects::nonNull).distinct().forEach(this::evictCourse);
+    }
+
+    public void evictCategories() {
+        afterCommitToo(categories::invalidateAll);
+    }
+
+    // ── helpers ───────────────────────────────────────────────────────────────
+
+    // Misses only — a hit returns before any connection is taken from the pool
+    private <T> T load(Supplier<T> loader) {
+        return readOnlyTransaction.execute(status -> loader.get());
+    }
+
+    /**
+     * Evicts immediately (stops in-flight loads from caching) and once more after
+     * commit — a reader between the two would otherwise cache uncommitted-old data.
+     */
+    private static void afterCommitToo(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    /** Approximate retained size in chars — dominated by TEXT bodies. */
+    private static int weigh(CourseResponse course) {
+        long weight = BASE_WEIGHT + length(course.getDescription()) + length(course.getRequirements());
+        if (course.getChapters() != null) {
+            for (ChapterResponse chapter : course.getChapters()) {
+                weight += BASE_WEIGHT + length(chapter.getContent()) + length(chapter.getDescription());
+                if (chapter.getLessons() != null) {
+                    for (LessonResponse lesson : chapter.getLessons()) weight += weigh(lesson);
+                }
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, weight);
+    }
+
+    private static int weigh(LessonResponse lesson) {
+        long weight = BASE_WEIGHT + length(lesson.getTitle()) + length(lesson.getDescription())
+                + length(lesson.getContent());
+        if (lesson.getCodeSnippets() != null) {
+            for (CodeSnippetResponse snippet : lesson.getCodeSnippets()) {
+                weight += BASE_WEIGHT + length(snippet.getCode()) + length(snippet.getExplanation());
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, weight);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
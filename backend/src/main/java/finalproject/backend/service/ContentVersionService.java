@@ -0,0 +1,144 @@
+package finalproject.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Per-course content version used for ETag / Last-Modified validators.
+ *
+ * WHY:  Content endpoints always returned a full 200 body; clients polling a
+ *       lesson re-downloaded its whole `content` TEXT every time.
+ *
+ * HOW:  `content_version` holds one counter per course, bumped by every
+ *       course / chapter / lesson / snippet / category write in the same
+ *       transaction ({@link #markChanged}). Controllers resolve the version
+ *       with a single indexed lookup — never touching heavy columns — and
+ *       answer 304 before any entity is loaded or mapped. The same hook drops
+ *       the course from {@link ContentCacheService}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContentVersionService {
+
+    private static final String BUMP_SQL = """
+            INSERT INTO content_version (course_id, version, updated_at)
+            VALUES (?, 1, now())
+            ON CONFLICT (course_id) DO UPDATE SET
+                version    = content_version.version + 1,
+                updated_at = now()
+            """;
+
+    // Shared projection: course id, version (0 until first edit) and last change time
+    private static final String SELECT_VERSION = """
+            SELECT c.id AS course_id,
+                   COALESCE(v.version, 0) AS version,
+                   COALESCE(v.updated_at, c.updated_at, c.created_at) AS updated_at
+            FROM course c
+            LEFT JOIN content_version v ON v.course_id = c.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ContentCacheService contentCacheService;
+
+    /** Validator for everything rendered from one course's content. */
+    public record ContentVersion(long courseId, long version, long lastModifiedMillis) {
+
+        /** Strong ETag — the representation is fully determined by the content version. */
+        public String etag(String resource) {
+            return "\"" + resource + "-c" + courseId + "-v" + version + "\"";
+        }
+
+        /** Weak ETag — for payloads that also embed live counters (views, enrollments). */
+        public String weakEtag(String resource) {
+            return "W/" + etag(resource);
+        }
+    }
+
+    private static final RowMapper<ContentVersion> ROW_MAPPER = (rs, i) -> {
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        return new ContentVersion(
+                rs.getLong("course_id"),
+                rs.getLong("version"),
+                updatedAt != null ? updatedAt.toLocalDateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1L);
+    };
+
+    // ── Schema ────────────────────────────────────────────────────────────────
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            jdbcTemplate.execute("""
+                    CREATE TABLE IF NOT EXISTS content_version (
+                        course_id  BIGINT    PRIMARY KEY,
+                        version    BIGINT    NOT NULL,
+                        updated_at TIMESTAMP NOT NULL DEFAULT now()
+                    )
+                    """);
+            // Rows of courses that no longer exist (deleted, or schema recreated by ddl-auto)
+            jdbcTemplate.update("DELETE FROM content_version v WHERE NOT EXISTS (SELECT 1 FROM course c WHERE c.id = v.course_id)");
+        } catch (Exception e) {
+            log.warn("Content version initialization skipped: {}", e.getMessage());
+        }
+    }
+
+    // ── Write paths ───────────────────────────────────────────────────────────
+
+    /** Bumps the version of each course and evicts its cached payloads. */
+    public void markChanged(Collection<Long> courseIds) {
+        List<Long> ids = courseIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) return;
+        jdbcTemplate.batchUpdate(BUMP_SQL, ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+        contentCacheService.evictCourses(ids);
+    }
+
+    public void markChanged(Long courseId) {
+        if (courseId != null) markChanged(List.of(courseId));
+    }
+
+    // ── Lookups (no entity loading) ───────────────────────────────────────────
+
+    public Optional<ContentVersion> forCourse(Long courseId) {
+        return single(SELECT_VERSION + " WHERE c.id = ?", courseId);
+    }
+
+    public Optional<ContentVersion> forCourseSlug(String slug) {
+        return single(SELECT_VERSION + " WHERE c.slug = ?", slug);
+    }
+
+    public Optional<ContentVersion> forChapter(Long chapterId) {
+        return single(SELECT_VERSION + " JOIN chapters ch ON ch.course_id = c.id WHERE ch.id = ?", chapterId);
+    }
+
+    public Optional<ContentVersion> forLesson(Long lessonId) {
+        return single(SELECT_VERSION + " JOIN lessons l ON l.course_id = c.id WHERE l.id = ?", lessonId);
+    }
+
+    public Optional<ContentVersion> forLessonSlug(String courseSlug, String lessonSlug) {
+        return single(SELECT_VERSION + " JOIN lessons l ON l.course_id = c.id WHERE c.slug = ? AND l.slug = ?",
+                courseSlug, lessonSlug);
+    }
+
+    public Optional<ContentVersion> forSnippet(Long snippetId) {
+        return single(SELECT_VERSION + """
+                 JOIN lessons l ON l.course_id = c.id
+                 JOIN code_snippets s ON s.lesson_id = l.id
+                WHERE s.id = ?""", snippetId);
+    }
+
+    private Optional<ContentVersion> single(String sql, Object... args) {
+        return jdbcTemplate.query(sql, ROW_MAPPER, args).stream().findFirst();
+    }
+}
@@ -2,6 +2,7 @@ package finalproject.backend.service;
 
 import finalproject.backend.response.ApiResponse;
 import finalproject.backend.response.CoursePdfExportResponse;
+import finalproject.backend.response.PdfJobResponse;
 
 import java.util.List;
 
@@ -15,7 +16,17 @@ public interface CoursePdfExportService {
     ApiResponse<CoursePdfExportResponse> incrementDownloadCount(Long courseId);
     ApiResponse<Void> deletePdfExport(Long courseId);
 
-    /** Generate (or regenerate) the PDF for the given course and persist the metadata. */
-    ApiResponse<CoursePdfExportResponse> generatePdf(Long courseId);
+    /**
+     * Queues (re)generation of the course PDF and returns the job at once;
+     * a job already active for the course is returned instead of a new one.
+     * Unless {@code force} is set, a course whose content is unchanged since
+     * the last export gets that export back (status DONE, no job id).
+     */
+    ApiResponse<PdfJobResponse> generatePdf(Long courseId, boolean force);
+
+    ApiResponse<PdfJobResponse> getGenerationJob(Long jobId);
+
+    /** Most recent generation job of the course, whatever its state. */
+    ApiResponse<PdfJobResponse> getLatestGenerationJob(Long courseId);
 }
 
@@ -2,46 +2,79 @@ package finalproject.backend.service;
 
 import jakarta.annotation.PostConstruct;
 import com.microsoft.playwright.*;
-import com.microsoft.playwright.options.LoadState;
-import com.microsoft.playwright.options.Margin;
 import com.microsoft.playwright.options.WaitUntilState;
+import com.google.gson.JsonObject;
+import finalproject.backend.exception.CustomMessageException;
 import finalproject.backend.modal.Chapter;
 import finalproject.backend.modal.CodeSnippet;
 import finalproject.backend.modal.Course;
 import finalproject.backend.modal.Lesson;
+import finalproject.backend.util.SyntaxHighlighter;
+import finalproject.backend.util.VirtualThreadScope;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.ObjectProvider;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.multipdf.PDFMergerUtility;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.destination.PDPageFitDestination;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
  * Generates course PDFs via Playwright (headless Chromium).
  *
  * ── Speed optimisations ────────────────────────────────────────────────
  *  1. SINGLETON BROWSER  — injected from PlaywrightConfig and created lazily
- *     on first PDF request, not during web-service startup.
+ *     on first PDF request, not during web-service startup. Renders borrow a
+ *     ready page from {@link PlaywrightPagePool} (bounded, admission-queued).
  *
- *  2. INLINED PRISM BUNDLE — Prism assets loaded from classpath resources
- *     and embedded as a single <script> block. No runtime CDN dependency.
+ *  2. SERVER-SIDE HIGHLIGHTING — snippets are tokenized in Java
+ *     ({@link SyntaxHighlighter}) and arrive pre-colored with Prism token
+ *     classes; highlighted code is cached per (language, code hash). The
+ *     document carries no script at all.
  *
- *  3. INLINED PRISM CSS — theme + line-numbers CSS embedded in <style>.
- *     Saves extra asset round-trips per request.
+ *  3. INLINED PRISM CSS — the theme CSS embedded in <style>; line numbers
+ *     are plain CSS counters. No runtime CDN dependency.
  *
- *  4. RESOURCE BLOCKING — images / media aborted at browser level.
+ *  4. RESOURCE BLOCKING — images / media aborted at browser level
+ *     (installed once per pooled context).
  *
- *  5. SINGLE COMBINED WAIT — fonts + Prism checked in one JS poll.
- *     The hardcoded 500 ms sleep is removed.
+ *  5. NO READY POLLING — the page is printed once it has loaded and its
+ *     fonts are ready; nothing runs in the page after load.
+ *
+ *  6. CHAPTER DOCUMENTS — the front matter, every chapter and the closing
+ *     page are printed as separate PDFs and merged with PDFBox. Chapter PDFs
+ *     are cached on disk by content hash ({@link PdfFragmentCache}), so an
+ *     edit re-renders only the chapter it touched, and Chromium never holds
+ *     more than one chapter's DOM. Parts are built on virtual threads, at
+ *     most one per pooled page; the Playwright driver still prints them one
+ *     at a time.
  * ──────────────────────────────────────────────────────────────────────
  */
 @Slf4j
@@ -49,48 +82,36 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CoursePdfGeneratorService {
 
-    // ── Injected singleton browser provider (from PlaywrightConfig) ───────
-    private final ObjectProvider<Browser> browserProvider;
+    // ── Pooled, pre-configured pages over the singleton browser ──────────
+    private final PlaywrightPagePool pagePool;
+    private final PdfFragmentCache fragmentCache;
     @Value("${app.pdf.browser-warmup-enabled:false}")
     private boolean browserWarmupEnabled;
 
-    private static final List<String> PRISM_RESOURCE_PATHS = List.of(
-            "/pdf/prism.min.js",
-            "/pdf/prism-markup-templating.min.js",
-            "/pdf/prism-typescript.min.js",
-            "/pdf/prism-jsx.min.js",
-            "/pdf/prism-tsx.min.js",
-            "/pdf/prism-java.min.js",
-            "/pdf/prism-python.min.js",
-            "/pdf/prism-sql.min.js",
-            "/pdf/prism-bash.min.js",
-            "/pdf/prism-json.min.js",
-            "/pdf/prism-kotlin.min.js",
-            "/pdf/prism-dart.min.js",
-            "/pdf/prism-php.min.js",
-            "/pdf/prism-c.min.js",
-            "/pdf/prism-cpp.min.js",
-            "/pdf/prism-swift.min.js",
-            "/pdf/prism-go.min.js",
-            "/pdf/prism-rust.min.js",
-            "/pdf/prism-csharp.min.js",
-            "/pdf/prism-yaml.min.js",
-            "/pdf/prism-docker.min.js",
-            "/pdf/prism-graphql.min.js",
-            "/pdf/prism-line-numbers.min.js"
-    );
+    // ── Template version ──────────────────────────────────────────────────
+    // Part of the export content fingerprint (PdfJobService): bump it whenever
+    // the HTML template, CSS or bundled assets change so existing PDFs re-render.
+    public static final String TEMPLATE_VERSION = "2026.10-4";
 
     // ── Timeouts ──────────────────────────────────────────────────────────
     private static final double CONTENT_TIMEOUT_MS = 60_000;
-    private static final double ASSET_TIMEOUT_MS   = 15_000;
+    private static final double A4_WIDTH_IN = 8.27;
+    private static final double A4_HEIGHT_IN = 11.69;
+    // Chunk size for the CDP stream reads and the page-count scan
+    private static final int STREAM_CHUNK_BYTES = 1 << 20;
+    // Chapter sections are numbered after the cover and the table of contents
+    private static final int FRONT_PAGES = 2;
 
     // ── Code-block split threshold ────────────────────────────────────────
     private static final int CODE_SPLIT_THRESHOLD = 38;
 
+    // ── Precompiled text patterns ─────────────────────────────────────────
+    private static final Pattern HTML_TAG        = Pattern.compile("<[^>]+>");
+    private static final Pattern REPEATED_BLANKS = Pattern.compile("[ \\t]{2,}");
+    private static final Pattern OUTPUT_PREFIX   = Pattern.compile("output ?:\\s*", Pattern.CASE_INSENSITIVE);
+
     // ── Pre-fetched assets (populated once on first use) ──────────────────
-    private String prismBundle         = "";
     private String prismThemeCss       = "";
-    private String prismLineNumbersCss = "";
     private String localFontsCss       = "";
     private String logoDataUri         = "";
     private final Object prismLock = new Object();
@@ -117,19 +138,13 @@ public class CoursePdfGeneratorService {
             long t0 = System.currentTimeMillis();
 
             prismThemeCss = readRequiredResource("/pdf/prism-tomorrow.min.css");
-            prismLineNumbersCss = readRequiredResource("/pdf/prism-line-numbers.min.css");
             localFontsCss = readOptionalResource("/pdf/fonts.css");
             logoDataUri = readOptionalBinaryResource("/pdf/growth.png", "image/png");
-
-            StringBuilder sb = new StringBuilder();
-            for (String path : PRISM_RESOURCE_PATHS) {
-                sb.append(readRequiredResource(path)).append('\n');
-            }
-            prismBundle = sb.toString();
             prismAssetsLoaded = true;
 
             log.info("✅ PDF assets ready — {} KB in {} ms",
-                    prismBundle.length() / 1024, System.currentTimeMillis() - t0);
+                    (prismThemeCss.length() + localFontsCss.length() + logoDataUri.length()) / 1024,
+                    System.currentTimeMillis() - t0);
         }
     }
 
@@ -145,13 +160,11 @@ public class CoursePdfGeneratorService {
 
     private void warmBrowser() {
         try {
-            Browser browser = browserProvider.getObject();
-            try (BrowserContext ctx = browser.newContext(
-                    new Browser.NewContextOptions().setLocale("km-KH"))) {
-                Page page = ctx.newPage();
+            pagePool.prewarm();
+            pagePool.withPage(page -> {
                 page.setContent("<html><body>Warmup</body></html>");
-                page.pdf(new Page.PdfOptions().setFormat("A4"));
-            }
+                return page.pdf(new Page.PdfOptions().setFormat("A4"));
+            });
             log.info("✅ Playwright PDF warmup complete");
         } catch (Exception e) {
             log.warn("Playwright warmup failed: {}", e.getMessage());
@@ -200,84 +213,247 @@ public class CoursePdfGeneratorService {
     //  PUBLIC generate()
     // ═══════════════════════════════════════════════════════════════════
 
-    public byte[] generate(Course course) {
+    /** The rendered PDF on disk — size and page count are read from the file, not from a heap copy. */
+    public record RenderedPdf(Path file, long sizeBytes, int pages) {}
+
+    /**
+     * Renders the course into {@code target}. The front matter, each chapter
+     * and the closing page are printed separately (unchanged chapters come
+     * from {@link PdfFragmentCache}) and merged in order, with one bookmark
+     * per chapter. Chromium hands every part back as a stream (CDP
+     * {@code Page.printToPDF} with {@code ReturnAsStream}) copied to a file,
+     * and PDFBox merges through temp-file buffers — no document is ever held
+     * in memory as a whole, however large the course.
+     */
+    public RenderedPdf generate(Course course, Path target) {
         long t0 = System.currentTimeMillis();
         log.info("🖨️  Generating PDF — course='{}'", course.getSlug());
         ensurePrismAssetsLoaded();
-        Browser browser = browserProvider.getObject();
-
-        try (BrowserContext ctx = browser.newContext(
-                new Browser.NewContextOptions().setLocale("km-KH"))) {
-
-            // Block images / media — they are never needed for PDF
-            ctx.route("**/*", route -> {
-                String type = route.request().resourceType();
-                if (type.equals("image") || type.equals("media")
-                        || type.equals("websocket") || type.equals("other"))
-                    route.abort();
-                else
-                    route.resume();
-            });
 
-            Page page = ctx.newPage();
-            page.setDefaultTimeout(CONTENT_TIMEOUT_MS);
-
-            page.setContent(buildHtml(course),
-                    new Page.SetContentOptions()
-                            .setTimeout(CONTENT_TIMEOUT_MS)
-                            .setWaitUntil(WaitUntilState.DOMCONTENTLOADED));
-
-            waitForReady(page);
+        Path partsDir = null;
+        try (PdfFragmentCache.Session cache = fragmentCache.open()) {
+            partsDir = Files.createTempDirectory("course-pdf-parts-");
+            Path front = partsDir.resolve("front.pdf");
+            Path back  = partsDir.resolve("back.pdf");
+
+            // HTML is built on the forked thread, before it waits for a pooled page
+            List<Chapter> chapters = course.getChapters();
+            List<Supplier<Path>> chapterPdfs = new ArrayList<>(chapters.size());
+            try (VirtualThreadScope scope = new VirtualThreadScope(pagePool.size())) {
+                scope.fork(() -> renderPart(frontMatter(course), front));
+                int ci = 0;
+                for (Chapter ch : chapters) {
+                    int number = ++ci;
+                    chapterPdfs.add(scope.fork(() -> cache.chapter(ch, number,
+                            file -> renderPart(document(chapterPage(ch, number)), file))));
+                }
+                scope.fork(() -> renderPart(document(footerInfoPage()), back));
+                scope.join();
+            }
 
-            byte[] pdf = page.pdf(new Page.PdfOptions()
-                    .setFormat("A4")
-                    .setPrintBackground(true)
-                    .setMargin(new Margin()
-                            .setTop("0mm").setBottom("0mm")
-                            .setLeft("0mm").setRight("0mm")));
+            List<Path> parts = new ArrayList<>(chapters.size() + 2);
+            parts.add(front);
+            chapterPdfs.forEach(pdf -> parts.add(pdf.get()));
+            parts.add(back);
+            merge(parts, chapters, target);
 
-            log.info("✅ PDF done — '{}' in {} ms",
-                    course.getSlug(), System.currentTimeMillis() - t0);
+            RenderedPdf pdf = new RenderedPdf(target, Files.size(target), countPages(target));
+            log.info("✅ PDF done — '{}' {} KB, {} pages in {} ms", course.getSlug(),
+                    pdf.sizeBytes() / 1024, pdf.pages(), System.currentTimeMillis() - t0);
             return pdf;
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomMessageException("PDF generation interrupted",
+                    String.valueOf(HttpStatus.SERVICE_UNAVAILABLE.value()));
+        } catch (CustomMessageException e) {
+            // Renderer busy — let the caller (job queue) retry later
+            throw e;
         } catch (Exception e) {
             log.error("❌ PDF failed — {}: {}", course.getId(), e.getMessage(), e);
             throw new RuntimeException("PDF generation failed: " + e.getMessage(), e);
+        } finally {
+            deleteRecursively(partsDir);
         }
     }
 
-    // Single combined wait — replaces 3 sequential waitForFunction calls + 500 ms sleep
-    private void waitForReady(Page page) {
-        try {
-            page.waitForLoadState(LoadState.NETWORKIDLE,
-                    new Page.WaitForLoadStateOptions().setTimeout(ASSET_TIMEOUT_MS));
-        } catch (PlaywrightException e) {
-            log.warn("Network idle not reached: {}", e.getMessage());
+    /** Prints one standalone HTML document into {@code target} on a pooled page. */
+    private Path renderPart(String html, Path target) {
+        return pagePool.withPage(page -> {
+            page.setDefaultTimeout(CONTENT_TIMEOUT_MS);
+
+            page.setContent(html,
+                    new Page.SetContentOptions()
+                            .setTimeout(CONTENT_TIMEOUT_MS)
+                            .setWaitUntil(WaitUntilState.LOAD));
+            // Code is pre-highlighted — only the (local) fonts can still be pending
+            page.evaluate("() => document.fonts ? document.fonts.ready.then(() => true) : true");
+
+            try {
+                printToFile(page, target);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return target;
+        });
+    }
+
+    /**
+     * Appends {@code parts} in order into {@code target}. Sources stay open until
+     * the merged document is saved (PDFBox copies lazily); everything is buffered
+     * in temp files. Saved uncompressed, like Chromium's output, so
+     * {@link #countPages} still reads it.
+     */
+    static void merge(List<Path> parts, List<Chapter> chapters, Path target) throws IOException {
+        PDFMergerUtility merger = new PDFMergerUtility();
+        List<PDDocument> sources = new ArrayList<>(parts.size());
+        try (PDDocument merged = new PDDocument(IOUtils.createTempFileOnlyStreamCache())) {
+            PDDocumentOutline outline = new PDDocumentOutline();
+            for (int i = 0; i < parts.size(); i++) {
+                PDDocument source = Loader.loadPDF(parts.get(i).toFile(), IOUtils.createTempFileOnlyStreamCache());
+                sources.add(source);
+                int firstPage = merged.getNumberOfPages();
+                merger.appendDocument(merged, source);
+
+                // parts = front matter, chapters..., closing page
+                if (i > 0 && i <= chapters.size() && merged.getNumberOfPages() > firstPage) {
+                    PDPageFitDestination destination = new PDPageFitDestination();
+                    destination.setPage(merged.getPage(firstPage));
+                    PDOutlineItem bookmark = new PDOutlineItem();
+                    bookmark.setTitle("Chapter " + i + " · " + chapters.get(i - 1).getTitle());
+                    bookmark.setDestination(destination);
+                    outline.addLast(bookmark);
+                }
+            }
+            merged.getDocumentCatalog().setDocumentOutline(outline);
+            merged.save(target.toFile(), CompressParameters.NO_COMPRESSION);
+        } finally {
+            for (PDDocument source : sources) source.close();
         }
+    }
 
+    private static void deleteRecursively(Path dir) {
+        if (dir == null) return;
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Could not delete PDF part {}: {}", file, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Could not delete PDF parts {}: {}", dir, e.getMessage());
+        }
+    }
+
+    // Same output as page.pdf(A4, printBackground, zero margins), but streamed
+    private static void printToFile(Page page, Path target) throws IOException {
+        CDPSession cdp = page.context().newCDPSession(page);
         try {
-            page.waitForFunction(
-                    """
-                    () => {
-                      const fontsOk = !document.fonts || document.fonts.status === 'loaded';
-                      const prismOk = window.__prismDone === true;
-                      return fontsOk && prismOk;
+            JsonObject print = new JsonObject();
+            print.addProperty("printBackground", true);
+            print.addProperty("preferCSSPageSize", true);
+            print.addProperty("paperWidth", A4_WIDTH_IN);
+            print.addProperty("paperHeight", A4_HEIGHT_IN);
+            print.addProperty("marginTop", 0);
+            print.addProperty("marginBottom", 0);
+            print.addProperty("marginLeft", 0);
+            print.addProperty("marginRight", 0);
+            print.addProperty("transferMode", "ReturnAsStream");
+            String handle = cdp.send("Page.printToPDF", print).get("stream").getAsString();
+
+            JsonObject read = new JsonObject();
+            read.addProperty("handle", handle);
+            read.addProperty("size", STREAM_CHUNK_BYTES);
+            Base64.Decoder base64 = Base64.getDecoder();
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+                while (true) {
+                    JsonObject chunk = cdp.send("IO.read", read);
+                    String data = chunk.get("data").getAsString();
+                    if (!data.isEmpty()) {
+                        boolean encoded = chunk.has("base64Encoded") && chunk.get("base64Encoded").getAsBoolean();
+                        out.write(encoded ? base64.decode(data) : data.getBytes(StandardCharsets.ISO_8859_1));
                     }
-                    """,
-                    null,
-                    new Page.WaitForFunctionOptions()
-                            .setTimeout(ASSET_TIMEOUT_MS)
-                            .setPollingInterval(50));
-        } catch (PlaywrightException e) {
-            log.warn("Assets not fully ready: {}", e.getMessage());
+                    if (chunk.has("eof") && chunk.get("eof").getAsBoolean()) break;
+                }
+            } finally {
+                JsonObject close = new JsonObject();
+                close.addProperty("handle", handle);
+                cdp.send("IO.close", close);
+            }
+        } finally {
+            cdp.detach();
+        }
+    }
+
+    /**
+     * Counts page objects ({@code /Type /Page}, not {@code /Pages}) by scanning
+     * the file through a small buffer. Chromium writes page dictionaries
+     * uncompressed, so this matches what a PDF library would report.
+     */
+    static int countPages(Path pdf) throws IOException {
+        int pages = 0;
+        int state = 0;           // 0–5 = chars of "/Type" matched, 6 + n = n chars of "/Page" after it
+        boolean pending = false; // full "/Type /Page" seen — counts unless the next char is 's'
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(pdf), STREAM_CHUNK_BYTES)) {
+            int b;
+            while ((b = in.read()) != -1) {
+                if (pending) {
+                    pending = false;
+                    if (b != 's') pages++;
+                }
+                state = advancePageMatch(state, b);
+                if (state == PAGE_MATCHED) {
+                    pending = true;
+                    state = 0;
+                }
+            }
         }
+        return pending ? pages + 1 : pages;
+    }
+
+    private static final String TYPE_TOKEN = "/Type";
+    private static final String PAGE_TOKEN = "/Page";
+    private static final int PAGE_MATCHED = TYPE_TOKEN.length() + 1 + PAGE_TOKEN.length();
+
+    private static int advancePageMatch(int state, int b) {
+        int typeLen = TYPE_TOKEN.length();
+        if (state < typeLen) {
+            if (b == TYPE_TOKEN.charAt(state)) return state + 1;
+            return b == '/' ? 1 : 0;
+        }
+        if (state == typeLen) {
+            // optional whitespace between /Type and /Page
+            if (b == ' ' || b == '\n' || b == '\r' || b == '\t') return typeLen;
+            return b == '/' ? typeLen + 2 : 0;
+        }
+        int pos = state - typeLen - 1; // index into "/Page"
+        if (b == PAGE_TOKEN.charAt(pos)) return state + 1;
+        return b == '/' ? 1 : 0;
     }
 
     // ═══════════════════════════════════════════════════════════════════
     //  HTML BUILDER
     // ═══════════════════════════════════════════════════════════════════
 
-    private String buildHtml(Course course) {
+    /** Standalone document around {@code body} — every part carries the same head. */
+    private String document(String body) {
+        StringBuilder html = new StringBuilder(body.length() + 32 * 1024
+                + localFontsCss.length() + prismThemeCss.length());
+        return html.append("<!DOCTYPE html>\n<html lang=\"km\">\n<head>\n")
+                .append("<meta charset=\"UTF-8\">\n")
+                .append("<style>\n")
+                .append(localFontsCss).append('\n')
+                .append(prismThemeCss).append('\n')
+                .append(css())
+                .append("</style>\n</head>\n<body>\n")
+                .append(body)
+                .append("</body>\n</html>")
+                .toString();
+    }
+
+    private String frontMatter(Course course) {
         String level      = course.getLevel()      != null ? course.getLevel().toString() : "—";
         String lang       = course.getLanguage()   != null ? course.getLanguage()         : "Khmer";
         boolean isFree    = Boolean.TRUE.equals(course.getIsFree());
@@ -286,44 +462,22 @@ public class CoursePdfGeneratorService {
         String date       = LocalDate.now().format(DateTimeFormatter.ofPattern("dd MMMM yyyy"));
         int lessons       = course.getTotalLessons() != null ? course.getTotalLessons() : 0;
 
-        StringBuilder html = new StringBuilder();
-        html.append("<!DOCTYPE html>\n<html lang=\"km\">\n<head>\n")
-                .append("<meta charset=\"UTF-8\">\n")
-                .append("<style>\n")
-                .append(localFontsCss).append('\n')
-                .append(prismThemeCss).append('\n')
-                .append(prismLineNumbersCss).append('\n')
-                .append(css())
-                .append("</style>\n</head>\n<body>\n");
-
-        html.append(coverPage(course, level, lang, isFree, instructor, date, lessons));
-        html.append(tocPage(course));
+        StringBuilder body = new StringBuilder(64 * 1024 + logoDataUri.length());
+        body.append(coverPage(course, level, lang, isFree, instructor, date, lessons));
+        tocPage(body, course);
+        return document(body.toString());
+    }
 
+    /** The HTML of every part {@link #generate} prints, in print order (PdfHtmlBenchmark — no browser needed). */
+    List<String> htmlDocuments(Course course) {
+        ensurePrismAssetsLoaded();
+        List<String> documents = new ArrayList<>(course.getChapters().size() + 2);
+        documents.add(frontMatter(course));
         int ci = 0;
         for (Chapter ch : course.getChapters())
-            html.append(chapterPage(ch, ++ci));
-
-        html.append(footerInfoPage());
-
-        // Prism JS inlined — 1 script block instead of 22 CDN requests
-        html.append("<script>\n")
-                .append(prismBundle)
-                .append("\nwindow.__prismDone=false;")
-                .append("""
-                        setTimeout(() => {
-                          try {
-                            if (typeof Prism !== 'undefined') {
-                              Prism.highlightAll();
-                            }
-                          } finally {
-                            window.__prismDone = true;
-                          }
-                        }, 0);
-                        """)
-                .append("\n</script>\n")
-                .append("</body>\n</html>");
-
-        return html.toString();
+            documents.add(document(chapterPage(ch, ++ci)));
+        documents.add(document(footerInfoPage()));
+        return documents;
     }
 
     // ═══════════════════════════════════════════════════════════════════
@@ -386,47 +540,6 @@ public class CoursePdfGeneratorService {
         };
     }
 
-    private static String normalizeLanguage(String lang, String code) {
-        String raw = lang == null ? "" : lang.trim();
-        if (raw.isEmpty()) return detectLanguageFromCode(code);
-        String key = raw.toUpperCase()
-                .replace("-", "").replace("_", "").replace(" ", "");
-        return switch (key) {
-            case "JS", "JAVASCRIPT", "NODE", "NODEJS" -> "JAVASCRIPT";
-            case "TS", "TYPESCRIPT"                    -> "TYPESCRIPT";
-            case "JSX", "REACT", "REACTJS",
-                 "NEXT", "NEXTJS"                      -> "JSX";
-            case "TSX"                                 -> "TSX";
-            case "HTML", "HTML5", "XHTML", "XML"       -> "HTML";
-            case "PY", "PYTHON"                        -> "PYTHON";
-            case "SHELL", "BASH", "SH", "ZSH"         -> "BASH";
-            case "C#", "CS", "CSHARP"                 -> "CSHARP";
-            case "TXT", "TEXT", "PLAINTEXT", "CODE",
-                 "NONE", "NA", "N/A"                   -> detectLanguageFromCode(code);
-            default                                    -> raw.toUpperCase();
-        };
-    }
-
-    private static String detectLanguageFromCode(String code) {
-        if (code == null || code.isBlank()) return "JAVASCRIPT";
-        String s = code.strip();
-        if (s.startsWith("{") || s.startsWith("["))                                      return "JSON";
-        if (s.contains("import React") || s.contains(" from 'react'")
-                || s.contains("</") || s.contains("<>") || s.contains("className="))    return "JSX";
-        if (s.startsWith("<!DOCTYPE") || s.contains("<html") || s.contains("<div"))     return "HTML";
-        if (s.contains("public class") || s.contains("System.out.println")
-                || s.contains("@SpringBootApplication"))                                 return "JAVA";
-        if (s.contains("def ") || s.contains("import pandas") || s.contains("print(")) return "PYTHON";
-        if (s.contains("SELECT ") || s.contains("INSERT INTO")
-                || s.contains("CREATE TABLE"))                                           return "SQL";
-        if (s.startsWith("#!/bin/bash") || s.startsWith("#!/usr/bin/env bash")
-                || s.contains("echo "))                                                  return "BASH";
-        if (s.contains("{") && s.contains("}")
-                && (s.contains("=>") || s.contains("const ")
-                || s.contains("let ") || s.contains("function ")))                   return "JAVASCRIPT";
-        return "JAVASCRIPT";
-    }
-
     // ═══════════════════════════════════════════════════════════════════
     //  COVER PAGE
     // ═══════════════════════════════════════════════════════════════════
@@ -497,39 +610,44 @@ public class CoursePdfGeneratorService {
     //  TABLE OF CONTENTS
     // ═══════════════════════════════════════════════════════════════════
 
-    private String tocPage(Course course) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("""
+    private void tocPage(StringBuilder out, Course course) {
+        out.append("""
             <div class="page inner-page">
-              <div class="pg-header"><span class="pg-site">codegrowthkh.site</span><span class="pg-title">%s</span></div>
+              <div class="pg-header"><span class="pg-site">codegrowthkh.site</span><span class="pg-title">""");
+        esc(out, course.getTitle()).append("""
+            </span></div>
               <div class="toc-eyebrow">TABLE OF CONTENTS</div>
               <div class="toc-heading">តារាងមាតិកា <span class="toc-heading-sub">/ Table of Contents</span></div>
               <div class="toc-rule"></div>
-            """.formatted(esc(course.getTitle())));
+            """);
 
         int ci = 0;
         for (Chapter ch : course.getChapters()) {
             ci++;
-            sb.append("""
+            out.append("""
                 <div class="toc-chapter">
-                  <div class="toc-ch-num">%d</div>
+                  <div class="toc-ch-num">""").append(ci).append("""
+                </div>
                   <div class="toc-ch-body">
-                    <div class="toc-ch-title">%s</div>
-                    <div class="toc-ch-count">%d lessons</div>
+                    <div class="toc-ch-title">""");
+            esc(out, ch.getTitle()).append("""
+                </div>
+                    <div class="toc-ch-count">""").append(ch.getLessons().size()).append("""
+                 lessons</div>
                   </div>
                 </div>
-                """.formatted(ci, esc(ch.getTitle()), ch.getLessons().size()));
+                """);
             int li = 0;
             for (Lesson ls : ch.getLessons()) {
                 li++;
-                String altBg = (li % 2 == 0) ? " style=\"background:rgba(47,141,70,0.035);\"" : "";
-                sb.append("<div class=\"toc-lesson\"%s>".formatted(altBg))
-                        .append("<span class=\"toc-ls-num\">%d.%d</span>".formatted(ci, li))
-                        .append("<span class=\"toc-ls-title\">").append(esc(ls.getTitle())).append("</span>")
-                        .append("<span class=\"toc-ls-dots\"></span></div>\n");
+                out.append("<div class=\"toc-lesson\"")
+                        .append((li % 2 == 0) ? " style=\"background:rgba(47,141,70,0.035);\"" : "")
+                        .append("><span class=\"toc-ls-num\">").append(ci).append('.').append(li)
+                        .append("</span><span class=\"toc-ls-title\">");
+                esc(out, ls.getTitle()).append("</span><span class=\"toc-ls-dots\"></span></div>\n");
             }
         }
-        sb.append("""
+        out.append("""
               <div class="pg-footer">
                 <span class="pf-brand">CodeGrowthKH</span>
                 <span class="pg-num">— 2 —</span>
@@ -537,7 +655,6 @@ public class CoursePdfGeneratorService {
               </div>
             </div>
             """);
-        return sb.toString();
     }
 
     private String footerInfoPage() {
@@ -586,211 +703,299 @@ public class CoursePdfGeneratorService {
     // ═══════════════════════════════════════════════════════════════════
 
     private String chapterPage(Chapter chapter, int ci) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("""
+        StringBuilder out = new StringBuilder(estimateChapterSize(chapter));
+        String title = chapter.getTitle();
+        out.append("""
             <div class="page inner-page">
-              <div class="pg-header"><span class="pg-site">codegrowthkh.site</span><span class="pg-title">Chapter %d · %s</span></div>
+              <div class="pg-header"><span class="pg-site">codegrowthkh.site</span><span class="pg-title">Chapter\s""")
+                .append(ci).append(" · ");
+        esc(out, title).append("""
+            </span></div>
               <div class="ch-banner">
-                <div class="ch-badge"><div class="ch-badge-label">ជំពូក</div><div class="ch-badge-num">%02d</div></div>
-                <div class="ch-banner-body"><div class="ch-banner-eyebrow">CHAPTER %d</div><div class="ch-banner-title">%s</div></div>
+                <div class="ch-badge"><div class="ch-badge-label">ជំពូក</div><div class="ch-badge-num">""");
+        if (ci < 10) out.append('0');
+        out.append(ci).append("""
+            </div></div>
+                <div class="ch-banner-body"><div class="ch-banner-eyebrow">CHAPTER\s""")
+                .append(ci).append("</div><div class=\"ch-banner-title\">");
+        esc(out, title).append("""
+            </div></div>
                 <div class="ch-banner-deco"></div>
               </div>
-            """.formatted(ci, esc(chapter.getTitle()), ci, ci, esc(chapter.getTitle())));
+            """);
 
         if (chapter.getDescription() != null && !chapter.getDescription().isBlank())
-            sb.append("<p class=\"ch-desc\">").append(esc(chapter.getDescription())).append("</p>\n");
+            esc(out.append("<p class=\"ch-desc\">"), chapter.getDescription()).append("</p>\n");
 
         int li = 0;
         for (Lesson lesson : chapter.getLessons())
-            sb.append(lessonSection(lesson, ci, ++li));
+            lessonSection(out, lesson, ci, ++li);
 
-        sb.append("""
+        out.append("""
               <div class="pg-footer">
                 <span class="pf-brand">CodeGrowthKH</span>
-                <span class="pg-num">— %d —</span>
+                <span class="pg-num">—\s""").append(ci + FRONT_PAGES).append("""
+             —</span>
                 <span class="pf-site">រៀនកូដជាភាសាខ្មែរ · codegrowthkh.site</span>
               </div>
             </div>
-            """.formatted(ci + 2));
-        return sb.toString();
+            """);
+        return out.toString();
+    }
+
+    // Markup is roughly 3x the raw text — sizing up front avoids repeated buffer growth
+    private static int estimateChapterSize(Chapter chapter) {
+        long chars = 4_096;
+        for (Lesson lesson : chapter.getLessons()) {
+            chars += 1_024 + (lesson.getContent() != null ? lesson.getContent().length() * 2L : 0);
+            for (CodeSnippet cs : lesson.getCodeSnippets())
+                chars += 2_048 + (cs.getCode() != null ? cs.getCode().length() * 4L : 0);
+        }
+        return (int) Math.min(chars, 64L << 20);
     }
 
     // ═══════════════════════════════════════════════════════════════════
     //  LESSON SECTION
     // ═══════════════════════════════════════════════════════════════════
 
-    private String lessonSection(Lesson lesson, int ci, int li) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("""
+    private void lessonSection(StringBuilder out, Lesson lesson, int ci, int li) {
+        out.append("""
             <div class="lesson">
               <div class="ls-header">
-                <div class="ls-num">%d.%d</div>
-                <div class="ls-title">%s</div>
+                <div class="ls-num">""").append(ci).append('.').append(li).append("""
+            </div>
+                <div class="ls-title">""");
+        esc(out, lesson.getTitle()).append("""
+            </div>
               </div>
-            """.formatted(ci, li, esc(lesson.getTitle())));
+            """);
 
-        if (lesson.getContent() != null && !lesson.getContent().isBlank())
-            sb.append("<div class=\"ls-body\">")
-                    .append(renderContent(lesson.getContent()))
-                    .append("</div>\n");
+        if (lesson.getContent() != null && !lesson.getContent().isBlank()) {
+            out.append("<div class=\"ls-body\">");
+            renderContent(out, lesson.getContent());
+            out.append("</div>\n");
+        }
 
         for (CodeSnippet cs : lesson.getCodeSnippets())
-            sb.append(snippetHtml(cs));
+            snippetHtml(out, cs);
 
-        sb.append("<hr class=\"h-rule\">\n</div>\n");
-        return sb.toString();
+        out.append("<hr class=\"h-rule\">\n</div>\n");
     }
 
     // ═══════════════════════════════════════════════════════════════════
     //  CONTENT RENDERER
     // ═══════════════════════════════════════════════════════════════════
 
-    private String renderContent(String raw) {
-        StringBuilder sb = new StringBuilder();
-        for (String block : raw.split("\n\n")) {
-            if (block.isBlank()) continue;
-            String b = stripHtml(block).trim();
-            if (b.isEmpty()) continue;
-            String[] lines = b.split("\n");
-            boolean isList = Arrays.stream(lines).anyMatch(this::isBulletLine);
-            if (isList) {
-                sb.append("<ul>\n");
-                for (String line : lines)
-                    if (!line.isBlank())
-                        sb.append("<li>").append(inlineHtml(normaliseBullet(line.trim()))).append("</li>\n");
-                sb.append("</ul>\n");
-            } else {
-                StringBuilder para = new StringBuilder();
-                for (String line : lines) {
-                    String t = line.trim();
-                    if (t.isEmpty()) continue;
-                    if (para.length() > 0) para.append(" ");
+    // Blocks are separated by blank lines ("\n\n"); a block with any bullet line is a list
+    private void renderContent(StringBuilder out, String raw) {
+        int from = 0;
+        int length = raw.length();
+        while (from < length) {
+            int sep = raw.indexOf("\n\n", from);
+            int to = sep < 0 ? length : sep;
+            renderBlock(out, raw.substring(from, to));
+            from = sep < 0 ? length : sep + 2;
+        }
+    }
+
+    private void renderBlock(StringBuilder out, String block) {
+        if (block.isBlank()) return;
+        String b = stripHtml(block).trim();
+        if (b.isEmpty()) return;
+
+        boolean isList = false;
+        for (int start = 0; start <= b.length() && !isList; ) {
+            int end = lineEnd(b, start);
+            isList = isBulletLine(b, start, end);
+            start = end + 1;
+        }
+
+        if (isList) {
+            out.append("<ul>\n");
+            for (int start = 0; start <= b.length(); ) {
+                int end = lineEnd(b, start);
+                String line = b.substring(start, end).trim();
+                if (!line.isEmpty()) {
+                    int skip = line.startsWith("- ") || line.startsWith("* ") || line.startsWith("• ") ? 2 : 0;
+                    inlineHtml(out.append("<li>"), line, skip).append("</li>\n");
+                }
+                start = end + 1;
+            }
+            out.append("</ul>\n");
+        } else {
+            StringBuilder para = new StringBuilder(b.length());
+            for (int start = 0; start <= b.length(); ) {
+                int end = lineEnd(b, start);
+                String t = b.substring(start, end).trim();
+                if (!t.isEmpty()) {
+                    if (para.length() > 0) para.append(' ');
                     para.append(t);
                 }
-                if (para.length() > 0)
-                    sb.append("<p>").append(inlineHtml(para.toString())).append("</p>\n");
+                start = end + 1;
             }
+            if (para.length() > 0)
+                inlineHtml(out.append("<p>"), para.toString(), 0).append("</p>\n");
         }
-        return sb.toString();
     }
 
-    private String inlineHtml(String line) {
-        if (!line.contains("**")) return esc(line);
-        String[] parts = line.split("\\*\\*");
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < parts.length; i++) {
-            if (parts[i].isEmpty()) continue;
-            sb.append(i % 2 == 1 ? "<strong>" + esc(parts[i]) + "</strong>" : esc(parts[i]));
-        }
-        return sb.toString();
+    private static int lineEnd(String s, int start) {
+        int nl = s.indexOf('\n', start);
+        return nl < 0 ? s.length() : nl;
     }
 
-    private boolean isBulletLine(String line) {
-        String t = line.trim();
-        return t.startsWith("•") || t.startsWith("✅") || t.startsWith("▸")
-                || t.startsWith("- ") || t.startsWith("* ") || t.startsWith("→")
-                || t.matches("^\\d+[.)].+") || t.matches("^[①-⑩].+");
+    // "**bold**" — every odd segment between markers is strong; empty segments are dropped
+    private StringBuilder inlineHtml(StringBuilder out, String line, int from) {
+        boolean bold = false;
+        int pos = from;
+        while (true) {
+            int marker = line.indexOf("**", pos);
+            int end = marker < 0 ? line.length() : marker;
+            if (end > pos) {
+                if (bold) out.append("<strong>");
+                esc(out, line, pos, end);
+                if (bold) out.append("</strong>");
+            }
+            if (marker < 0) return out;
+            bold = !bold;
+            pos = marker + 2;
+        }
     }
 
-    private String normaliseBullet(String line) {
-        if (line.startsWith("- ") || line.startsWith("* ") || line.startsWith("• "))
-            return line.substring(2);
-        return line;
+    private static boolean isBulletLine(String s, int start, int end) {
+        while (start < end && Character.isWhitespace(s.charAt(start))) start++;
+        while (end > start && Character.isWhitespace(s.charAt(end - 1))) end--;
+        if (start >= end) return false;
+        if (s.startsWith("•", start) || s.startsWith("✅", start) || s.startsWith("▸", start)
+                || s.startsWith("- ", start) || s.startsWith("* ", start) || s.startsWith("→", start))
+            return true;
+        char first = s.charAt(start);
+        if (first >= '①' && first <= '⑩') return end - start > 1;
+        // "1." / "12)" followed by at least one character
+        int i = start;
+        while (i < end && s.charAt(i) >= '0' && s.charAt(i) <= '9') i++;
+        return i > start && i < end && (s.charAt(i) == '.' || s.charAt(i) == ')') && end - i > 1;
     }
 
     // ═══════════════════════════════════════════════════════════════════
     //  CODE SNIPPET
     // ═══════════════════════════════════════════════════════════════════
 
-    private String snippetHtml(CodeSnippet cs) {
+    private void snippetHtml(StringBuilder out, CodeSnippet cs) {
         String rawCode  = cs.getCode() != null ? cs.getCode() : "";
-        String normLang = normalizeLanguage(cs.getLanguage(), rawCode);
+        String normLang = SyntaxHighlighter.normalizeLanguage(cs.getLanguage(), rawCode);
         String pLang    = prismLang(normLang);
         String accent   = langAccent(normLang);
         String title    = (cs.getTitle() != null && !cs.getTitle().isBlank())
                 ? cs.getTitle() : "ឧទាហរណ៍ / Example";
 
-        String[] allLines = rawCode.split("\n", -1);
-        int total = allLines.length;
-        StringBuilder sb = new StringBuilder();
+        // Highlighted output keeps the line structure of the raw code (no span crosses a newline);
+        // lines are addressed by offset instead of being split into separate strings
+        String highlighted = SyntaxHighlighter.highlight(rawCode, pLang);
+        int[] lineStarts = lineStarts(highlighted);
+        int total = lineStarts.length;
 
         if (total <= CODE_SPLIT_THRESHOLD) {
-            sb.append(renderChunk(normLang, pLang, accent, title,
-                    esc(rawCode), 1, 1, 1, total, total, false));
+            renderChunk(out, normLang, pLang, accent, title, highlighted, lineStarts,
+                    1, 1, 1, total, total, false);
         } else {
             int chunks = (int) Math.ceil((double) total / CODE_SPLIT_THRESHOLD);
             for (int c = 0; c < chunks; c++) {
                 int from = c * CODE_SPLIT_THRESHOLD;
                 int to   = Math.min(from + CODE_SPLIT_THRESHOLD, total);
-                sb.append(renderChunk(normLang, pLang, accent, title,
-                        esc(String.join("\n", Arrays.copyOfRange(allLines, from, to))),
-                        c + 1, chunks, from + 1, to, total, c > 0));
+                renderChunk(out, normLang, pLang, accent, title, highlighted, lineStarts,
+                        c + 1, chunks, from + 1, to, total, c > 0);
             }
         }
 
         if (cs.getExplanation() != null && !cs.getExplanation().isBlank()) {
             String expl = cs.getExplanation().trim();
-            if (expl.toLowerCase().startsWith("output:")
-                    || expl.toLowerCase().startsWith("output :")) {
-                sb.append("""
+            Matcher output = OUTPUT_PREFIX.matcher(expl);
+            if (output.lookingAt()) {
+                out.append("""
                     <div class="out-block" style="page-break-inside:avoid;">
                       <div class="out-lbl">▶&nbsp; Output</div>
-                      <div class="out-body">%s</div>
+                      <div class="out-body">""");
+                esc(out, expl, output.end(), expl.length()).append("""
+                    </div>
                     </div>
-                    """.formatted(esc(expl.replaceFirst("(?i)output\\s*:\\s*", ""))));
+                    """);
             } else {
-                sb.append("""
+                out.append("""
                     <div class="note-block" style="page-break-inside:avoid;">
                       <span class="note-icon">💡</span>
-                      <span class="note-text">%s</span>
+                      <span class="note-text">""");
+                esc(out, expl).append("""
+                    </span>
                     </div>
-                    """.formatted(esc(expl)));
+                    """);
             }
         }
-        return sb.toString();
     }
 
-    private String renderChunk(String rawLang, String pLang, String accent,
-                               String title, String escapedCode,
-                               int chunkNum, int chunkTotal,
-                               int fromLine, int toLine, int totalLines,
-                               boolean showContinued) {
+    private static int[] lineStarts(String text) {
+        int lines = 1;
+        for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', i + 1)) lines++;
+        int[] starts = new int[lines];
+        int line = 1;
+        for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', i + 1)) starts[line++] = i + 1;
+        return starts;
+    }
+
+    private void renderChunk(StringBuilder out, String rawLang, String pLang, String accent,
+                             String title, String highlighted, int[] lineStarts,
+                             int chunkNum, int chunkTotal,
+                             int fromLine, int toLine, int totalLines,
+                             boolean showContinued) {
         boolean isFirst = chunkNum == 1;
         boolean isLast  = chunkNum == chunkTotal;
         boolean isMulti = chunkTotal > 1;
 
         String br = !isMulti ? "8px" : isFirst ? "8px 8px 0 0" : isLast ? "0 0 8px 8px" : "0";
 
-        String continued = showContinued ? """
-            <div class="sn-continued">
-              <span class="sn-cont-icon">↳</span>
-              <span class="sn-cont-label">%s&nbsp;<span class="sn-cont-sub">continued (lines %d – %d of %d)</span></span>
-            </div>""".formatted(esc(title), fromLine, toLine, totalLines) : "";
-
-        String topBar = isFirst ? """
-            <div class="sn-topbar">
-              <span class="sn-mac-dots"><span class="sn-dot-r"></span><span class="sn-dot-y"></span><span class="sn-dot-g"></span></span>
-              <span class="sn-lang-pill" style="color:%s;border-color:%s55;background:%s18;">%s</span>
-              <span class="sn-topbar-title">%s</span>
-              %s
-            </div>""".formatted(accent, accent, accent, rawLang, esc(title),
-                isMulti ? "<span class=\"sn-line-count\">%d lines total</span>".formatted(totalLines) : "")
-                : "";
-
-        String lineRange = !isFirst
-                ? "<div class=\"sn-linerange\">Lines %d – %d</div>".formatted(fromLine, toLine) : "";
-        String connector = !isLast ? "<div class=\"sn-connector\"></div>" : "";
+        out.append("<div class=\"snippet\" style=\"margin-top:").append(isFirst ? "12px" : "0")
+                .append(";border-radius:").append(br)
+                .append(";border-left:3px solid ").append(accent)
+                .append(";background:#0d1117;page-break-inside:avoid;")
+                .append((!isLast && isMulti) ? "border-bottom:none;" : "")
+                .append("\">\n");
+
+        if (showContinued) {
+            out.append("""
+                <div class="sn-continued">
+                  <span class="sn-cont-icon">↳</span>
+                  <span class="sn-cont-label">""");
+            esc(out, title).append("&nbsp;<span class=\"sn-cont-sub\">continued (lines ")
+                    .append(fromLine).append(" – ").append(toLine).append(" of ").append(totalLines)
+                    .append(")</span></span>\n</div>");
+        }
+
+        if (isFirst) {
+            out.append("""
+                <div class="sn-topbar">
+                  <span class="sn-mac-dots"><span class="sn-dot-r"></span><span class="sn-dot-y"></span><span class="sn-dot-g"></span></span>
+                  <span class="sn-lang-pill" style="color:""")
+                    .append(accent).append(";border-color:").append(accent).append("55;background:").append(accent)
+                    .append("18;\">").append(rawLang).append("</span>\n<span class=\"sn-topbar-title\">");
+            esc(out, title).append("</span>\n");
+            if (isMulti)
+                out.append("<span class=\"sn-line-count\">").append(totalLines).append(" lines total</span>");
+            out.append("\n</div>");
+        }
 
-        return """
-            <div class="snippet" style="margin-top:%s;border-radius:%s;border-left:3px solid %s;background:#0d1117;page-break-inside:avoid;%s">
-              %s%s
-              <div class="sn-body">%s<pre class="line-numbers" data-start="%d"><code class="language-%s">%s</code></pre></div>
-            </div>%s
-            """.formatted(
-                isFirst ? "12px" : "0", br, accent,
-                (!isLast && isMulti) ? "border-bottom:none;" : "",
-                continued, topBar, lineRange,
-                fromLine, pLang, escapedCode, connector);
+        out.append("\n<div class=\"sn-body\">");
+        if (!isFirst)
+            out.append("<div class=\"sn-linerange\">Lines ").append(fromLine).append(" – ").append(toLine).append("</div>");
+        out.append("<pre class=\"line-numbers language-").append(pLang)
+                .append("\" style=\"counter-reset:linenumber ").append(fromLine - 1)
+                .append(";\"><code class=\"language-").append(pLang).append("\">");
+        // One block per line — the line number is a CSS counter on the block, so it stays aligned when a line wraps
+        for (int i = fromLine - 1; i < toLine; i++) {
+            int end = i + 1 < lineStarts.length ? lineStarts[i + 1] - 1 : highlighted.length();
+            out.append("<span class=\"code-line\">").append(highlighted, lineStarts[i], end).append("</span>");
+        }
+        out.append("</code></pre></div>\n</div>");
+        if (!isLast) out.append("<div class=\"sn-connector\"></div>");
+        out.append('\n');
     }
 
     // ═══════════════════════════════════════════════════════════════════
@@ -938,8 +1143,9 @@ public class CoursePdfGeneratorService {
             .sn-body pre[class*="language-"] { margin:0!important; border-radius:0!important; font-family:var(--font-code)!important; font-size:8.5pt!important; line-height:1.9!important; padding:14px 20px!important; background:#0d1117!important; border:none!important; color:#c0caf5!important; white-space:pre-wrap!important; word-break:break-all!important; overflow-x:hidden!important; }
             .sn-body pre[class*="language-"], .sn-body pre[class*="language-"] code, .sn-body code[class*="language-"] { color:#c0caf5!important; background:#0d1117!important; text-shadow:none!important; }
             .sn-body pre.line-numbers { padding-left:3.5em!important; position:relative; }
-            .sn-body .line-numbers .line-numbers-rows { border-right:1px solid rgba(255,255,255,0.06)!important; top:0!important; }
-            .sn-body .line-numbers-rows > span:before { color:#3d4255!important; font-size:8pt!important; }
+            .sn-body pre.line-numbers > code { position:relative; display:block; }
+            .sn-body .code-line { display:block; position:relative; min-height:1.9em; counter-increment:linenumber; }
+            .sn-body .code-line::before { content:counter(linenumber); position:absolute; top:0; bottom:0; left:-3.5em; width:2.7em; padding-right:.6em; text-align:right; color:#3d4255; font-size:8pt; border-right:1px solid rgba(255,255,255,0.06); }
             .sn-body .token.punctuation{color:#9aa5ce!important}
             .sn-body .token.keyword,.sn-body .token.important,.sn-body .token.atrule{color:#bb9af7!important;font-weight:600!important}
             .sn-body .token.rule{color:#73daca!important}
@@ -986,10 +1192,33 @@ public class CoursePdfGeneratorService {
                 .replace(">", "&gt;").replace("\"", "&quot;");
     }
 
+    private static StringBuilder esc(StringBuilder out, String s) {
+        return s == null ? out : esc(out, s, 0, s.length());
+    }
+
+    // Escapes straight into the output — no intermediate copy per replaced character class
+    private static StringBuilder esc(StringBuilder out, String s, int from, int to) {
+        int plain = from;
+        for (int i = from; i < to; i++) {
+            String entity = switch (s.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                default -> null;
+            };
+            if (entity == null) continue;
+            out.append(s, plain, i).append(entity);
+            plain = i + 1;
+        }
+        return out.append(s, plain, to);
+    }
+
     private String stripHtml(String s) {
-        return s.replaceAll("<[^>]+>", " ").replaceAll("&nbsp;", " ")
-                .replaceAll("&amp;", "&").replaceAll("&lt;", "<")
-                .replaceAll("&gt;", ">").replaceAll("&quot;", "\"")
-                .replaceAll("[ \\t]{2,}", " ").trim();
+        if (s.indexOf('<') >= 0) s = HTML_TAG.matcher(s).replaceAll(" ");
+        if (s.indexOf('&') >= 0)
+            s = s.replace("&nbsp;", " ").replace("&amp;", "&").replace("&lt;", "<")
+                    .replace("&gt;", ">").replace("&quot;", "\"");
+        return REPEATED_BLANKS.matcher(s).replaceAll(" ").trim();
     }
 }
@@ -5,6 +5,7 @@ import finalproject.backend.modal.CourseStatus;
 import finalproject.backend.request.CourseRequest;
 import finalproject.backend.response.ApiResponse;
 import finalproject.backend.response.CourseResponse;
+import finalproject.backend.response.CursorPageResponse;
 import finalproject.backend.response.LessonResponse;
 import finalproject.backend.response.PageResponse;
 import org.springframework.data.domain.Pageable;
@@ -23,6 +24,22 @@ public interface CourseService {
             Boolean isFeatured,
             Boolean isFree
     );
+
+    /**
+     * Keyset-paginated catalog ordered by (orderIndex, createdAt, id) ascending.
+     * Pass the previous page's nextCursor to continue; skips the count query.
+     */
+    CursorPageResponse<CourseResponse> getCoursesByCursor(
+            String cursor,
+            int size,
+            String search,
+            String status,
+            String level,
+            Long categoryId,
+            Boolean isFeatured,
+            Boolean isFree
+    );
+
     ApiResponse<CourseResponse> getCourseById(Long id);
 
     /** Returns course detail by slug.
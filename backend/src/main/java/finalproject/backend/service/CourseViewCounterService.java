@@ -0,0 +1,149 @@
+package finalproject.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind counter for course page views.
+ *
+ * WHY:  Incrementing Course.viewCount on the entity turned every public page
+ *       view into a row write + row lock on `course` (and inside a read-only
+ *       transaction the increment was silently dropped).
+ *
+ * HOW:  Views are recorded lock-free in an AtomicLong per course id and flushed
+ *       periodically with one batched
+ *       UPDATE course SET view_count = view_count + ? WHERE id = ?
+ *       The flushed amounts are subtracted from the counters only after the
+ *       batch commits, so views recorded meanwhile are kept and the displayed
+ *       count (persisted + pending) never dips. A final flush runs on shutdown.
+ *
+ *       Cached course payloads are not evicted on flush (that would drop the
+ *       most viewed course trees every interval). They hold a baseline —
+ *       persisted count minus the views this instance already flushed — and
+ *       {@link #currentViews} adds every view recorded here back on top.
+ */
+@Slf4j
+@Service
+public class CourseViewCounterService {
+
+    private static final String FLUSH_SQL =
+            "UPDATE course SET view_count = COALESCE(view_count, 0) + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTransaction;
+
+    // One counter per course, never removed — a removed counter could still be incremented by a racing view
+    private final Map<Long, AtomicLong> pending = new ConcurrentHashMap<>();
+    // Views this instance has written to course.view_count since startup
+    private final Map<Long, AtomicLong> flushed = new ConcurrentHashMap<>();
+    // Odd while a flush is between its UPDATE and moving the counts from pending to flushed
+    private final AtomicLong flushSequence = new AtomicLong();
+    // Odd only while the committed counts move from pending to flushed (a few map updates)
+    private final AtomicLong moveSequence = new AtomicLong();
+
+    public CourseViewCounterService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /** Records one view — never touches the database. */
+    public void recordView(Long courseId) {
+        if (courseId == null) return;
+        pending.computeIfAbsent(courseId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    /** Views recorded since the last flush — added to the persisted count for display. */
+    public long pendingViews(Long courseId) {
+        if (courseId == null) return 0L;
+        return count(pending, courseId);
+    }
+
+    /** Taken before reading course.view_count — see {@link #flushOverlapped}. */
+    public long flushMark() {
+        return flushSequence.get();
+    }
+
+    /**
+     * Persisted count (the entity's view_count) minus the views this instance
+     * flushed — stable across flushes, so it can be cached.
+     */
+    public long persistedBaseline(Long courseId, Long persisted) {
+        return (persisted != null ? persisted : 0L) - count(flushed, courseId);
+    }
+
+    /**
+     * True when a flush ran between {@code mark} and now — a view_count read in
+     * that window may or may not include it, so its baseline must not be cached.
+     * Never waits: the caller holds a pooled connection.
+     */
+    public boolean flushOverlapped(long mark) {
+        return (mark & 1) == 1 || flushSequence.get() != mark;
+    }
+
+    /** Count for display from a {@link #persistedBaseline}: baseline + flushed here + pending. */
+    public long currentViews(Long courseId, long baseline) {
+        while (true) {
+            long sequence = moveSequence.get();
+            long views = count(flushed, courseId) + count(pending, courseId);
+            if ((sequence & 1) == 0 && moveSequence.get() == sequence) return baseline + views;
+            Thread.onSpinWait();
+        }
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.views.flush-interval-ms:30000}",
+            initialDelayString = "${app.views.flush-interval-ms:30000}")
+    public synchronized void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<Long, AtomicLong> entry : pending.entrySet()) {
+            long delta = entry.getValue().get();
+            if (delta > 0) batch.add(new Object[]{delta, entry.getKey()});
+        }
+        if (batch.isEmpty()) return;
+
+        try {
+            // All or nothing — a partly applied batch could not be told apart from a failed one.
+            // Marked as flushing only once the connection is held, so overlapping reads stay rare
+            writeTransaction.executeWithoutResult(status -> {
+                flushSequence.incrementAndGet();
+                jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+            });
+            // Committed: only now stop counting these views as pending (later views stay)
+            moveSequence.incrementAndGet();
+            for (Object[] row : batch) {
+                flushed.computeIfAbsent((Long) row[1], id -> new AtomicLong()).addAndGet((Long) row[0]);
+                pending.get((Long) row[1]).addAndGet(-(Long) row[0]);
+            }
+            moveSequence.incrementAndGet();
+            log.debug("Flushed view counts for {} course(s)", batch.size());
+        } catch (Exception e) {
+            // Nothing was subtracted — the next flush retries the same views
+            log.warn("View count flush failed, will retry: {}", e.getMessage());
+        } finally {
+            if ((flushSequence.get() & 1) == 1) flushSequence.incrementAndGet();
+        }
+    }
+
+    private static long count(Map<Long, AtomicLong> counters, Long courseId) {
+        AtomicLong counter = counters.get(courseId);
+        return counter != null ? counter.get() : 0L;
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        log.info("Flushing pending course view counts before shutdown");
+        flush();
+    }
+}
@@ -0,0 +1,185 @@
+package finalproject.backend.service;
+
+import finalproject.backend.util.ImageResizer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Resized renditions of uploaded images (course thumbnails, profile pictures).
+ *
+ * WHY:  Thumbnails and avatars were served exactly as uploaded — up to 5 MB
+ *       originals behind every catalog card and every 40 px avatar.
+ *
+ * HOW:  {@link #render} decodes the upload once (subsampled while decoding)
+ *       and produces the renditions configured for its folder — `card` and
+ *       `detail` widths for thumbnails, square `avatar` sizes for profile
+ *       pictures. CPU-bound work is capped at {@code processing-concurrency}
+ *       images at a time. R2StorageService uploads the renditions next to the
+ *       original and {@link #record}s them in `image_variant`, keyed by the
+ *       original's URL; mappers read them back as a srcset-style map
+ *       ("480w" → URL), one query per page of results.
+ */
+@Slf4j
+@Service
+public class ImageVariantService {
+
+    /** One rendition to produce: a width ("fit") or a square edge ("crop"). */
+    private record Spec(String name, int size, boolean square) {
+        String descriptor() {
+            return size + "w";
+        }
+    }
+
+    /** A rendered variant ready to upload. */
+    public record Rendition(String descriptor, ImageResizer.Encoded image) {
+    }
+
+    private static final Map<String, List<Spec>> SPECS_BY_FOLDER = Map.of(
+            "thumbnails", List.of(new Spec("card", 480, false), new Spec("detail", 1280, false)),
+            "profile", List.of(new Spec("avatar", 96, true), new Spec("avatar", 192, true)));
+
+    // GIF keeps its animation and WebP has no JDK decoder — both are served as uploaded
+    private static final Set<String> RENDERABLE_TYPES = Set.of("image/jpeg", "image/png");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Semaphore processing;
+
+    public ImageVariantService(JdbcTemplate jdbcTemplate,
+                               @Value("${app.images.processing-concurrency:2}") int processingConcurrency) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.processing = new Semaphore(Math.max(1, processingConcurrency));
+    }
+
+    // ── Schema ────────────────────────────────────────────────────────────────
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            jdbcTemplate.execute("""
+                    CREATE TABLE IF NOT EXISTS image_variant (
+                        image_url  TEXT        NOT NULL,
+                        descriptor VARCHAR(16) NOT NULL,
+                        url        TEXT        NOT NULL,
+                        created_at TIMESTAMP   NOT NULL DEFAULT now(),
+                        PRIMARY KEY (image_url, descriptor)
+                    )
+                    """);
+        } catch (Exception e) {
+            log.warn("Image variant initialization skipped: {}", e.getMessage());
+        }
+    }
+
+    // ── Rendering ─────────────────────────────────────────────────────────────
+
+    public boolean supports(String folder, String contentType) {
+        return SPECS_BY_FOLDER.containsKey(folder) && RENDERABLE_TYPES.contains(contentType);
+    }
+
+    /**
+     * Decodes {@code in} once and renders every variant of {@code folder} the
+     * source is large enough for. Blocks while {@code processing-concurrency}
+     * other images are being rendered. An undecodable source yields no variants.
+     */
+    public List<Rendition> render(InputStream in, String folder) throws IOException {
+        List<Spec> specs = SPECS_BY_FOLDER.getOrDefault(folder, List.of());
+        if (specs.isEmpty()) return List.of();
+
+        int minWidth = specs.stream().mapToInt(Spec::size).max().orElse(1);
+        int minHeight = specs.stream().filter(Spec::square).mapToInt(Spec::size).max().orElse(1);
+
+        processing.acquireUninterruptibly();
+        try {
+            BufferedImage source = ImageResizer.decode(in, minWidth, minHeight);
+            if (source == null) return List.of();
+
+            List<Rendition> renditions = new ArrayList<>(specs.size());
+            for (Spec spec : specs) {
+                BufferedImage scaled = spec.square()
+                        ? ImageResizer.cropSquare(source, spec.size())
+                        : ImageResizer.fitWidth(source, spec.size());
+                if (scaled != null) renditions.add(new Rendition(spec.descriptor(), ImageResizer.encode(scaled)));
+            }
+            return renditions;
+        } finally {
+            processing.release();
+        }
+    }
+
+    // ── Bookkeeping ───────────────────────────────────────────────────────────
+
+    /** Remembers the uploaded renditions of {@code imageUrl} (descriptor → URL). */
+    public void record(String imageUrl, Map<String, String> urlsByDescriptor) {
+        if (urlsByDescriptor.isEmpty()) return;
+        List<Map.Entry<String, String>> rows = List.copyOf(urlsByDescriptor.entrySet());
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO image_variant (image_url, descriptor, url) VALUES (?, ?, ?)
+                ON CONFLICT (image_url, descriptor) DO UPDATE SET url = EXCLUDED.url, created_at = now()
+                """, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, imageUrl);
+            ps.setString(2, row.getKey());
+            ps.setString(3, row.getValue());
+        });
+    }
+
+    /** Drops the rows of {@code imageUrl} and returns the variant URLs so the objects can be deleted. */
+    public List<String> forget(String imageUrl) {
+        try {
+            return jdbcTemplate.queryForList(
+                    "DELETE FROM image_variant WHERE image_url = ? RETURNING url", String.class, imageUrl);
+        } catch (DataAccessException e) {
+            log.warn("Could not look up variants of {}: {}", imageUrl, e.getMessage());
+            return List.of();
+        }
+    }
+
+    /** srcset-style map ("480w" → URL, narrowest first) of one image; {@code null} when it has none. */
+    public Map<String, String> srcset(String imageUrl) {
+        if (imageUrl == null || imageUrl.isBlank()) return null;
+        return srcsets(List.of(imageUrl)).get(imageUrl);
+    }
+
+    /** {@link #srcset} for many images in one query; images without variants are absent. */
+    public Map<String, Map<String, String>> srcsets(Collection<String> imageUrls) {
+        String[] urls = imageUrls.stream()
+                .filter(Objects::nonNull)
+                .filter(url -> !url.isBlank())
+                .distinct()
+                .toArray(String[]::new);
+        if (urls.length == 0) return Map.of();
+
+        Map<String, Map<String, String>> byImage = new HashMap<>();
+        try {
+            jdbcTemplate.query("""
+                    SELECT image_url, descriptor, url FROM image_variant
+                    WHERE image_url = ANY(?)
+                    ORDER BY image_url, length(descriptor), descriptor
+                    """, rs -> {
+                byImage.computeIfAbsent(rs.getString("image_url"), k -> new LinkedHashMap<>())
+                        .put(rs.getString("descriptor"), rs.getString("url"));
+            }, (Object) urls);
+        } catch (DataAccessException e) {
+            // Responses fall back to the original image
+            log.warn("Image variant lookup failed: {}", e.getMessage());
+            return Map.of();
+        }
+        return byImage;
+    }
+}
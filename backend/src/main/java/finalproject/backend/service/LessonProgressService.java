@@ -2,7 +2,10 @@ package finalproject.backend.service;
 
 import finalproject.backend.request.LessonProgressRequest;
 import finalproject.backend.response.ApiResponse;
+import finalproject.backend.response.CompactCourseProgressResponse;
+import finalproject.backend.response.LessonProgressBatchItemResponse;
 import finalproject.backend.response.LessonProgressResponse;
+import finalproject.backend.response.ProgressStatsResponse;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
@@ -12,6 +15,9 @@ public interface LessonProgressService {
     /** Create or update progress for a lesson. */
     ApiResponse<LessonProgressResponse> upsertProgress(LessonProgressRequest request);
 
+    /** Upsert many lessons at once (offline / mobile sync); one result per request item. */
+    ApiResponse<List<LessonProgressBatchItemResponse>> upsertProgressBatch(Long userId, List<LessonProgressRequest> requests);
+
     /** Mark a lesson as 100 % completed for the given user. */
     ApiResponse<LessonProgressResponse> markCompleted(Long userId, Long lessonId);
 
@@ -24,9 +30,15 @@ public interface LessonProgressService {
     /** Get all lesson progress records for a user within a specific course. */
     ApiResponse<List<LessonProgressResponse>> getProgressByCourseAndUser(Long courseId, Long userId);
 
+    /** Completed-lesson bitmap + scroll percentages of one course (sidebar). */
+    ApiResponse<CompactCourseProgressResponse> getCompactProgress(Long courseId, Long userId);
+
     /** Count how many lessons a user has completed (globally). */
     ApiResponse<Long> countCompletedByUser(Long userId);
 
+    /** Account-page totals (completed lessons / courses, reading time) from the read model. */
+    ApiResponse<ProgressStatsResponse> getStatsForUser(Long userId);
+
     /** Count how many lessons a user has completed in a specific course. */
     ApiResponse<Long> countCompletedByCourseAndUser(Long courseId, Long userId);
 
@@ -11,6 +11,8 @@ public interface LessonService {
     ApiResponse<LessonResponse> createLesson(LessonRequest request);
     ApiResponse<List<LessonResponse>> getLessonsByChapter(Long chapterId);
     ApiResponse<List<LessonResponse>> getLessonsByCourse(Long courseId);
+    ApiResponse<List<LessonResponse>> getLessonOutlineByChapter(Long chapterId);
+    ApiResponse<List<LessonResponse>> getLessonOutlineByCourse(Long courseId);
     ApiResponse<LessonResponse> getLessonById(Long id);
     ApiResponse<LessonResponse> updateLesson(Long id, LessonRequest request);
     ApiResponse<Void> deleteLesson(Long id);
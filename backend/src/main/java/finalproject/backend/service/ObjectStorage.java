@@ -0,0 +1,70 @@
+package finalproject.backend.service;
+
+import finalproject.backend.util.RangeInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Storage backend behind {@link R2StorageService}.
+ *
+ * WHY:  Every upload, PDF export and delete went straight to Cloudflare R2,
+ *       so none of those pipelines could be run, profiled or load-tested
+ *       without the real bucket.
+ *
+ * HOW:  R2StorageService keeps everything that is not about bytes on a
+ *       backend — validation, content hashing, reference counts, image
+ *       renditions — and hands the bytes to this SPI. The backend is chosen
+ *       by profile:
+ *       - default      S3ObjectStorage → Cloudflare R2 (R2Config.s3Client)
+ *       - s3-stub      S3ObjectStorage → the in-process S3StubServer, so the
+ *                      real SDK path (incl. multipart) runs offline
+ *       - local-storage LocalObjectStorage → a directory on disk, served by
+ *                      LocalStorageController
+ *
+ *       Implementations report failures as FileStorageException.
+ */
+public interface ObjectStorage {
+
+    /** HTTP metadata stored with an object; {@code null} fields are left unset. */
+    record ObjectMetadata(String contentType, String cacheControl, String contentDisposition) {
+    }
+
+    /**
+     * Opens a stream over {@code length} bytes of the content starting at
+     * {@code from}. May be called more than once — per multipart part and per
+     * retry — so every call must start a fresh stream.
+     */
+    @FunctionalInterface
+    interface ContentSource {
+        InputStream open(long from, long length) throws IOException;
+
+        static ContentSource of(Path file) {
+            return (from, length) -> {
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ).position(from);
+                return new RangeInputStream(Channels.newInputStream(channel), length);
+            };
+        }
+
+        static ContentSource of(byte[] bytes) {
+            return (from, length) -> new ByteArrayInputStream(bytes, (int) from, (int) length);
+        }
+    }
+
+    /** Stores {@code size} bytes of {@code content} under {@code key}, replacing any existing object. */
+    void put(String key, ContentSource content, long size, ObjectMetadata metadata);
+
+    /** {@link #put(String, ContentSource, long, ObjectMetadata)} for a local file — backends may copy it directly. */
+    void put(String key, Path file, ObjectMetadata metadata);
+
+    /** Deletes {@code key}; a missing object is not an error. */
+    void delete(String key);
+
+    /** Base of the public URLs ({@code base + "/" + key}), without a trailing slash. */
+    String publicBaseUrl();
+}
@@ -0,0 +1,235 @@
+package finalproject.backend.service;
+
+import finalproject.backend.modal.Chapter;
+import finalproject.backend.modal.CodeSnippet;
+import finalproject.backend.modal.Lesson;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Rendered chapter PDFs on local disk, keyed by their content.
+ *
+ * WHY:  Every regeneration printed every chapter in Chromium, although an
+ *       edit usually touches one lesson — on a large course most of the render
+ *       time went into chapters that had not changed.
+ *
+ * HOW:  The key is a SHA-256 over everything the chapter is rendered from
+ *       (chapter number, title, description, lessons, snippets) plus
+ *       {@link CoursePdfGeneratorService#TEMPLATE_VERSION}. A hit is the file
+ *       {@code {key}.pdf} under {@code dir}; a miss renders into a temp file in
+ *       the same directory and moves it into place, so a half-written PDF is
+ *       never served, and concurrent misses of one key render once. Nothing is
+ *       kept on the heap. Files unused for {@code ttl-seconds}, then the least
+ *       recently used beyond {@code max-bytes}, are deleted — but only while no
+ *       export holds a {@link Session}, so a file is never removed between
+ *       lookup and merge.
+ */
+@Slf4j
+@Service
+public class PdfFragmentCache {
+
+    private static final String SUFFIX = ".pdf";
+
+    private final Path dir;
+    private final long maxBytes;
+    private final Duration ttl;
+
+    // Sessions share the read lock; eviction needs the write lock and skips when it is taken
+    private final ReentrantReadWriteLock sessions = new ReentrantReadWriteLock();
+    private final ConcurrentMap<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    public PdfFragmentCache(
+            @Value("${app.pdf.fragment-cache.dir:${java.io.tmpdir}/course-pdf-fragments}") String dir,
+            @Value("${app.pdf.fragment-cache.max-bytes:268435456}") long maxBytes,
+            @Value("${app.pdf.fragment-cache.ttl-seconds:604800}") long ttlSeconds) {
+        this.dir = Path.of(dir);
+        this.maxBytes = maxBytes;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    /** Keeps every file returned through it in place until closed. */
+    public Session open() {
+        sessions.readLock().lock();
+        return new Session();
+    }
+
+    public final class Session implements AutoCloseable {
+
+        private boolean closed;
+
+        private Session() {
+        }
+
+        /**
+         * Cached PDF of the chapter rendered as number {@code ci}; on a miss
+         * {@code renderer} writes it to the path it is given.
+         */
+        public Path chapter(Chapter chapter, int ci, Consumer<Path> renderer) {
+            return get(chapterKey(chapter, ci), renderer);
+        }
+
+        @Override
+        public void close() {
+            if (closed) return;
+            closed = true;
+            sessions.readLock().unlock();
+            evictIfIdle();
+        }
+    }
+
+    private Path get(String key, Consumer<Path> renderer) {
+        Path file = dir.resolve(key + SUFFIX);
+        if (Files.exists(file)) {
+            touch(file);
+            return file;
+        }
+
+        CompletableFuture<Path> mine = new CompletableFuture<>();
+        CompletableFuture<Path> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) return await(running);
+        try {
+            if (!Files.exists(file)) {
+                Files.createDirectories(dir);
+                Path part = Files.createTempFile(dir, key, ".part");
+                try {
+                    renderer.accept(part);
+                    Files.move(part, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(part);
+                }
+            }
+            mine.complete(file);
+            return file;
+        } catch (IOException e) {
+            mine.completeExceptionally(e);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static Path await(CompletableFuture<Path> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            if (cause instanceof IOException io) throw new UncheckedIOException(io);
+            throw e;
+        }
+    }
+
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            log.debug("Could not touch cached PDF fragment {}: {}", file, e.getMessage());
+        }
+    }
+
+    // Newest first: keep files while they are fresh and fit the budget, delete the rest
+    void evictIfIdle() {
+        if (!sessions.writeLock().tryLock()) return;
+        try (Stream<Path> listing = Files.exists(dir) ? Files.list(dir) : Stream.empty()) {
+            Instant expired = Instant.now().minus(ttl);
+            List<CachedFile> files = listing
+                    .map(CachedFile::of)
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparing(CachedFile::modified).reversed())
+                    .toList();
+            long kept = 0;
+            for (CachedFile cached : files) {
+                boolean fragment = cached.path().getFileName().toString().endsWith(SUFFIX);
+                if (fragment && cached.modified().isAfter(expired) && kept + cached.size() <= maxBytes) {
+                    kept += cached.size();
+                } else if (fragment || cached.modified().isBefore(expired)) {
+                    // Leftover ".part" files of crashed renders go once they are stale
+                    Files.deleteIfExists(cached.path());
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("PDF fragment cache eviction failed: {}", e.getMessage());
+        } finally {
+            sessions.writeLock().unlock();
+        }
+    }
+
+    private record CachedFile(Path path, Instant modified, long size) {
+        static CachedFile of(Path path) {
+            try {
+                return new CachedFile(path, Files.getLastModifiedTime(path).toInstant(), Files.size(path));
+            } catch (IOException e) {
+                return null; // deleted meanwhile
+            }
+        }
+    }
+
+    static String chapterKey(Chapter chapter, int ci) {
+        MessageDigest digest = sha256();
+        update(digest, CoursePdfGeneratorService.TEMPLATE_VERSION);
+        update(digest, Integer.toString(ci));
+        update(digest, chapter.getTitle());
+        update(digest, chapter.getDescription());
+        for (Lesson lesson : chapter.getLessons()) {
+            update(digest, "#lesson");
+            update(digest, lesson.getTitle());
+            update(digest, lesson.getContent());
+            for (CodeSnippet snippet : lesson.getCodeSnippets()) {
+                update(digest, "#snippet");
+                update(digest, snippet.getTitle());
+                update(digest, snippet.getLanguage());
+                update(digest, snippet.getCode());
+                update(digest, snippet.getExplanation());
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // Length-prefixed so field boundaries (and null vs "") are unambiguous
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) 1);
+        digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.US_ASCII));
+        digest.update((byte) ':');
+        digest.update(bytes);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
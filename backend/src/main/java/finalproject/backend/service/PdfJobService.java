@@ -0,0 +1,546 @@
+package finalproject.backend.service;
+
+import finalproject.backend.exception.CustomMessageException;
+import finalproject.backend.modal.Chapter;
+import finalproject.backend.modal.Course;
+import finalproject.backend.modal.CoursePdfExport;
+import finalproject.backend.modal.Lesson;
+import finalproject.backend.repository.CoursePdfExportRepository;
+import finalproject.backend.repository.CourseRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Persistent queue for course PDF generation.
+ *
+ * WHY:  POST /course/pdf/{id}/generate rendered the PDF (Chromium) and
+ *       uploaded it to R2 inside one @Transactional request — a pooled DB
+ *       connection and an HTTP thread held for tens of seconds, and a client
+ *       that timed out lost the result.
+ *
+ * HOW:  {@link #enqueue} inserts a QUEUED row into `pdf_job` and returns at
+ *       once; a partial unique index keeps at most one active job per course,
+ *       so concurrent requests get the job already queued. A poller claims
+ *       due jobs with {@code FOR UPDATE SKIP LOCKED} (safe with several app
+ *       instances) and hands them to a small worker pool:
+ *       QUEUED → RENDERING → UPLOADING → DONE. The course tree is loaded in a
+ *       short read-only transaction; rendering and upload run without one.
+ *       Failures go back to QUEUED with exponential backoff until
+ *       {@code max-attempts}, then FAILED. Jobs whose worker died (lease
+ *       expired) are re-queued.
+ *
+ *       A running job's lease is renewed every {@code heartbeat-ms}
+ *       ({@link #heartbeat}), so a long render is not mistaken for a dead
+ *       worker. Every claim bumps {@code attempts}, and the worker's status
+ *       updates match on the attempt it claimed: a worker whose lease did
+ *       expire after all changes nothing, and its upload is released again.
+ *       The previous PDF is released only after the new export has committed.
+ *
+ *       Each export stores a content fingerprint ({@link #fingerprint}, an md5
+ *       computed in SQL over every field the renderer uses plus the template
+ *       version). Unless forced, a course whose fingerprint still matches is
+ *       neither queued nor rendered again.
+ *
+ *       The PDF never sits in the heap as one byte[]: Chromium streams it into
+ *       a temp file, which is uploaded from disk (multipart when large) and
+ *       deleted afterwards. The heap high-water mark of each export is logged
+ *       and recorded as {@code pdf.export.heap.peak}.
+ */
+@Slf4j
+@Service
+public class PdfJobService {
+
+    public enum Status { QUEUED, RENDERING, UPLOADING, DONE, FAILED }
+
+    private static final String ACTIVE_STATES = "('QUEUED', 'RENDERING', 'UPLOADING')";
+
+    // Fences every update a worker makes after its claim: a re-claimed job has a higher attempt
+    private static final String OWNED_BY_CLAIM = "id = ? AND attempts = ? AND status IN ('RENDERING', 'UPLOADING')";
+
+    private static final String ENQUEUE_SQL = """
+            INSERT INTO pdf_job (course_id, status, max_attempts, force)
+            VALUES (?, 'QUEUED', ?, ?)
+            ON CONFLICT (course_id) WHERE status IN %s DO NOTHING
+            RETURNING id
+            """.formatted(ACTIVE_STATES);
+
+    // Oldest due job; rows claimed by another worker/instance are skipped, not waited for
+    private static final String CLAIM_SQL = """
+            UPDATE pdf_job SET status = 'RENDERING', attempts = attempts + 1,
+                               locked_at = now(), updated_at = now()
+            WHERE id = (SELECT id FROM pdf_job
+                        WHERE status = 'QUEUED' AND next_attempt_at <= now()
+                        ORDER BY next_attempt_at, id
+                        LIMIT 1
+                        FOR UPDATE SKIP LOCKED)
+            RETURNING id, course_id, attempts, max_attempts, force
+            """;
+
+    // Everything buildHtml() renders, in render order; %L quoting keeps NULL and '' apart.
+    // Bodies (lesson content, snippet code) are hashed individually to keep the digest input small.
+    private static final String FINGERPRINT_SQL = """
+            SELECT md5(format('%L|%L|%L|%L|%L|%L|%L|%L|%L|%L',
+                       ?, c.title, c.slug, c.description, c.requirements, c.level, c.language,
+                       c.is_free, c.total_lessons, u.username)
+                   || COALESCE((
+                       SELECT string_agg(format('#ch %L|%L|%L', ch.id, ch.title, ch.description)
+                                  || COALESCE((
+                                      SELECT string_agg(format('#l %L|%L|%L', l.id, l.title, md5(COALESCE(l.content, '')))
+                                                 || COALESCE((
+                                                     SELECT string_agg(format('#s %L|%L|%L|%L|%L', s.id, s.title, s.language,
+                                                                              md5(s.code), md5(COALESCE(s.explanation, ''))),
+                                                                       '' ORDER BY s.order_index, s.id)
+                                                     FROM code_snippets s WHERE s.lesson_id = l.id), ''),
+                                                 '' ORDER BY l.order_index, l.id)
+                                      FROM lessons l WHERE l.chapter_id = ch.id), ''),
+                                  '' ORDER BY ch.order_index, ch.id)
+                       FROM chapters ch WHERE ch.course_id = c.id), ''))
+            FROM course c
+            LEFT JOIN users u ON u.id = c.instructor_id
+            WHERE c.id = ?
+            """;
+
+    private static final String SELECT_JOB = """
+            SELECT id, course_id, status, attempts, max_attempts, next_attempt_at, last_error,
+                   created_at, updated_at, finished_at
+            FROM pdf_job
+            """;
+
+    /** Snapshot of one job row. */
+    public record PdfJob(long id, long courseId, Status status, int attempts, int maxAttempts,
+                         LocalDateTime nextAttemptAt, String lastError,
+                         LocalDateTime createdAt, LocalDateTime updatedAt, LocalDateTime finishedAt) {
+    }
+
+    private record Claim(long id, long courseId, int attempts, int maxAttempts, boolean force) {
+    }
+
+    private static final RowMapper<PdfJob> JOB_MAPPER = (rs, i) -> new PdfJob(
+            rs.getLong("id"),
+            rs.getLong("course_id"),
+            Status.valueOf(rs.getString("status")),
+            rs.getInt("attempts"),
+            rs.getInt("max_attempts"),
+            toLocalDateTime(rs.getTimestamp("next_attempt_at")),
+            rs.getString("last_error"),
+            toLocalDateTime(rs.getTimestamp("created_at")),
+            toLocalDateTime(rs.getTimestamp("updated_at")),
+            toLocalDateTime(rs.getTimestamp("finished_at")));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CourseRepository courseRepository;
+    private final CoursePdfExportRepository pdfExportRepository;
+    private final CoursePdfGeneratorService pdfGeneratorService;
+    private final R2StorageService r2StorageService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final int maxAttempts;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final long leaseMs;
+
+    private final ExecutorService workers;
+    private final Semaphore freeWorkers;
+    private final Set<Claim> running = ConcurrentHashMap.newKeySet();
+    private final DistributionSummary heapPeakSummary;
+
+    public PdfJobService(JdbcTemplate jdbcTemplate,
+                         CourseRepository courseRepository,
+                         CoursePdfExportRepository pdfExportRepository,
+                         CoursePdfGeneratorService pdfGeneratorService,
+                         R2StorageService r2StorageService,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.pdf.jobs.concurrency:1}") int concurrency,
+                         @Value("${app.pdf.jobs.max-attempts:3}") int maxAttempts,
+                         @Value("${app.pdf.jobs.backoff-base-ms:30000}") long backoffBaseMs,
+                         @Value("${app.pdf.jobs.backoff-max-ms:900000}") long backoffMaxMs,
+                         @Value("${app.pdf.jobs.lease-ms:600000}") long leaseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.courseRepository = courseRepository;
+        this.pdfExportRepository = pdfExportRepository;
+        this.pdfGeneratorService = pdfGeneratorService;
+        this.r2StorageService = r2StorageService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.leaseMs = leaseMs;
+        // Own threads: a render takes seconds to minutes and must not stall the shared @Scheduled thread
+        this.workers = Executors.newFixedThreadPool(Math.max(1, concurrency), Thread.ofPlatform()
+                .name("pdf-job-", 0).daemon(true).factory());
+        this.freeWorkers = new Semaphore(Math.max(1, concurrency));
+        this.heapPeakSummary = DistributionSummary.builder("pdf.export.heap.peak")
+                .description("JVM heap high-water mark during one PDF export")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    // ── Schema ────────────────────────────────────────────────────────────────
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            jdbcTemplate.execute("""
+                    CREATE TABLE IF NOT EXISTS pdf_job (
+                        id              BIGSERIAL   PRIMARY KEY,
+                        course_id       BIGINT      NOT NULL,
+                        status          VARCHAR(16) NOT NULL,
+                        attempts        INTEGER     NOT NULL DEFAULT 0,
+                        max_attempts    INTEGER     NOT NULL,
+                        next_attempt_at TIMESTAMP   NOT NULL DEFAULT now(),
+                        locked_at       TIMESTAMP,
+                        last_error      TEXT,
+                        created_at      TIMESTAMP   NOT NULL DEFAULT now(),
+                        updated_at      TIMESTAMP   NOT NULL DEFAULT now(),
+                        finished_at     TIMESTAMP
+                    )
+                    """);
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_pdf_job_active_course ON pdf_job (course_id) "
+                    + "WHERE status IN " + ACTIVE_STATES);
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_pdf_job_due ON pdf_job (next_attempt_at, id) "
+                    + "WHERE status = 'QUEUED'");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_pdf_job_course ON pdf_job (course_id, id)");
+            jdbcTemplate.execute("ALTER TABLE pdf_job ADD COLUMN IF NOT EXISTS force BOOLEAN NOT NULL DEFAULT false");
+            // Not mapped on CoursePdfExport: prod runs ddl-auto=validate and has no migrations
+            jdbcTemplate.execute("ALTER TABLE course_pdf_exports ADD COLUMN IF NOT EXISTS content_fingerprint VARCHAR(32)");
+        } catch (Exception e) {
+            log.warn("PDF job queue initialization skipped: {}", e.getMessage());
+        }
+    }
+
+    // ── API ───────────────────────────────────────────────────────────────────
+
+    /**
+     * Queues generation for the course, or returns the job already active for it.
+     * {@code force} renders even if the content fingerprint still matches the export.
+     */
+    public PdfJob enqueue(Long courseId, boolean force) {
+        if (!courseRepository.existsById(courseId)) {
+            throw new CustomMessageException("Course not found with id: " + courseId,
+                    String.valueOf(HttpStatus.NOT_FOUND.value()));
+        }
+        Long jobId = jdbcTemplate.query(ENQUEUE_SQL, rs -> rs.next() ? rs.getLong(1) : null, courseId, maxAttempts, force);
+        if (jobId != null) {
+            log.info("📄 Queued PDF job id={} for courseId={}", jobId, courseId);
+            return find(jobId).orElseThrow();
+        }
+        // Lost the race (or a job was already running) — hand back the active one
+        return jdbcTemplate.query(SELECT_JOB + " WHERE course_id = ? AND status IN " + ACTIVE_STATES,
+                        JOB_MAPPER, courseId).stream().findFirst()
+                .orElseGet(() -> enqueue(courseId, force));
+    }
+
+    /** True when the stored export was rendered from exactly the course's current content. */
+    public boolean isExportCurrent(long courseId) {
+        String stored = jdbcTemplate.query(
+                "SELECT content_fingerprint FROM course_pdf_exports WHERE course_id = ? AND pdf_url <> ''",
+                rs -> rs.next() ? rs.getString(1) : null, courseId);
+        return stored != null && stored.equals(fingerprint(courseId));
+    }
+
+    /**
+     * Deterministic digest of everything the PDF is rendered from, including
+     * {@link CoursePdfGeneratorService#TEMPLATE_VERSION}; null if the course does not exist.
+     */
+    public String fingerprint(long courseId) {
+        return jdbcTemplate.query(FINGERPRINT_SQL, rs -> rs.next() ? rs.getString(1) : null,
+                CoursePdfGeneratorService.TEMPLATE_VERSION, courseId);
+    }
+
+    public Optional<PdfJob> find(long jobId) {
+        return jdbcTemplate.query(SELECT_JOB + " WHERE id = ?", JOB_MAPPER, jobId).stream().findFirst();
+    }
+
+    public Optional<PdfJob> findLatestForCourse(long courseId) {
+        return jdbcTemplate.query(SELECT_JOB + " WHERE course_id = ? ORDER BY id DESC LIMIT 1", JOB_MAPPER, courseId)
+                .stream().findFirst();
+    }
+
+    // ── Worker ────────────────────────────────────────────────────────────────
+
+    /** Re-queues expired leases, then claims due jobs while a worker is free. */
+    @Scheduled(
+            fixedDelayString = "${app.pdf.jobs.poll-interval-ms:2000}",
+            initialDelayString = "${app.pdf.jobs.poll-interval-ms:2000}")
+    public void poll() {
+        try {
+            requeueExpiredLeases();
+            while (freeWorkers.tryAcquire()) {
+                Claim claim = claim();
+                if (claim == null) {
+                    freeWorkers.release();
+                    return;
+                }
+                running.add(claim);
+                workers.execute(() -> {
+                    try {
+                        run(claim);
+                    } finally {
+                        running.remove(claim);
+                        freeWorkers.release();
+                    }
+                });
+            }
+        } catch (Exception e) {
+            log.warn("PDF job poll failed: {}", e.getMessage());
+        }
+    }
+
+    /** Renews the lease of every job this instance is working on. */
+    @Scheduled(
+            fixedDelayString = "${app.pdf.jobs.heartbeat-ms:60000}",
+            initialDelayString = "${app.pdf.jobs.heartbeat-ms:60000}")
+    public void heartbeat() {
+        List<Object[]> leases = running.stream()
+                .map(claim -> new Object[] { claim.id(), claim.attempts() })
+                .toList();
+        if (leases.isEmpty()) return;
+        try {
+            jdbcTemplate.batchUpdate("UPDATE pdf_job SET locked_at = now() WHERE " + OWNED_BY_CLAIM, leases);
+        } catch (Exception e) {
+            log.warn("PDF job heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Interrupted jobs keep their lease and are re-queued once it expires
+        workers.shutdownNow();
+    }
+
+    private Claim claim() {
+        return jdbcTemplate.query(CLAIM_SQL, rs -> rs.next()
+                ? new Claim(rs.getLong("id"), rs.getLong("course_id"), rs.getInt("attempts"),
+                        rs.getInt("max_attempts"), rs.getBoolean("force"))
+                : null);
+    }
+
+    private void requeueExpiredLeases() {
+        int requeued = jdbcTemplate.update("""
+                UPDATE pdf_job SET status = 'QUEUED', locked_at = NULL, updated_at = now(),
+                                   last_error = 'Worker lease expired'
+                WHERE status IN ('RENDERING', 'UPLOADING') AND locked_at < ?
+                """, Timestamp.valueOf(LocalDateTime.now().minusNanos(leaseMs * 1_000_000)));
+        if (requeued > 0) log.warn("Re-queued {} PDF job(s) with an expired lease", requeued);
+    }
+
+    private void run(Claim claim) {
+        long t0 = System.currentTimeMillis();
+        Path pdfFile = null;
+        try {
+            // ── 1. Fingerprint first — an edit racing the load can only make it stale, never too new
+            if (!claim.force() && isExportCurrent(claim.courseId())) {
+                markDone(claim);
+                log.info("⏭️ PDF job id={} skipped — courseId={} unchanged since the last export", claim.id(), claim.courseId());
+                return;
+            }
+            String fingerprint = fingerprint(claim.courseId());
+
+            // ── 2. Load the whole course tree, then let go of the connection ──
+            Course course = readOnlyTransaction.execute(status -> loadCourseTree(claim.courseId()));
+
+            // ── 3. Render into a temp file (no transaction) ───────────────────
+            resetHeapPeak();
+            pdfFile = Files.createTempFile("course-pdf-", ".pdf");
+            CoursePdfGeneratorService.RenderedPdf pdf = pdfGeneratorService.generate(course, pdfFile);
+            log.info("📦 PDF job id={} rendered {} KB, {} pages for courseId={}",
+                    claim.id(), pdf.sizeBytes() / 1024, pdf.pages(), claim.courseId());
+
+            // ── 4. Upload straight from the file (no transaction) ─────────────
+            if (!setStatus(claim, Status.UPLOADING)) {
+                log.warn("PDF job id={} attempt {} lost its lease while rendering — result dropped",
+                        claim.id(), claim.attempts());
+                return;
+            }
+            String uploadedPdfUrl = r2StorageService.uploadPdf(pdf.file(), course.getSlug());
+
+            // ── 5. DONE + export metadata + fingerprint atomically — only while the lease is ours
+            Boolean saved = writeTransaction.execute(status -> {
+                if (!markDone(claim)) return false;
+                saveExport(claim.courseId(), course, uploadedPdfUrl, pdf.sizeBytes() / 1024, pdf.pages());
+                pdfExportRepository.flush();
+                jdbcTemplate.update("UPDATE course_pdf_exports SET content_fingerprint = ? WHERE course_id = ?",
+                        fingerprint, claim.courseId());
+                return true;
+            });
+            if (!Boolean.TRUE.equals(saved)) {
+                // Another attempt owns the job now; its export takes its own reference
+                r2StorageService.deleteFile(uploadedPdfUrl);
+                log.warn("PDF job id={} attempt {} lost its lease while uploading — result dropped",
+                        claim.id(), claim.attempts());
+                return;
+            }
+            long heapPeak = heapPeakBytes();
+            heapPeakSummary.record(heapPeak);
+            log.info("✅ PDF job id={} done for courseId={} in {} ms (heap peak {} MB)", claim.id(), claim.courseId(),
+                    System.currentTimeMillis() - t0, heapPeak / (1024 * 1024));
+        } catch (Exception e) {
+            fail(claim, e);
+        } finally {
+            deleteQuietly(pdfFile);
+        }
+    }
+
+    // Heap high-water mark of the process while an export runs. Peaks are JVM-wide, so with
+    // concurrency > 1 overlapping exports share one reading — still the number that matters for sizing.
+    private static void resetHeapPeak() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) pool.resetPeakUsage();
+        }
+    }
+
+    private static long heapPeakBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete temp PDF {}: {}", file, e.getMessage());
+        }
+    }
+
+    private Course loadCourseTree(long courseId) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new CustomMessageException("Course not found with id: " + courseId,
+                        String.valueOf(HttpStatus.NOT_FOUND.value())));
+        // Everything the renderer touches is initialized before the entities are detached
+        Hibernate.initialize(course.getInstructor());
+        for (Chapter chapter : course.getChapters()) {
+            for (Lesson lesson : chapter.getLessons()) {
+                lesson.getContent();
+                Hibernate.initialize(lesson.getCodeSnippets());
+            }
+        }
+        return course;
+    }
+
+    private void saveExport(long courseId, Course course, String uploadedPdfUrl, long sizeKb, int totalPages) {
+        Course managed = courseRepository.getReferenceById(courseId);
+        CoursePdfExport export = pdfExportRepository.findByCourseId(courseId)
+                .orElseGet(() -> CoursePdfExport.builder().course(managed).build());
+
+        // Content-addressed: a changed PDF has a new URL, so no ?v= cache buster is needed
+        String newPdfUrl = uploadedPdfUrl;
+        log.info("☁️  PDF uploaded to R2 → {}", newPdfUrl);
+        // Released after this transaction commits — a rollback keeps the export's current PDF
+        deleteOldPdfIfExists(export.getPdfUrl(), newPdfUrl);
+
+        int totalLessons = course.getChapters() == null ? 0 :
+                course.getChapters().stream()
+                        .filter(ch -> ch.getLessons() != null)
+                        .mapToInt(ch -> ch.getLessons().size())
+                        .sum();
+
+        export.setPdfName(course.getSlug() + ".pdf");
+        export.setPdfUrl(newPdfUrl);
+        export.setPdfSizeKb(sizeKb);
+        export.setTotalPages(totalPages);
+        export.setTotalLessonsIncluded(totalLessons);
+        export.setGeneratedAt(LocalDateTime.now());
+        pdfExportRepository.save(export);
+    }
+
+    private void fail(Claim claim, Exception e) {
+        boolean permanent = e instanceof CustomMessageException cme
+                && String.valueOf(HttpStatus.NOT_FOUND.value()).equals(cme.getCode());
+        String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        try {
+            if (permanent || claim.attempts() >= claim.maxAttempts()) {
+                jdbcTemplate.update("""
+                        UPDATE pdf_job SET status = 'FAILED', locked_at = NULL, last_error = ?,
+                                           updated_at = now(), finished_at = now()
+                        WHERE %s
+                        """.formatted(OWNED_BY_CLAIM), error, claim.id(), claim.attempts());
+                log.error("❌ PDF job id={} failed for courseId={} after {} attempt(s): {}",
+                        claim.id(), claim.courseId(), claim.attempts(), error);
+            } else {
+                long delayMs = Math.min(backoffMaxMs, backoffBaseMs << Math.min(20, claim.attempts() - 1));
+                jdbcTemplate.update("""
+                        UPDATE pdf_job SET status = 'QUEUED', locked_at = NULL, last_error = ?,
+                                           next_attempt_at = ?, updated_at = now()
+                        WHERE %s
+                        """.formatted(OWNED_BY_CLAIM), error,
+                        Timestamp.valueOf(LocalDateTime.now().plusNanos(delayMs * 1_000_000)),
+                        claim.id(), claim.attempts());
+                log.warn("PDF job id={} attempt {}/{} failed, retrying in {} ms: {}",
+                        claim.id(), claim.attempts(), claim.maxAttempts(), delayMs, error);
+            }
+        } catch (Exception updateFailure) {
+            // The lease expiry puts the job back in the queue
+            log.error("Could not record failure of PDF job id={}: {}", claim.id(), updateFailure.getMessage());
+        }
+    }
+
+    /** False when the claim's lease is gone — the job was re-queued or claimed again. */
+    private boolean markDone(Claim claim) {
+        return jdbcTemplate.update("""
+                UPDATE pdf_job SET status = 'DONE', locked_at = NULL, last_error = NULL,
+                                   updated_at = now(), finished_at = now()
+                WHERE %s
+                """.formatted(OWNED_BY_CLAIM), claim.id(), claim.attempts()) > 0;
+    }
+
+    private boolean setStatus(Claim claim, Status status) {
+        return jdbcTemplate.update("UPDATE pdf_job SET status = ?, locked_at = now(), updated_at = now() WHERE "
+                + OWNED_BY_CLAIM, status.name(), claim.id(), claim.attempts()) > 0;
+    }
+
+    /**
+     * Deletes the old PDF from R2 only if it exists and is different from the new one.
+     * Silently swallows errors — a stale file in R2 should never block a regeneration.
+     */
+    // Also when old and new share a key: the upload took a second reference, this drops the old one
+    private void deleteOldPdfIfExists(String oldUrl, String newUrl) {
+        if (!StringUtils.hasText(oldUrl)) return;
+        try {
+            r2StorageService.deleteFile(oldUrl);
+            log.info("🗑️  Old PDF released in R2: {} (now {})", oldUrl, newUrl);
+        } catch (Exception e) {
+            log.warn("Could not delete old PDF from R2 ({}): {}", oldUrl, e.getMessage());
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
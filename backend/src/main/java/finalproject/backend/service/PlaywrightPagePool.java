@@ -0,0 +1,225 @@
+package finalproject.backend.service;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import finalproject.backend.exception.CustomMessageException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Fixed-size pool of ready-to-use Chromium pages for PDF rendering.
+ *
+ * WHY:  Every render created a BrowserContext, installed the resource blocker
+ *       and opened a Page, with no bound on how many renders ran at once — on a
+ *       512 MB instance a few large courses rendering together exhaust memory.
+ *
+ * HOW:  {@code app.pdf.pool.size} slots, each a km-KH context with the
+ *       image/media blocker installed and one page. {@link #withPage} admits a
+ *       caller through a fair semaphore (FIFO, at most
+ *       {@code acquire-timeout-ms} of waiting, then 503) and hands it an idle
+ *       slot. After use the page is reset to about:blank; a slot that failed or
+ *       reached {@code max-uses} is closed and rebuilt on next use. Playwright's
+ *       driver connection is not thread-safe, so driver calls are additionally
+ *       serialized — extra slots keep more contexts warm, the admission queue is
+ *       what bounds memory.
+ *
+ * METRICS (Micrometer): pdf.render.queue.depth, pdf.render.pool.in_use,
+ *       pdf.render.admission.wait, pdf.render.rejected.
+ */
+@Slf4j
+@Service
+public class PlaywrightPagePool {
+
+    private static final String LOCALE = "km-KH";
+
+    private final class Slot {
+        BrowserContext context;
+        Page page;
+        int uses;
+
+        Page page() {
+            if (page == null || page.isClosed()) {
+                close();
+                context = browserProvider.getObject().newContext(new Browser.NewContextOptions().setLocale(LOCALE));
+                // Block images / media — they are never needed for PDF
+                context.route("**/*", route -> {
+                    String type = route.request().resourceType();
+                    if (type.equals("image") || type.equals("media")
+                            || type.equals("websocket") || type.equals("other"))
+                        route.abort();
+                    else
+                        route.resume();
+                });
+                page = context.newPage();
+                uses = 0;
+            }
+            return page;
+        }
+
+        void close() {
+            if (context != null) {
+                try {
+                    context.close();
+                } catch (Exception e) {
+                    log.debug("Closing pooled browser context failed: {}", e.getMessage());
+                }
+            }
+            context = null;
+            page = null;
+        }
+    }
+
+    private final ObjectProvider<Browser> browserProvider;
+    private final int size;
+    private final long acquireTimeoutMs;
+    private final int maxUses;
+
+    private final Semaphore admission;
+    private final Deque<Slot> idle = new ArrayDeque<>();
+    private final ReentrantLock driverLock = new ReentrantLock();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger inUse = new AtomicInteger();
+
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public PlaywrightPagePool(ObjectProvider<Browser> browserProvider,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.pdf.pool.size:1}") int size,
+                              @Value("${app.pdf.pool.acquire-timeout-ms:120000}") long acquireTimeoutMs,
+                              @Value("${app.pdf.pool.max-uses:50}") int maxUses) {
+        this.browserProvider = browserProvider;
+        this.size = Math.max(1, size);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.maxUses = Math.max(1, maxUses);
+        this.admission = new Semaphore(this.size, true);
+        for (int i = 0; i < this.size; i++) idle.push(new Slot());
+
+        Gauge.builder("pdf.render.queue.depth", waiting, AtomicInteger::get)
+                .description("Renders waiting for a pooled page")
+                .register(meterRegistry);
+        Gauge.builder("pdf.render.pool.in_use", inUse, AtomicInteger::get)
+                .description("Pooled pages currently rendering")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("pdf.render.admission.wait")
+                .description("Time spent waiting for a pooled page")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("pdf.render.rejected")
+                .description("Renders rejected after the admission timeout")
+                .register(meterRegistry);
+    }
+
+    /** Runs {@code work} with an exclusive, freshly reset page. */
+    public <T> T withPage(Function<Page, T> work) {
+        long waitStarted = System.nanoTime();
+        waiting.incrementAndGet();
+        boolean admitted;
+        try {
+            admitted = admission.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomMessageException("Interrupted while waiting for the PDF renderer",
+                    String.valueOf(HttpStatus.SERVICE_UNAVAILABLE.value()));
+        } finally {
+            waiting.decrementAndGet();
+        }
+        waitTimer.record(System.nanoTime() - waitStarted, TimeUnit.NANOSECONDS);
+        if (!admitted) {
+            rejected.increment();
+            throw new CustomMessageException("PDF renderer is busy, try again later",
+                    String.valueOf(HttpStatus.SERVICE_UNAVAILABLE.value()));
+        }
+
+        inUse.incrementAndGet();
+        Slot slot = takeIdle();
+        driverLock.lock();
+        try {
+            T result = work.apply(slot.page());
+            slot.uses++;
+            reset(slot);
+            return result;
+        } catch (RuntimeException e) {
+            // Unknown page state after a failure — rebuild the context on next use
+            slot.close();
+            throw e;
+        } finally {
+            driverLock.unlock();
+            returnIdle(slot);
+            inUse.decrementAndGet();
+            admission.release();
+        }
+    }
+
+    /** Creates every slot's context up front (startup warmup). */
+    public void prewarm() {
+        driverLock.lock();
+        try {
+            synchronized (idle) {
+                idle.forEach(Slot::page);
+            }
+        } finally {
+            driverLock.unlock();
+        }
+        log.info("✅ Playwright page pool warmed — {} context(s)", size);
+    }
+
+    /** Pages that can render at the same time. */
+    public int size() {
+        return size;
+    }
+
+    public int queueDepth() {
+        return waiting.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        synchronized (idle) {
+            idle.forEach(Slot::close);
+        }
+    }
+
+    // ── internals ─────────────────────────────────────────────────────────────
+
+    private void reset(Slot slot) {
+        if (slot.uses >= maxUses) {
+            slot.close();
+            return;
+        }
+        try {
+            // Drops the previous document (DOM, scripts, memory) but keeps the context and route handler
+            slot.page.navigate("about:blank");
+        } catch (Exception e) {
+            slot.close();
+        }
+    }
+
+    private Slot takeIdle() {
+        synchronized (idle) {
+            return idle.pop();   // never empty: one admission permit per slot
+        }
+    }
+
+    private void returnIdle(Slot slot) {
+        synchronized (idle) {
+            idle.push(slot);
+        }
+    }
+}
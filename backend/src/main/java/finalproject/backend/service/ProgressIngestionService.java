@@ -0,0 +1,255 @@
+package finalproject.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for lesson-progress heartbeats (scroll position + read time).
+ *
+ * WHY:  The reader posts progress every few seconds; each post loaded the user,
+ *       the lesson and the progress row and saved it again — four round trips
+ *       and a row lock per heartbeat, almost all of them overwritten moments later.
+ *
+ * HOW:  Heartbeats are coalesced per (user, lesson) in memory: last write wins
+ *       for scrollPct, readTimeSeconds deltas are summed. A scheduled flush
+ *       writes everything with one batched
+ *       INSERT ... ON CONFLICT (user_id, lesson_id) DO UPDATE
+ *       (plus the matching {@link UserCourseProgressService} deltas).
+ *       Completions / PDF downloads never go through here — the service writes
+ *       them immediately and first {@link #take}s the pending entry so nothing
+ *       older lands on top of them. Reads overlay {@link #peek} / {@link #peekUser}
+ *       on what is persisted instead of flushing. When
+ *       {@code app.progress.max-pending} entries are buffered a flush is started
+ *       on its own thread and heartbeats for lessons not yet buffered are
+ *       dropped until it drains (bounded memory while the database is down);
+ *       a final flush runs on shutdown.
+ *       Flushes never run on a request thread — a request transaction already
+ *       holds a pooled connection and the flush needs one of its own.
+ */
+@Slf4j
+@Service
+public class ProgressIngestionService {
+
+    // Rows of deleted lessons/users are skipped instead of failing the whole batch on the FK.
+    // A completed row keeps its scroll_pct: the completion may commit while this batch is in flight
+    private static final String UPSERT_SQL = """
+            INSERT INTO lesson_progress
+                (user_id, lesson_id, scroll_pct, read_time_seconds, is_completed, pdf_downloaded, created_at, updated_at)
+            SELECT ?, ?, ?, ?, false, false, ?, ?
+            WHERE EXISTS (SELECT 1 FROM lessons WHERE id = ?)
+              AND EXISTS (SELECT 1 FROM users WHERE id = ?)
+            ON CONFLICT (user_id, lesson_id) DO UPDATE SET
+                scroll_pct        = CASE WHEN lesson_progress.is_completed THEN lesson_progress.scroll_pct
+                                         ELSE EXCLUDED.scroll_pct END,
+                read_time_seconds = COALESCE(lesson_progress.read_time_seconds, 0) + EXCLUDED.read_time_seconds,
+                updated_at        = EXCLUDED.updated_at
+            """;
+
+    private static final int BATCH_SIZE = 500;
+
+    /** Coalesced heartbeats of one (user, lesson) since the last flush. */
+    public record Pending(int scrollPct, int readTimeSeconds, LocalDateTime firstSeenAt, LocalDateTime lastSeenAt) {
+
+        Pending then(Pending newer) {
+            return new Pending(newer.scrollPct, readTimeSeconds + newer.readTimeSeconds, firstSeenAt, newer.lastSeenAt);
+        }
+    }
+
+    private record Row(long userId, long lessonId, Pending pending) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserCourseProgressService userCourseProgressService;
+    private final CompactProgressService compactProgressService;
+    private final TransactionTemplate writeTransaction;
+    private final int maxPending;
+
+    // userId → (lessonId → pending); every mutation runs inside compute() on the user key
+    private final ConcurrentHashMap<Long, Map<Long, Pending>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    // Heartbeats turned away by a full buffer since the last successful flush
+    private final LongAdder dropped = new LongAdder();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ExecutorService overflowFlusher = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("progress-overflow-flush").factory());
+
+    public ProgressIngestionService(JdbcTemplate jdbcTemplate,
+                                    UserCourseProgressService userCourseProgressService,
+                                    CompactProgressService compactProgressService,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.progress.max-pending:20000}") int maxPending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userCourseProgressService = userCourseProgressService;
+        this.compactProgressService = compactProgressService;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Buffers one heartbeat — never touches the database; a full buffer starts a
+     * background flush. Returns false when the buffer is full and the heartbeat
+     * was dropped (one already buffered for the lesson is still coalesced).
+     */
+    public boolean record(long userId, long lessonId, int scrollPct, int readTimeSeconds) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean full = pendingCount.get() >= maxPending;
+        boolean buffered = merge(userId, lessonId, new Pending(scrollPct, Math.max(0, readTimeSeconds), now, now), !full);
+        if (!buffered) dropped.increment();
+        if (pendingCount.get() >= maxPending && !flushLock.isLocked()) {
+            overflowFlusher.execute(this::flush);
+        }
+        return buffered;
+    }
+
+    /** Pending state of one (user, lesson), or null — used to overlay responses. */
+    public Pending peek(long userId, long lessonId) {
+        // Inner maps are only touched inside compute() on the user key
+        Pending[] found = new Pending[1];
+        pending.computeIfPresent(userId, (u, map) -> {
+            found[0] = map.get(lessonId);
+            return map;
+        });
+        return found[0];
+    }
+
+    /** Removes and returns the pending entry — the caller writes it itself. */
+    public Pending take(long userId, long lessonId) {
+        Pending[] taken = new Pending[1];
+        pending.computeIfPresent(userId, (u, map) -> {
+            taken[0] = map.remove(lessonId);
+            if (taken[0] != null) pendingCount.decrementAndGet();
+            return map.isEmpty() ? null : map;
+        });
+        return taken[0];
+    }
+
+    /** Copy of the user's unflushed heartbeats by lesson id (empty when none). */
+    public Map<Long, Pending> peekUser(long userId) {
+        Map<Long, Pending> copy = new HashMap<>();
+        pending.computeIfPresent(userId, (u, map) -> {
+            copy.putAll(map);
+            return map;
+        });
+        return copy;
+    }
+
+    public int pendingCount() {
+        return pendingCount.get();
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.progress.flush-interval-ms:5000}",
+            initialDelayString = "${app.progress.flush-interval-ms:5000}")
+    public void flush() {
+        // A full buffer may trigger flushes from many request threads — one is enough
+        if (!flushLock.tryLock()) return;
+        try {
+            List<Row> rows = new ArrayList<>(Math.min(pendingCount.get(), BATCH_SIZE));
+            for (Long userId : pending.keySet()) {
+                Map<Long, Pending> lessons = pending.remove(userId);
+                if (lessons == null) continue;
+                pendingCount.addAndGet(-lessons.size());
+                lessons.forEach((lessonId, p) -> rows.add(new Row(userId, lessonId, p)));
+                if (rows.size() >= BATCH_SIZE) {
+                    write(rows);
+                    rows.clear();
+                }
+            }
+            write(rows);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        overflowFlusher.close();
+        log.info("Flushing {} pending lesson progress update(s) before shutdown", pendingCount.get());
+        flushLock.lock();
+        try {
+            flush();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // ── internals ─────────────────────────────────────────────────────────────
+
+    /** Coalesces into the buffered entry; a new entry is only added when {@code mayAdd}. */
+    private boolean merge(long userId, long lessonId, Pending update, boolean mayAdd) {
+        boolean[] merged = new boolean[1];
+        pending.compute(userId, (u, map) -> {
+            Map<Long, Pending> lessons = map != null ? map : new HashMap<>();
+            Pending previous = lessons.get(lessonId);
+            if (previous != null) {
+                lessons.put(lessonId, previous.then(update));
+                merged[0] = true;
+            } else if (mayAdd) {
+                lessons.put(lessonId, update);
+                pendingCount.incrementAndGet();
+                merged[0] = true;
+            }
+            return lessons.isEmpty() ? null : lessons;
+        });
+        return merged[0];
+    }
+
+    private void write(List<Row> rows) {
+        if (rows.isEmpty()) return;
+        try {
+            writeTransaction.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (ps, row) -> {
+                    Pending p = row.pending();
+                    ps.setLong(1, row.userId());
+                    ps.setLong(2, row.lessonId());
+                    ps.setInt(3, p.scrollPct());
+                    ps.setInt(4, p.readTimeSeconds());
+                    ps.setTimestamp(5, Timestamp.valueOf(p.firstSeenAt()));
+                    ps.setTimestamp(6, Timestamp.valueOf(p.lastSeenAt()));
+                    ps.setLong(7, row.lessonId());
+                    ps.setLong(8, row.userId());
+                });
+                userCourseProgressService.apply(rows.stream()
+                        .map(row -> new UserCourseProgressService.Delta(row.userId(), row.lessonId(), 0,
+                                row.pending().readTimeSeconds(), row.pending().lastSeenAt()))
+                        .toList());
+            });
+            rows.stream().map(Row::userId).distinct().forEach(compactProgressService::evictUser);
+            long droppedCount = dropped.sumThenReset();
+            if (droppedCount > 0) log.warn("Dropped {} lesson progress heartbeat(s) while the buffer was full", droppedCount);
+            log.debug("Flushed {} lesson progress update(s)", rows.size());
+        } catch (Exception e) {
+            // Put the entries back underneath anything recorded meanwhile; the next flush retries them.
+            // record() stops adding at max-pending, so the buffer stays within twice that bound
+            for (Row row : rows) {
+                pending.compute(row.userId(), (u, map) -> {
+                    Map<Long, Pending> lessons = map != null ? map : new HashMap<>();
+                    Pending newer = lessons.get(row.lessonId());
+                    if (newer == null) pendingCount.incrementAndGet();
+                    lessons.put(row.lessonId(), newer == null ? row.pending() : row.pending().then(newer));
+                    return lessons;
+                });
+            }
+            log.warn("Lesson progress flush failed, will retry {} update(s): {}", rows.size(), e.getMessage());
+        }
+    }
+}
@@ -2,20 +2,39 @@ package finalproject.backend.service;
 
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
 
 public interface R2StorageService {
 
-    // ── Image upload (MultipartFile) ──────────────────────────────────────────
-    String uploadFile(MultipartFile file, String folder) throws IOException;
+    // ── Image upload (MultipartFile) — blocking, same as await(uploadFileAsync(..)) ──
+    String uploadFile(MultipartFile file, String folder);
+
+    // ── Image upload in the background ────────────────────────────────────────
+    // Validates on the calling thread, then streams the file on a virtual thread
+    // (parallel multipart above the threshold). Join with await(); hand the
+    // future to discard() if the request fails before the URL is stored.
+    CompletableFuture<String> uploadFileAsync(MultipartFile file, String folder);
+
+    // ── Wait for an async upload — failures surface as FileStorageException ───
+    String await(CompletableFuture<String> upload);
+
+    // ── Delete the object of an upload whose URL will never be stored (null-safe)
+    void discard(CompletableFuture<String> upload);
+
+    // ── Same, once the current transaction rolls back (or fails to commit) ───
+    void discardOnRollback(CompletableFuture<String> upload);
 
     // ── Raw bytes upload (generic) ────────────────────────────────────────────
     String uploadBytes(byte[] bytes, String folder, String filename, String contentType);
 
-    // ── PDF upload (convenience — uses uploadBytes internally) ────────────────
-    // Returns: https://cdn.codegrowthkh.site/course-pdfs/{uuid}-{slug}.pdf
-    String uploadPdf(byte[] pdfBytes, String courseSlug);
+    // ── PDF upload (streamed from disk — multipart above the threshold) ───────
+    // Content-addressed: https://cdn.codegrowthkh.site/course-pdfs/{sha256}.pdf
+    String uploadPdf(Path pdfFile, String courseSlug);
 
-    // ── Delete by public URL ──────────────────────────────────────────────────
+    // ── Delete by public URL — drops one reference; the object goes with the last
+    // (images and PDFs are content-addressed, so the same key can be shared).
+    // Inside a transaction this happens after commit, in the background; a rollback keeps it.
     void deleteFile(String publicUrl);
 
     // ── Replace old file with new ─────────────────────────────────────────────
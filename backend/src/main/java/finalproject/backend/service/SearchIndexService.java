@@ -0,0 +1,321 @@
+package finalproject.backend.service;
+
+import finalproject.backend.modal.CodeSnippet;
+import finalproject.backend.modal.Course;
+import finalproject.backend.modal.Lesson;
+import finalproject.backend.util.SearchTextUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maintains the `search_document` table behind /api/v1/search.
+ *
+ * WHY:  LIKE '%term%' over course titles cannot use an index, ignores lesson
+ *       and snippet text, and the PDF admin list filtered the whole course
+ *       table in Java.
+ *
+ * HOW:  One row per course / lesson / code snippet with a weighted tsvector
+ *       (title = A, body = B) behind a GIN index. Text is tokenized by
+ *       {@link SearchTextUtil} so Khmer runs are searchable as bigrams.
+ *       Rows are upserted by the Course/Lesson/CodeSnippet write paths in the
+ *       same transaction; deletes go by course/chapter/lesson id because JPA
+ *       cascades remove children without touching this table. Course status
+ *       is joined at query time, so publishing never needs a re-index.
+ *
+ *       Bodies are split into overlapping chunks of {@value #CHUNK_LENGTH}
+ *       chars, one row each ({@code chunk_no}, every row carrying the title).
+ *       A single tsvector over a long lesson drops positions past 16383 and
+ *       beyond the 256th occurrence of a lexeme — Khmer bigrams hit both — so
+ *       {@code <->} phrases deep in the text would never match. Search keeps
+ *       the best-ranked chunk of each document.
+ *
+ *       A rebuild runs on its own thread after startup, as one transaction:
+ *       the old rows are deleted (not truncated — TRUNCATE would lock readers
+ *       out) and stay visible to searches until the new ones commit. Sources
+ *       are streamed through a cursor, so lesson content is never all in memory.
+ */
+@Slf4j
+@Service
+public class SearchIndexService {
+
+    public static final String TYPE_COURSE  = "COURSE";
+    public static final String TYPE_LESSON  = "LESSON";
+    public static final String TYPE_SNIPPET = "SNIPPET";
+
+    // ~2000 tokens per chunk at most (one per Khmer char) — far inside the tsvector limits;
+    // a phrase up to CHUNK_OVERLAP chars long always lies whole inside one chunk
+    static final int CHUNK_LENGTH  = 2000;
+    static final int CHUNK_OVERLAP = 200;
+
+    private static final String PRIMARY_KEY = "pk_search_document_chunk";
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO search_document
+                (doc_type, doc_id, chunk_no, course_id, chapter_id, lesson_id, title, body, tsv, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?,
+                    setweight(to_tsvector('simple', ?), 'A') || setweight(to_tsvector('simple', ?), 'B'),
+                    now())
+            ON CONFLICT (doc_type, doc_id, chunk_no) DO UPDATE SET
+                course_id  = EXCLUDED.course_id,
+                chapter_id = EXCLUDED.chapter_id,
+                lesson_id  = EXCLUDED.lesson_id,
+                title      = EXCLUDED.title,
+                body       = EXCLUDED.body,
+                tsv        = EXCLUDED.tsv,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final int REBUILD_BATCH_SIZE = 200;
+    // Rows per cursor round trip while streaming the source tables
+    private static final int REBUILD_FETCH_SIZE = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate rebuildTransaction;
+
+    public SearchIndexService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rebuildTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /** A document ready to be written; body is plain text (HTML already stripped). */
+    private record SearchDocument(String type, long id, long courseId, Long chapterId, Long lessonId,
+                                  String title, String body) {
+    }
+
+    /** One indexed row: a chunk of a document's body. */
+    private record Chunk(SearchDocument doc, int no, String body) {
+    }
+
+    // ── Schema / backfill ─────────────────────────────────────────────────────
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        boolean migrated;
+        try {
+            migrated = ensureSchema();
+        } catch (Exception e) {
+            log.warn("Search index initialization skipped: {}", e.getMessage());
+            return;
+        }
+        // Startup doesn't wait for the backfill; searches see the previous index meanwhile
+        Thread.ofVirtual().name("search-index-rebuild").start(() -> {
+            try {
+                if (migrated || isOutOfSync()) rebuild();
+            } catch (Exception e) {
+                log.warn("Search index rebuild failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    /** True when an unchunked table was migrated and has to be rebuilt. */
+    private boolean ensureSchema() {
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS search_document (
+                    doc_type   VARCHAR(16) NOT NULL,
+                    doc_id     BIGINT      NOT NULL,
+                    chunk_no   INT         NOT NULL DEFAULT 0,
+                    course_id  BIGINT      NOT NULL,
+                    chapter_id BIGINT,
+                    lesson_id  BIGINT,
+                    title      TEXT,
+                    body       TEXT,
+                    tsv        TSVECTOR    NOT NULL,
+                    updated_at TIMESTAMP   NOT NULL DEFAULT now(),
+                    CONSTRAINT %s PRIMARY KEY (doc_type, doc_id, chunk_no)
+                )
+                """.formatted(PRIMARY_KEY));
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_search_document_tsv ON search_document USING GIN (tsv)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_search_document_course ON search_document (course_id)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_search_document_chapter ON search_document (chapter_id)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_search_document_lesson ON search_document (lesson_id)");
+
+        Boolean chunked = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ?)", Boolean.class, PRIMARY_KEY);
+        if (Boolean.TRUE.equals(chunked)) return false;
+        // Table from before chunking: one row per document, keyed (doc_type, doc_id)
+        jdbcTemplate.execute("ALTER TABLE search_document ADD COLUMN IF NOT EXISTS chunk_no INT NOT NULL DEFAULT 0");
+        jdbcTemplate.execute("ALTER TABLE search_document DROP CONSTRAINT IF EXISTS search_document_pkey");
+        jdbcTemplate.execute("ALTER TABLE search_document ADD CONSTRAINT " + PRIMARY_KEY
+                + " PRIMARY KEY (doc_type, doc_id, chunk_no)");
+        log.info("Search index migrated to chunked documents");
+        return true;
+    }
+
+    /** Row counts differ from the source tables (first start, or schema recreated by ddl-auto). */
+    private boolean isOutOfSync() {
+        Long indexed = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM search_document WHERE chunk_no = 0", Long.class);
+        Long source  = jdbcTemplate.queryForObject("""
+                SELECT (SELECT COUNT(*) FROM course)
+                     + (SELECT COUNT(*) FROM lessons)
+                     + (SELECT COUNT(*) FROM code_snippets)
+                """, Long.class);
+        return indexed == null || !indexed.equals(source);
+    }
+
+    /** Re-indexes everything straight from JDBC (no entity loading) in one transaction. */
+    public void rebuild() {
+        rebuildTransaction.executeWithoutResult(status -> rebuildInTransaction());
+    }
+
+    private void rebuildInTransaction() {
+        long started = System.currentTimeMillis();
+        jdbcTemplate.update("DELETE FROM search_document");
+
+        List<SearchDocument> batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+        int[] total = {0};
+
+        stream("SELECT id, title, slug, description FROM course", rs -> {
+            batch.add(courseDocument(rs.getLong("id"), rs.getString("title"),
+                    rs.getString("slug"), rs.getString("description")));
+            total[0] += flushIfFull(batch);
+        });
+        stream("SELECT id, course_id, chapter_id, title, description, content FROM lessons", rs -> {
+            batch.add(lessonDocument(rs.getLong("id"), rs.getLong("course_id"), rs.getLong("chapter_id"),
+                    rs.getString("title"), rs.getString("description"), rs.getString("content")));
+            total[0] += flushIfFull(batch);
+        });
+        stream("""
+                SELECT s.id, s.lesson_id, s.title, s.explanation, l.course_id, l.chapter_id
+                FROM code_snippets s JOIN lessons l ON l.id = s.lesson_id
+                """, rs -> {
+            batch.add(snippetDocument(rs.getLong("id"), rs.getLong("course_id"), rs.getLong("chapter_id"),
+                    rs.getLong("lesson_id"), rs.getString("title"), rs.getString("explanation")));
+            total[0] += flushIfFull(batch);
+        });
+        total[0] += write(batch);
+        batch.clear();
+
+        log.info("Search index rebuilt: {} documents in {} ms", total[0], System.currentTimeMillis() - started);
+    }
+
+    // ── Write paths ───────────────────────────────────────────────────────────
+
+    public void indexCourse(Course course) {
+        if (course == null || course.getId() == null) return;
+        write(List.of(courseDocument(course.getId(), course.getTitle(), course.getSlug(), course.getDescription())));
+    }
+
+    /** Re-indexes the lesson and re-points its snippets (chapter/course may have changed). */
+    public void indexLesson(Lesson lesson) {
+        if (lesson == null || lesson.getId() == null) return;
+        long courseId  = lesson.getCourse().getId();
+        long chapterId = lesson.getChapter().getId();
+        write(List.of(lessonDocument(lesson.getId(), courseId, chapterId,
+                lesson.getTitle(), lesson.getDescription(), lesson.getContent())));
+        jdbcTemplate.update("""
+                UPDATE search_document SET course_id = ?, chapter_id = ?
+                WHERE doc_type = ? AND lesson_id = ?
+                """, courseId, chapterId, TYPE_SNIPPET, lesson.getId());
+    }
+
+    public void indexSnippet(CodeSnippet snippet) {
+        if (snippet == null || snippet.getId() == null) return;
+        Lesson lesson = snippet.getLesson();
+        write(List.of(snippetDocument(snippet.getId(), lesson.getCourse().getId(), lesson.getChapter().getId(),
+                lesson.getId(), snippet.getTitle(), snippet.getExplanation())));
+    }
+
+    public void removeCourse(Long courseId) {
+        jdbcTemplate.update("DELETE FROM search_document WHERE course_id = ?", courseId);
+    }
+
+    public void removeChapter(Long chapterId) {
+        jdbcTemplate.update("DELETE FROM search_document WHERE chapter_id = ?", chapterId);
+    }
+
+    /** Removes the lesson and all of its snippets. */
+    public void removeLesson(Long lessonId) {
+        jdbcTemplate.update("""
+                DELETE FROM search_document
+                WHERE (doc_type = ? AND doc_id = ?) OR lesson_id = ?
+                """, TYPE_LESSON, lessonId, lessonId);
+    }
+
+    public void removeSnippet(Long snippetId) {
+        jdbcTemplate.update("DELETE FROM search_document WHERE doc_type = ? AND doc_id = ?",
+                TYPE_SNIPPET, snippetId);
+    }
+
+    // ── helpers ───────────────────────────────────────────────────────────────
+
+    private SearchDocument courseDocument(long id, String title, String slug, String description) {
+        String slugWords = slug == null ? "" : slug.replace('-', ' ');
+        return new SearchDocument(TYPE_COURSE, id, id, null, null,
+                SearchTextUtil.toPlainText(title),
+                join(slugWords, SearchTextUtil.toPlainText(description)));
+    }
+
+    private SearchDocument lessonDocument(long id, long courseId, long chapterId,
+                                          String title, String description, String content) {
+        return new SearchDocument(TYPE_LESSON, id, courseId, chapterId, id,
+                SearchTextUtil.toPlainText(title),
+                join(SearchTextUtil.toPlainText(description), SearchTextUtil.toPlainText(content)));
+    }
+
+    private SearchDocument snippetDocument(long id, long courseId, long chapterId, long lessonId,
+                                           String title, String explanation) {
+        return new SearchDocument(TYPE_SNIPPET, id, courseId, chapterId, lessonId,
+                SearchTextUtil.toPlainText(title),
+                SearchTextUtil.toPlainText(explanation));
+    }
+
+    /** Streams the rows through a cursor — needs the surrounding transaction (no autocommit). */
+    private void stream(String sql, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(sql);
+            statement.setFetchSize(REBUILD_FETCH_SIZE);
+            return statement;
+        }, handler);
+    }
+
+    private int flushIfFull(List<SearchDocument> batch) {
+        if (batch.size() < REBUILD_BATCH_SIZE) return 0;
+        int written = write(batch);
+        batch.clear();
+        return written;
+    }
+
+    private int write(List<SearchDocument> docs) {
+        if (docs.isEmpty()) return 0;
+        List<Chunk> chunks = new ArrayList<>(docs.size());
+        List<Object[]> surplus = new ArrayList<>(docs.size());
+        for (SearchDocument doc : docs) {
+            List<String> bodies = SearchTextUtil.chunks(doc.body(), CHUNK_LENGTH, CHUNK_OVERLAP);
+            for (int no = 0; no < bodies.size(); no++) chunks.add(new Chunk(doc, no, bodies.get(no)));
+            surplus.add(new Object[] { doc.type(), doc.id(), bodies.size() });
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, chunks, chunks.size(), (ps, chunk) -> {
+            SearchDocument doc = chunk.doc();
+            ps.setString(1, doc.type());
+            ps.setLong(2, doc.id());
+            ps.setInt(3, chunk.no());
+            ps.setLong(4, doc.courseId());
+            if (doc.chapterId() != null) ps.setLong(5, doc.chapterId()); else ps.setNull(5, Types.BIGINT);
+            if (doc.lessonId() != null) ps.setLong(6, doc.lessonId()); else ps.setNull(6, Types.BIGINT);
+            ps.setString(7, doc.title());
+            ps.setString(8, chunk.body());
+            ps.setString(9, SearchTextUtil.toIndexText(doc.title()));
+            ps.setString(10, SearchTextUtil.toIndexText(chunk.body()));
+        });
+        // A shorter body leaves chunks from the previous version behind
+        jdbcTemplate.batchUpdate("DELETE FROM search_document WHERE doc_type = ? AND doc_id = ? AND chunk_no >= ?",
+                surplus);
+        return docs.size();
+    }
+
+    private static String join(String a, String b) {
+        if (a == null || a.isBlank()) return b == null ? "" : b;
+        if (b == null || b.isBlank()) return a;
+        return a + " " + b;
+    }
+}
@@ -0,0 +1,19 @@
+package finalproject.backend.service;
+
+import finalproject.backend.response.ApiResponse;
+import finalproject.backend.response.SearchResultResponse;
+
+import java.util.List;
+import java.util.Set;
+
+public interface SearchService {
+
+    /** Ranked full-text search over published courses, lessons and code snippets. */
+    ApiResponse<List<SearchResultResponse>> search(String query, String type, int page, int size);
+
+    /**
+     * Ids of courses (any status) whose own title/slug/description match — admin filters.
+     * Words match as prefixes of whole words, not as arbitrary substrings; Khmer as substrings.
+     */
+    Set<Long> findMatchingCourseIds(String query);
+}
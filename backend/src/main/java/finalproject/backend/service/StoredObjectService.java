@@ -0,0 +1,166 @@
+package finalproject.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Reference counts of content-addressed objects in R2.
+ *
+ * WHY:  Every upload got a random UUID key — re-uploading the same thumbnail
+ *       or regenerating an identical PDF stored another copy and gave the CDN
+ *       a new URL to miss on.
+ *
+ * HOW:  R2StorageService keys objects by the SHA-256 of their bytes
+ *       ({@link #sha256}), so identical content always maps to the same key
+ *       and the object can be cached as immutable. `stored_object` counts the
+ *       references (course thumbnails, profile pictures, PDF exports) to each
+ *       key: {@link #acquire} tells the caller whether the bytes still have to
+ *       be PUT, {@link #release} runs the actual delete only when the last
+ *       reference goes. Releasing holds the row lock until the object is gone,
+ *       so a concurrent acquire of the same key waits and then re-uploads
+ *       instead of pointing at a deleted object. Keys without a row (uploads
+ *       from before content addressing) are reported as untracked.
+ *
+ *       A row is PENDING until its first upload finishes ({@link #markStored}).
+ *       Only a STORED key lets a caller skip the PUT; an acquirer that finds
+ *       the key PENDING uploads the same bytes itself, so a failed or crashed
+ *       first upload can never leave later uploads pointing at nothing.
+ *       Releases run after the caller's commit and outside its transaction
+ *       (R2StorageService.deleteFile).
+ */
+@Slf4j
+@Service
+public class StoredObjectService {
+
+    /** Outcome of {@link #release}. */
+    public enum Release {
+        /** Other references remain — the object stays. */
+        RETAINED,
+        /** That was the last reference — the object was deleted. */
+        DELETED,
+        /** Not a content-addressed key — the caller decides. */
+        UNTRACKED
+    }
+
+    private static final String PENDING = "PENDING";
+    private static final String STORED  = "STORED";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public StoredObjectService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // ── Schema ────────────────────────────────────────────────────────────────
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            jdbcTemplate.execute("""
+                    CREATE TABLE IF NOT EXISTS stored_object (
+                        object_key VARCHAR(512) PRIMARY KEY,
+                        size_bytes BIGINT       NOT NULL,
+                        ref_count  INT          NOT NULL,
+                        created_at TIMESTAMP    NOT NULL DEFAULT now(),
+                        updated_at TIMESTAMP    NOT NULL DEFAULT now()
+                    )
+                    """);
+            // Rows from before the state column were all written after their upload
+            jdbcTemplate.execute(
+                    "ALTER TABLE stored_object ADD COLUMN IF NOT EXISTS state VARCHAR(16) NOT NULL DEFAULT 'STORED'");
+        } catch (Exception e) {
+            log.warn("Stored object initialization skipped: {}", e.getMessage());
+        }
+    }
+
+    // ── Hashing ───────────────────────────────────────────────────────────────
+
+    /** Hex SHA-256 of everything left in {@code in}, read through a small buffer. */
+    public static String sha256(InputStream in) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        try (DigestInputStream digesting = new DigestInputStream(in, digest)) {
+            digesting.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // ── References ────────────────────────────────────────────────────────────
+
+    /**
+     * Adds a reference to {@code objectKey}. Returns {@code true} unless the
+     * object is already STORED — the caller must then upload the bytes, call
+     * {@link #markStored} when they are in place and {@link #abandon} if the
+     * upload fails.
+     */
+    public boolean acquire(String objectKey, long sizeBytes) {
+        String state = jdbcTemplate.queryForObject("""
+                INSERT INTO stored_object (object_key, size_bytes, ref_count, state) VALUES (?, ?, 1, ?)
+                ON CONFLICT (object_key) DO UPDATE SET
+                    ref_count  = stored_object.ref_count + 1,
+                    updated_at = now()
+                RETURNING state
+                """, String.class, objectKey, sizeBytes, PENDING);
+        return !STORED.equals(state);
+    }
+
+    /** The bytes of {@code objectKey} are uploaded — later acquirers may skip the PUT. */
+    public void markStored(String objectKey) {
+        jdbcTemplate.update("UPDATE stored_object SET state = ?, updated_at = now() WHERE object_key = ?",
+                STORED, objectKey);
+    }
+
+    /** Undoes an {@link #acquire} whose upload failed; the (missing) object is not touched. */
+    public void abandon(String objectKey) {
+        try {
+            jdbcTemplate.update("""
+                    UPDATE stored_object SET ref_count = ref_count - 1, updated_at = now()
+                    WHERE object_key = ?
+                    """, objectKey);
+            jdbcTemplate.update("DELETE FROM stored_object WHERE object_key = ? AND ref_count <= 0", objectKey);
+        } catch (Exception e) {
+            log.warn("Could not abandon reference to {}: {}", objectKey, e.getMessage());
+        }
+    }
+
+    /**
+     * Drops one reference to {@code objectKey}; when it was the last one,
+     * {@code deleteObject} runs while the row is still locked and the row is
+     * removed afterwards (kept if the delete throws).
+     */
+    public Release release(String objectKey, Runnable deleteObject) {
+        return transactionTemplate.execute(status -> {
+            List<Integer> remaining = jdbcTemplate.queryForList("""
+                    UPDATE stored_object SET ref_count = ref_count - 1, updated_at = now()
+                    WHERE object_key = ?
+                    RETURNING ref_count
+                    """, Integer.class, objectKey);
+            if (remaining.isEmpty()) return Release.UNTRACKED;
+            if (remaining.get(0) > 0) return Release.RETAINED;
+
+            deleteObject.run();
+            jdbcTemplate.update("DELETE FROM stored_object WHERE object_key = ?", objectKey);
+            return Release.DELETED;
+        });
+    }
+}
@@ -0,0 +1,251 @@
+package finalproject.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * `user_course_progress` read model: one row per (user, course) with completed
+ * lesson count, total read time, last activity and first completion time.
+ *
+ * WHY:  Every lesson completion counted the course's lessons and joined
+ *       lesson_progress → lessons to count the user's completed ones, and the
+ *       account stats re-aggregated all of the user's lesson_progress rows.
+ *
+ * HOW:  Every progress write (immediate, batch, buffered flush, delete) applies
+ *       a {@link Delta} here in the same transaction (first enrollments and new
+ *       completions also land in {@link ActivityRollupService}'s daily rollup). Completion checks read the
+ *       row by primary key against `course.total_lessons`; account stats sum
+ *       the user's few rows. Structural changes (lesson/chapter deleted or moved)
+ *       call {@link #rebuildCourse}, and a nightly {@link #rebuild} reconciles
+ *       everything against lesson_progress.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserCourseProgressService {
+
+    // Course resolved from the lesson; rows of deleted lessons are skipped.
+    // A freshly inserted row (xmax = 0) is the user's first enrollment in the course
+    // and is counted into activity_daily in the same statement.
+    private static final String APPLY_SQL = """
+            WITH upserted AS (
+                INSERT INTO user_course_progress
+                    (user_id, course_id, completed_count, total_read_time_seconds, last_activity_at)
+                SELECT ?, l.course_id, GREATEST(0, ?), GREATEST(0, ?), ?
+                FROM lessons l
+                WHERE l.id = ?
+                ON CONFLICT (user_id, course_id) DO UPDATE SET
+                    completed_count         = GREATEST(0, user_course_progress.completed_count + ?),
+                    total_read_time_seconds = GREATEST(0, user_course_progress.total_read_time_seconds + ?),
+                    last_activity_at        = GREATEST(user_course_progress.last_activity_at, EXCLUDED.last_activity_at)
+                RETURNING (xmax = 0) AS inserted, last_activity_at
+            )
+            INSERT INTO activity_daily (day, first_enrollments)
+            SELECT COALESCE(last_activity_at::date, CURRENT_DATE), 1 FROM upserted WHERE inserted
+            ON CONFLICT (day) DO UPDATE SET
+                first_enrollments = activity_daily.first_enrollments + EXCLUDED.first_enrollments
+            """;
+
+    // Aggregates straight from lesson_progress; keeps the first completion time already recorded
+    private static final String RECONCILE_SQL = """
+            INSERT INTO user_course_progress
+                (user_id, course_id, completed_count, total_read_time_seconds, last_activity_at, completed_at)
+            SELECT lp.user_id,
+                   l.course_id,
+                   COUNT(*) FILTER (WHERE lp.is_completed),
+                   COALESCE(SUM(lp.read_time_seconds), 0),
+                   MAX(COALESCE(lp.updated_at, lp.created_at)),
+                   CASE WHEN MAX(c.total_lessons) > 0
+                             AND COUNT(*) FILTER (WHERE lp.is_completed) >= MAX(c.total_lessons)
+                        THEN MAX(lp.completed_at) END
+            FROM lesson_progress lp
+            JOIN lessons l ON l.id = lp.lesson_id
+            JOIN course  c ON c.id = l.course_id
+            %s
+            GROUP BY lp.user_id, l.course_id
+            ON CONFLICT (user_id, course_id) DO UPDATE SET
+                completed_count         = EXCLUDED.completed_count,
+                total_read_time_seconds = EXCLUDED.total_read_time_seconds,
+                last_activity_at        = EXCLUDED.last_activity_at,
+                completed_at            = COALESCE(user_course_progress.completed_at, EXCLUDED.completed_at)
+            """;
+
+    private static final String DELETE_STALE_SQL = """
+            DELETE FROM user_course_progress ucp
+            WHERE %s NOT EXISTS (
+                SELECT 1 FROM lesson_progress lp JOIN lessons l ON l.id = lp.lesson_id
+                WHERE lp.user_id = ucp.user_id AND l.course_id = ucp.course_id)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ActivityRollupService activityRollupService;
+
+    /** Change of one user's progress on one lesson. Negative values undo (delete). */
+    public record Delta(long userId, long lessonId, int completedDelta, int readTimeDelta, LocalDateTime activityAt) {
+    }
+
+    public record CourseProgress(long completedCount, long totalReadTimeSeconds, int totalLessons,
+                                 LocalDateTime lastActivityAt, LocalDateTime completedAt) {
+
+        public boolean isCourseCompleted() {
+            return totalLessons > 0 && completedCount >= totalLessons;
+        }
+    }
+
+    public record UserStats(long completedLessons, long distinctCourses, long completedCourses,
+                            long totalReadTimeSeconds) {
+    }
+
+    // ── Schema ────────────────────────────────────────────────────────────────
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            jdbcTemplate.execute("""
+                    CREATE TABLE IF NOT EXISTS user_course_progress (
+                        user_id                 BIGINT    NOT NULL,
+                        course_id               BIGINT    NOT NULL,
+                        completed_count         INTEGER   NOT NULL DEFAULT 0,
+                        total_read_time_seconds BIGINT    NOT NULL DEFAULT 0,
+                        last_activity_at        TIMESTAMP,
+                        completed_at            TIMESTAMP,
+                        PRIMARY KEY (user_id, course_id)
+                    )
+                    """);
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_user_course_progress_course ON user_course_progress (course_id)");
+
+            Boolean empty = jdbcTemplate.queryForObject(
+                    "SELECT NOT EXISTS (SELECT 1 FROM user_course_progress)", Boolean.class);
+            if (Boolean.TRUE.equals(empty)) rebuild();
+        } catch (Exception e) {
+            log.warn("User course progress initialization skipped: {}", e.getMessage());
+        }
+    }
+
+    // ── Write paths (caller's transaction) ────────────────────────────────────
+
+    public void apply(Delta delta) {
+        apply(List.of(delta));
+    }
+
+    public void apply(List<Delta> deltas) {
+        List<Delta> effective = deltas.stream()
+                .filter(d -> d.completedDelta() != 0 || d.readTimeDelta() != 0 || d.activityAt() != null)
+                .toList();
+        if (effective.isEmpty()) return;
+        jdbcTemplate.batchUpdate(APPLY_SQL, effective, effective.size(), (ps, d) -> {
+            ps.setLong(1, d.userId());
+            ps.setInt(2, d.completedDelta());
+            ps.setInt(3, d.readTimeDelta());
+            ps.setTimestamp(4, d.activityAt() != null ? Timestamp.valueOf(d.activityAt()) : null);
+            ps.setLong(5, d.lessonId());
+            ps.setInt(6, d.completedDelta());
+            ps.setInt(7, d.readTimeDelta());
+        });
+        activityRollupService.recordCompletions(effective.stream()
+                .filter(d -> d.completedDelta() > 0)
+                .map(Delta::activityAt)
+                .toList(), 1);
+    }
+
+    /**
+     * Stamps completed_at the first time the user has completed every lesson of the course.
+     * @return true when this call marked the course completed
+     */
+    public boolean markCourseCompletedIfDone(long userId, long courseId) {
+        return jdbcTemplate.update("""
+                UPDATE user_course_progress ucp SET completed_at = now()
+                FROM course c
+                WHERE ucp.user_id = ? AND ucp.course_id = ? AND c.id = ucp.course_id
+                  AND ucp.completed_at IS NULL
+                  AND c.total_lessons > 0 AND ucp.completed_count >= c.total_lessons
+                """, userId, courseId) > 0;
+    }
+
+    // ── Reads ─────────────────────────────────────────────────────────────────
+
+    /** Primary-key read joined to the course's lesson count. */
+    public Optional<CourseProgress> find(long userId, long courseId) {
+        return jdbcTemplate.query("""
+                SELECT ucp.completed_count, ucp.total_read_time_seconds, ucp.last_activity_at, ucp.completed_at,
+                       COALESCE(c.total_lessons, 0) AS total_lessons
+                FROM user_course_progress ucp
+                JOIN course c ON c.id = ucp.course_id
+                WHERE ucp.user_id = ? AND ucp.course_id = ?
+                """, (rs, i) -> new CourseProgress(
+                        rs.getLong("completed_count"),
+                        rs.getLong("total_read_time_seconds"),
+                        rs.getInt("total_lessons"),
+                        toLocalDateTime(rs.getTimestamp("last_activity_at")),
+                        toLocalDateTime(rs.getTimestamp("completed_at"))),
+                userId, courseId).stream().findFirst();
+    }
+
+    public long completedCount(long userId, long courseId) {
+        return find(userId, courseId).map(CourseProgress::completedCount).orElse(0L);
+    }
+
+    /** Account-page totals — aggregates only the user's rows (one per course touched). */
+    public UserStats statsForUser(long userId) {
+        return jdbcTemplate.queryForObject("""
+                SELECT COALESCE(SUM(ucp.completed_count), 0)                   AS completed_lessons,
+                       COUNT(*) FILTER (WHERE ucp.completed_count > 0)         AS distinct_courses,
+                       COUNT(*) FILTER (WHERE c.total_lessons > 0
+                                          AND ucp.completed_count >= c.total_lessons) AS completed_courses,
+                       COALESCE(SUM(ucp.total_read_time_seconds), 0)           AS total_read_time
+                FROM user_course_progress ucp
+                JOIN course c ON c.id = ucp.course_id
+                WHERE ucp.user_id = ?
+                """, (rs, i) -> new UserStats(
+                        rs.getLong("completed_lessons"),
+                        rs.getLong("distinct_courses"),
+                        rs.getLong("completed_courses"),
+                        rs.getLong("total_read_time")),
+                userId);
+    }
+
+    // ── Reconciliation ────────────────────────────────────────────────────────
+
+    /** Recomputes every row from lesson_progress and drops rows with no progress left. */
+    @Scheduled(cron = "${app.progress.rebuild-cron:0 30 3 * * *}")
+    @Transactional
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        int upserted = jdbcTemplate.update(RECONCILE_SQL.formatted(""));
+        int deleted  = jdbcTemplate.update(DELETE_STALE_SQL.formatted(""));
+        log.info("User course progress reconciled: {} row(s) upserted, {} stale removed in {} ms",
+                upserted, deleted, System.currentTimeMillis() - started);
+    }
+
+    /** Same as {@link #rebuild} for one course — after lessons were deleted or moved. */
+    public void rebuildCourse(Long courseId) {
+        if (courseId == null) return;
+        jdbcTemplate.update(RECONCILE_SQL.formatted("WHERE l.course_id = ?"), courseId);
+        jdbcTemplate.update(DELETE_STALE_SQL.formatted("ucp.course_id = ? AND"), courseId);
+    }
+
+    /** Number of (user, course) enrollments — rows exist once a user has progress in the course. */
+    public long countEnrollments() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_course_progress", Long.class);
+        return count != null ? count : 0L;
+    }
+
+    public void removeCourse(Long courseId) {
+        jdbcTemplate.update("DELETE FROM user_course_progress WHERE course_id = ?", courseId);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -1,15 +1,16 @@
 package finalproject.backend.service.impl;
 
+import finalproject.backend.exception.CustomMessageException;
 import finalproject.backend.mapper.CourseMapper;
 import finalproject.backend.mapper.UserMapper;
-import finalproject.backend.modal.Category;
-import finalproject.backend.modal.Course;
-import finalproject.backend.modal.User;
+import finalproject.backend.modal.CourseStatus;
+import finalproject.backend.repository.CategoryCourseCountView;
 import finalproject.backend.repository.CategoryRepository;
-import finalproject.backend.repository.CourseEnrollmentFirstSeenView;
+import finalproject.backend.repository.CategoryTotalsView;
+import finalproject.backend.repository.CourseFacetCountView;
 import finalproject.backend.repository.CourseRepository;
-import finalproject.backend.repository.LessonProgressRepository;
 import finalproject.backend.repository.UserRepository;
+import finalproject.backend.repository.UserRoleCountView;
 import finalproject.backend.response.AnalyticsBreakdownResponse;
 import finalproject.backend.response.AnalyticsCategoryResponse;
 import finalproject.backend.response.AnalyticsTimelinePointResponse;
@@ -17,29 +18,31 @@ import finalproject.backend.response.ApiResponse;
 import finalproject.backend.response.CourseResponse;
 import finalproject.backend.response.DashboardAnalyticsResponse;
 import finalproject.backend.response.UserResponse;
+import finalproject.backend.service.ActivityRollupService;
+import finalproject.backend.service.ActivityRollupService.ActivityBucket;
 import finalproject.backend.service.AnalyticsService;
-import finalproject.backend.util.RoleUtil;
-import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Sort;
+import finalproject.backend.service.UserCourseProgressService;
+import finalproject.backend.util.VirtualThreadScope;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 public class AnalyticsServiceImpl implements AnalyticsService {
 
     private static final Map<String, String> LEVEL_COLORS = Map.of(
@@ -48,6 +51,8 @@ public class AnalyticsServiceImpl implements AnalyticsService {
             "ADVANCED", "#ef4444"
     );
 
+    private static final int TOP_CATEGORIES = 8;
+
     private static final Map<String, String> ROLE_COLORS = Map.of(
             "ADMIN", "#8b5cf6",
             "USER", "#64748b",
@@ -57,52 +62,102 @@ public class AnalyticsServiceImpl implements AnalyticsService {
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
-    private final LessonProgressRepository lessonProgressRepository;
+    private final UserCourseProgressService userCourseProgressService;
+    private final ActivityRollupService activityRollupService;
     private final CourseMapper courseMapper;
     private final UserMapper userMapper;
-
+    private final TransactionTemplate readOnlyTransaction;
+    private final int queryParallelism;
+
+    public AnalyticsServiceImpl(CourseRepository courseRepository,
+                                UserRepository userRepository,
+                                CategoryRepository categoryRepository,
+                                UserCourseProgressService userCourseProgressService,
+                                ActivityRollupService activityRollupService,
+                                CourseMapper courseMapper,
+                                UserMapper userMapper,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.analytics.query-parallelism:2}") int queryParallelism) {
+        this.courseRepository = courseRepository;
+        this.userRepository = userRepository;
+        this.categoryRepository = categoryRepository;
+        this.userCourseProgressService = userCourseProgressService;
+        this.activityRollupService = activityRollupService;
+        this.courseMapper = courseMapper;
+        this.userMapper = userMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.queryParallelism = queryParallelism;
+    }
+
+    /**
+     * Every figure comes from its own aggregate query (GROUP BY / COUNT / top 5);
+     * the independent queries run concurrently on virtual threads, each in its
+     * own read-only transaction, so the latency is that of the slowest one.
+     * Concurrency is capped by {@code app.analytics.query-parallelism} — every
+     * query holds a pooled connection.
+     */
     @Override
-    @Transactional(readOnly = true)
     public ApiResponse<DashboardAnalyticsResponse> getDashboardAnalytics(String range) {
-        List<Course> courses = courseRepository.findAll(Sort.by(Sort.Direction.DESC, "createdAt"));
-        List<User> users = userRepository.findAll(Sort.by(Sort.Direction.DESC, "createdAt"));
-        List<Category> categories = categoryRepository.findAll(Sort.by(Sort.Direction.ASC, "orderIndex"));
-        List<CourseEnrollmentFirstSeenView> enrollmentFirstSeen = lessonProgressRepository.findCourseEnrollmentFirstSeen();
-        List<LocalDateTime> completionMoments = lessonProgressRepository.findCompletedAtMoments();
-
-        DashboardAnalyticsResponse response = DashboardAnalyticsResponse.builder()
-                .totalCourses(courses.size())
-                .totalUsers(users.size())
-                .totalCategories(categories.size())
-                .totalEnrollments(enrollmentFirstSeen.size())
-                .publishedCourses(countCoursesByStatus(courses, "PUBLISHED"))
-                .draftCourses(countCoursesByStatus(courses, "DRAFT"))
-                .featuredCourses(courses.stream().filter(course -> Boolean.TRUE.equals(course.getIsFeatured())).count())
-                .activeUsers(users.stream().filter(user -> "ACTIVE".equalsIgnoreCase(user.getStatus())).count())
-                .activeCategories(categories.stream().filter(category -> Boolean.TRUE.equals(category.getIsActive())).count())
-                .coursesByLevel(buildCoursesByLevel(courses))
-                .coursesByCategory(buildCoursesByCategory(categories))
-                .usersByRole(buildUsersByRole(users))
-                .recentCourses(courses.stream().limit(5).map(courseMapper::toResponse).toList())
-                .recentUsers(users.stream().limit(5).map(userMapper::toResponse).toList())
-                .activitySeries(buildActivitySeries(normalizeRange(range), users, enrollmentFirstSeen, completionMoments))
-                .build();
+        String normalizedRange = normalizeRange(range);
+        DashboardAnalyticsResponse response;
+        try (VirtualThreadScope scope = new VirtualThreadScope(queryParallelism)) {
+            Supplier<List<CourseFacetCountView>> courseFacets = scope.fork(() -> query(courseRepository::countByFacets));
+            Supplier<List<UserRoleCountView>> userRoles = scope.fork(() -> query(userRepository::countByPrimaryRole));
+            Supplier<CategoryTotalsView> categoryTotals = scope.fork(() -> query(categoryRepository::countTotals));
+            Supplier<List<CategoryCourseCountView>> topCategories = scope.fork(() -> query(() ->
+                    categoryRepository.findTopByCourseCount(PageRequest.of(0, TOP_CATEGORIES))));
+            Supplier<List<CourseResponse>> recentCourses = scope.fork(() -> query(() ->
+                    courseMapper.toResponses(courseRepository.findTop5ByOrderByCreatedAtDesc())));
+            Supplier<List<UserResponse>> recentUsers = scope.fork(() -> query(() ->
+                    userMapper.toResponses(userRepository.findTop5ByOrderByCreatedAtDesc())));
+            Supplier<Long> totalEnrollments = scope.fork(() -> query(userCourseProgressService::countEnrollments));
+            Supplier<List<AnalyticsTimelinePointResponse>> activitySeries = scope.fork(() -> query(() ->
+                    buildActivitySeries(normalizedRange)));
+            scope.join();
+
+            List<CourseFacetCountView> facets = courseFacets.get();
+            List<UserRoleCountView> roles = userRoles.get();
+            response = DashboardAnalyticsResponse.builder()
+                    .totalCourses(sum(facets, facet -> true))
+                    .totalUsers(roles.stream().mapToLong(UserRoleCountView::getTotal).sum())
+                    .totalCategories(categoryTotals.get().getTotal())
+                    .totalEnrollments(totalEnrollments.get())
+                    .publishedCourses(sum(facets, facet -> facet.getStatus() == CourseStatus.PUBLISHED))
+                    .draftCourses(sum(facets, facet -> facet.getStatus() == CourseStatus.DRAFT))
+                    .featuredCourses(sum(facets, facet -> Boolean.TRUE.equals(facet.getFeatured())))
+                    .activeUsers(roles.stream().mapToLong(UserRoleCountView::getActive).sum())
+                    .activeCategories(categoryTotals.get().getActive())
+                    .coursesByLevel(buildCoursesByLevel(facets))
+                    .coursesByCategory(buildCoursesByCategory(topCategories.get()))
+                    .usersByRole(buildUsersByRole(roles))
+                    .recentCourses(recentCourses.get())
+                    .recentUsers(recentUsers.get())
+                    .activitySeries(activitySeries.get())
+                    .build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomMessageException("Dashboard analytics interrupted",
+                    String.valueOf(HttpStatus.SERVICE_UNAVAILABLE.value()));
+        }
 
         return ApiResponse.success(response, "Dashboard analytics retrieved successfully");
     }
 
-    private long countCoursesByStatus(List<Course> courses, String status) {
-        return courses.stream()
-                .filter(course -> course.getStatus() != null && status.equalsIgnoreCase(course.getStatus().name()))
-                .count();
+    private <T> T query(Supplier<T> query) {
+        return readOnlyTransaction.execute(status -> query.get());
     }
 
-    private List<AnalyticsBreakdownResponse> buildCoursesByLevel(List<Course> courses) {
-        return courses.stream()
+    private long sum(List<CourseFacetCountView> facets, Predicate<CourseFacetCountView> filter) {
+        return facets.stream().filter(filter).mapToLong(CourseFacetCountView::getTotal).sum();
+    }
+
+    private List<AnalyticsBreakdownResponse> buildCoursesByLevel(List<CourseFacetCountView> facets) {
+        return facets.stream()
                 .collect(Collectors.groupingBy(
-                        course -> course.getLevel() != null ? course.getLevel().name() : "BEGINNER",
+                        facet -> facet.getLevel() != null ? facet.getLevel().name() : "BEGINNER",
                         LinkedHashMap::new,
-                        Collectors.counting()
+                        Collectors.summingLong(CourseFacetCountView::getTotal)
                 ))
                 .entrySet()
                 .stream()
@@ -115,210 +170,57 @@ public class AnalyticsServiceImpl implements AnalyticsService {
                 .toList();
     }
 
-    private List<AnalyticsCategoryResponse> buildCoursesByCategory(List<Category> categories) {
+    private List<AnalyticsCategoryResponse> buildCoursesByCategory(List<CategoryCourseCountView> categories) {
         return categories.stream()
                 .map(category -> AnalyticsCategoryResponse.builder()
                         .name(category.getName())
-                        .courses(category.getCourses() != null ? category.getCourses().size() : 0)
+                        .courses(category.getCourses())
                         .build())
-                .filter(entry -> entry.getCourses() > 0)
-                .sorted(Comparator.comparingLong(AnalyticsCategoryResponse::getCourses).reversed())
-                .limit(8)
                 .toList();
     }
 
-    private List<AnalyticsBreakdownResponse> buildUsersByRole(List<User> users) {
-        return users.stream()
-                .collect(Collectors.groupingBy(
-                        this::resolvePrimaryRole,
-                        LinkedHashMap::new,
-                        Collectors.counting()
-                ))
-                .entrySet()
-                .stream()
-                .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
-                .map(entry -> AnalyticsBreakdownResponse.builder()
-                        .name(entry.getKey())
-                        .value(entry.getValue())
-                        .fill(ROLE_COLORS.getOrDefault(entry.getKey(), "#64748b"))
+    private List<AnalyticsBreakdownResponse> buildUsersByRole(List<UserRoleCountView> roles) {
+        return roles.stream()
+                .sorted(Comparator.comparing(UserRoleCountView::getTotal, Comparator.reverseOrder()))
+                .map(role -> AnalyticsBreakdownResponse.builder()
+                        .name(role.getRole())
+                        .value(role.getTotal())
+                        .fill(ROLE_COLORS.getOrDefault(role.getRole(), "#64748b"))
                         .build())
                 .toList();
     }
 
-    private List<AnalyticsTimelinePointResponse> buildActivitySeries(
-            String range,
-            List<User> users,
-            List<CourseEnrollmentFirstSeenView> enrollments,
-            List<LocalDateTime> completions
-    ) {
+    private List<AnalyticsTimelinePointResponse> buildActivitySeries(String range) {
         return switch (range) {
-            case "7d" -> buildDailySeries(7, users, enrollments, completions);
-            case "90d" -> buildWeeklySeries(13, users, enrollments, completions);
-            default -> buildDailySeries(30, users, enrollments, completions);
+            case "7d" -> toTimeline(activityRollupService.dailySeries(7),
+                    DateTimeFormatter.ofPattern("EEE", Locale.ENGLISH));
+            case "90d" -> toTimeline(activityRollupService.weeklySeries(13, LocalDate.now().with(DayOfWeek.MONDAY)),
+                    DateTimeFormatter.ofPattern("MMM d", Locale.ENGLISH));
+            default -> toTimeline(activityRollupService.dailySeries(30),
+                    DateTimeFormatter.ofPattern("MMM d", Locale.ENGLISH));
         };
     }
 
-    private List<AnalyticsTimelinePointResponse> buildDailySeries(
-            int days,
-            List<User> users,
-            List<CourseEnrollmentFirstSeenView> enrollments,
-            List<LocalDateTime> completions
-    ) {
-        LocalDate start = LocalDate.now().minusDays(days - 1L);
-        DateTimeFormatter formatter = days <= 7
-                ? DateTimeFormatter.ofPattern("EEE", Locale.ENGLISH)
-                : DateTimeFormatter.ofPattern("MMM d", Locale.ENGLISH);
-
-        LinkedHashMap<LocalDate, MutableCounts> buckets = new LinkedHashMap<>();
-        for (int i = 0; i < days; i++) {
-            buckets.put(start.plusDays(i), new MutableCounts());
-        }
-
-        for (User user : users) {
-            incrementDailyBucket(buckets, toDate(user.getCreatedAt()), CountType.USERS, start);
-        }
-
-        for (CourseEnrollmentFirstSeenView enrollment : enrollments) {
-            incrementDailyBucket(buckets, toDate(enrollment.getFirstSeenAt()), CountType.ENROLLMENTS, start);
-        }
-
-        for (LocalDateTime completion : completions) {
-            incrementDailyBucket(buckets, toDate(completion), CountType.COMPLETIONS, start);
-        }
-
-        return buckets.entrySet().stream()
-                .map(entry -> AnalyticsTimelinePointResponse.builder()
-                        .label(entry.getKey().format(formatter))
-                        .enrollments(entry.getValue().enrollments)
-                        .users(entry.getValue().users)
-                        .completions(entry.getValue().completions)
-                        .build())
-                .toList();
-    }
-
-    private List<AnalyticsTimelinePointResponse> buildWeeklySeries(
-            int weeks,
-            List<User> users,
-            List<CourseEnrollmentFirstSeenView> enrollments,
-            List<LocalDateTime> completions
-    ) {
-        LocalDate currentWeekStart = LocalDate.now().with(DayOfWeek.MONDAY);
-        LocalDate start = currentWeekStart.minusWeeks(weeks - 1L);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM d", Locale.ENGLISH);
-
-        List<WeekBucket> buckets = new ArrayList<>();
-        for (int i = 0; i < weeks; i++) {
-            LocalDate weekStart = start.plusWeeks(i);
-            buckets.add(new WeekBucket(weekStart, weekStart.plusDays(6), new MutableCounts()));
-        }
-
-        for (User user : users) {
-            incrementWeeklyBucket(buckets, toDate(user.getCreatedAt()), CountType.USERS);
-        }
-
-        for (CourseEnrollmentFirstSeenView enrollment : enrollments) {
-            incrementWeeklyBucket(buckets, toDate(enrollment.getFirstSeenAt()), CountType.ENROLLMENTS);
-        }
-
-        for (LocalDateTime completion : completions) {
-            incrementWeeklyBucket(buckets, toDate(completion), CountType.COMPLETIONS);
-        }
-
+    private List<AnalyticsTimelinePointResponse> toTimeline(List<ActivityBucket> buckets, DateTimeFormatter formatter) {
         return buckets.stream()
                 .map(bucket -> AnalyticsTimelinePointResponse.builder()
-                        .label(bucket.start.format(formatter))
-                        .enrollments(bucket.counts.enrollments)
-                        .users(bucket.counts.users)
-                        .completions(bucket.counts.completions)
+                        .label(bucket.start().format(formatter))
+                        .enrollments(bucket.firstEnrollments())
+                        .users(bucket.newUsers())
+                        .completions(bucket.completions())
                         .build())
                 .toList();
     }
 
-    private void incrementDailyBucket(
-            Map<LocalDate, MutableCounts> buckets,
-            LocalDate date,
-            CountType countType,
-            LocalDate start
-    ) {
-        if (date == null || date.isBefore(start)) return;
-        MutableCounts counts = buckets.get(date);
-        if (counts == null) return;
-        switch (countType) {
-            case USERS -> counts.users++;
-            case ENROLLMENTS -> counts.enrollments++;
-            case COMPLETIONS -> counts.completions++;
-        }
-    }
-
-    private void incrementWeeklyBucket(List<WeekBucket> buckets, LocalDate date, CountType countType) {
-        if (date == null) return;
-        for (WeekBucket bucket : buckets) {
-            if (!date.isBefore(bucket.start) && !date.isAfter(bucket.end)) {
-                switch (countType) {
-                    case USERS -> bucket.counts.users++;
-                    case ENROLLMENTS -> bucket.counts.enrollments++;
-                    case COMPLETIONS -> bucket.counts.completions++;
-                }
-                return;
-            }
-        }
-    }
-
-    private String resolvePrimaryRole(User user) {
-        Set<String> roles = user.getRoles() == null
-                ? Set.of()
-                : user.getRoles().stream()
-                .map(role -> {
-                    try {
-                        return RoleUtil.normalize(role.getName());
-                    } catch (IllegalArgumentException ignored) {
-                        return RoleUtil.ROLE_USER;
-                    }
-                })
-                .collect(Collectors.toCollection(LinkedHashSet::new));
-
-        if (roles.contains(RoleUtil.ROLE_ADMIN)) return "ADMIN";
-        if (roles.contains(RoleUtil.ROLE_MODERATOR)) return "MODERATOR";
-        return "USER";
-    }
-
     private String normalizeRange(String range) {
         if ("7d".equalsIgnoreCase(range)) return "7d";
         if ("90d".equalsIgnoreCase(range)) return "90d";
         return "30d";
     }
 
-    private LocalDate toDate(LocalDateTime dateTime) {
-        return dateTime != null ? dateTime.toLocalDate() : null;
-    }
-
     private String titleCase(String value) {
         String normalized = value == null ? "" : value.trim().toLowerCase(Locale.ENGLISH);
         if (normalized.isEmpty()) return "";
         return normalized.substring(0, 1).toUpperCase(Locale.ENGLISH) + normalized.substring(1);
     }
-
-    private enum CountType {
-        USERS,
-        ENROLLMENTS,
-        COMPLETIONS
-    }
-
-    private static final class MutableCounts {
-        private long enrollments;
-        private long users;
-        private long completions;
-    }
-
-    private static final class WeekBucket {
-        private final LocalDate start;
-        private final LocalDate end;
-        private final MutableCounts counts;
-
-        private WeekBucket(LocalDate start, LocalDate end, MutableCounts counts) {
-            this.start = start;
-            this.end = end;
-            this.counts = counts;
-        }
-    }
 }
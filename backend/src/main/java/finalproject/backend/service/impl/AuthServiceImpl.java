@@ -14,6 +14,7 @@ import finalproject.backend.request.UpdateProfileRequest;
 import finalproject.backend.response.ApiResponse;
 import finalproject.backend.response.AuthResponse;
 import finalproject.backend.response.UserResponse;
+import finalproject.backend.service.ActivityRollupService;
 import finalproject.backend.service.AuthService;
 import finalproject.backend.service.JwtService;
 import finalproject.backend.service.R2StorageService;
@@ -33,13 +34,14 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.ObjectUtils;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -56,47 +58,61 @@ public class AuthServiceImpl implements AuthService {
     private final RefreshTokenService refreshTokenService;
     private final CookieUtil cookieUtil;
     private final JwtProperties jwtProperties;
+    private final ActivityRollupService activityRollupService;
+    private final TransactionTemplate transactionTemplate;
 
     // ─── REGISTER ─────────────────────────────────────────────────────────────
 
     @Override
-    @Transactional
     public ApiResponse<Void> register(RegisterRequest request, MultipartFile profilePicture) {
-        if (userRepository.existsByEmail(request.getEmail()))
-            throw new CustomMessageException("Email already exists",
-                    String.valueOf(HttpStatus.CONFLICT.value()));
-
-        if(!request.getPassword().equals(request.getConfirmPassword())){
-            throw new CustomMessageException("Passwords do not match",
-                    String.valueOf(HttpStatus.BAD_REQUEST.value()));
-        }
+        // Picture streams to R2 while the request is checked and the password hashed — no
+        // transaction is open until it has landed, so the upload's own queries never wait on
+        // this request's connection
+        CompletableFuture<String> pictureUpload = profilePicture != null && !profilePicture.isEmpty()
+                ? r2StorageService.uploadFileAsync(profilePicture, "profile") : null;
+        String encodedPassword;
+        String pictureUrl;
+        try {
+            if (userRepository.existsByEmail(request.getEmail()))
+                throw new CustomMessageException("Email already exists",
+                        String.valueOf(HttpStatus.CONFLICT.value()));
 
-        if (userRepository.existsByUsername(request.getUsername()))
-            throw new CustomMessageException("Username already exists",
-                    String.valueOf(HttpStatus.CONFLICT.value()));
-
-        User user = User.builder()
-                .username(request.getUsername())
-                .email(request.getEmail())
-                .address(request.getAddress())
-                .phoneNumber(request.getPhoneNumber())
-                .bio(request.getBio())
-                .password(passwordEncoder.encode(request.getPassword()))
-                .status("ACTIVE")
-                .roles(resolveRoles(request.getRoles()))
-                .build();
-
-        if (profilePicture != null && !profilePicture.isEmpty()) {
-            try {
-                user.setProfilePicture(r2StorageService.uploadFile(profilePicture, "profile"));
-            } catch (IOException e) {
-                throw new CustomMessageException("Failed to upload profile picture: " + e.getMessage());
+            if(!request.getPassword().equals(request.getConfirmPassword())){
+                throw new CustomMessageException("Passwords do not match",
+                        String.valueOf(HttpStatus.BAD_REQUEST.value()));
             }
+
+            if (userRepository.existsByUsername(request.getUsername()))
+                throw new CustomMessageException("Username already exists",
+                        String.valueOf(HttpStatus.CONFLICT.value()));
+
+            encodedPassword = passwordEncoder.encode(request.getPassword());
+            pictureUrl = pictureUpload != null ? r2StorageService.await(pictureUpload) : null;
+        } catch (RuntimeException e) {
+            r2StorageService.discard(pictureUpload);
+            throw e;
         }
 
-        userRepository.save(user);
-        log.info("Registered: {}", user.getUsername());
-        return ApiResponse.success("Registration successful — you can now login");
+        return transactionTemplate.execute(status -> {
+            r2StorageService.discardOnRollback(pictureUpload);
+
+            User user = User.builder()
+                    .username(request.getUsername())
+                    .email(request.getEmail())
+                    .address(request.getAddress())
+                    .phoneNumber(request.getPhoneNumber())
+                    .bio(request.getBio())
+                    .password(encodedPassword)
+                    .status("ACTIVE")
+                    .roles(resolveRoles(request.getRoles()))
+                    .profilePicture(pictureUrl)
+                    .build();
+
+            userRepository.save(user);
+            activityRollupService.recordNewUser(user.getCreatedAt());
+            log.info("Registered: {}", user.getUsername());
+            return ApiResponse.success("Registration successful — you can now login");
+        });
     }
 
     // ─── LOGIN ────────────────────────────────────────────────────────────────
@@ -205,38 +221,50 @@ public class AuthServiceImpl implements AuthService {
                     String.valueOf(HttpStatus.UNAUTHORIZED.value()));
         }
 
-        String username = authentication.getName();
-
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new CustomMessageException("User not found",
-                        String.valueOf(HttpStatus.NOT_FOUND.value())));
-
-        if (request.getUsername() != null && !request.getUsername().isEmpty()
-                && !request.getUsername().equals(user.getUsername())) {
-            if (userRepository.existsByUsername(request.getUsername()))
+        // Photo streams to R2 while the new username is checked; the profile is written in a
+        // short transaction once it has landed
+        CompletableFuture<String> photoUpload = photo != null && !photo.isEmpty()
+                ? r2StorageService.uploadFileAsync(photo, "profile") : null;
+        String photoUrl;
+        try {
+            if (request.getUsername() != null && !request.getUsername().isEmpty()
+                    && !request.getUsername().equals(authentication.getName())
+                    && userRepository.existsByUsername(request.getUsername()))
                 throw new CustomMessageException("Username already taken",
                         String.valueOf(HttpStatus.CONFLICT.value()));
-            user.setUsername(request.getUsername());
+
+            photoUrl = photoUpload != null ? r2StorageService.await(photoUpload) : null;
+        } catch (RuntimeException e) {
+            r2StorageService.discard(photoUpload);
+            throw e;
         }
-        if (request.getPhoneNumber() != null) user.setPhoneNumber(request.getPhoneNumber());
-        if (request.getAddress() != null) user.setAddress(request.getAddress());
-        if (request.getBio() != null) user.setBio(request.getBio());
 
-        if (photo != null && !photo.isEmpty()) {
-            try {
+        return transactionTemplate.execute(status -> {
+            r2StorageService.discardOnRollback(photoUpload);
+
+            User user = userRepository.findByUsername(authentication.getName())
+                    .orElseThrow(() -> new CustomMessageException("User not found",
+                            String.valueOf(HttpStatus.NOT_FOUND.value())));
+
+            if (request.getUsername() != null && !request.getUsername().isEmpty()) {
+                user.setUsername(request.getUsername());
+            }
+            if (request.getPhoneNumber() != null) user.setPhoneNumber(request.getPhoneNumber());
+            if (request.getAddress() != null) user.setAddress(request.getAddress());
+            if (request.getBio() != null) user.setBio(request.getBio());
+
+            if (photoUrl != null) {
                 String oldPhoto = user.getProfilePicture();
+                user.setProfilePicture(photoUrl);
+                // Released after commit — a rollback keeps the old photo
                 if (oldPhoto != null && !oldPhoto.isEmpty()) {
                     r2StorageService.deleteFile(oldPhoto);
                 }
-                String url = r2StorageService.uploadFile(photo, "profile");
-                user.setProfilePicture(url);
-            } catch (IOException e) {
-                throw new CustomMessageException("Failed to upload photo: " + e.getMessage());
             }
-        }
 
-        userRepository.save(user);
-        return ApiResponse.success(buildAuthResponse(user), "Profile updated successfully");
+            userRepository.save(user);
+            return ApiResponse.success(buildAuthResponse(user), "Profile updated successfully");
+        });
     }
 
 // ─── Helpers ──────────────────────────────────────────────────────────────
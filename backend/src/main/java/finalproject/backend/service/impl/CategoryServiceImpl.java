@@ -3,12 +3,15 @@ package finalproject.backend.service.impl;
 import finalproject.backend.exception.CustomMessageException;
 import finalproject.backend.mapper.CategoryMapper;
 import finalproject.backend.modal.Category;
+import finalproject.backend.modal.Course;
 import finalproject.backend.repository.CategoryRepository;
 import finalproject.backend.request.CategoryRequest;
 import finalproject.backend.response.ApiResponse;
 import finalproject.backend.response.CategoryResponse;
 import finalproject.backend.response.PageResponse;
 import finalproject.backend.service.CategoryService;
+import finalproject.backend.service.ContentCacheService;
+import finalproject.backend.service.ContentVersionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -18,6 +21,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -25,6 +30,8 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final ContentCacheService contentCacheService;
+    private final ContentVersionService contentVersionService;
 
     @Override
     @Transactional
@@ -39,26 +46,32 @@ public class CategoryServiceImpl implements CategoryService {
 
         // createdAt + isActive set by @PrePersist
         Category saved = categoryRepository.save(categoryMapper.toEntity(request));
+        contentCacheService.evictCategories();
         log.info("Created category id={}", saved.getId());
         return ApiResponse.success(categoryMapper.toResponse(saved), "Category created successfully");
     }
 
     @Override
-    @Transactional(readOnly = true)
+    // No transaction here — ContentCacheService opens one on a miss only
     public PageResponse<CategoryResponse> getAllCategories(
             Pageable pageable,
             String search,
             String status,
             Boolean hasCourses) {
 
-        // ✅ Build spec from CategoryRepository directly
-        Specification<Category> spec = Specification
-                .where(searchByTitleOrSlug(search))
-                .and(hasStatus(status))
-                .and(hasCourses(hasCourses));
+        String cacheKey = pageable.getPageNumber() + ":" + pageable.getPageSize() + ":" + pageable.getSort()
+                + ":" + search + ":" + status + ":" + hasCourses;
+
+        return contentCacheService.getCategoryPage(cacheKey, () -> {
+            // ✅ Build spec from CategoryRepository directly
+            Specification<Category> spec = Specification
+                    .where(searchByTitleOrSlug(search))
+                    .and(hasStatus(status))
+                    .and(hasCourses(hasCourses));
 
-        Page<Category> page = categoryRepository.findAll(spec, pageable); // ✅ works because of JpaSpecificationExecutor
-        return PageResponse.of(page.map(categoryMapper::toResponse));
+            Page<Category> page = categoryRepository.findAll(spec, pageable); // ✅ works because of JpaSpecificationExecutor
+            return PageResponse.of(page.map(categoryMapper::toResponse));
+        });
     }
 
     // ── Specs defined inline — no need for separate CategorySpec.java ─────────
@@ -92,20 +105,24 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    // No transaction here — ContentCacheService opens one on a miss only
     public ApiResponse<CategoryResponse> getCategoryById(int id) {
-        Category category = findOrThrow(id);
-        return ApiResponse.success(categoryMapper.toResponse(category), "Category retrieved successfully");
+        CategoryResponse response = contentCacheService.getCategory("id:" + id,
+                () -> categoryMapper.toResponse(findOrThrow(id)));
+        return ApiResponse.success(response, "Category retrieved successfully");
     }
 
     @Override
-    @Transactional(readOnly = true)
+    // No transaction here — ContentCacheService opens one on a miss only
     public ApiResponse<CategoryResponse> getCategoryBySlug(String slug) {
-        Category category = categoryRepository.findBySlug(slug)
-                .orElseThrow(() -> new CustomMessageException(
-                        "Category not found with slug: " + slug,
-                        String.valueOf(HttpStatus.NOT_FOUND.value())));
-        return ApiResponse.success(categoryMapper.toResponse(category), "Category retrieved successfully");
+        CategoryResponse response = contentCacheService.getCategory("slug:" + slug, () -> {
+            Category category = categoryRepository.findBySlug(slug)
+                    .orElseThrow(() -> new CustomMessageException(
+                            "Category not found with slug: " + slug,
+                            String.valueOf(HttpStatus.NOT_FOUND.value())));
+            return categoryMapper.toResponse(category);
+        });
+        return ApiResponse.success(response, "Category retrieved successfully");
     }
 
     @Override
@@ -125,6 +142,9 @@ public class CategoryServiceImpl implements CategoryService {
 
         categoryMapper.updateEntity(request, category);
         Category saved = categoryRepository.save(category);
+        contentCacheService.evictCategories();
+        // Course payloads embed category name/slug
+        contentVersionService.markChanged(courseIdsOf(saved));
         log.info("Updated category id={}", id);
         return ApiResponse.success(categoryMapper.toResponse(saved), "Category updated successfully");
     }
@@ -132,13 +152,22 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     @Transactional
     public ApiResponse<Void> deleteCategory(int id) {
-        categoryRepository.delete(findOrThrow(id));
+        Category category = findOrThrow(id);
+        List<Long> courseIds = courseIdsOf(category);
+        categoryRepository.delete(category);
+        contentCacheService.evictCategories();
+        contentVersionService.markChanged(courseIds);
         log.info("Deleted category id={}", id);
         return ApiResponse.success("Category deleted successfully");
     }
 
     // ── helper ────────────────────────────────────────────────────────────────
 
+    private List<Long> courseIdsOf(Category category) {
+        if (category.getCourses() == null) return List.of();
+        return category.getCourses().stream().map(Course::getId).toList();
+    }
+
     private Category findOrThrow(int id) {
         return categoryRepository.findById(id)
                 .orElseThrow(() -> new CustomMessageException(
@@ -6,10 +6,15 @@ import finalproject.backend.modal.Chapter;
 import finalproject.backend.modal.Course;
 import finalproject.backend.repository.ChapterRepository;
 import finalproject.backend.repository.CourseRepository;
+import finalproject.backend.repository.LessonRepository;
 import finalproject.backend.request.ChapterRequest;
 import finalproject.backend.response.ApiResponse;
 import finalproject.backend.response.ChapterResponse;
 import finalproject.backend.service.ChapterService;
+import finalproject.backend.service.CompactProgressService;
+import finalproject.backend.service.ContentVersionService;
+import finalproject.backend.service.SearchIndexService;
+import finalproject.backend.service.UserCourseProgressService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -26,7 +31,12 @@ public class ChapterServiceImpl implements ChapterService {
 
     private final ChapterRepository chapterRepository;
     private final CourseRepository courseRepository;
+    private final LessonRepository lessonRepository;
     private final ChapterMapper chapterMapper;
+    private final SearchIndexService searchIndexService;
+    private final ContentVersionService contentVersionService;
+    private final UserCourseProgressService userCourseProgressService;
+    private final CompactProgressService compactProgressService;
 
     @Override
     @Transactional
@@ -40,6 +50,7 @@ public class ChapterServiceImpl implements ChapterService {
         // createdAt set by @PrePersist
         Chapter saved = chapterRepository.save(chapterMapper.toEntity(request, course));
         syncCourseTotalLessons(course);
+        contentVersionService.markChanged(course.getId());
 
         log.info("Created chapter id={} for course id={}", saved.getId(), course.getId());
         return ApiResponse.success(chapterMapper.toResponse(saved), "Chapter created successfully");
@@ -72,6 +83,7 @@ public class ChapterServiceImpl implements ChapterService {
     @Transactional
     public ApiResponse<ChapterResponse> updateChapter(Long id, ChapterRequest request) {
         Chapter chapter = findChapterOrThrow(id);
+        Long previousCourseId = chapter.getCourse().getId();
 
         Course course = null;
         if (request.getCourseId() != null && !request.getCourseId().equals(chapter.getCourse().getId()))
@@ -85,6 +97,7 @@ public class ChapterServiceImpl implements ChapterService {
 
         chapterMapper.updateEntity(request, chapter, course);
         Chapter saved = chapterRepository.save(chapter);
+        contentVersionService.markChanged(List.of(previousCourseId, saved.getCourse().getId()));
         log.info("Updated chapter id={}", id);
         return ApiResponse.success(chapterMapper.toResponse(saved), "Chapter updated successfully");
     }
@@ -96,6 +109,12 @@ public class ChapterServiceImpl implements ChapterService {
         Course course = chapter.getCourse();
         chapterRepository.delete(chapter);
         syncCourseTotalLessons(course);
+        // Lessons and their progress rows went with the chapter (cascade) — recount the course
+        chapterRepository.flush();
+        userCourseProgressService.rebuildCourse(course.getId());
+        compactProgressService.evictAll();
+        searchIndexService.removeChapter(id);
+        contentVersionService.markChanged(course.getId());
         log.info("Deleted chapter id={}", id);
         return ApiResponse.success("Chapter deleted successfully");
     }
@@ -117,7 +136,7 @@ public class ChapterServiceImpl implements ChapterService {
     }
 
     private void syncCourseTotalLessons(Course course) {
-        course.setTotalLessons(chapterRepository.countByCourseId(course.getId()));
+        course.setTotalLessons(Math.toIntExact(lessonRepository.countByCourseId(course.getId())));
         courseRepository.save(course);
     }
 }
@@ -10,6 +10,9 @@ import finalproject.backend.request.CodeSnippetRequest;
 import finalproject.backend.response.ApiResponse;
 import finalproject.backend.response.CodeSnippetResponse;
 import finalproject.backend.service.CodeSnippetService;
+import finalproject.backend.service.ContentVersionService;
+import finalproject.backend.service.SearchIndexService;
+import finalproject.backend.util.SyntaxHighlighter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -27,6 +30,8 @@ public class CodeSnippetServiceImpl implements CodeSnippetService {
     private final CodeSnippetRepository codeSnippetRepository;
     private final LessonRepository lessonRepository;
     private final CodeSnippetMapper codeSnippetMapper;
+    private final SearchIndexService searchIndexService;
+    private final ContentVersionService contentVersionService;
 
     @Override
     @Transactional
@@ -37,7 +42,11 @@ public class CodeSnippetServiceImpl implements CodeSnippetService {
             throw new CustomMessageException("Code snippet title already exists in this lesson",
                     String.valueOf(HttpStatus.CONFLICT.value()));
 
-        CodeSnippet saved = codeSnippetRepository.save(codeSnippetMapper.toEntity(request, lesson));
+        CodeSnippet snippet = codeSnippetMapper.toEntity(request, lesson);
+        resolveLanguage(snippet);
+        CodeSnippet saved = codeSnippetRepository.save(snippet);
+        searchIndexService.indexSnippet(saved);
+        contentVersionService.markChanged(lesson.getCourse().getId());
         log.info("Created code snippet id={} for lesson id={}", saved.getId(), lesson.getId());
         return ApiResponse.success(codeSnippetMapper.toResponse(saved), "Code snippet created successfully");
     }
@@ -69,6 +78,7 @@ public class CodeSnippetServiceImpl implements CodeSnippetService {
     @Transactional
     public ApiResponse<CodeSnippetResponse> updateSnippet(Long id, CodeSnippetRequest request) {
         CodeSnippet snippet = findSnippetOrThrow(id);
+        Long previousCourseId = snippet.getLesson().getCourse().getId();
 
         Lesson lesson = null;
         if (request.getLessonId() != null && !request.getLessonId().equals(snippet.getLesson().getId()))
@@ -81,7 +91,10 @@ public class CodeSnippetServiceImpl implements CodeSnippetService {
                     String.valueOf(HttpStatus.CONFLICT.value()));
 
         codeSnippetMapper.updateEntity(request, snippet, lesson);
+        resolveLanguage(snippet);
         CodeSnippet saved = codeSnippetRepository.save(snippet);
+        searchIndexService.indexSnippet(saved);
+        contentVersionService.markChanged(List.of(previousCourseId, saved.getLesson().getCourse().getId()));
         log.info("Updated code snippet id={}", id);
         return ApiResponse.success(codeSnippetMapper.toResponse(saved), "Code snippet updated successfully");
     }
@@ -89,13 +102,23 @@ public class CodeSnippetServiceImpl implements CodeSnippetService {
     @Override
     @Transactional
     public ApiResponse<Void> deleteSnippet(Long id) {
-        codeSnippetRepository.delete(findSnippetOrThrow(id));
+        CodeSnippet snippet = findSnippetOrThrow(id);
+        Long courseId = snippet.getLesson().getCourse().getId();
+        codeSnippetRepository.delete(snippet);
+        searchIndexService.removeSnippet(id);
+        contentVersionService.markChanged(courseId);
         log.info("Deleted code snippet id={}", id);
         return ApiResponse.success("Code snippet deleted successfully");
     }
 
     // ── helpers ───────────────────────────────────────────────────────────────
 
+    // "text" / "code" placeholders are resolved once here instead of on every PDF render
+    private void resolveLanguage(CodeSnippet snippet) {
+        if (SyntaxHighlighter.isPlaceholderLanguage(snippet.getLanguage()))
+            snippet.setLanguage(SyntaxHighlighter.detectLanguage(snippet.getCode()).toLowerCase());
+    }
+
     private CodeSnippet findSnippetOrThrow(Long id) {
         return codeSnippetRepository.findById(id)
                 .orElseThrow(() -> new CustomMessageException(
@@ -7,9 +7,11 @@ import finalproject.backend.repository.CoursePdfExportRepository;
 import finalproject.backend.repository.CourseRepository;
 import finalproject.backend.response.ApiResponse;
 import finalproject.backend.response.CoursePdfExportResponse;
+import finalproject.backend.response.PdfJobResponse;
 import finalproject.backend.service.CoursePdfExportService;
-import finalproject.backend.service.CoursePdfGeneratorService;
+import finalproject.backend.service.PdfJobService;
 import finalproject.backend.service.R2StorageService;
+import finalproject.backend.service.SearchService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -33,8 +35,9 @@ public class CoursePdfExportServiceImpl implements CoursePdfExportService {
     private final CoursePdfExportRepository pdfExportRepository;
     private final CourseRepository          courseRepository;
     private final CoursePdfExportMapper     pdfExportMapper;
-    private final CoursePdfGeneratorService pdfGeneratorService;
+    private final PdfJobService             pdfJobService;
     private final R2StorageService          r2StorageService;
+    private final SearchService             searchService;
 
     // ── GET ALL ───────────────────────────────────────────────────────────────
 
@@ -45,9 +48,13 @@ public class CoursePdfExportServiceImpl implements CoursePdfExportService {
             String status,
             String level,
             Long categoryId) {
-        List<Course> courses = courseRepository.findAll()
+        // Search goes through the full-text index; only matching courses are loaded
+        List<Course> candidates = StringUtils.hasText(search)
+                ? courseRepository.findAllById(searchService.findMatchingCourseIds(search))
+                : courseRepository.findAll();
+
+        List<Course> courses = candidates
                 .stream()
-                .filter(course -> matchesSearch(course, search))
                 .filter(course -> matchesStatus(course, status))
                 .filter(course -> matchesLevel(course, level))
                 .filter(course -> matchesCategory(course, categoryId))
@@ -134,69 +141,49 @@ public class CoursePdfExportServiceImpl implements CoursePdfExportService {
                 "PDF export saved successfully");
     }
 
-    // ── GENERATE ──────────────────────────────────────────────────────────────
+    // ── GENERATE (async) ──────────────────────────────────────────────────────
 
     /**
-     * Generates a PDF for the given course and uploads it to Cloudflare R2.
-     *
-     * Flow:
-     *  1. Load course with all chapters + lessons
-     *  2. Generate PDF bytes via CoursePdfGeneratorService (Playwright)
-     *  3. Upload to R2 using uploadPdf() — returns CDN URL:
-     *       https://cdn.codegrowthkh.site/course-pdfs/{uuid}-{slug}.pdf
-     *  4. If a previous PDF exists, delete it from R2 first
-     *  5. Upsert CoursePdfExport record with the new CDN URL
+     * Queues PDF generation — rendering (Playwright) and the R2 upload run on
+     * {@link PdfJobService}'s workers; poll {@link #getGenerationJob} for the result.
      */
     @Override
-    @Transactional
-    public ApiResponse<CoursePdfExportResponse> generatePdf(Long courseId) {
-        Course course = findCourseOrThrow(courseId);
-
-        log.info("📄 Generating PDF for courseId={} slug='{}'", courseId, course.getSlug());
-
-        // ── 1. Generate PDF bytes ─────────────────────────────────────────────
-        byte[] pdfBytes = pdfGeneratorService.generate(course);
-        long sizeKb = pdfBytes.length / 1024;
-        log.info("📦 PDF generated — {} KB for courseId={}", sizeKb, courseId);
-
-        // ── 2. Build a human-readable PDF filename from the course title ──────
-        //      e.g. "Java-ខ្មែរ.pdf"
-        String pdfName = buildPdfName(course);
-
-        // ── 3. Upload to R2 via uploadPdf() ──────────────────────────────────
-        //      Returns: https://cdn.codegrowthkh.site/course-pdfs/{uuid}-{slug}.pdf
-        String uploadedPdfUrl = r2StorageService.uploadPdf(pdfBytes, course.getSlug());
-        // ── 4. Load or create the export record ───────────────────────────────
-        CoursePdfExport export = pdfExportRepository.findByCourseId(courseId)
-                .orElseGet(() -> CoursePdfExport.builder().course(course).build());
-
-        String newPdfUrl = appendVersion(uploadedPdfUrl, export.getPdfUrl());
-        log.info("☁️  PDF uploaded to R2 → {}", newPdfUrl);
-
-        // ── 5. Delete old R2 object if regenerating ───────────────────────────
-        deleteOldPdfIfExists(export.getPdfUrl(), newPdfUrl);
-
-        // ── 6. Count total lessons across all chapters ────────────────────────
-        int totalLessons = course.getChapters() == null ? 0 :
-                course.getChapters().stream()
-                        .filter(ch -> ch.getLessons() != null)
-                        .mapToInt(ch -> ch.getLessons().size())
-                        .sum();
-
-        // ── 7. Persist metadata ───────────────────────────────────────────────
-        export.setPdfName(pdfName);
-        export.setPdfUrl(newPdfUrl);               // ← CDN URL stored in DB
-        export.setPdfSizeKb(sizeKb);
-        export.setTotalPages(0);                   // update if you add page counting
-        export.setTotalLessonsIncluded(totalLessons);
-        export.setGeneratedAt(LocalDateTime.now());
+    public ApiResponse<PdfJobResponse> generatePdf(Long courseId, boolean force) {
+        if (!force && pdfJobService.isExportCurrent(courseId)) {
+            CoursePdfExportResponse export = pdfExportRepository.findByCourseId(courseId)
+                    .map(pdfExportMapper::toResponse)
+                    .orElse(null);
+            if (export != null) {
+                PdfJobResponse upToDate = PdfJobResponse.builder()
+                        .courseId(courseId)
+                        .status(PdfJobService.Status.DONE.name())
+                        .export(export)
+                        .build();
+                return ApiResponse.success(upToDate, "PDF is already up to date");
+            }
+        }
+        PdfJobService.PdfJob job = pdfJobService.enqueue(courseId, force);
+        return ApiResponse.success(toJobResponse(job), "PDF generation queued");
+    }
 
-        CoursePdfExport saved = pdfExportRepository.save(export);
-        log.info("✅ PDF export record saved — courseId={} url={}", courseId, newPdfUrl);
+    @Override
+    @Transactional(readOnly = true)
+    public ApiResponse<PdfJobResponse> getGenerationJob(Long jobId) {
+        PdfJobService.PdfJob job = pdfJobService.find(jobId)
+                .orElseThrow(() -> new CustomMessageException(
+                        "PDF job not found with id: " + jobId,
+                        String.valueOf(HttpStatus.NOT_FOUND.value())));
+        return ApiResponse.success(toJobResponse(job), "PDF job retrieved successfully");
+    }
 
-        return ApiResponse.success(
-                pdfExportMapper.toResponse(saved),
-                "PDF generated successfully");
+    @Override
+    @Transactional(readOnly = true)
+    public ApiResponse<PdfJobResponse> getLatestGenerationJob(Long courseId) {
+        PdfJobService.PdfJob job = pdfJobService.findLatestForCourse(courseId)
+                .orElseThrow(() -> new CustomMessageException(
+                        "No PDF job found for course id: " + courseId,
+                        String.valueOf(HttpStatus.NOT_FOUND.value())));
+        return ApiResponse.success(toJobResponse(job), "PDF job retrieved successfully");
     }
 
     // ── INCREMENT DOWNLOAD ────────────────────────────────────────────────────
@@ -254,65 +241,23 @@ public class CoursePdfExportServiceImpl implements CoursePdfExportService {
                         String.valueOf(HttpStatus.NOT_FOUND.value())));
     }
 
-    /**
-     * Builds a readable PDF filename from the course title.
-     * Keeps Khmer characters intact, replaces unsafe ASCII chars with "-".
-     * e.g. "Java ខ្មែរ (Beginner)" → "Java-ខ្មែរ-Beginner-.pdf"
-     */
-    private String buildPdfName(Course course) {
-        return course.getSlug() + ".pdf";
-    }
-
-    /**
-     * Deletes the old PDF from R2 only if it exists and is different from the new one.
-     * Silently swallows errors — a stale file in R2 should never block a regeneration.
-     */
-    private void deleteOldPdfIfExists(String oldUrl, String newUrl) {
-        if (!StringUtils.hasText(oldUrl)) return;
-        String oldKey = r2StorageService.extractKeyFromUrl(oldUrl);
-        String newKey = r2StorageService.extractKeyFromUrl(newUrl);
-        if (oldKey.equals(newKey)) return;
-        try {
-            r2StorageService.deleteFile(oldUrl);
-            log.info("🗑️  Old PDF deleted from R2: {}", oldUrl);
-        } catch (Exception e) {
-            log.warn("Could not delete old PDF from R2 ({}): {}", oldUrl, e.getMessage());
-        }
-    }
-
-    private String appendVersion(String pdfUrl, String previousPdfUrl) {
-        if (!StringUtils.hasText(pdfUrl)) return pdfUrl;
-
-        int nextVersion = extractVersion(previousPdfUrl) + 1;
-        String separator = pdfUrl.contains("?") ? "&" : "?";
-        return pdfUrl + separator + "v=" + nextVersion;
-    }
-
-    private int extractVersion(String pdfUrl) {
-        if (!StringUtils.hasText(pdfUrl)) return 0;
-
-        int queryIndex = pdfUrl.indexOf('?');
-        if (queryIndex < 0 || queryIndex == pdfUrl.length() - 1) return 0;
-
-        String query = pdfUrl.substring(queryIndex + 1);
-        for (String part : query.split("&")) {
-            if (!part.startsWith("v=")) continue;
-            try {
-                return Integer.parseInt(part.substring(2));
-            } catch (NumberFormatException ignored) {
-                return 0;
-            }
-        }
-        return 0;
-    }
-
-    private boolean matchesSearch(Course course, String search) {
-        if (!StringUtils.hasText(search)) return true;
-
-        String keyword = search.trim().toLowerCase();
-        String title = course.getTitle() == null ? "" : course.getTitle().toLowerCase();
-        String slug = course.getSlug() == null ? "" : course.getSlug().toLowerCase();
-        return title.contains(keyword) || slug.contains(keyword);
+    private PdfJobResponse toJobResponse(PdfJobService.PdfJob job) {
+        CoursePdfExportResponse export = job.status() == PdfJobService.Status.DONE
+                ? pdfExportRepository.findByCourseId(job.courseId()).map(pdfExportMapper::toResponse).orElse(null)
+                : null;
+        return PdfJobResponse.builder()
+                .jobId(job.id())
+                .courseId(job.courseId())
+                .status(job.status().name())
+                .attempts(job.attempts())
+                .maxAttempts(job.maxAttempts())
+                .nextAttemptAt(job.status() == PdfJobService.Status.QUEUED ? job.nextAttemptAt() : null)
+                .lastError(job.lastError())
+                .createdAt(job.createdAt())
+                .updatedAt(job.updatedAt())
+                .finishedAt(job.finishedAt())
+                .export(export)
+                .build();
     }
 
     private boolean matchesStatus(Course course, String status) {
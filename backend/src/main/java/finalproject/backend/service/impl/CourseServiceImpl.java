@@ -5,43 +5,64 @@ import finalproject.backend.mapper.ChapterMapper;
 import finalproject.backend.mapper.CourseMapper;
 import finalproject.backend.mapper.LessonMapper;
 import finalproject.backend.modal.Category;
+import finalproject.backend.modal.Chapter;
 import finalproject.backend.modal.Course;
 import finalproject.backend.modal.CourseLevel;
 import finalproject.backend.modal.CourseStatus;
 import finalproject.backend.modal.Lesson;
 import finalproject.backend.modal.User;
 import finalproject.backend.repository.CategoryRepository;
+import finalproject.backend.repository.ChapterRepository;
 import finalproject.backend.repository.CoursePdfExportRepository;
 import finalproject.backend.repository.CourseRepository;
+import finalproject.backend.repository.LessonOutlineView;
 import finalproject.backend.repository.LessonProgressRepository;
 import finalproject.backend.repository.LessonRepository;
 import finalproject.backend.repository.UserRepository;
 import finalproject.backend.request.CourseRequest;
 import finalproject.backend.response.ApiResponse;
+import finalproject.backend.response.ChapterResponse;
 import finalproject.backend.response.CourseResponse;
+import finalproject.backend.response.CursorPageResponse;
 import finalproject.backend.response.LessonResponse;
 import finalproject.backend.response.PageResponse;
+import finalproject.backend.service.ContentCacheService;
+import finalproject.backend.service.ContentVersionService;
 import finalproject.backend.service.CourseService;
+import finalproject.backend.service.CourseViewCounterService;
 import finalproject.backend.service.R2StorageService;
+import finalproject.backend.service.SearchIndexService;
+import finalproject.backend.service.SearchService;
+import finalproject.backend.service.UserCourseProgressService;
 import finalproject.backend.util.RoleUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -49,6 +70,9 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CourseServiceImpl implements CourseService {
 
+    private static final int  MAX_CURSOR_PAGE_SIZE = 100;
+    private static final Sort CURSOR_SORT = Sort.by("orderIndex", "createdAt", "id").ascending();
+
     private final CourseRepository courseRepository;
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
@@ -56,12 +80,32 @@ public class CourseServiceImpl implements CourseService {
     private final ChapterMapper chapterMapper;
     private final LessonMapper lessonMapper;
     private final LessonRepository lessonRepository;
+    private final ChapterRepository chapterRepository;
     private final LessonProgressRepository lessonProgressRepository;
+    private final UserCourseProgressService userCourseProgressService;
     private final CoursePdfExportRepository coursePdfExportRepository;
     private final R2StorageService r2StorageService;
+    private final CourseViewCounterService courseViewCounterService;
+    private final SearchIndexService searchIndexService;
+    private final ContentCacheService contentCacheService;
+    private final ContentVersionService contentVersionService;
+    private final SearchService searchService;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    // ─── Schema ───────────────────────────────────────────────────────────────
+
+    // Keyset pages walk (order_index, created_at, id) — without this index every page sorts the table
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_course_cursor ON course (order_index, created_at, id)");
+        } catch (Exception e) {
+            log.warn("Course cursor index creation skipped: {}", e.getMessage());
+        }
+    }
 
     @Override
-    @Transactional
     public ApiResponse<CourseResponse> createCourse(CourseRequest request, MultipartFile thumbnail) {
         // Manual validation (replaces @Valid on multipart endpoint)
         if (request.getTitle() == null || request.getTitle().isBlank())
@@ -72,36 +116,46 @@ public class CourseServiceImpl implements CourseService {
         User currentUser = getCurrentUser();
         request.setInstructorId(currentUser.getId());
 
-        // Auto-generate slug from title if not provided
-        if (request.getSlug() == null || request.getSlug().isBlank()) {
-            request.setSlug(generateSlug(request.getTitle()));
-        }
+        // Thumbnail streams to R2 while the request is checked — no transaction is open
+        // until it has landed, so the upload's own queries never wait on this request's connection
+        CompletableFuture<String> thumbnailUpload = thumbnail != null && !thumbnail.isEmpty()
+                ? r2StorageService.uploadFileAsync(thumbnail, "thumbnails") : null;
+        String thumbnailUrl;
+        try {
+            // Auto-generate slug from title if not provided
+            if (request.getSlug() == null || request.getSlug().isBlank()) {
+                request.setSlug(generateSlug(request.getTitle()));
+            }
 
-        if (courseRepository.existsByTitle(request.getTitle()))
-            throw new CustomMessageException("Course title already exists",
-                    String.valueOf(HttpStatus.CONFLICT.value()));
+            if (courseRepository.existsByTitle(request.getTitle()))
+                throw new CustomMessageException("Course title already exists",
+                        String.valueOf(HttpStatus.CONFLICT.value()));
 
-        if (courseRepository.existsBySlug(request.getSlug()))
-            throw new CustomMessageException("Course slug already exists",
-                    String.valueOf(HttpStatus.CONFLICT.value()));
+            if (courseRepository.existsBySlug(request.getSlug()))
+                throw new CustomMessageException("Course slug already exists",
+                        String.valueOf(HttpStatus.CONFLICT.value()));
 
-        User instructor = currentUser;
-        Set<Category> categories = findCategoriesOrThrow(request.getResolvedCategoryIds());
+            thumbnailUrl = thumbnailUpload != null ? r2StorageService.await(thumbnailUpload) : null;
+        } catch (RuntimeException e) {
+            r2StorageService.discard(thumbnailUpload);
+            throw e;
+        }
 
-        // createdAt, status, level set by @PrePersist
-        Course course = courseMapper.toEntity(request, instructor, categories);
+        return transactionTemplate.execute(status -> {
+            r2StorageService.discardOnRollback(thumbnailUpload);
 
-        if (thumbnail != null && !thumbnail.isEmpty()) {
-            try {
-                course.setThumbnail(r2StorageService.uploadFile(thumbnail, "thumbnails"));
-            } catch (IOException e) {
-                throw new CustomMessageException("Failed to upload thumbnail: " + e.getMessage());
-            }
-        }
+            Set<Category> categories = findCategoriesOrThrow(request.getResolvedCategoryIds());
+
+            // createdAt, status, level set by @PrePersist
+            Course course = courseMapper.toEntity(request, currentUser, categories);
+            if (thumbnailUrl != null) course.setThumbnail(thumbnailUrl);
 
-        Course saved = courseRepository.save(course);
-        log.info("Created course id={}", saved.getId());
-        return ApiResponse.success(courseMapper.toResponse(saved), "Course created successfully");
+            Course saved = courseRepository.save(course);
+            searchIndexService.indexCourse(saved);
+            contentCacheService.evictCategories();
+            log.info("Created course id={}", saved.getId());
+            return ApiResponse.success(courseMapper.toResponse(saved), "Course created successfully");
+        });
     }
 
     @Override
@@ -115,31 +169,95 @@ public class CourseServiceImpl implements CourseService {
             Boolean isFeatured,
             Boolean isFree) {
 
-        Specification<Course> spec = Specification
+        Specification<Course> spec = buildCourseSpec(search, status, level, categoryId, isFeatured, isFree);
+
+        Page<Course> page = courseRepository.findAll(spec, pageable);
+        return toPageResponse(page);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<CourseResponse> getCoursesByCursor(
+            String  cursor,
+            int     size,
+            String  search,
+            String  status,
+            String  level,
+            Long    categoryId,
+            Boolean isFeatured,
+            Boolean isFree) {
+
+        int limit = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        Specification<Course> spec = buildCourseSpec(search, status, level, categoryId, isFeatured, isFree)
+                .and(afterCursor(decodeCursor(cursor)));
+
+        // Fetch one extra row to know whether a next page exists — no count(*) query
+        List<Course> rows = courseRepository.findBy(spec, q -> q
+                .sortBy(CURSOR_SORT)
+                .limit(limit + 1)
+                .all());
+
+        boolean hasNext = rows.size() > limit;
+        List<Course> content = hasNext ? rows.subList(0, limit) : rows;
+
+        return CursorPageResponse.<CourseResponse>builder()
+                .content(courseMapper.toResponses(content))
+                .pageSize(limit)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? encodeCursor(content.get(content.size() - 1)) : null)
+                .build();
+    }
+
+    // ─── Specifications ───────────────────────────────────────────────────────
+
+    private Specification<Course> buildCourseSpec(
+            String  search,
+            String  status,
+            String  level,
+            Long    categoryId,
+            Boolean isFeatured,
+            Boolean isFree) {
+        return Specification
                 .where(searchByTitleOrSlug(search))
                 .and(hasStatus(status))
                 .and(hasLevel(level))
                 .and(hasCategory(categoryId))
                 .and(isFeatured(isFeatured))
                 .and(isFree(isFree));
-
-        Page<Course> page = courseRepository.findAll(spec, pageable);
-        return PageResponse.of(page.map(courseMapper::toResponse));
     }
 
-    // ─── Specifications ───────────────────────────────────────────────────────
-
-    private Specification<Course> searchByTitleOrSlug(String search) {
+    /** Keyset predicate: rows strictly after (orderIndex, createdAt, id) in ascending order. */
+    private Specification<Course> afterCursor(CourseCursor after) {
         return (root, query, cb) -> {
-            if (search == null || search.isBlank()) return null;
-            String like = "%" + search.toLowerCase() + "%";
+            if (after == null) return null;
+            var orderIndex = root.<Integer>get("orderIndex");
+            var createdAt  = root.<LocalDateTime>get("createdAt");
+            var id         = root.<Long>get("id");
             return cb.or(
-                    cb.like(cb.lower(root.get("title")), like),
-                    cb.like(cb.lower(root.get("slug")),  like)
+                    cb.greaterThan(orderIndex, after.orderIndex()),
+                    cb.and(cb.equal(orderIndex, after.orderIndex()),
+                            cb.greaterThan(createdAt, after.createdAt())),
+                    cb.and(cb.equal(orderIndex, after.orderIndex()),
+                            cb.equal(createdAt, after.createdAt()),
+                            cb.greaterThan(id, after.id()))
             );
         };
     }
 
+    /**
+     * Title/slug/description match via the full-text index (see SearchIndexService).
+     * Match semantics differ from the former LIKE '%term%': every query word must
+     * start a word of the course ("java" finds "JavaScript", "script" no longer
+     * does), while Khmer still matches anywhere inside a run. The description is
+     * searched too.
+     */
+    private Specification<Course> searchByTitleOrSlug(String search) {
+        if (search == null || search.isBlank()) return (root, query, cb) -> null;
+        // Resolved once — the spec is applied to both the page and the count query
+        Set<Long> ids = searchService.findMatchingCourseIds(search);
+        return (root, query, cb) -> ids.isEmpty() ? cb.disjunction() : root.get("id").in(ids);
+    }
+
     private Specification<Course> hasStatus(String status) {
         return (root, query, cb) -> {
             if (status == null || status.isBlank()) return null;
@@ -188,119 +306,163 @@ public class CourseServiceImpl implements CourseService {
     @Transactional(readOnly = true)
     public ApiResponse<CourseResponse> getCourseById(Long id) {
         Course course = findCourseOrThrow(id);
-        course.setViewCount(course.getViewCount() == null ? 1L : course.getViewCount() + 1);
-        courseRepository.save(course);
-        return ApiResponse.success(courseMapper.toResponse(course), "Course retrieved successfully");
+        courseViewCounterService.recordView(course.getId());
+        return ApiResponse.success(withPendingViews(courseMapper.toResponse(course)), "Course retrieved successfully");
     }
 
     @Override
-    @Transactional(readOnly = true)
+    // No transaction here — ContentCacheService opens one on a miss only
     public ApiResponse<CourseResponse> getCourseBySlug(String slug) {
+        // Mapped course tree is cached per slug; concurrent misses share one load
+        CourseResponse cached = contentCacheService.getCourse(slug, () -> loadCourseTree(slug));
+
+        // View is buffered in memory and flushed in batches — this path stays read-only
+        courseViewCounterService.recordView(cached.getId());
+
+        return ApiResponse.success(withCurrentViews(cached), "Course retrieved successfully");
+    }
+
+    private CourseResponse loadCourseTree(String slug) {
+        long flushMark = courseViewCounterService.flushMark();
         Course course = courseRepository.findBySlug(slug)
                 .orElseThrow(() -> new CustomMessageException(
                         "Course not found with slug: " + slug,
                         String.valueOf(HttpStatus.NOT_FOUND.value())));
 
-        // Increment view count
-        course.setViewCount(course.getViewCount() == null ? 1L : course.getViewCount() + 1);
-        courseRepository.save(course);
-
-        // Include nested chapters + lessons for full course page rendering
-        CourseResponse response = courseMapper.toResponse(course);
-        response.setChapters(course.getChapters().stream()
-                .map(chapterMapper::toResponseWithLessons)
-                .collect(Collectors.toList()));
+        // Batched summary (projections) instead of walking the lazy categories/instructor
+        CourseResponse response = courseMapper.toResponses(List.of(course)).get(0);
+        response.setChapters(buildChapterOutline(course));
+        // Cached entries outlive view flushes — store the count without this instance's views
+        response.setViewCount(courseViewCounterService.persistedBaseline(course.getId(), course.getViewCount()));
+        if (courseViewCounterService.flushOverlapped(flushMark)) {
+            // The read may or may not include that flush — serve this load but keep it out of the cache
+            contentCacheService.evictCourse(course.getId());
+        }
+        return response;
+    }
 
-        return ApiResponse.success(response, "Course retrieved successfully");
+    /**
+     * Course tree in two queries — chapters, then every lesson outline of the
+     * course (no `content` TEXT) grouped by chapter in memory.
+     */
+    private List<ChapterResponse> buildChapterOutline(Course course) {
+        List<Chapter> chapters = chapterRepository.findByCourseIdOrderByOrderIndexAsc(course.getId());
+        Map<Long, Chapter> chapterById = chapters.stream()
+                .collect(Collectors.toMap(Chapter::getId, Function.identity()));
+
+        Map<Long, List<LessonResponse>> lessonsByChapterId = lessonRepository.findOutlinesByCourseId(course.getId())
+                .stream()
+                .collect(Collectors.groupingBy(
+                        LessonOutlineView::getChapterId,
+                        Collectors.mapping(
+                                view -> lessonMapper.toOutlineResponse(view, chapterById.get(view.getChapterId()), course),
+                                Collectors.toList())));
+
+        return chapters.stream()
+                .map(chapter -> chapterMapper.toResponseWithLessons(
+                        chapter, course, lessonsByChapterId.getOrDefault(chapter.getId(), List.of())))
+                .toList();
     }
 
     @Override
-    @Transactional
+    // No transaction here — ContentCacheService opens one on a miss only
     public ApiResponse<CourseResponse> getCourseWithChapters(String slug) {
         return getCourseBySlug(slug);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    // No transaction here — ContentCacheService opens one on a miss only
     public ApiResponse<LessonResponse> getLessonBySlug(String courseSlug, String lessonSlug) {
-        Lesson lesson = lessonRepository.findByCourse_SlugAndSlug(courseSlug, lessonSlug)
-                .orElseThrow(() -> new CustomMessageException(
-                        "Lesson not found with slug: " + lessonSlug + " in course: " + courseSlug,
-                        String.valueOf(HttpStatus.NOT_FOUND.value())));
-        return ApiResponse.success(lessonMapper.toResponse(lesson), "Lesson retrieved successfully");
+        LessonResponse response = contentCacheService.getLesson(courseSlug, lessonSlug, () -> {
+            Lesson lesson = lessonRepository.findByCourse_SlugAndSlug(courseSlug, lessonSlug)
+                    .orElseThrow(() -> new CustomMessageException(
+                            "Lesson not found with slug: " + lessonSlug + " in course: " + courseSlug,
+                            String.valueOf(HttpStatus.NOT_FOUND.value())));
+            return lessonMapper.toResponse(lesson);
+        });
+        return ApiResponse.success(response, "Lesson retrieved successfully");
     }
 
     @Override
     @Transactional(readOnly = true)
     public PageResponse<CourseResponse> getCoursesByCategory(int categoryId, Pageable pageable) {
-        return PageResponse.of(courseRepository.findDistinctByCategories_Id(categoryId, pageable)
-                .map(courseMapper::toResponse));
+        return toPageResponse(courseRepository.findDistinctByCategories_Id(categoryId, pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public PageResponse<CourseResponse> getCoursesByInstructor(Long instructorId, Pageable pageable) {
-        return PageResponse.of(courseRepository.findByInstructorId(instructorId, pageable)
-                .map(courseMapper::toResponse));
+        return toPageResponse(courseRepository.findByInstructorId(instructorId, pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public PageResponse<CourseResponse> getFeaturedCourses(Pageable pageable) {
-        return PageResponse.of(
-                courseRepository.findByIsFeaturedTrueAndStatus(CourseStatus.PUBLISHED, pageable)
-                        .map(courseMapper::toResponse));
+        return toPageResponse(courseRepository.findByIsFeaturedTrueAndStatus(CourseStatus.PUBLISHED, pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public PageResponse<CourseResponse> getComingSoonCourses(Pageable pageable) {
-        return PageResponse.of(
-                courseRepository.findByStatus(CourseStatus.COMING_SOON, pageable)
-                        .map(courseMapper::toResponse));
+        return toPageResponse(courseRepository.findByStatus(CourseStatus.COMING_SOON, pageable));
     }
 
     @Override
-    @Transactional
     public ApiResponse<CourseResponse> updateCourse(Long id, CourseRequest request, MultipartFile thumbnail) {
-        Course course = findCourseOrThrow(id);
-        validateCourseOwnership(course);
-
-        // Auto-generate slug from title if slug is not provided but title changed
-        if ((request.getSlug() == null || request.getSlug().isBlank())
-                && request.getTitle() != null && !request.getTitle().isBlank()) {
-            request.setSlug(generateSlug(request.getTitle()));
+        validateCourseOwnership(findCourseOrThrow(id));
+
+        // Thumbnail streams to R2 while the request is checked — no transaction is open
+        // until it has landed (see createCourse)
+        CompletableFuture<String> thumbnailUpload = thumbnail != null && !thumbnail.isEmpty()
+                ? r2StorageService.uploadFileAsync(thumbnail, "thumbnails") : null;
+        String thumbnailUrl;
+        try {
+            // Auto-generate slug from title if slug is not provided but title changed
+            if ((request.getSlug() == null || request.getSlug().isBlank())
+                    && request.getTitle() != null && !request.getTitle().isBlank()) {
+                request.setSlug(generateSlug(request.getTitle()));
+            }
+            thumbnailUrl = thumbnailUpload != null ? r2StorageService.await(thumbnailUpload) : null;
+        } catch (RuntimeException e) {
+            r2StorageService.discard(thumbnailUpload);
+            throw e;
         }
 
-        if (request.getTitle() != null && !request.getTitle().equals(course.getTitle())
-                && courseRepository.existsByTitle(request.getTitle()))
-            throw new CustomMessageException("Course title already exists",
-                    String.valueOf(HttpStatus.CONFLICT.value()));
+        return transactionTemplate.execute(status -> {
+            r2StorageService.discardOnRollback(thumbnailUpload);
 
-        if (request.getSlug() != null && !request.getSlug().equals(course.getSlug())
-                && courseRepository.existsBySlug(request.getSlug()))
-            throw new CustomMessageException("Course slug already exists",
-                    String.valueOf(HttpStatus.CONFLICT.value()));
+            Course course = findCourseOrThrow(id);
 
-        Set<Category> categories = request.hasCategorySelection()
-                ? findCategoriesOrThrow(request.getResolvedCategoryIds()) : null;
+            if (request.getTitle() != null && !request.getTitle().equals(course.getTitle())
+                    && courseRepository.existsByTitle(request.getTitle()))
+                throw new CustomMessageException("Course title already exists",
+                        String.valueOf(HttpStatus.CONFLICT.value()));
 
-        courseMapper.updateEntity(request, course, null, categories);
-        // updatedAt + publishedAt handled by @PreUpdate
+            if (request.getSlug() != null && !request.getSlug().equals(course.getSlug())
+                    && courseRepository.existsBySlug(request.getSlug()))
+                throw new CustomMessageException("Course slug already exists",
+                        String.valueOf(HttpStatus.CONFLICT.value()));
 
-        if (thumbnail != null && !thumbnail.isEmpty()) {
-            try {
+            Set<Category> categories = request.hasCategorySelection()
+                    ? findCategoriesOrThrow(request.getResolvedCategoryIds()) : null;
+
+            courseMapper.updateEntity(request, course, null, categories);
+            // updatedAt + publishedAt handled by @PreUpdate
+
+            if (thumbnailUrl != null) {
                 String old = course.getThumbnail();
+                course.setThumbnail(thumbnailUrl);
+                // Released after commit — a rollback keeps the old thumbnail
                 if (old != null && !old.isBlank()) r2StorageService.deleteFile(old);
-                course.setThumbnail(r2StorageService.uploadFile(thumbnail, "thumbnails"));
-            } catch (IOException e) {
-                throw new CustomMessageException("Failed to upload thumbnail: " + e.getMessage());
             }
-        }
 
-        Course saved = courseRepository.save(course);
-        log.info("Updated course id={}", id);
-        return ApiResponse.success(courseMapper.toResponse(saved), "Course updated successfully");
+            Course saved = courseRepository.save(course);
+            searchIndexService.indexCourse(saved);
+            contentVersionService.markChanged(id);
+            contentCacheService.evictCategories();
+            log.info("Updated course id={}", id);
+            return ApiResponse.success(courseMapper.toResponse(saved), "Course updated successfully");
+        });
     }
 
     @Override
@@ -311,6 +473,7 @@ public class CourseServiceImpl implements CourseService {
 
         // 1) Delete all lesson-progress records that reference this course's lessons
         lessonProgressRepository.deleteByCourseId(id);
+        userCourseProgressService.removeCourse(id);
 
         // 2) Delete PDF export metadata if it exists
         if (coursePdfExportRepository.existsByCourseId(id)) {
@@ -326,12 +489,61 @@ public class CourseServiceImpl implements CourseService {
 
         // 4) Delete course (cascades to chapters → lessons → code_snippets)
         courseRepository.delete(course);
+        searchIndexService.removeCourse(id);
+        contentVersionService.markChanged(id);
+        contentCacheService.evictCategories();
         log.info("Deleted course id={}", id);
         return ApiResponse.success("Course deleted successfully");
     }
 
     // ── helpers ───────────────────────────────────────────────────────────────
 
+    /** Position of the last row of a cursor page. */
+    record CourseCursor(int orderIndex, LocalDateTime createdAt, long id) {}
+
+    /** Opaque cursor: base64url("orderIndex|createdAt|id"). */
+    static String encodeCursor(Course last) {
+        String raw = (last.getOrderIndex() != null ? last.getOrderIndex() : 0)
+                + "|" + last.getCreatedAt()
+                + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static CourseCursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            return new CourseCursor(
+                    Integer.parseInt(parts[0]),
+                    LocalDateTime.parse(parts[1]),
+                    Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new CustomMessageException("Invalid cursor",
+                    String.valueOf(HttpStatus.BAD_REQUEST.value()));
+        }
+    }
+
+    /** Copy with not-yet-flushed views added to the persisted count. */
+    private CourseResponse withPendingViews(CourseResponse response) {
+        return response.toBuilder()
+                .viewCount(response.getViewCount() + courseViewCounterService.pendingViews(response.getId()))
+                .build();
+    }
+
+    /** Copy of a cached course with every view this instance recorded added — the input is shared. */
+    private CourseResponse withCurrentViews(CourseResponse cached) {
+        return cached.toBuilder()
+                .viewCount(courseViewCounterService.currentViews(cached.getId(), cached.getViewCount()))
+                .build();
+    }
+
+    /** Maps a page of courses with CourseMapper.toResponses — constant query count per page. */
+    private PageResponse<CourseResponse> toPageResponse(Page<Course> page) {
+        return PageResponse.of(page, courseMapper.toResponses(page.getContent()));
+    }
+
     /**
      * Resolve the current authenticated user's ID from the security context.
      */
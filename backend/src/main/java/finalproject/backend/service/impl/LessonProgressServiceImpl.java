@@ -2,24 +2,43 @@ package finalproject.backend.service.impl;
 
 import finalproject.backend.exception.CustomMessageException;
 import finalproject.backend.mapper.LessonProgressMapper;
-import finalproject.backend.modal.Lesson;
 import finalproject.backend.modal.LessonProgress;
-import finalproject.backend.modal.User;
+import finalproject.backend.repository.CourseRepository;
+import finalproject.backend.repository.LessonCompletionStateView;
 import finalproject.backend.repository.LessonProgressRepository;
-import finalproject.backend.repository.LessonRepository;
+import finalproject.backend.repository.LessonProgressStateView;
 import finalproject.backend.repository.UserRepository;
 import finalproject.backend.request.LessonProgressRequest;
 import finalproject.backend.response.ApiResponse;
+import finalproject.backend.response.CompactCourseProgressResponse;
+import finalproject.backend.response.LessonProgressBatchItemResponse;
 import finalproject.backend.response.LessonProgressResponse;
+import finalproject.backend.response.ProgressStatsResponse;
+import finalproject.backend.service.ActivityRollupService;
 import finalproject.backend.service.LessonProgressService;
+import finalproject.backend.service.CompactProgressService;
+import finalproject.backend.service.ProgressIngestionService;
+import finalproject.backend.service.UserCourseProgressService;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,111 +47,292 @@ import java.util.stream.Collectors;
 public class LessonProgressServiceImpl implements LessonProgressService {
 
     private final LessonProgressRepository lessonProgressRepository;
-    private final LessonRepository         lessonRepository;
     private final UserRepository           userRepository;
     private final LessonProgressMapper     lessonProgressMapper;
+    private final ProgressIngestionService progressIngestionService;
+    private final UserCourseProgressService userCourseProgressService;
+    private final CompactProgressService   compactProgressService;
+    private final ActivityRollupService    activityRollupService;
+    private final CourseRepository         courseRepository;
+    private final JdbcTemplate             jdbcTemplate;
+    private final Validator                validator;
+
+    private static final int MAX_BATCH_SIZE = 200;
+
+    // PDF flag only ever flips false → true; read time accumulates. Completion is left to COMPLETE_SQL.
+    private static final String BATCH_UPSERT_SQL = """
+            INSERT INTO lesson_progress
+                (user_id, lesson_id, scroll_pct, read_time_seconds, is_completed,
+                 pdf_downloaded, pdf_downloaded_at, created_at, updated_at)
+            VALUES (?, ?, ?, ?, false, ?, ?, ?, ?)
+            ON CONFLICT (user_id, lesson_id) DO UPDATE SET
+                scroll_pct        = EXCLUDED.scroll_pct,
+                read_time_seconds = COALESCE(lesson_progress.read_time_seconds, 0) + EXCLUDED.read_time_seconds,
+                pdf_downloaded    = COALESCE(lesson_progress.pdf_downloaded, false) OR EXCLUDED.pdf_downloaded,
+                pdf_downloaded_at = COALESCE(lesson_progress.pdf_downloaded_at, EXCLUDED.pdf_downloaded_at),
+                updated_at        = EXCLUDED.updated_at
+            """;
+
+    // The false → true flip itself. A concurrent completion of the same row waits on the
+    // row lock and re-checks the WHERE after it, so exactly one transaction gets the
+    // lesson id back — the "newly completed" delta comes from the write, not a prior read.
+    private static final String COMPLETE_SQL = """
+            UPDATE lesson_progress
+               SET is_completed = true, completed_at = ?, scroll_pct = 100
+             WHERE user_id = ? AND lesson_id = ANY(?) AND is_completed IS NOT TRUE
+            RETURNING lesson_id
+            """;
+
+    /** One lesson of a batch after coalescing repeated entries. */
+    private record BatchRow(long lessonId, int scrollPct, int readTimeSeconds,
+                            boolean completed, boolean pdfDownloaded) {
+
+        static BatchRow of(LessonProgressRequest request) {
+            return new BatchRow(request.getLessonId(), request.getScrollPct(), request.getReadTimeSeconds(),
+                    request.isCompleted(), request.isPdfDownloaded());
+        }
+
+        BatchRow then(BatchRow newer) {
+            return new BatchRow(lessonId, newer.scrollPct, readTimeSeconds + newer.readTimeSeconds,
+                    completed || newer.completed, pdfDownloaded || newer.pdfDownloaded);
+        }
+
+        /** Adds read time still sitting in the heartbeat buffer (its scroll position is older). */
+        BatchRow withBuffered(ProgressIngestionService.Pending pending) {
+            if (pending == null) return this;
+            return new BatchRow(lessonId, scrollPct, readTimeSeconds + pending.readTimeSeconds(),
+                    completed, pdfDownloaded);
+        }
+    }
 
     // ─────────────────────────────────────────────────────────────────────────
     //  Write operations
     // ─────────────────────────────────────────────────────────────────────────
 
+    /**
+     * Heartbeats (scroll / read time only) are validated with one query and handed
+     * to {@link ProgressIngestionService}; only a completion or first PDF download
+     * is written here immediately.
+     */
     @Override
     @Transactional
     public ApiResponse<LessonProgressResponse> upsertProgress(LessonProgressRequest request) {
-        User   user   = findUserOrThrow(request.getUserId());
-        Lesson lesson = findLessonOrThrow(request.getLessonId());
-
-        LessonProgress progress = lessonProgressRepository
-                .findByUserIdAndLessonId(request.getUserId(), request.getLessonId())
-                .orElseGet(() -> LessonProgress.builder()
-                        .user(user)
-                        .lesson(lesson)
-                        .build());
-
-        // ── Scroll percent ────────────────────────────────────────────────────
-        // Request fields are primitive ints, so scrollPct is always present.
-        progress.setScrollPct(request.getScrollPct());
-
-        // ── Reading time accumulation ─────────────────────────────────────────
-        // Request fields are primitive ints, so 0 means "no additional time".
-        if (request.getReadTimeSeconds() > 0) {
-            int current = progress.getReadTimeSeconds() != null
-                    ? progress.getReadTimeSeconds() : 0;
-            int updated = current + request.getReadTimeSeconds();
-            progress.setReadTimeSeconds(updated);
-            log.debug("Read time updated: user={} lesson={} {}s → {}s",
-                    user.getId(), lesson.getId(), current, updated);
-        }
+        Long userId   = request.getUserId();
+        Long lessonId = request.getLessonId();
 
-        // ── Completion (idempotent) ────────────────────────────────────────────
-        boolean wasCompletedBefore = Boolean.TRUE.equals(progress.getCompleted());
-        if (request.isCompleted() && !wasCompletedBefore) {
-            progress.markCompleted();
-        }
+        LessonProgressStateView state = lessonProgressRepository
+                .findStateByUserIdAndLessonId(userId, lessonId)
+                .orElseThrow(() -> new CustomMessageException(
+                        "Lesson not found with id: " + lessonId,
+                        String.valueOf(HttpStatus.NOT_FOUND.value())));
 
-        // ── PDF downloaded flag (idempotent) ──────────────────────────────────
-        if (request.isPdfDownloaded() && !Boolean.TRUE.equals(progress.getPdfDownloaded())) {
-            progress.setPdfDownloaded(true);
-            progress.setPdfDownloadedAt(LocalDateTime.now());
+        boolean completes    = request.isCompleted() && !Boolean.TRUE.equals(state.getCompleted());
+        boolean downloadsPdf = request.isPdfDownloaded() && !Boolean.TRUE.equals(state.getPdfDownloaded());
+        if (completes || downloadsPdf) {
+            return writeProgressNow(request, state);
         }
 
-        LessonProgress saved = lessonProgressRepository.save(progress);
-        log.info("Upserted progress id={} user={} lesson={}", saved.getId(), user.getId(), lesson.getId());
+        progressIngestionService.record(userId, lessonId, request.getScrollPct(), request.getReadTimeSeconds());
+
+        // Respond with the state the next flush will persist
+        LessonProgressResponse response = lessonProgressMapper.toResponse(state);
+        withPending(response, progressIngestionService.peek(userId, lessonId));
+        return ApiResponse.success(response, "Progress saved successfully");
+    }
 
+    /**
+     * State changes that must be durable right away (completion, PDF flag) —
+     * the same single-statement upsert as the batch path, so read time is
+     * added in SQL and a concurrent heartbeat flush can neither lose an
+     * update nor race the INSERT into a unique violation.
+     */
+    private ApiResponse<LessonProgressResponse> writeProgressNow(LessonProgressRequest request,
+                                                                 LessonProgressStateView state) {
+        long userId   = request.getUserId();
+        long lessonId = request.getLessonId();
+
+        // Buffered heartbeats are folded in so a later flush cannot land on top
+        BatchRow row = BatchRow.of(request).withBuffered(progressIngestionService.take(userId, lessonId));
+        boolean completes = upsertRows(userId, List.of(row)).contains(lessonId);
+        log.info("Upserted progress user={} lesson={} completed={} pdf={}",
+                userId, lessonId, completes, row.pdfDownloaded());
+
+        userCourseProgressService.apply(new UserCourseProgressService.Delta(
+                userId, lessonId, completes ? 1 : 0, row.readTimeSeconds(), LocalDateTime.now()));
+        compactProgressService.evictUser(userId);
         // FIX I3: only run course-completion check when THIS upsert actually
         // flipped completed false→true. Avoids a redundant DB count on every
         // scroll-position or read-time save where the lesson is already done.
-        boolean justCompleted = !wasCompletedBefore && Boolean.TRUE.equals(saved.getCompleted());
-        if (justCompleted) {
-            checkCourseCompletion(user, lesson);
+        if (completes) {
+            checkCourseCompletion(userId, state.getCourseId());
         }
 
+        LessonProgressStateView saved = lessonProgressRepository.findStateByUserIdAndLessonId(userId, lessonId)
+                .orElse(state);
         return ApiResponse.success(lessonProgressMapper.toResponse(saved), "Progress saved successfully");
     }
 
+    /**
+     * Validates every lesson id with one IN query, coalesces repeated lessons,
+     * writes all rows with one batched upsert and checks course completion once
+     * per course that gained a completed lesson.
+     */
+    @Override
+    @Transactional
+    public ApiResponse<List<LessonProgressBatchItemResponse>> upsertProgressBatch(
+            Long userId, List<LessonProgressRequest> requests) {
+        if (requests == null || requests.isEmpty())
+            throw new CustomMessageException("Batch must contain at least one item",
+                    String.valueOf(HttpStatus.BAD_REQUEST.value()));
+        if (requests.size() > MAX_BATCH_SIZE)
+            throw new CustomMessageException("Batch cannot contain more than " + MAX_BATCH_SIZE + " items",
+                    String.valueOf(HttpStatus.BAD_REQUEST.value()));
+
+        LessonProgressBatchItemResponse[] results = new LessonProgressBatchItemResponse[requests.size()];
+
+        // ── 1. Bean validation per item ───────────────────────────────────────
+        Set<Long> lessonIds = new LinkedHashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            LessonProgressRequest item = requests.get(i);
+            String invalid = item == null ? "Item is empty" : validator.validate(item).stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            if (!invalid.isEmpty()) {
+                results[i] = LessonProgressBatchItemResponse.builder()
+                        .index(i)
+                        .lessonId(item != null ? item.getLessonId() : null)
+                        .status(LessonProgressBatchItemResponse.INVALID)
+                        .message(invalid)
+                        .build();
+            } else {
+                lessonIds.add(item.getLessonId());
+            }
+        }
+
+        // ── 2. One query for every lesson id ──────────────────────────────────
+        Map<Long, LessonCompletionStateView> states = lessonIds.isEmpty() ? Map.of()
+                : lessonProgressRepository.findCompletionStatesByUserIdAndLessonIds(userId, lessonIds).stream()
+                        .collect(Collectors.toMap(LessonCompletionStateView::getLessonId, state -> state));
+
+        // ── 3. Coalesce repeated lessons (request order = time order) ─────────
+        Map<Long, BatchRow> rows = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            if (results[i] != null) continue;
+            LessonProgressRequest item = requests.get(i);
+            LessonCompletionStateView state = states.get(item.getLessonId());
+            if (state == null) {
+                results[i] = LessonProgressBatchItemResponse.builder()
+                        .index(i)
+                        .lessonId(item.getLessonId())
+                        .status(LessonProgressBatchItemResponse.NOT_FOUND)
+                        .message("Lesson not found with id: " + item.getLessonId())
+                        .build();
+                continue;
+            }
+            rows.merge(item.getLessonId(), BatchRow.of(item), BatchRow::then);
+            results[i] = LessonProgressBatchItemResponse.builder()
+                    .index(i)
+                    .lessonId(item.getLessonId())
+                    .courseId(state.getCourseId())
+                    .status(LessonProgressBatchItemResponse.SAVED)
+                    .completed(item.isCompleted() || Boolean.TRUE.equals(state.getCompleted()))
+                    .scrollPct(item.getScrollPct())
+                    .readTimeSeconds(item.getReadTimeSeconds())
+                    .build();
+        }
+
+        // ── 4. One batched upsert (buffered heartbeats folded in) ─────────────
+        List<BatchRow> toWrite = rows.values().stream()
+                .map(row -> row.withBuffered(progressIngestionService.take(userId, row.lessonId())))
+                .toList();
+        Set<Long> completedNow = upsertRows(userId, toWrite);
+
+        // ── 5. Read model + course completion once per course ─────────────────
+        LocalDateTime activityAt = LocalDateTime.now();
+        userCourseProgressService.apply(toWrite.stream()
+                .map(row -> new UserCourseProgressService.Delta(userId, row.lessonId(),
+                        completedNow.contains(row.lessonId()) ? 1 : 0, row.readTimeSeconds(), activityAt))
+                .toList());
+        compactProgressService.evictUser(userId);
+        toWrite.stream()
+                .filter(row -> completedNow.contains(row.lessonId()))
+                .map(row -> states.get(row.lessonId()).getCourseId())
+                .distinct()
+                .forEach(courseId -> checkCourseCompletion(userId, courseId));
+
+        long saved = Arrays.stream(results)
+                .filter(r -> LessonProgressBatchItemResponse.SAVED.equals(r.getStatus()))
+                .count();
+        log.info("Batch progress user={} items={} saved={} lessons={}",
+                userId, requests.size(), saved, toWrite.size());
+        return ApiResponse.success(Arrays.asList(results),
+                "Batch progress processed: " + saved + " of " + requests.size() + " saved");
+    }
+
     @Override
     @Transactional
     public ApiResponse<LessonProgressResponse> markCompleted(Long userId, Long lessonId) {
-        User   user   = findUserOrThrow(userId);
-        Lesson lesson = findLessonOrThrow(lessonId);
-
-        LessonProgress progress = lessonProgressRepository
-                .findByUserIdAndLessonId(userId, lessonId)
-                .orElseGet(() -> LessonProgress.builder()
-                        .user(user)
-                        .lesson(lesson)
-                        .build());
+        LessonProgressStateView state = lessonProgressRepository.findStateByUserIdAndLessonId(userId, lessonId)
+                .orElseThrow(() -> new CustomMessageException(
+                        "Lesson not found with id: " + lessonId + " or user not found with id: " + userId,
+                        String.valueOf(HttpStatus.NOT_FOUND.value())));
 
         // Already completed — return early, no re-save (idempotent)
-        if (Boolean.TRUE.equals(progress.getCompleted())) {
+        if (Boolean.TRUE.equals(state.getCompleted())) {
             return ApiResponse.success(
-                    lessonProgressMapper.toResponse(progress),
+                    lessonProgressMapper.toResponse(state),
                     "Lesson was already completed");
         }
 
-        progress.markCompleted();
-        LessonProgress saved = lessonProgressRepository.save(progress);
+        // Buffered read time belongs to this row; its stale scroll position does not
+        ProgressIngestionService.Pending pending = progressIngestionService.take(userId, lessonId);
+        BatchRow row = new BatchRow(lessonId, 100, 0, true, false).withBuffered(pending);
+        if (upsertRows(userId, List.of(row)).isEmpty()) {
+            // A concurrent request completed it between the read above and this write
+            userCourseProgressService.apply(new UserCourseProgressService.Delta(userId, lessonId, 0,
+                    row.readTimeSeconds(), LocalDateTime.now()));
+            compactProgressService.evictUser(userId);
+            return ApiResponse.success(lessonProgressMapper.toResponse(
+                    lessonProgressRepository.findStateByUserIdAndLessonId(userId, lessonId).orElse(state)),
+                    "Lesson was already completed");
+        }
         log.info("Marked lesson id={} completed for user id={}", lessonId, userId);
 
-        // Right place to check course completion:
-        //   1. A lesson only flips false→true here (idempotent guard above
-        //      means we never reach this line for already-completed lessons).
-        //   2. Runs inside the same @Transactional, so countCompletedByCourseIdAndUserId
-        //      sees the row we just saved — count is always accurate.
-        checkCourseCompletion(user, lesson);
+        userCourseProgressService.apply(new UserCourseProgressService.Delta(userId, lessonId, 1,
+                row.readTimeSeconds(), LocalDateTime.now()));
+        compactProgressService.evictUser(userId);
 
+        // Right place to check course completion:
+        //   1. A lesson only flips false→true here (COMPLETE_SQL returned it,
+        //      so no other request counted this completion).
+        //   2. Runs inside the same @Transactional, so the user_course_progress
+        //      row already includes the lesson we just completed.
+        checkCourseCompletion(userId, state.getCourseId());
+
+        LessonProgressStateView saved = lessonProgressRepository.findStateByUserIdAndLessonId(userId, lessonId)
+                .orElse(state);
         return ApiResponse.success(lessonProgressMapper.toResponse(saved), "Lesson marked as completed");
     }
 
     @Override
     @Transactional
     public ApiResponse<Void> deleteProgress(Long userId, Long lessonId) {
-        if (!lessonProgressRepository.existsByUserIdAndLessonId(userId, lessonId)) {
-            throw new CustomMessageException(
-                    "Progress not found for user id: " + userId + " and lesson id: " + lessonId,
-                    String.valueOf(HttpStatus.NOT_FOUND.value()));
-        }
+        // Unflushed heartbeats would re-create the row
+        progressIngestionService.take(userId, lessonId);
+        LessonProgress progress = lessonProgressRepository.findByUserIdAndLessonId(userId, lessonId)
+                .orElseThrow(() -> new CustomMessageException(
+                        "Progress not found for user id: " + userId + " and lesson id: " + lessonId,
+                        String.valueOf(HttpStatus.NOT_FOUND.value())));
         lessonProgressRepository.deleteByUserIdAndLessonId(userId, lessonId);
+        userCourseProgressService.apply(new UserCourseProgressService.Delta(userId, lessonId,
+                Boolean.TRUE.equals(progress.getCompleted()) ? -1 : 0,
+                progress.getReadTimeSeconds() != null ? -progress.getReadTimeSeconds() : 0,
+                null));
+        if (Boolean.TRUE.equals(progress.getCompleted())) {
+            activityRollupService.recordCompletions(Collections.singletonList(progress.getCompletedAt()), -1);
+        }
+        compactProgressService.evictUser(userId);
         log.info("Deleted progress for user id={} lesson id={}", userId, lessonId);
         return ApiResponse.success("Progress deleted successfully");
     }
@@ -141,15 +341,20 @@ public class LessonProgressServiceImpl implements LessonProgressService {
     //  Read operations
     // ─────────────────────────────────────────────────────────────────────────
 
+    // Reads overlay unflushed heartbeats instead of flushing them: a flush here would
+    // need a second pooled connection while this transaction holds the first.
+
     @Override
     @Transactional(readOnly = true)
     public ApiResponse<LessonProgressResponse> getProgress(Long userId, Long lessonId) {
-        LessonProgress progress = lessonProgressRepository
-                .findByUserIdAndLessonId(userId, lessonId)
+        ProgressIngestionService.Pending pending = progressIngestionService.peek(userId, lessonId);
+        LessonProgressStateView state = lessonProgressRepository.findStateByUserIdAndLessonId(userId, lessonId)
+                .filter(found -> found.getProgressId() != null || pending != null)
                 .orElseThrow(() -> new CustomMessageException(
                         "Progress not found for user id: " + userId + " and lesson id: " + lessonId,
                         String.valueOf(HttpStatus.NOT_FOUND.value())));
-        return ApiResponse.success(lessonProgressMapper.toResponse(progress), "Progress retrieved successfully");
+        return ApiResponse.success(withPending(lessonProgressMapper.toResponse(state), pending),
+                "Progress retrieved successfully");
     }
 
     @Override
@@ -162,6 +367,9 @@ public class LessonProgressServiceImpl implements LessonProgressService {
                 .stream()
                 .map(lessonProgressMapper::toResponse)
                 .collect(Collectors.toList());
+        list = withPending(userId, list, null);
+        list.sort(Comparator.comparing(LessonProgressResponse::getUpdatedAt,
+                Comparator.nullsLast(Comparator.reverseOrder())));
         return ApiResponse.success(list, "Progress list retrieved successfully");
     }
 
@@ -174,22 +382,73 @@ public class LessonProgressServiceImpl implements LessonProgressService {
                 .stream()
                 .map(lessonProgressMapper::toResponse)
                 .collect(Collectors.toList());
+        list = withPending(userId, list, courseId);
         return ApiResponse.success(list, "Course progress retrieved successfully");
     }
 
+    /**
+     * Sidebar checkmarks from the cached primitive arrays; unflushed heartbeats
+     * are overlaid on a copy of the scroll array.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ApiResponse<CompactCourseProgressResponse> getCompactProgress(Long courseId, Long userId) {
+        CompactProgressService.CompactProgress progress = compactProgressService.get(userId, courseId);
+        if (progress.lessonIds().length == 0 && !courseRepository.existsById(courseId))
+            throw new CustomMessageException("Course not found with id: " + courseId,
+                    String.valueOf(HttpStatus.NOT_FOUND.value()));
+
+        long[] ids = progress.lessonIds();
+        int[] scroll = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) scroll[i] = progress.scrollPct()[i];
+        progressIngestionService.peekUser(userId).forEach((lessonId, pending) -> {
+            int index = progress.indexOf(lessonId);
+            if (index >= 0) scroll[index] = pending.scrollPct();
+        });
+
+        long[] deltas = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) deltas[i] = i == 0 ? ids[0] : ids[i] - ids[i - 1];
+
+        return ApiResponse.success(CompactCourseProgressResponse.builder()
+                .courseId(courseId)
+                .lessonCount(ids.length)
+                .completedCount(progress.completed().cardinality())
+                .lessonIds(deltas)
+                .scrollPct(scroll)
+                .completed(Base64.getEncoder().encodeToString(progress.completed().toByteArray()))
+                .build(), "Compact course progress retrieved");
+    }
+
     @Override
     @Transactional(readOnly = true)
     public ApiResponse<Long> countCompletedByUser(Long userId) {
         ensureUserExists(userId);
-        long count = lessonProgressRepository.countCompletedByUserId(userId);
+        long count = userCourseProgressService.statsForUser(userId).completedLessons();
         return ApiResponse.success(count, "Completed lesson count retrieved");
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ApiResponse<ProgressStatsResponse> getStatsForUser(Long userId) {
+        ensureUserExists(userId);
+        UserCourseProgressService.UserStats stats = userCourseProgressService.statsForUser(userId);
+        // Unflushed read time is added; a course first opened since the last flush is counted after it
+        long bufferedReadTime = progressIngestionService.peekUser(userId).values().stream()
+                .mapToLong(ProgressIngestionService.Pending::readTimeSeconds)
+                .sum();
+        return ApiResponse.success(ProgressStatsResponse.builder()
+                .completedLessons(stats.completedLessons())
+                .distinctCourses(stats.distinctCourses())
+                .completedCourses(stats.completedCourses())
+                .totalReadTimeSeconds(stats.totalReadTimeSeconds() + bufferedReadTime)
+                .build(), "Progress stats retrieved");
+    }
+
     @Override
     @Transactional(readOnly = true)
     public ApiResponse<Long> countCompletedByCourseAndUser(Long courseId, Long userId) {
         ensureUserExists(userId);
-        long count = lessonProgressRepository.countCompletedByCourseIdAndUserId(courseId, userId);
+        long count = userCourseProgressService.completedCount(userId, courseId);
         return ApiResponse.success(count, "Completed lesson count for course retrieved");
     }
 
@@ -200,25 +459,20 @@ public class LessonProgressServiceImpl implements LessonProgressService {
     /**
      * Called only when a lesson just flipped from incomplete → complete.
      *
-     * Both repository calls return long — consistent with LessonRepository.countByCourseId
-     * now returning long (was int, caused implicit widening).
+     * Reads the user_course_progress row by primary key (joined to
+     * course.total_lessons) instead of counting lessons and progress rows.
      */
-    private void checkCourseCompletion(User user, Lesson lesson) {
-        if (lesson.getCourse() == null) return;
-        Long courseId = lesson.getCourse().getId();
-
-        // FIX B2: LessonRepository.countByCourseId now returns long — no widening cast needed
-        long totalLessons = lessonRepository.countByCourseId(courseId);
-        if (totalLessons == 0) return;
-
-        long completedCount = lessonProgressRepository
-                .countCompletedByCourseIdAndUserId(courseId, user.getId());
+    private void checkCourseCompletion(Long userId, Long courseId) {
+        UserCourseProgressService.CourseProgress progress =
+                userCourseProgressService.find(userId, courseId).orElse(null);
+        if (progress == null || progress.totalLessons() == 0) return;
 
         log.info("Course completion check — user={} course={} {}/{}",
-                user.getId(), courseId, completedCount, totalLessons);
+                userId, courseId, progress.completedCount(), progress.totalLessons());
 
-        if (completedCount >= totalLessons) {
-            log.info("COURSE COMPLETED — user={} course={}", user.getId(), courseId);
+        if (progress.isCourseCompleted()) {
+            log.info("COURSE COMPLETED — user={} course={}", userId, courseId);
+            userCourseProgressService.markCourseCompletedIfDone(userId, courseId);
             // Add certificate / email call here when needed
         }
     }
@@ -227,18 +481,57 @@ public class LessonProgressServiceImpl implements LessonProgressService {
     //  Helpers
     // ─────────────────────────────────────────────────────────────────────────
 
-    private User findUserOrThrow(Long id) {
-        return userRepository.findById(id)
-                .orElseThrow(() -> new CustomMessageException(
-                        "User not found with id: " + id,
-                        String.valueOf(HttpStatus.NOT_FOUND.value())));
+    /**
+     * Writes rows with the one upsert statement shared by every immediate write
+     * path, then flips completion. Returns the lessons this call moved from not
+     * completed to completed — the only ones that may be counted as completions.
+     */
+    private Set<Long> upsertRows(long userId, List<BatchRow> rows) {
+        if (rows.isEmpty()) return Set.of();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(BATCH_UPSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, userId);
+            ps.setLong(2, row.lessonId());
+            ps.setInt(3, row.completed() ? 100 : row.scrollPct());
+            ps.setInt(4, row.readTimeSeconds());
+            ps.setBoolean(5, row.pdfDownloaded());
+            ps.setTimestamp(6, row.pdfDownloaded() ? now : null);
+            ps.setTimestamp(7, now);
+            ps.setTimestamp(8, now);
+        });
+
+        Long[] completing = rows.stream().filter(BatchRow::completed).map(BatchRow::lessonId).toArray(Long[]::new);
+        if (completing.length == 0) return Set.of();
+        return new LinkedHashSet<>(jdbcTemplate.queryForList(COMPLETE_SQL, Long.class, now, userId, completing));
     }
 
-    private Lesson findLessonOrThrow(Long id) {
-        return lessonRepository.findById(id)
-                .orElseThrow(() -> new CustomMessageException(
-                        "Lesson not found with id: " + id,
-                        String.valueOf(HttpStatus.NOT_FOUND.value())));
+    /** Applies an unflushed heartbeat to a persisted response (what the next flush will write). */
+    private static LessonProgressResponse withPending(LessonProgressResponse response,
+                                                      ProgressIngestionService.Pending pending) {
+        if (pending == null) return response;
+        response.setScrollPct(pending.scrollPct());
+        response.setReadTimeSeconds(response.getReadTimeSeconds() + pending.readTimeSeconds());
+        response.setUpdatedAt(pending.lastSeenAt());
+        if (response.getCreatedAt() == null) response.setCreatedAt(pending.firstSeenAt());
+        return response;
+    }
+
+    /**
+     * Overlays the user's unflushed heartbeats on {@code list}; lessons that only
+     * have buffered heartbeats yet are added (restricted to {@code courseId} when set).
+     */
+    private List<LessonProgressResponse> withPending(Long userId, List<LessonProgressResponse> list, Long courseId) {
+        Map<Long, ProgressIngestionService.Pending> buffered = progressIngestionService.peekUser(userId);
+        if (buffered.isEmpty()) return list;
+        List<LessonProgressResponse> result = new ArrayList<>(list);
+        for (LessonProgressResponse response : result) {
+            withPending(response, buffered.remove(response.getLessonId()));
+        }
+        buffered.forEach((lessonId, pending) -> lessonProgressRepository
+                .findStateByUserIdAndLessonId(userId, lessonId)
+                .filter(state -> courseId == null || courseId.equals(state.getCourseId()))
+                .ifPresent(state -> result.add(withPending(lessonProgressMapper.toResponse(state), pending))));
+        return result;
     }
 
     private void ensureUserExists(Long id) {
@@ -12,6 +12,10 @@ import finalproject.backend.request.LessonRequest;
 import finalproject.backend.response.ApiResponse;
 import finalproject.backend.response.LessonResponse;
 import finalproject.backend.service.LessonService;
+import finalproject.backend.service.CompactProgressService;
+import finalproject.backend.service.ContentVersionService;
+import finalproject.backend.service.SearchIndexService;
+import finalproject.backend.service.UserCourseProgressService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -30,6 +34,10 @@ public class LessonServiceImpl implements LessonService {
     private final ChapterRepository chapterRepository;
     private final CourseRepository courseRepository;
     private final LessonMapper lessonMapper;
+    private final SearchIndexService searchIndexService;
+    private final ContentVersionService contentVersionService;
+    private final UserCourseProgressService userCourseProgressService;
+    private final CompactProgressService compactProgressService;
 
     @Override
     @Transactional
@@ -47,6 +55,9 @@ public class LessonServiceImpl implements LessonService {
 
         Lesson saved = lessonRepository.save(entity);
         syncCourseTotalLessons(course);
+        searchIndexService.indexLesson(saved);
+        compactProgressService.evictAll();
+        contentVersionService.markChanged(course.getId());
         log.info("Created lesson id={} for chapter id={}", saved.getId(), chapter.getId());
         return ApiResponse.success(lessonMapper.toSimpleResponse(saved), "Lesson created successfully");
     }
@@ -59,7 +70,7 @@ public class LessonServiceImpl implements LessonService {
                     String.valueOf(HttpStatus.NOT_FOUND.value()));
 
         List<LessonResponse> lessons = lessonRepository
-                .findByChapterIdOrderByOrderIndexAsc(chapterId)
+                .findWithContentByChapterIdOrderByOrderIndexAsc(chapterId)
                 .stream()
                 .map(lessonMapper::toResponse)
                 .collect(Collectors.toList());
@@ -74,13 +85,43 @@ public class LessonServiceImpl implements LessonService {
                     String.valueOf(HttpStatus.NOT_FOUND.value()));
 
         List<LessonResponse> lessons = lessonRepository
-                .findByCourseIdOrderByOrderIndexAsc(courseId)
+                .findWithContentByCourseIdOrderByOrderIndexAsc(courseId)
                 .stream()
                 .map(lessonMapper::toSimpleResponse)
                 .collect(Collectors.toList());
         return ApiResponse.success(lessons, "Lessons retrieved successfully");
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ApiResponse<List<LessonResponse>> getLessonOutlineByChapter(Long chapterId) {
+        if (!chapterRepository.existsById(chapterId))
+            throw new CustomMessageException("Chapter not found with id: " + chapterId,
+                    String.valueOf(HttpStatus.NOT_FOUND.value()));
+
+        List<LessonResponse> outline = lessonRepository
+                .findOutlinesByChapterId(chapterId)
+                .stream()
+                .map(lessonMapper::toOutlineResponse)
+                .collect(Collectors.toList());
+        return ApiResponse.success(outline, "Lesson outline retrieved successfully");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ApiResponse<List<LessonResponse>> getLessonOutlineByCourse(Long courseId) {
+        if (!courseRepository.existsById(courseId))
+            throw new CustomMessageException("Course not found with id: " + courseId,
+                    String.valueOf(HttpStatus.NOT_FOUND.value()));
+
+        List<LessonResponse> outline = lessonRepository
+                .findOutlinesByCourseId(courseId)
+                .stream()
+                .map(lessonMapper::toOutlineResponse)
+                .collect(Collectors.toList());
+        return ApiResponse.success(outline, "Lesson outline retrieved successfully");
+    }
+
     @Override
     @Transactional(readOnly = true)
     public ApiResponse<LessonResponse> getLessonById(Long id) {
@@ -93,6 +134,8 @@ public class LessonServiceImpl implements LessonService {
     @Transactional
     public ApiResponse<LessonResponse> updateLesson(Long id, LessonRequest request) {
         Lesson lesson = findLessonOrThrow(id);
+        Course previousCourse = lesson.getCourse();
+        Long previousCourseId = previousCourse.getId();
 
         Chapter chapter = null;
         if (request.getChapterId() != null && !request.getChapterId().equals(lesson.getChapter().getId()))
@@ -117,6 +160,18 @@ public class LessonServiceImpl implements LessonService {
         }
 
         Lesson saved = lessonRepository.save(lesson);
+        searchIndexService.indexLesson(saved);
+        contentVersionService.markChanged(List.of(previousCourseId, saved.getCourse().getId()));
+        if (!previousCourseId.equals(saved.getCourse().getId())) {
+            // Progress on this lesson now counts toward the other course — and completion
+            // is measured against total_lessons, so both counts must move before the rebuild
+            lessonRepository.flush();
+            syncCourseTotalLessons(previousCourse);
+            syncCourseTotalLessons(saved.getCourse());
+            userCourseProgressService.rebuildCourse(previousCourseId);
+            userCourseProgressService.rebuildCourse(saved.getCourse().getId());
+            compactProgressService.evictAll();
+        }
         log.info("Updated lesson id={}", id);
         return ApiResponse.success(lessonMapper.toSimpleResponse(saved), "Lesson updated successfully");
     }
@@ -128,6 +183,12 @@ public class LessonServiceImpl implements LessonService {
         Course course = lesson.getCourse();
         lessonRepository.delete(lesson);
         syncCourseTotalLessons(course);
+        // Progress rows went with the lesson (cascade) — recount the course
+        lessonRepository.flush();
+        userCourseProgressService.rebuildCourse(course.getId());
+        compactProgressService.evictAll();
+        searchIndexService.removeLesson(id);
+        contentVersionService.markChanged(course.getId());
         log.info("Deleted lesson id={}", id);
         return ApiResponse.success("Lesson deleted successfully");
     }
@@ -0,0 +1,213 @@
+package finalproject.backend.service.impl;
+
+import finalproject.backend.exception.FileStorageException;
+import finalproject.backend.service.ObjectStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * {@link ObjectStorage} on the local filesystem (profile {@code local-storage},
+ * and the backing store of S3StubServer).
+ *
+ * - Writes go to a temp file next to the target and are renamed over it
+ *   atomically, so a reader never sees a half-written object.
+ * - File-to-file copies use {@link FileChannel#transferTo} (no user-space
+ *   buffer); reads are served from memory-mapped windows ({@link #transferTo}).
+ * - HTTP metadata lives in a sidecar properties file under {@code .meta/}.
+ */
+@Slf4j
+@Service
+@Profile("local-storage")
+public class LocalObjectStorage implements ObjectStorage {
+
+    private static final String META_DIR = ".meta";
+    private static final long MAP_WINDOW_BYTES = 64L * 1024 * 1024;
+
+    /** A stored object: its file, size and metadata. */
+    public record StoredFile(Path file, long size, ObjectMetadata metadata) {
+    }
+
+    private final Path root;
+    private final String publicBaseUrl;
+
+    public LocalObjectStorage(
+            @Value("${app.storage.local.root:${java.io.tmpdir}/codegrowthkh-storage}") Path root,
+            @Value("${app.storage.local.public-url:http://localhost:8080/local-storage}") String publicBaseUrl) {
+        this.root = root.toAbsolutePath().normalize();
+        this.publicBaseUrl = publicBaseUrl.replaceAll("/+$", "");
+        try {
+            Files.createDirectories(this.root.resolve(META_DIR));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create local storage root " + this.root, e);
+        }
+        log.info("Local object storage at {} (served as {})", this.root, this.publicBaseUrl);
+    }
+
+    // ── Writes ────────────────────────────────────────────────────────────────
+
+    @Override
+    public void put(String key, ContentSource content, long size, ObjectMetadata metadata) {
+        Path target = resolve(key);
+        try (InputStream in = content.open(0, size)) {
+            writeAtomically(target, tmp -> {
+                try (OutputStream out = Files.newOutputStream(tmp, StandardOpenOption.WRITE)) {
+                    in.transferTo(out);
+                }
+            });
+            writeMetadata(key, metadata);
+        } catch (IOException e) {
+            throw new FileStorageException("Failed to store " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void put(String key, Path file, ObjectMetadata metadata) {
+        compose(key, List.of(file), metadata);
+    }
+
+    /** Stores the concatenation of {@code parts} under {@code key} (multipart completion). */
+    public void compose(String key, List<Path> parts, ObjectMetadata metadata) {
+        Path target = resolve(key);
+        try {
+            writeAtomically(target, tmp -> {
+                try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                    for (Path part : parts) {
+                        try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+                            long size = in.size();
+                            for (long done = 0; done < size; ) {
+                                done += in.transferTo(done, size - done, out);
+                            }
+                        }
+                    }
+                }
+            });
+            writeMetadata(key, metadata);
+        } catch (IOException e) {
+            throw new FileStorageException("Failed to store " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(resolve(key));
+            Files.deleteIfExists(metadataFile(key));
+        } catch (IOException e) {
+            throw new FileStorageException("Failed to delete " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String publicBaseUrl() {
+        return publicBaseUrl;
+    }
+
+    // ── Reads ─────────────────────────────────────────────────────────────────
+
+    public Optional<StoredFile> find(String key) {
+        Path file = resolve(key);
+        try {
+            if (!Files.isRegularFile(file)) return Optional.empty();
+            return Optional.of(new StoredFile(file, Files.size(file), readMetadata(key)));
+        } catch (IOException e) {
+            throw new FileStorageException("Failed to read " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    /** Writes the object to {@code target} from memory-mapped windows of the file. */
+    public long transferTo(String key, WritableByteChannel target) throws IOException {
+        try (FileChannel in = FileChannel.open(resolve(key), StandardOpenOption.READ)) {
+            long size = in.size();
+            for (long position = 0; position < size; position += MAP_WINDOW_BYTES) {
+                MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAP_WINDOW_BYTES, size - position));
+                while (window.hasRemaining()) target.write(window);
+            }
+            return size;
+        }
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(Path tmp) throws IOException;
+    }
+
+    private void writeAtomically(Path target, Writer writer) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            writer.write(tmp);
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void writeMetadata(String key, ObjectMetadata metadata) throws IOException {
+        Properties props = new Properties();
+        if (metadata.contentType() != null) props.setProperty("content-type", metadata.contentType());
+        if (metadata.cacheControl() != null) props.setProperty("cache-control", metadata.cacheControl());
+        if (metadata.contentDisposition() != null) props.setProperty("content-disposition", metadata.contentDisposition());
+        writeAtomically(metadataFile(key), tmp -> {
+            try (OutputStream out = Files.newOutputStream(tmp, StandardOpenOption.WRITE)) {
+                props.store(out, null);
+            }
+        });
+    }
+
+    private ObjectMetadata readMetadata(String key) throws IOException {
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(metadataFile(key))) {
+            props.load(in);
+        } catch (NoSuchFileException e) {
+            // Written by hand or before its metadata — serve with defaults
+        }
+        return new ObjectMetadata(props.getProperty("content-type", "application/octet-stream"),
+                props.getProperty("cache-control"), props.getProperty("content-disposition"));
+    }
+
+    private Path metadataFile(String key) {
+        return resolveUnder(root.resolve(META_DIR), key + ".properties");
+    }
+
+    private Path resolve(String key) {
+        if (key.equals(META_DIR) || key.startsWith(META_DIR + "/")) {
+            throw new FileStorageException("Invalid object key: " + key);
+        }
+        return resolveUnder(root, key);
+    }
+
+    // Keys come from URLs — never let one escape the storage root
+    private static Path resolveUnder(Path base, String key) {
+        Path path = base.resolve(key).normalize();
+        if (key.isBlank() || !path.startsWith(base) || path.equals(base)) {
+            throw new FileStorageException("Invalid object key: " + key);
+        }
+        return path;
+    }
+}
@@ -1,30 +1,50 @@
 package finalproject.backend.service.impl;
 
-import finalproject.backend.config.R2Properties;
 import finalproject.backend.exception.FileStorageException;
+import finalproject.backend.service.ImageVariantService;
+import finalproject.backend.service.ObjectStorage;
+import finalproject.backend.service.ObjectStorage.ContentSource;
+import finalproject.backend.service.ObjectStorage.ObjectMetadata;
 import finalproject.backend.service.R2StorageService;
+import finalproject.backend.service.StoredObjectService;
+import finalproject.backend.util.RangeInputStream;
+import finalproject.backend.util.VirtualThreadScope;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-import software.amazon.awssdk.services.s3.model.S3Exception;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class R2StorageServiceImpl implements R2StorageService {
 
-    private final S3Client s3Client;
-    private final R2Properties r2Properties;
+    // R2 over S3 by default; the s3-stub / local-storage profiles swap it for a dev-box backend
+    private final ObjectStorage objectStorage;
+    private final ImageVariantService imageVariantService;
+    private final StoredObjectService storedObjectService;
+
+    // Uploads and after-commit releases block on network I/O only — one cheap virtual thread each
+    private final ExecutorService storageExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     // ─── Allowed image types ──────────────────────────────────────────────────
     private static final Set<String> ALLOWED_IMAGE_TYPES = Set.of(
@@ -33,40 +53,173 @@ public class R2StorageServiceImpl implements R2StorageService {
 
     // ─── Allowed PDF type ─────────────────────────────────────────────────────
     private static final String PDF_CONTENT_TYPE = "application/pdf";
+    private static final String PDF_CACHE_CONTROL = "no-store, no-cache, max-age=0, must-revalidate";
+    // Content-addressed keys never change content — cache them for good
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
 
     private static final long MAX_IMAGE_SIZE = 5  * 1024 * 1024L;  // 5 MB
     private static final long MAX_PDF_SIZE   = 50 * 1024 * 1024L;  // 50 MB
 
     // ═══════════════════════════════════════════════════════════════════════════
     //  IMAGE UPLOAD  (MultipartFile — for course thumbnails etc.)
+    //  Streamed from the request part on a virtual thread; the caller keeps
+    //  validating and joins with await() before opening its transaction — the
+    //  upload takes pooled connections of its own, so it must not be awaited
+    //  while the caller holds one.
     // ═══════════════════════════════════════════════════════════════════════════
 
     @Override
-    public String uploadFile(MultipartFile file, String folder) throws IOException {
+    public CompletableFuture<String> uploadFileAsync(MultipartFile file, String folder) {
+        // Validated on the caller's thread — a bad file fails the request before anything is sent
         validateImageFile(file);
 
-        String fileKey = buildKey(folder, file.getOriginalFilename());
+        long size = file.getSize();
+        String contentType = file.getContentType();
+        String extension = extension(file.getOriginalFilename());
+
+        return CompletableFuture.supplyAsync(() -> {
+            ContentSource source = (from, length) -> {
+                InputStream in = file.getInputStream();
+                in.skipNBytes(from);
+                return new RangeInputStream(in, length);
+            };
+            String fileKey = folder + "/" + sha256(source, size) + extension;
+            String publicUrl = buildPublicUrl(fileKey);
+            if (!storedObjectService.acquire(fileKey, size)) {
+                // Same bytes already stored — their renditions came with them
+                log.info("♻️ Image already stored: {}", publicUrl);
+                return publicUrl;
+            }
+
+            // Acquired: either a new key or one another upload left PENDING — that one is uploaded again here
+            try {
+                List<ImageVariantService.Rendition> renditions = renderVariants(file, folder, contentType);
+
+                // Original and renditions go up together; a failed rendition only loses that srcset entry
+                Map<String, Supplier<String>> variantUploads = new LinkedHashMap<>();
+                try (VirtualThreadScope scope = new VirtualThreadScope(1 + renditions.size())) {
+                    scope.fork(() -> {
+                        uploadStream(source, size, fileKey, contentType);
+                        return null;
+                    });
+                    for (ImageVariantService.Rendition rendition : renditions) {
+                        String variantKey = variantKey(fileKey, rendition);
+                        variantUploads.put(rendition.descriptor(), scope.fork(() -> uploadVariant(variantKey, rendition)));
+                    }
+                    scope.join();
+                } catch (FileStorageException e) {
+                    // Renditions that made it stay: a concurrent upload of the same bytes may be
+                    // using the same keys, and the next upload of these bytes overwrites them
+                    log.error("❌ Image upload failed: {}", e.getMessage());
+                    throw new FileStorageException("Failed to upload image: " + e.getMessage(), e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new FileStorageException("Image upload interrupted: " + fileKey, e);
+                }
+
+                Map<String, String> srcset = new LinkedHashMap<>();
+                variantUploads.forEach((descriptor, url) -> {
+                    if (url.get() != null) srcset.put(descriptor, url.get());
+                });
+                imageVariantService.record(publicUrl, srcset);
+                storedObjectService.markStored(fileKey);
+                log.info("✅ Image uploaded: {} (+{} variants)", publicUrl, srcset.size());
+                return publicUrl;
+            } catch (RuntimeException e) {
+                storedObjectService.abandon(fileKey);
+                throw e;
+            }
+        }, storageExecutor);
+    }
+
+    @Override
+    public String uploadFile(MultipartFile file, String folder) {
+        return await(uploadFileAsync(file, folder));
+    }
 
+    @Override
+    public String await(CompletableFuture<String> upload) {
         try {
-            PutObjectRequest req = PutObjectRequest.builder()
-                    .bucket(r2Properties.getBucketName())
-                    .key(fileKey)
-                    .contentType(file.getContentType())
-                    .contentLength(file.getSize())
-                    .build();
+            return upload.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new FileStorageException("Upload failed: " + e.getMessage(), e);
+        }
+    }
 
-            s3Client.putObject(req, RequestBody.fromBytes(file.getBytes()));
+    @Override
+    public void discard(CompletableFuture<String> upload) {
+        if (upload == null) return;
+        // Whenever it lands — the URL was never stored, so the object would be orphaned
+        upload.thenAccept(url -> {
+            try {
+                deleteFile(url);
+            } catch (FileStorageException e) {
+                log.warn("⚠️ Could not delete discarded upload {}: {}", url, e.getMessage());
+            }
+        });
+    }
 
-            String publicUrl = buildPublicUrl(fileKey);
-            log.info("✅ Image uploaded: {}", publicUrl);
-            return publicUrl;
+    @Override
+    public void discardOnRollback(CompletableFuture<String> upload) {
+        if (upload == null) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // Commit failures included; the transaction's resources are still bound to
+                // this thread, so the release runs on its own
+                if (status != STATUS_COMMITTED) storageExecutor.execute(() -> discard(upload));
+            }
+        });
+    }
+
+    private void uploadStream(ContentSource source, long size, String fileKey, String contentType) {
+        objectStorage.put(fileKey, source, size, new ObjectMetadata(contentType, IMMUTABLE_CACHE_CONTROL, null));
+    }
+
+    private List<ImageVariantService.Rendition> renderVariants(MultipartFile file, String folder, String contentType) {
+        if (!imageVariantService.supports(folder, contentType)) return List.of();
+        try (InputStream in = file.getInputStream()) {
+            return imageVariantService.render(in, folder);
+        } catch (IOException | RuntimeException e) {
+            // The original is still stored and served — only the smaller renditions are missing
+            log.warn("⚠️ Could not render variants of {}: {}", file.getOriginalFilename(), e.getMessage());
+            return List.of();
+        }
+    }
+
+    private String uploadVariant(String variantKey, ImageVariantService.Rendition rendition) {
+        byte[] bytes = rendition.image().bytes();
+        try {
+            objectStorage.put(variantKey, ContentSource.of(bytes), bytes.length,
+                    new ObjectMetadata(rendition.image().contentType(), IMMUTABLE_CACHE_CONTROL, null));
+            return buildPublicUrl(variantKey);
+        } catch (FileStorageException e) {
+            log.warn("⚠️ Variant upload failed: {}: {}", variantKey, e.getMessage());
+            return null;
+        }
+    }
+
+    // thumbnails/{uuid}.png → thumbnails/{uuid}-480w.jpg
+    private static String variantKey(String fileKey, ImageVariantService.Rendition rendition) {
+        int dot = fileKey.lastIndexOf('.');
+        String base = dot > fileKey.lastIndexOf('/') ? fileKey.substring(0, dot) : fileKey;
+        return base + "-" + rendition.descriptor() + rendition.image().extension();
+    }
 
-        } catch (S3Exception e) {
-            log.error("❌ Image upload failed: {}", e.getMessage());
-            throw new FileStorageException("Failed to upload image: " + e.getMessage());
+    private void deleteQuietly(String fileKey) {
+        try {
+            objectStorage.delete(fileKey);
+        } catch (FileStorageException e) {
+            log.warn("⚠️ Could not delete {}: {}", fileKey, e.getMessage());
         }
     }
 
+    @PreDestroy
+    void shutdownUploads() {
+        storageExecutor.close();
+    }
+
     // ═══════════════════════════════════════════════════════════════════════════
     //  BYTES UPLOAD  (used by CoursePdfGeneratorService for PDFs)
     // ═══════════════════════════════════════════════════════════════════════════
@@ -78,46 +231,60 @@ public class R2StorageServiceImpl implements R2StorageService {
         String fileKey = folder + "/" + filename;
 
         try {
-            PutObjectRequest req = PutObjectRequest.builder()
-                    .bucket(r2Properties.getBucketName())
-                    .key(fileKey)
-                    .contentType(contentType)
-                    .contentLength((long) bytes.length)
-                    .cacheControl(
-                            PDF_CONTENT_TYPE.equals(contentType)
-                                    ? "no-store, no-cache, max-age=0, must-revalidate"
-                                    : "public, max-age=31536000, immutable"
-                    )
+            objectStorage.put(fileKey, ContentSource.of(bytes), bytes.length, new ObjectMetadata(
+                    contentType,
+                    PDF_CONTENT_TYPE.equals(contentType)
+                            ? PDF_CACHE_CONTROL
+                            : "public, max-age=31536000, immutable",
                     // Makes PDF directly downloadable in browser
-                    .contentDisposition(
-                            PDF_CONTENT_TYPE.equals(contentType)
-                                    ? "inline"
-                                    : "attachment"
-                    )
-                    .build();
-
-            s3Client.putObject(req, RequestBody.fromBytes(bytes));
+                    PDF_CONTENT_TYPE.equals(contentType)
+                            ? "inline"
+                            : "attachment"));
 
             String publicUrl = buildPublicUrl(fileKey);
             log.info("✅ Bytes uploaded: {} ({} KB)", publicUrl, bytes.length / 1024);
             return publicUrl;
 
-        } catch (S3Exception e) {
+        } catch (FileStorageException e) {
             log.error("❌ Bytes upload failed: {}", e.getMessage());
             throw new FileStorageException("Failed to upload bytes: " + e.getMessage());
         }
     }
 
     // ═══════════════════════════════════════════════════════════════════════════
-    //  PDF UPLOAD  (convenience method — wraps uploadBytes)
-    //  Usage: r2.uploadPdf(pdfBytes, course.getSlug())
-    //  Returns: https://cdn.codegrowthkh.site/course-pdfs/courses/{course-slug}.pdf
+    //  PDF UPLOAD  (streamed from a file — never loaded into memory)
+    //  Usage: r2.uploadPdf(pdfFile, course.getSlug())
+    //  Returns: https://cdn.codegrowthkh.site/course-pdfs/{sha256}.pdf
+    //  An identical PDF is already stored under its hash and is not sent again.
+    //  The backend copies the file itself (multipart on S3, transferTo locally).
     // ═══════════════════════════════════════════════════════════════════════════
 
     @Override
-    public String uploadPdf(byte[] pdfBytes, String courseSlug) {
-        String filename = courseSlug + ".pdf";
-        return uploadBytes(pdfBytes, "course-pdfs/courses", filename, PDF_CONTENT_TYPE);
+    public String uploadPdf(Path pdfFile, String courseSlug) {
+        long size = validatePdfFile(pdfFile);
+        String fileKey = "course-pdfs/" + sha256(ContentSource.of(pdfFile), size) + ".pdf";
+        String publicUrl = buildPublicUrl(fileKey);
+        if (!storedObjectService.acquire(fileKey, size)) {
+            log.info("♻️ PDF unchanged, already stored: {}", publicUrl);
+            return publicUrl;
+        }
+
+        String disposition = "inline; filename=\"" + courseSlug + ".pdf\"";
+        try {
+            objectStorage.put(fileKey, pdfFile, new ObjectMetadata(PDF_CONTENT_TYPE, IMMUTABLE_CACHE_CONTROL, disposition));
+            storedObjectService.markStored(fileKey);
+
+            log.info("✅ PDF uploaded: {} ({} KB)", publicUrl, size / 1024);
+            return publicUrl;
+
+        } catch (FileStorageException e) {
+            storedObjectService.abandon(fileKey);
+            log.error("❌ PDF upload failed: {}", e.getMessage());
+            throw new FileStorageException("Failed to upload PDF: " + e.getMessage());
+        } catch (RuntimeException e) {
+            storedObjectService.abandon(fileKey);
+            throw e;
+        }
     }
 
     // ═══════════════════════════════════════════════════════════════════════════
@@ -128,17 +295,52 @@ public class R2StorageServiceImpl implements R2StorageService {
     public void deleteFile(String publicUrl) {
         if (!StringUtils.hasText(publicUrl)) return;
 
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.isActualTransactionActive()) {
+            // The reference goes with the caller's commit: a rollback keeps the object, and
+            // the release neither nests in the caller's transaction nor holds its connection
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    storageExecutor.execute(() -> releaseQuietly(publicUrl));
+                }
+            });
+            return;
+        }
+        release(publicUrl);
+    }
+
+    private void releaseQuietly(String publicUrl) {
+        try {
+            release(publicUrl);
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Could not release {} after commit: {}", publicUrl, e.getMessage());
+        }
+    }
+
+    private void release(String publicUrl) {
         String fileKey = extractKeyFromUrl(publicUrl);
         try {
-            s3Client.deleteObject(DeleteObjectRequest.builder()
-                    .bucket(r2Properties.getBucketName())
-                    .key(fileKey)
-                    .build());
-            log.info("✅ File deleted: {}", fileKey);
-        } catch (S3Exception e) {
+            StoredObjectService.Release release = storedObjectService.release(fileKey, () -> deleteObject(fileKey));
+            if (release == StoredObjectService.Release.RETAINED) {
+                log.info("🔗 File still referenced, kept: {}", fileKey);
+                return;
+            }
+            // Uploaded before content addressing — one reference by definition
+            if (release == StoredObjectService.Release.UNTRACKED) deleteObject(fileKey);
+        } catch (FileStorageException e) {
             log.error("❌ Delete failed: {}", e.getMessage());
             throw new FileStorageException("Failed to delete file: " + e.getMessage());
         }
+        // Resized renditions go with their original
+        for (String variantUrl : imageVariantService.forget(publicUrl)) {
+            deleteQuietly(extractKeyFromUrl(variantUrl));
+        }
+    }
+
+    private void deleteObject(String fileKey) {
+        objectStorage.delete(fileKey);
+        log.info("✅ File deleted: {}", fileKey);
     }
 
     // ═══════════════════════════════════════════════════════════════════════════
@@ -161,7 +363,7 @@ public class R2StorageServiceImpl implements R2StorageService {
 
     @Override
     public String extractKeyFromUrl(String publicUrl) {
-        String base = r2Properties.getPublicUrl();
+        String base = objectStorage.publicBaseUrl();
         if (StringUtils.hasText(publicUrl) && publicUrl.startsWith(base)) {
             String key = publicUrl.substring(base.length()).replaceFirst("^/", "");
             int queryIndex = key.indexOf('?');
@@ -182,20 +384,28 @@ public class R2StorageServiceImpl implements R2StorageService {
     // ═══════════════════════════════════════════════════════════════════════════
 
     /**
-     * Builds the public CDN URL from the object key.
-     * Uses r2Properties.getPublicUrl() which must be:
+     * Builds the public URL from the object key.
+     * In production the backend's base is the CDN:
      *   https://cdn.codegrowthkh.site
      */
     private String buildPublicUrl(String key) {
-        return r2Properties.getPublicUrl() + "/" + key;
+        return objectStorage.publicBaseUrl() + "/" + key;
     }
 
-    private String buildKey(String folder, String originalFilename) {
-        String ext = "";
+    private static String extension(String originalFilename) {
         if (originalFilename != null && originalFilename.contains(".")) {
-            ext = originalFilename.substring(originalFilename.lastIndexOf("."));
+            return originalFilename.substring(originalFilename.lastIndexOf(".")).toLowerCase(Locale.ROOT);
+        }
+        return "";
+    }
+
+    // Local read of the temp/request data — the key has to be known before the PUT starts
+    private static String sha256(ContentSource source, long size) {
+        try (InputStream in = source.open(0, size)) {
+            return StoredObjectService.sha256(in);
+        } catch (IOException e) {
+            throw new FileStorageException("Could not read upload: " + e.getMessage(), e);
         }
-        return folder + "/" + UUID.randomUUID() + ext;
     }
 
     private void validateImageFile(MultipartFile file) {
@@ -222,4 +432,20 @@ public class R2StorageServiceImpl implements R2StorageService {
             throw new FileStorageException(
                     "PDF too large. Max size: 50 MB. Got: " + bytes.length / 1024 / 1024 + " MB");
     }
+
+    private long validatePdfFile(Path pdfFile) {
+        long size;
+        try {
+            size = Files.size(pdfFile);
+        } catch (IOException e) {
+            throw new FileStorageException("PDF file is not readable: " + e.getMessage());
+        }
+        if (size == 0)
+            throw new FileStorageException("File content is empty");
+
+        if (size > MAX_PDF_SIZE)
+            throw new FileStorageException(
+                    "PDF too large. Max size: 50 MB. Got: " + size / 1024 / 1024 + " MB");
+        return size;
+    }
 }
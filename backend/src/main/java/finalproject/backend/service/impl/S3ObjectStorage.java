@@ -0,0 +1,178 @@
+package finalproject.backend.service.impl;
+
+import finalproject.backend.config.R2Properties;
+import finalproject.backend.exception.FileStorageException;
+import finalproject.backend.service.ObjectStorage;
+import finalproject.backend.util.VirtualThreadScope;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * {@link ObjectStorage} over the S3 API — Cloudflare R2, or the in-process
+ * S3StubServer under the {@code s3-stub} profile. Objects at or above
+ * {@code multipart-threshold-bytes} go up as a multipart upload whose parts
+ * each read their own range of the source, {@code multipart-parallelism} at a time.
+ */
+@Slf4j
+@Service
+@Profile("!local-storage")
+@RequiredArgsConstructor
+public class S3ObjectStorage implements ObjectStorage {
+
+    private static final long MIN_PART_SIZE = 5 * 1024 * 1024L;  // S3 minimum for all but the last part
+
+    private final S3Client s3Client;
+    private final R2Properties r2Properties;
+
+    @Override
+    public void put(String key, ContentSource content, long size, ObjectMetadata metadata) {
+        try {
+            if (size >= r2Properties.getMultipartThresholdBytes()) {
+                uploadMultipart(content, size, key, metadata);
+            } else {
+                s3Client.putObject(putRequest(key, size, metadata),
+                        RequestBody.fromContentProvider(() -> open(content, 0, size), size, metadata.contentType()));
+            }
+        } catch (SdkException | UncheckedIOException e) {
+            throw new FileStorageException("Failed to store " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void put(String key, Path file, ObjectMetadata metadata) {
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (IOException e) {
+            throw new FileStorageException("File is not readable: " + e.getMessage(), e);
+        }
+        if (size >= r2Properties.getMultipartThresholdBytes()) {
+            put(key, ContentSource.of(file), size, metadata);
+            return;
+        }
+        try {
+            s3Client.putObject(putRequest(key, size, metadata), RequestBody.fromFile(file));
+        } catch (SdkException | UncheckedIOException e) {
+            throw new FileStorageException("Failed to store " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            s3Client.deleteObject(DeleteObjectRequest.builder()
+                    .bucket(r2Properties.getBucketName())
+                    .key(key)
+                    .build());
+        } catch (SdkException e) {
+            throw new FileStorageException("Failed to delete " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String publicBaseUrl() {
+        return r2Properties.getPublicUrl().replaceAll("/+$", "");
+    }
+
+    private PutObjectRequest putRequest(String key, long size, ObjectMetadata metadata) {
+        return PutObjectRequest.builder()
+                .bucket(r2Properties.getBucketName())
+                .key(key)
+                .contentType(metadata.contentType())
+                .contentLength(size)
+                .cacheControl(metadata.cacheControl())
+                .contentDisposition(metadata.contentDisposition())
+                .build();
+    }
+
+    private void uploadMultipart(ContentSource content, long size, String key, ObjectMetadata metadata) {
+        String bucket = r2Properties.getBucketName();
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(metadata.contentType())
+                .cacheControl(metadata.cacheControl())
+                .contentDisposition(metadata.contentDisposition())
+                .build()).uploadId();
+
+        try {
+            long partSize = Math.max(r2Properties.getMultipartPartSizeBytes(), MIN_PART_SIZE);
+            List<Supplier<CompletedPart>> forked = new ArrayList<>();
+            try (VirtualThreadScope scope = new VirtualThreadScope(r2Properties.getMultipartParallelism())) {
+                int partNumber = 1;
+                for (long offset = 0; offset < size; offset += partSize, partNumber++) {
+                    int number = partNumber;
+                    long from = offset;
+                    long length = Math.min(partSize, size - offset);
+                    forked.add(scope.fork(() -> {
+                        // The provider may be asked for a fresh stream on retry — each call reopens the range
+                        UploadPartResponse part = s3Client.uploadPart(UploadPartRequest.builder()
+                                        .bucket(bucket)
+                                        .key(key)
+                                        .uploadId(uploadId)
+                                        .partNumber(number)
+                                        .contentLength(length)
+                                        .build(),
+                                RequestBody.fromContentProvider(() -> open(content, from, length), length,
+                                        metadata.contentType()));
+                        return CompletedPart.builder().partNumber(number).eTag(part.eTag()).build();
+                    }));
+                }
+                scope.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new FileStorageException("Multipart upload interrupted: " + key, e);
+            }
+            List<CompletedPart> parts = forked.stream().map(Supplier::get).toList();
+
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+            log.info("📦 Multipart upload done: {} ({} parts)", key, parts.size());
+
+        } catch (RuntimeException e) {
+            // Don't leave orphaned parts behind — R2 bills for them until aborted
+            try {
+                s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                        .bucket(bucket).key(key).uploadId(uploadId).build());
+            } catch (SdkException abortError) {
+                log.warn("⚠️ Failed to abort multipart upload {}: {}", uploadId, abortError.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    private static InputStream open(ContentSource content, long from, long length) {
+        try {
+            return content.open(from, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
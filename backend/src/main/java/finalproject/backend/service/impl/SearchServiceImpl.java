@@ -0,0 +1,114 @@
+package finalproject.backend.service.impl;
+
+import finalproject.backend.exception.CustomMessageException;
+import finalproject.backend.response.ApiResponse;
+import finalproject.backend.response.SearchResultResponse;
+import finalproject.backend.service.SearchIndexService;
+import finalproject.backend.service.SearchService;
+import finalproject.backend.util.SearchTextUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchServiceImpl implements SearchService {
+
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final int MAX_FRAGMENTS = 2;
+    private static final Set<String> TYPES = Set.of(
+            SearchIndexService.TYPE_COURSE,
+            SearchIndexService.TYPE_LESSON,
+            SearchIndexService.TYPE_SNIPPET);
+
+    // Ranking uses the GIN-matched rows only; course status is joined so
+    // drafts never leak and publishing needs no re-index. Long documents are
+    // indexed in chunks — each document is represented by its best chunk,
+    // whose body the fragments are cut from.
+    private static final String SEARCH_SQL = """
+            SELECT * FROM (
+                SELECT DISTINCT ON (d.doc_type, d.doc_id)
+                       d.doc_type, d.doc_id, d.course_id, d.lesson_id, d.title, d.body,
+                       c.slug AS course_slug, c.title AS course_title, l.slug AS lesson_slug,
+                       ts_rank_cd(d.tsv, q.query) AS rank
+                FROM search_document d
+                CROSS JOIN (SELECT to_tsquery('simple', ?) AS query) q
+                JOIN course c ON c.id = d.course_id
+                LEFT JOIN lessons l ON l.id = d.lesson_id
+                WHERE d.tsv @@ q.query
+                  AND c.status <> 'DRAFT'
+                  AND (CAST(? AS VARCHAR) IS NULL OR d.doc_type = ?)
+                ORDER BY d.doc_type, d.doc_id, rank DESC, d.chunk_no
+            ) hits
+            ORDER BY rank DESC, doc_type, doc_id
+            LIMIT ? OFFSET ?
+            """;
+
+    private static final String COURSE_IDS_SQL = """
+            SELECT DISTINCT d.doc_id FROM search_document d
+            WHERE d.doc_type = 'COURSE' AND d.tsv @@ to_tsquery('simple', ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional(readOnly = true)
+    public ApiResponse<List<SearchResultResponse>> search(String query, String type, int page, int size) {
+        String tsQuery = SearchTextUtil.toTsQuery(query);
+        if (tsQuery.isEmpty())
+            return ApiResponse.success(Collections.emptyList(), "Search results retrieved successfully");
+
+        String docType = normalizeType(type);
+        int limit  = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int offset = Math.max(0, page) * limit;
+        List<SearchTextUtil.Term> terms = SearchTextUtil.terms(query);
+
+        List<SearchResultResponse> results = jdbcTemplate.query(SEARCH_SQL, (rs, i) -> {
+            String title = rs.getString("title");
+            return SearchResultResponse.builder()
+                    .type(rs.getString("doc_type"))
+                    .id(rs.getLong("doc_id"))
+                    .rank(rs.getDouble("rank"))
+                    .title(title)
+                    .highlightedTitle(SearchTextUtil.highlight(title, terms))
+                    .fragments(SearchTextUtil.fragments(rs.getString("body"), terms, MAX_FRAGMENTS))
+                    .courseId(rs.getLong("course_id"))
+                    .courseSlug(rs.getString("course_slug"))
+                    .courseTitle(rs.getString("course_title"))
+                    .lessonId(rs.getObject("lesson_id", Long.class))
+                    .lessonSlug(rs.getString("lesson_slug"))
+                    .build();
+        }, tsQuery, docType, docType, limit, offset);
+
+        return ApiResponse.success(results, "Search results retrieved successfully");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<Long> findMatchingCourseIds(String query) {
+        String tsQuery = SearchTextUtil.toTsQuery(query);
+        if (tsQuery.isEmpty()) return Collections.emptySet();
+        return new HashSet<>(jdbcTemplate.queryForList(COURSE_IDS_SQL, Long.class, tsQuery));
+    }
+
+    // ── helpers ───────────────────────────────────────────────────────────────
+
+    private String normalizeType(String type) {
+        if (!StringUtils.hasText(type)) return null;
+        String normalized = type.trim().toUpperCase();
+        if (!TYPES.contains(normalized))
+            throw new CustomMessageException("Invalid search type: " + type,
+                    String.valueOf(HttpStatus.BAD_REQUEST.value()));
+        return normalized;
+    }
+}
@@ -12,6 +12,7 @@ import finalproject.backend.request.UserRequest;
 import finalproject.backend.response.ApiResponse;
 import finalproject.backend.response.PageResponse;
 import finalproject.backend.response.UserResponse;
+import finalproject.backend.service.ActivityRollupService;
 import finalproject.backend.service.R2StorageService;
 import finalproject.backend.service.UserService;
 import finalproject.backend.util.RoleUtil;
@@ -24,12 +25,13 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.ObjectUtils;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -42,28 +44,41 @@ public class UserServiceImpl implements UserService {
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
     private final R2StorageService r2StorageService;
+    private final ActivityRollupService activityRollupService;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
-    @Transactional
     public ApiResponse<UserResponse> createUser(UserRequest userRequest, MultipartFile profilePicture) {
-        validateCreateRequest(userRequest);
-
-        User user = userMapper.toEntity(userRequest);
-        user.setPassword(passwordEncoder.encode(userRequest.getPassword()));
-        user.setRoles(resolveRoles(userRequest.getRoles()));
-        // status & createdAt set by @PrePersist
-
-        if (profilePicture != null && !profilePicture.isEmpty()) {
-            try {
-                user.setProfilePicture(r2StorageService.uploadFile(profilePicture, "profile"));
-            } catch (IOException e) {
-                throw new CustomMessageException("Failed to upload profile picture: " + e.getMessage());
-            }
+        // Picture streams to R2 while the request is checked and the password hashed — no
+        // transaction is open until it has landed, so the upload's own queries never wait on
+        // this request's connection
+        CompletableFuture<String> pictureUpload = profilePicture != null && !profilePicture.isEmpty()
+                ? r2StorageService.uploadFileAsync(profilePicture, "profile") : null;
+        String encodedPassword;
+        String pictureUrl;
+        try {
+            validateCreateRequest(userRequest);
+            encodedPassword = passwordEncoder.encode(userRequest.getPassword());
+            pictureUrl = pictureUpload != null ? r2StorageService.await(pictureUpload) : null;
+        } catch (RuntimeException e) {
+            r2StorageService.discard(pictureUpload);
+            throw e;
         }
 
-        User saved = userRepository.save(user);
-        log.info("Created user id={}", saved.getId());
-        return ApiResponse.success(userMapper.toResponse(saved), "User created successfully");
+        return transactionTemplate.execute(status -> {
+            r2StorageService.discardOnRollback(pictureUpload);
+
+            User user = userMapper.toEntity(userRequest);
+            user.setPassword(encodedPassword);
+            user.setRoles(resolveRoles(userRequest.getRoles()));
+            // status & createdAt set by @PrePersist
+            if (pictureUrl != null) user.setProfilePicture(pictureUrl);
+
+            User saved = userRepository.save(user);
+            activityRollupService.recordNewUser(saved.getCreatedAt());
+            log.info("Created user id={}", saved.getId());
+            return ApiResponse.success(userMapper.toResponse(saved), "User created successfully");
+        });
     }
 
     @Override
@@ -74,7 +89,7 @@ public class UserServiceImpl implements UserService {
                 .and(hasStatus(status));
 
         Page<User> page = userRepository.findAll(spec, pageable);
-        return PageResponse.of(page.map(userMapper::toResponse));
+        return PageResponse.of(page, userMapper.toResponses(page.getContent()));
     }
 
     @Override
@@ -85,45 +100,59 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    @Transactional
     public ApiResponse<UserResponse> updateUser(Long id, UpdateUserRequest request, MultipartFile photo) {
-        User user = findUserOrThrow(id);
-
-        if (request.getUsername() != null && !request.getUsername().isBlank()
-                && !request.getUsername().equals(user.getUsername())
-                && userRepository.existsByUsername(request.getUsername())) {
-            throw new CustomMessageException("Username already taken",
-                    String.valueOf(HttpStatus.CONFLICT.value()));
+        // Photo streams to R2 while the password is hashed; the user is checked and written
+        // in a short transaction once it has landed (see createUser)
+        CompletableFuture<String> photoUpload = photo != null && !photo.isEmpty()
+                ? r2StorageService.uploadFileAsync(photo, "profile") : null;
+        String encodedPassword;
+        String photoUrl;
+        try {
+            encodedPassword = request.getPassword() != null && !request.getPassword().isBlank()
+                    ? passwordEncoder.encode(request.getPassword()) : null;
+            photoUrl = photoUpload != null ? r2StorageService.await(photoUpload) : null;
+        } catch (RuntimeException e) {
+            r2StorageService.discard(photoUpload);
+            throw e;
         }
 
-        if (request.getEmail() != null && !request.getEmail().isBlank()
-                && !request.getEmail().equals(user.getEmail())
-                && userRepository.existsByEmail(request.getEmail())) {
-            throw new CustomMessageException("Email already in use",
-                    String.valueOf(HttpStatus.CONFLICT.value()));
-        }
+        return transactionTemplate.execute(status -> {
+            r2StorageService.discardOnRollback(photoUpload);
+
+            User user = findUserOrThrow(id);
+
+            if (request.getUsername() != null && !request.getUsername().isBlank()
+                    && !request.getUsername().equals(user.getUsername())
+                    && userRepository.existsByUsername(request.getUsername())) {
+                throw new CustomMessageException("Username already taken",
+                        String.valueOf(HttpStatus.CONFLICT.value()));
+            }
+
+            if (request.getEmail() != null && !request.getEmail().isBlank()
+                    && !request.getEmail().equals(user.getEmail())
+                    && userRepository.existsByEmail(request.getEmail())) {
+                throw new CustomMessageException("Email already in use",
+                        String.valueOf(HttpStatus.CONFLICT.value()));
+            }
 
-        userMapper.updateEntity(request, user);
+            userMapper.updateEntity(request, user);
 
-        if (request.getPassword() != null && !request.getPassword().isBlank())
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
+            if (encodedPassword != null) user.setPassword(encodedPassword);
 
-        if (request.getRoles() != null && !request.getRoles().isEmpty())
-            user.setRoles(resolveRoles(request.getRoles()));
+            if (request.getRoles() != null && !request.getRoles().isEmpty())
+                user.setRoles(resolveRoles(request.getRoles()));
 
-        if (photo != null && !photo.isEmpty()) {
-            try {
+            if (photoUrl != null) {
                 String old = user.getProfilePicture();
+                user.setProfilePicture(photoUrl);
+                // Released after commit — a rollback keeps the old photo
                 if (old != null && !old.isBlank()) r2StorageService.deleteFile(old);
-                user.setProfilePicture(r2StorageService.uploadFile(photo, "profile"));
-            } catch (IOException e) {
-                throw new CustomMessageException("Failed to upload photo: " + e.getMessage());
             }
-        }
 
-        User saved = userRepository.save(user);
-        log.info("Updated user id={}", id);
-        return ApiResponse.success(userMapper.toResponse(saved), "User updated successfully");
+            User saved = userRepository.save(user);
+            log.info("Updated user id={}", id);
+            return ApiResponse.success(userMapper.toResponse(saved), "User updated successfully");
+        });
     }
 
     @Override
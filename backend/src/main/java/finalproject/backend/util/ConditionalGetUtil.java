@@ -0,0 +1,42 @@
+package finalproject.backend.util;
+
+import finalproject.backend.service.ContentVersionService.ContentVersion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * If-None-Match / If-Modified-Since handling for content endpoints.
+ *
+ * Usage in a controller (Spring's checkNotModified pattern — returning null
+ * leaves the 304 written by the check):
+ * <pre>
+ * if (ConditionalGetUtil.isNotModified(request, versions.forLesson(id), v -> v.etag("lesson-" + id)))
+ *     return null;
+ * </pre>
+ */
+public final class ConditionalGetUtil {
+
+    private ConditionalGetUtil() {
+    }
+
+    /**
+     * Sets ETag / Last-Modified (and Cache-Control: no-cache so clients always
+     * revalidate) and returns true when the client's copy is current.
+     * An unknown resource (empty version) is never "not modified" — the
+     * service call then produces the usual 404.
+     */
+    public static boolean isNotModified(WebRequest request,
+                                        Optional<ContentVersion> version,
+                                        Function<ContentVersion, String> etag) {
+        if (version.isEmpty()) return false;
+        if (request instanceof ServletWebRequest servlet && servlet.getResponse() != null) {
+            servlet.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        }
+        ContentVersion v = version.get();
+        return request.checkNotModified(etag.apply(v), v.lastModifiedMillis());
+    }
+}
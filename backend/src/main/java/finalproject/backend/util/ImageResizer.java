@@ -0,0 +1,144 @@
+package finalproject.backend.util;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Decode / downscale / encode helpers for uploaded images (JDK ImageIO only).
+ *
+ * - {@link #decode} reads the first frame once, subsampled while decoding
+ *   when the source is much larger than the biggest rendition needs — a
+ *   phone photo is never inflated to full resolution just to make a card.
+ * - {@link #fitWidth} / {@link #cropSquare} scale down in halving steps
+ *   (bilinear), which keeps small renditions sharp without a bicubic pass.
+ * - {@link #encode} writes JPEG for opaque images and PNG when alpha matters.
+ */
+public final class ImageResizer {
+
+    /** Sources above this many pixels are not decoded at all (decompression-bomb guard). */
+    public static final long MAX_SOURCE_PIXELS = 40_000_000L;
+
+    private static final float JPEG_QUALITY = 0.82f;
+
+    private ImageResizer() {
+    }
+
+    /** An encoded rendition — small enough (a few hundred KB) to hold as bytes. */
+    public record Encoded(byte[] bytes, String contentType, String extension, int width, int height) {
+    }
+
+    /**
+     * Decodes the first image in {@code in}, subsampled so that the result is
+     * still at least twice {@code minWidth} × {@code minHeight} (when the source
+     * allows). Returns {@code null} when ImageIO has no reader for the format or
+     * the source exceeds {@link #MAX_SOURCE_PIXELS}.
+     */
+    public static BufferedImage decode(InputStream in, int minWidth, int minHeight) throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            if (iis == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_SOURCE_PIXELS) return null;
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.min(
+                        width / (2 * Math.max(1, minWidth)),
+                        height / (2 * Math.max(1, minHeight))));
+                if (subsampling > 1) param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /** Scales to {@code width} keeping the aspect ratio; {@code null} if the source is not wider. */
+    public static BufferedImage fitWidth(BufferedImage source, int width) {
+        if (source.getWidth() <= width) return null;
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        return scale(source, width, height);
+    }
+
+    /** Center-crops to a square and scales it to {@code size}; {@code null} if the source is smaller. */
+    public static BufferedImage cropSquare(BufferedImage source, int size) {
+        int edge = Math.min(source.getWidth(), source.getHeight());
+        if (edge < size) return null;
+        BufferedImage square = source.getSubimage(
+                (source.getWidth() - edge) / 2, (source.getHeight() - edge) / 2, edge, edge);
+        return edge == size ? copy(square, size, size) : scale(square, size, size);
+    }
+
+    /** JPEG for opaque images, PNG when the image has an alpha channel. */
+    public static Encoded encode(BufferedImage image) throws IOException {
+        boolean alpha = image.getColorModel().hasAlpha();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        if (alpha) {
+            ImageIO.write(image, "png", out);
+            return new Encoded(out.toByteArray(), "image/png", ".png", image.getWidth(), image.getHeight());
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return new Encoded(out.toByteArray(), "image/jpeg", ".jpg", image.getWidth(), image.getHeight());
+    }
+
+    // Halve until within 2× of the target, then one final bilinear step
+    private static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        while (w / 2 >= width && h / 2 >= height) {
+            w /= 2;
+            h /= 2;
+            current = copy(current, w, h);
+        }
+        return copy(current, width, height);
+    }
+
+    private static BufferedImage copy(BufferedImage source, int width, int height) {
+        boolean alpha = source.getColorModel().hasAlpha();
+        BufferedImage target = new BufferedImage(width, height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            if (!alpha) {
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, width, height);
+            }
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+}
@@ -0,0 +1,254 @@
+package finalproject.backend.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tokenizer shared by the search index (write side) and search queries (read side).
+ *
+ * Khmer is written without spaces between words and PostgreSQL ships no Khmer
+ * parser, so a Khmer run is indexed as overlapping code-point bigrams, each
+ * encoded as an ASCII token ("kh" + hex code points). A Khmer query becomes a
+ * phrase of the same bigrams, which matches any substring of an indexed run.
+ * Latin/other words are lower-cased and matched as prefixes.
+ *
+ * A tsvector keeps at most 256 positions per lexeme and clamps positions at
+ * 16383, and Khmer text yields one token per character — so long bodies are
+ * indexed as overlapping {@link #chunks}, each well inside those limits.
+ */
+public final class SearchTextUtil {
+
+    private static final Pattern HTML_TAG    = Pattern.compile("<[^>]*>");
+    private static final Pattern WHITESPACE  = Pattern.compile("\\s+");
+    private static final String  KHMER_PREFIX = "kh";
+
+    private static final int FRAGMENT_LENGTH = 180;
+    private static final int FRAGMENT_LEAD   = 50;
+
+    private SearchTextUtil() {
+    }
+
+    /** Query/document term: Khmer runs keep their raw text, other words are lower-cased. */
+    public record Term(String text, boolean khmer) {
+    }
+
+    // ── Tokenizing ────────────────────────────────────────────────────────────
+
+    /** Tags stripped, common entities decoded, whitespace collapsed. */
+    public static String toPlainText(String value) {
+        if (value == null || value.isBlank()) return "";
+        String text = HTML_TAG.matcher(value).replaceAll(" ")
+                .replace("&nbsp;", " ")
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&#39;", "'")
+                .replace("&amp;", "&");
+        return WHITESPACE.matcher(text).replaceAll(" ").trim();
+    }
+
+    /** Splits text into Khmer runs and lower-cased words; zero-width joiners/spaces are ignored. */
+    public static List<Term> terms(String value) {
+        List<Term> terms = new ArrayList<>();
+        if (value == null || value.isEmpty()) return terms;
+
+        StringBuilder current = new StringBuilder();
+        boolean currentKhmer = false;
+
+        for (int i = 0; i < value.length(); ) {
+            int cp = value.codePointAt(i);
+            i += Character.charCount(cp);
+
+            if (isIgnorable(cp)) continue;
+
+            boolean khmer = isKhmerLetter(cp);
+            boolean word  = !khmer && Character.isLetterOrDigit(cp);
+
+            if (!khmer && !word) {
+                flush(terms, current, currentKhmer);
+                continue;
+            }
+            if (!current.isEmpty() && khmer != currentKhmer) flush(terms, current, currentKhmer);
+
+            currentKhmer = khmer;
+            current.appendCodePoint(khmer ? cp : Character.toLowerCase(cp));
+        }
+        flush(terms, current, currentKhmer);
+        return terms;
+    }
+
+    /** Space-separated token stream fed to to_tsvector('simple', ...). */
+    public static String toIndexText(String value) {
+        StringBuilder out = new StringBuilder();
+        for (Term term : terms(toPlainText(value))) {
+            if (term.khmer()) {
+                for (String bigram : khmerTokens(term.text())) out.append(bigram).append(' ');
+            } else {
+                out.append(term.text()).append(' ');
+            }
+        }
+        return out.toString().trim();
+    }
+
+    /**
+     * tsquery text for to_tsquery('simple', ...): every term must match,
+     * words as prefixes, Khmer runs as bigram phrases. Empty when nothing is searchable.
+     */
+    public static String toTsQuery(String query) {
+        List<String> parts = new ArrayList<>();
+        for (Term term : terms(query)) {
+            if (term.khmer()) {
+                List<String> tokens = khmerTokens(term.text());
+                if (tokens.size() == 1) {
+                    // Single character: match every bigram that starts with it
+                    parts.add("'" + tokens.get(0) + "':*");
+                } else {
+                    parts.add("(" + String.join(" <-> ", tokens.stream().map(t -> "'" + t + "'").toList()) + ")");
+                }
+            } else {
+                parts.add("'" + term.text() + "':*");
+            }
+        }
+        return String.join(" & ", parts);
+    }
+
+    /**
+     * Splits plain text into pieces of at most {@code length} chars, each
+     * starting {@code overlap} chars before the previous one ended, so any
+     * phrase up to {@code overlap} chars long lies whole inside some chunk.
+     * Cuts prefer whitespace when there is some nearby. Always at least one chunk.
+     */
+    public static List<String> chunks(String text, int length, int overlap) {
+        if (overlap < 0 || overlap >= length) throw new IllegalArgumentException("overlap must be in [0, length)");
+        List<String> chunks = new ArrayList<>();
+        if (text == null || text.length() <= length) {
+            chunks.add(text == null ? "" : text);
+            return chunks;
+        }
+        int start = 0;
+        while (true) {
+            int end = Math.min(text.length(), start + length);
+            if (end < text.length()) {
+                int snapped = snapToSpace(text, end, true);
+                if (snapped - overlap > start) end = snapped;
+                if (Character.isHighSurrogate(text.charAt(end - 1))) end--;
+            }
+            chunks.add(text.substring(start, end).trim());
+            if (end >= text.length()) return chunks;
+            int next = Math.max(start + 1, end - overlap);
+            if (Character.isLowSurrogate(text.charAt(next)) && next - 1 > start) next--;
+            start = next;
+        }
+    }
+
+    // ── Highlighting ──────────────────────────────────────────────────────────
+
+    /** HTML-escaped text with every query term wrapped in &lt;mark&gt;. */
+    public static String highlight(String text, List<Term> terms) {
+        if (text == null || text.isEmpty()) return "";
+        Matcher m = termPattern(terms).matcher(text);
+        StringBuilder out = new StringBuilder();
+        int last = 0;
+        while (m.find()) {
+            if (m.end() == m.start()) continue;
+            out.append(escape(text, last, m.start()))
+                    .append("<mark>").append(escape(text, m.start(), m.end())).append("</mark>");
+            last = m.end();
+        }
+        return out.append(escape(text, last, text.length())).toString();
+    }
+
+    /** Up to {@code max} non-overlapping highlighted windows around term hits in plain text. */
+    public static List<String> fragments(String text, List<Term> terms, int max) {
+        List<String> fragments = new ArrayList<>();
+        if (text == null || text.isEmpty() || terms.isEmpty()) return fragments;
+
+        Matcher m = termPattern(terms).matcher(text);
+        int nextAllowed = 0;
+        while (fragments.size() < max && m.find()) {
+            if (m.start() < nextAllowed) continue;
+
+            int start = Math.max(0, m.start() - FRAGMENT_LEAD);
+            int end   = Math.min(text.length(), start + FRAGMENT_LENGTH);
+            start = snapToSpace(text, start, true);
+            end   = snapToSpace(text, end, false);
+
+            String window = highlight(text.substring(start, end), terms);
+            fragments.add((start > 0 ? "… " : "") + window + (end < text.length() ? " …" : ""));
+            nextAllowed = end;
+        }
+        return fragments;
+    }
+
+    // ── helpers ───────────────────────────────────────────────────────────────
+
+    private static void flush(List<Term> terms, StringBuilder current, boolean khmer) {
+        if (current.isEmpty()) return;
+        terms.add(new Term(current.toString(), khmer));
+        current.setLength(0);
+    }
+
+    private static List<String> khmerTokens(String run) {
+        int[] cps = run.codePoints().toArray();
+        List<String> tokens = new ArrayList<>(Math.max(1, cps.length - 1));
+        if (cps.length == 1) {
+            tokens.add(KHMER_PREFIX + hex(cps[0]));
+            return tokens;
+        }
+        for (int i = 0; i + 1 < cps.length; i++) {
+            tokens.add(KHMER_PREFIX + hex(cps[i]) + hex(cps[i + 1]));
+        }
+        return tokens;
+    }
+
+    private static String hex(int cp) {
+        return String.format(Locale.ROOT, "%04x", cp);
+    }
+
+    /** Khmer block letters, signs and digits — excluding punctuation (khan, bariyoosan, ...). */
+    private static boolean isKhmerLetter(int cp) {
+        if (cp >= 0x17D4 && cp <= 0x17DA) return false;
+        return (cp >= 0x1780 && cp <= 0x17FF) || (cp >= 0x19E0 && cp <= 0x19FF);
+    }
+
+    /** Zero-width space / non-joiner / joiner — used inconsistently as Khmer word separators. */
+    private static boolean isIgnorable(int cp) {
+        return cp == 0x200B || cp == 0x200C || cp == 0x200D || cp == 0xFEFF;
+    }
+
+    private static Pattern termPattern(List<Term> terms) {
+        List<String> alternatives = new ArrayList<>();
+        for (Term term : terms) alternatives.add(Pattern.quote(term.text()));
+        if (alternatives.isEmpty()) return Pattern.compile("(?!)");
+        return Pattern.compile(String.join("|", alternatives),
+                Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+
+    private static int snapToSpace(String text, int index, boolean backwards) {
+        int limit = 20;
+        int i = index;
+        while (limit-- > 0 && i > 0 && i < text.length() && !Character.isWhitespace(text.charAt(i))) {
+            i += backwards ? -1 : 1;
+        }
+        return (i <= 0 || i >= text.length() || Character.isWhitespace(text.charAt(i))) ? i : index;
+    }
+
+    private static String escape(String text, int from, int to) {
+        StringBuilder out = new StringBuilder(to - from);
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<'  -> out.append("&lt;");
+                case '>'  -> out.append("&gt;");
+                case '&'  -> out.append("&amp;");
+                case '"'  -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default   -> out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,222 @@
+package finalproject.backend.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Small in-process read-through cache: weight-bounded LRU with expire-after-write,
+ * tag-based eviction and single-flight loading.
+ *
+ * - Concurrent misses for the same key share one loader call.
+ * - Every value is stored with a tag (e.g. its course id); {@link #invalidateTag}
+ *   drops all entries of that tag regardless of which key they were loaded under.
+ * - A load only populates the cache if no invalidation happened while it ran
+ *   (the content version it started with is still current), so a reader racing
+ *   an admin write can never re-insert the old payload.
+ * - Hits never take the lock: entries live in a ConcurrentHashMap and a hit
+ *   only stamps the entry's last-access time. Puts and invalidations serialize
+ *   on the lock; a put over the weight bound evicts the least recently stamped
+ *   entries (a sort over the entries — misses already paid a DB trip).
+ */
+public final class SingleFlightCache<K, V> {
+
+    private static final class Entry<V> {
+        final V value;
+        final Object tag;
+        final int weight;
+        final long expiresAtNanos;
+        // Racy stamp written on every hit — an approximate LRU order is enough
+        volatile long lastAccessNanos;
+
+        Entry(V value, Object tag, int weight, long nowNanos, long ttlNanos) {
+            this.value = value;
+            this.tag = tag;
+            this.weight = weight;
+            this.expiresAtNanos = nowNanos + ttlNanos;
+            this.lastAccessNanos = nowNanos;
+        }
+    }
+
+    private final String name;
+    private final long maxWeight;
+    private final long ttlNanos;
+    private final ToIntFunction<V> weigher;
+    private final Function<V, Object> tagger;
+
+    // Guards keysByTag, totalWeight and every structural change to entries
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Map<Object, Set<K>> keysByTag = new HashMap<>();
+    private long totalWeight;
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    private final LongAdder hits      = new LongAdder();
+    private final LongAdder misses    = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SingleFlightCache(String name, long maxWeight, Duration ttl,
+                             ToIntFunction<V> weigher, Function<V, Object> tagger) {
+        this.name = name;
+        this.maxWeight = maxWeight;
+        this.ttlNanos = ttl.toNanos();
+        this.weigher = weigher;
+        this.tagger = tagger;
+    }
+
+    /** Cached value, or the result of {@code loader} — loaded once for concurrent callers. */
+    public V get(K key, Supplier<V> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) return join(leader);
+
+        long startVersion = version.get();
+        try {
+            V value = loader.get();
+            if (value != null && version.get() == startVersion) put(key, value);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /** Drops every entry stored under {@code tag} and invalidates loads in progress. */
+    public void invalidateTag(Object tag) {
+        version.incrementAndGet();
+        lock.lock();
+        try {
+            Set<K> keys = keysByTag.remove(tag);
+            if (keys == null) return;
+            for (K key : keys) {
+                Entry<V> removed = entries.remove(key);
+                if (removed != null) totalWeight -= removed.weight;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        version.incrementAndGet();
+        lock.lock();
+        try {
+            entries.clear();
+            keysByTag.clear();
+            totalWeight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String name()      { return name; }
+    public long hitCount()    { return hits.sum(); }
+    public long missCount()   { return misses.sum(); }
+    public long evictionCount() { return evictions.sum(); }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // ── internals ─────────────────────────────────────────────────────────────
+
+    private V getIfPresent(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) return null;
+        long now = System.nanoTime();
+        if (now - entry.expiresAtNanos > 0) {
+            lock.lock();
+            try {
+                // Only if no newer value replaced it meanwhile
+                if (entries.remove(key, entry)) {
+                    totalWeight -= entry.weight;
+                    untag(key, entry.tag);
+                }
+            } finally {
+                lock.unlock();
+            }
+            return null;
+        }
+        entry.lastAccessNanos = now;
+        return entry.value;
+    }
+
+    private void put(K key, V value) {
+        int weight = Math.max(1, weigher.applyAsInt(value));
+        if (weight > maxWeight) return;
+        Object tag = tagger.apply(value);
+
+        lock.lock();
+        try {
+            Entry<V> previous = entries.put(key, new Entry<>(value, tag, weight, System.nanoTime(), ttlNanos));
+            if (previous != null) {
+                totalWeight -= previous.weight;
+                untag(key, previous.tag);
+            }
+            totalWeight += weight;
+            keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+            if (totalWeight > maxWeight) evictLeastRecentlyUsed();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Under the lock: drop least recently stamped entries until back under the weight bound
+    private void evictLeastRecentlyUsed() {
+        // Stamps are copied first — hits keep writing them while this sorts
+        record Candidate<K, V>(K key, Entry<V> entry, long lastAccessNanos) {
+        }
+        List<Candidate<K, V>> byAccess = new ArrayList<>(entries.size());
+        entries.forEach((key, entry) -> byAccess.add(new Candidate<>(key, entry, entry.lastAccessNanos)));
+        byAccess.sort(Comparator.comparingLong(Candidate::lastAccessNanos));
+        for (Candidate<K, V> eldest : byAccess) {
+            if (totalWeight <= maxWeight) break;
+            if (!entries.remove(eldest.key(), eldest.entry())) continue;
+            totalWeight -= eldest.entry().weight;
+            untag(eldest.key(), eldest.entry().tag);
+            evictions.increment();
+        }
+    }
+
+    private void untag(K key, Object tag) {
+        Set<K> keys = keysByTag.get(tag);
+        if (keys == null) return;
+        keys.remove(key);
+        if (keys.isEmpty()) keysByTag.remove(tag);
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package finalproject.backend.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Regex tokenizer that pre-colors code snippets the way Prism would.
+ *
+ * - Emits {@code <span class="token TYPE">} with Prism's token names, so the
+ *   existing Prism theme CSS applies unchanged.
+ * - One grammar per Prism language id (see {@code prismLang} in the PDF
+ *   generator); unknown ids fall back to the C-like grammar.
+ * - The output never has a span crossing a line break, so it can be split on
+ *   {@code '\n'} and chunked line-for-line with the raw code.
+ * - Also owns language detection for snippets saved without a real language.
+ */
+public final class SyntaxHighlighter {
+
+    private SyntaxHighlighter() {
+    }
+
+    // ── Grammar model ─────────────────────────────────────────────────────────
+
+    private record Rule(String type, Pattern pattern, List<Rule> inside) {
+    }
+
+    private static Rule rule(String type, String regex) {
+        return new Rule(type, Pattern.compile(regex, Pattern.MULTILINE), null);
+    }
+
+    private static Rule ruleIgnoreCase(String type, String regex) {
+        return new Rule(type, Pattern.compile(regex, Pattern.MULTILINE | Pattern.CASE_INSENSITIVE), null);
+    }
+
+    private static Rule nested(String regex, List<Rule> inside) {
+        return new Rule(null, Pattern.compile(regex, Pattern.MULTILINE), inside);
+    }
+
+    private static Rule keywords(String type, String words) {
+        return rule(type, "\\b(?:" + String.join("|", words.trim().split("\\s+")) + ")\\b");
+    }
+
+    private static Rule keywordsIgnoreCase(String type, String words) {
+        return ruleIgnoreCase(type, "\\b(?:" + String.join("|", words.trim().split("\\s+")) + ")\\b");
+    }
+
+    private static List<Rule> grammar(Object... parts) {
+        List<Rule> rules = new ArrayList<>();
+        for (Object part : parts) {
+            if (part instanceof Rule r) rules.add(r);
+            else if (part instanceof List<?> list) list.forEach(r -> rules.add((Rule) r));
+        }
+        return List.copyOf(rules);
+    }
+
+    // ── Shared rules ──────────────────────────────────────────────────────────
+
+    private static final Rule LINE_COMMENT   = rule("comment", "//.*");
+    private static final Rule BLOCK_COMMENT  = rule("comment", "/\\*[\\s\\S]*?(?:\\*/|\\z)");
+    private static final Rule HASH_COMMENT   = rule("comment", "#.*");
+    private static final Rule DOUBLE_STRING  = rule("string", "\"(?:\\\\.|[^\"\\\\\\n])*\"");
+    private static final Rule SINGLE_STRING  = rule("string", "'(?:\\\\.|[^'\\\\\\n])*'");
+    private static final Rule TEMPLATE_STRING = rule("template-string", "`(?:\\\\.|[^`\\\\])*`");
+    private static final Rule NUMBER         = rule("number",
+            "\\b0[xXbBoO][\\da-fA-F_]+[lLuU]*\\b|(?:\\b\\d[\\d_]*(?:\\.[\\d_]+)?|\\B\\.\\d[\\d_]*)(?:[eE][+-]?\\d+)?[fFdDlLuUmMn]*\\b");
+    private static final Rule BOOLEAN        = rule("boolean", "\\b(?:true|false)\\b");
+    private static final Rule CLASS_NAME     = rule("class-name", "\\b[A-Z][A-Za-z0-9_]*\\b");
+    private static final Rule FUNCTION       = rule("function", "\\b[A-Za-z_$][\\w$]*(?=\\s*\\()");
+    private static final Rule ANNOTATION     = rule("annotation", "@[A-Za-z_][\\w.]*");
+    private static final Rule ARROW          = rule("arrow", "=>|->");
+    private static final Rule OPERATOR       = rule("operator", "[-+*/%=!<>&|^~?:]+");
+    private static final Rule PUNCTUATION    = rule("punctuation", "[{}\\[\\];(),.]");
+
+    private static final List<Rule> CLIKE_TAIL = List.of(NUMBER, CLASS_NAME, FUNCTION, ARROW, OPERATOR, PUNCTUATION);
+
+    private static List<Rule> clike(Rule keywordRule, Object... extra) {
+        return grammar(LINE_COMMENT, BLOCK_COMMENT, grammar(extra), DOUBLE_STRING, SINGLE_STRING,
+                keywordRule, BOOLEAN, CLIKE_TAIL);
+    }
+
+    // ── Markup ────────────────────────────────────────────────────────────────
+
+    private static final List<Rule> TAG_INSIDE = grammar(
+            rule("tag", "^</?[^\\s>/]+"),
+            rule("attr-value", "(?<==)\\s*(?:\"[^\"]*\"|'[^']*'|[^\\s'\">=]+)"),
+            rule("attr-name", "[^\\s>/=\"']+"),
+            rule("punctuation", "/?>|="));
+
+    private static final List<Rule> MARKUP = grammar(
+            rule("comment", "<!--[\\s\\S]*?(?:-->|\\z)"),
+            rule("prolog", "<\\?[\\s\\S]+?\\?>"),
+            ruleIgnoreCase("doctype", "<!DOCTYPE[^>]*>"),
+            rule("cdata", "<!\\[CDATA\\[[\\s\\S]*?]]>"),
+            nested("</?[A-Za-z][\\w:.-]*(?:\\s+[^\\s>/=]+(?:\\s*=\\s*(?:\"[^\"]*\"|'[^']*'|[^\\s'\">=]+))?)*\\s*/?>", TAG_INSIDE),
+            rule("entity", "&#?[\\da-zA-Z]{1,8};"));
+
+    // ── Languages ─────────────────────────────────────────────────────────────
+
+    private static final String JS_KEYWORDS = """
+            as async await break case catch class const continue debugger default delete do else export extends
+            finally for from function get if implements import in instanceof interface let new null of package
+            private protected public return set static super switch this throw try typeof undefined var void
+            while with yield
+            """;
+
+    private static final String TS_KEYWORDS = JS_KEYWORDS + """
+             abstract any asserts bigint boolean declare enum infer is keyof module namespace never number object
+            readonly string symbol type unique unknown
+            """;
+
+    private static final Rule JSX_TAG = rule("tag", "</?[A-Za-z][\\w.:-]*(?=[\\s/>])|</?>|/>");
+    private static final Rule JSX_ATTR = rule("attr-name", "\\b[A-Za-z][\\w-]*(?==[{\"'])");
+
+    private static final List<Rule> JAVASCRIPT = clike(keywords("keyword", JS_KEYWORDS), TEMPLATE_STRING);
+    private static final List<Rule> TYPESCRIPT = clike(keywords("keyword", TS_KEYWORDS), TEMPLATE_STRING, ANNOTATION);
+    private static final List<Rule> JSX = clike(keywords("keyword", JS_KEYWORDS), TEMPLATE_STRING, JSX_TAG, JSX_ATTR);
+    private static final List<Rule> TSX = clike(keywords("keyword", TS_KEYWORDS), TEMPLATE_STRING, JSX_TAG, JSX_ATTR);
+
+    private static final List<Rule> JAVA = clike(keywords("keyword", """
+            abstract assert boolean break byte case catch char class const continue default do double else enum
+            exports extends final finally float for goto if implements import instanceof int interface long
+            module native new non-sealed null open opens package permits private protected provides public
+            record requires return sealed short static strictfp super switch synchronized this throw throws
+            transient try uses var void volatile while yield
+            """), rule("string", "\"\"\"[\\s\\S]*?(?:\"\"\"|\\z)"), ANNOTATION);
+
+    private static final List<Rule> KOTLIN = clike(keywords("keyword", """
+            abstract actual annotation as break by catch class companion const constructor continue crossinline
+            data do dynamic else enum expect external final finally for fun get if import in infix init inline
+            inner interface internal is lateinit noinline null object open operator out override package private
+            protected public reified return sealed set super suspend tailrec this throw try typealias val var
+            vararg when where while
+            """), rule("string", "\"\"\"[\\s\\S]*?(?:\"\"\"|\\z)"), ANNOTATION);
+
+    private static final List<Rule> DART = clike(keywords("keyword", """
+            abstract as assert async await break case catch class const continue covariant default deferred do
+            dynamic else enum export extends extension external factory final finally for get hide if implements
+            import in interface is late library mixin new null on operator part required rethrow return set show
+            static super switch sync this throw try typedef var void while with yield
+            """), rule("string", "(?:'''|\"\"\")[\\s\\S]*?(?:'''|\"\"\"|\\z)"), ANNOTATION);
+
+    private static final List<Rule> PHP = clike(keywordsIgnoreCase("keyword", """
+            abstract and array as break callable case catch class clone const continue declare default die do
+            echo else elseif empty enddeclare endfor endforeach endif endswitch endwhile eval exit extends final
+            finally fn for foreach function global goto if implements include include_once instanceof insteadof
+            interface isset list match namespace new null or print private protected public readonly require
+            require_once return static switch throw trait try unset use var while xor yield
+            """), HASH_COMMENT, rule("variable", "\\$+[A-Za-z_]\\w*"), rule("delimiter", "<\\?(?:php|=)?|\\?>"));
+
+    private static final String C_KEYWORDS = """
+            auto break case char const continue default do double else enum extern float for goto if inline int
+            long register restrict return short signed sizeof static struct switch typedef union unsigned void
+            volatile while
+            """;
+
+    private static final Rule C_DIRECTIVE = rule("macro property", "^\\s*#\\s*[a-z]+(?:[ \\t]+<[^>\\n]*>)?");
+
+    private static final List<Rule> C = clike(keywords("keyword", C_KEYWORDS), C_DIRECTIVE);
+
+    private static final List<Rule> CPP = clike(keywords("keyword", C_KEYWORDS + """
+             alignas alignof bool catch class constexpr const_cast decltype delete dynamic_cast explicit export
+            final friend mutable namespace new noexcept nullptr operator override private protected public
+            reinterpret_cast static_assert static_cast template this thread_local throw try typeid typename using
+            virtual
+            """), C_DIRECTIVE);
+
+    private static final List<Rule> CSHARP = clike(keywords("keyword", """
+            abstract as async await base bool break byte case catch char checked class const continue decimal
+            default delegate do double else enum event explicit extern finally fixed float for foreach get goto
+            if implicit in init int interface internal is lock long namespace new null object operator out
+            override params private protected public readonly record ref return sbyte sealed set short sizeof
+            stackalloc static string struct switch this throw try typeof uint ulong unchecked unsafe ushort using
+            var virtual void volatile while
+            """), rule("string", "@\"(?:\"\"|[^\"])*\"|\\$\"(?:\\\\.|[^\"\\\\\\n])*\""),
+            rule("attribute", "^\\s*\\[[A-Za-z][\\w.]*(?:\\([^)\\n]*\\))?]"));
+
+    private static final List<Rule> SWIFT = clike(keywords("keyword", """
+            any associatedtype async await break case catch class continue default defer deinit do else enum
+            extension fallthrough fileprivate final for func guard if import in init inout internal is lazy let
+            nil open operator private protocol public repeat rethrows return self Self some static struct
+            subscript super switch throw throws try typealias var where while
+            """), rule("string", "\"\"\"[\\s\\S]*?(?:\"\"\"|\\z)"), ANNOTATION);
+
+    private static final List<Rule> GO = clike(keywords("keyword", """
+            break case chan const continue default defer else fallthrough for func go goto if import interface
+            map package range return select struct switch type var nil
+            """), rule("string", "`[^`]*`"), keywords("builtin", """
+            append bool byte cap close complex copy delete error float32 float64 imag int int8 int16 int32 int64
+            len make new panic print println real recover rune string uint uint8 uint16 uint32 uint64 uintptr
+            """));
+
+    private static final List<Rule> RUST = clike(keywords("keyword", """
+            as async await break const continue crate dyn else enum extern fn for if impl in let loop match mod
+            move mut pub ref return self Self static struct super trait type unsafe use where while
+            """), rule("function", "\\b[a-z_]\\w*!"), rule("attribute", "#!?\\[[^\\]\\n]*]"),
+            rule("char", "'(?:\\\\.|[^'\\\\\\n])'"), rule("lifetime-annotation symbol", "'[A-Za-z_]\\w*"));
+
+    private static final List<Rule> CLIKE = clike(keywords("keyword", """
+            break case catch class continue default do else finally for function if in instanceof new null
+            return switch this throw try while
+            """));
+
+    private static final List<Rule> PYTHON = grammar(
+            HASH_COMMENT,
+            rule("string", "(?i:[rbuf]{0,2})(?:\"\"\"[\\s\\S]*?(?:\"\"\"|\\z)|'''[\\s\\S]*?(?:'''|\\z))"),
+            rule("string", "(?i:[rbuf]{0,2})(?:\"(?:\\\\.|[^\"\\\\\\n])*\"|'(?:\\\\.|[^'\\\\\\n])*')"),
+            rule("decorator", "^\\s*@[\\w.]+"),
+            keywords("keyword", """
+                    and as assert async await break case class continue def del elif else except finally for from
+                    global if import in is lambda match nonlocal not or pass raise return try while with yield
+                    """),
+            keywords("boolean", "True False None"),
+            keywords("builtin", """
+                    abs all any bool dict enumerate filter float input int isinstance len list map max min open
+                    print range repr round set sorted str sum super tuple type zip
+                    """),
+            NUMBER, CLASS_NAME, FUNCTION, OPERATOR, PUNCTUATION);
+
+    private static final List<Rule> BASH = grammar(
+            rule("shebang important", "\\A#!.*"),
+            HASH_COMMENT,
+            DOUBLE_STRING, SINGLE_STRING,
+            rule("variable", "\\$(?:\\{[^}\\n]*}|\\([^)\\n]*\\)|[\\w?#@*!$-]+)"),
+            keywords("keyword", """
+                    if then else elif fi for while until do done case esac in function return exit local export
+                    readonly declare unset shift source alias select
+                    """),
+            rule("function", "(?<![\\w$-])(?:apt|apt-get|awk|cat|cd|chmod|chown|cp|curl|docker|echo|find|git|grep"
+                    + "|kill|ls|mkdir|mv|node|npm|npx|pip|printf|pwd|python3?|rm|sed|sudo|tar|touch|wget|yarn)(?![\\w-])"),
+            NUMBER,
+            rule("operator", "&&|\\|\\||[|&<>;]+"),
+            PUNCTUATION);
+
+    private static final List<Rule> SQL = grammar(
+            rule("comment", "--.*|#.*"), BLOCK_COMMENT,
+            SINGLE_STRING, rule("identifier", "\"(?:\"\"|[^\"])*\"|`[^`]*`"),
+            keywordsIgnoreCase("keyword", """
+                    add all alter and as asc begin between by cascade case check column commit constraint create
+                    database default delete desc distinct drop else end exists foreign from full grant group having
+                    if in index inner insert into is join key left like limit not null offset on or order outer
+                    primary references returning revoke right rollback schema select set table then transaction
+                    truncate union unique update using values view when where with
+                    """),
+            keywordsIgnoreCase("builtin", """
+                    bigint bigserial boolean char date decimal float int integer interval json jsonb numeric real
+                    serial smallint text time timestamp timestamptz uuid varchar
+                    """),
+            keywordsIgnoreCase("boolean", "true false"),
+            FUNCTION, NUMBER,
+            rule("operator", "[-+*/%=!<>|&^~]+|::"),
+            PUNCTUATION);
+
+    private static final List<Rule> JSON = grammar(
+            LINE_COMMENT, BLOCK_COMMENT,
+            rule("property", "\"(?:\\\\.|[^\"\\\\\\n])*\"(?=\\s*:)"),
+            DOUBLE_STRING, NUMBER, BOOLEAN,
+            keywords("null keyword", "null"),
+            rule("punctuation", "[{}\\[\\],:]"));
+
+    private static final List<Rule> CSS = grammar(
+            BLOCK_COMMENT,
+            rule("atrule", "@[\\w-]+"),
+            rule("url", "\\burl\\([^)]*\\)"),
+            DOUBLE_STRING, SINGLE_STRING,
+            rule("selector", "[^{}\\s;][^{};]*?(?=\\s*\\{)"),
+            rule("property", "(?<![\\w-])(?:--)?[A-Za-z][\\w-]*(?=\\s*:)"),
+            rule("important", "!important\\b"),
+            rule("function", "[\\w-]+(?=\\()"),
+            rule("number", "#[\\da-fA-F]{3,8}\\b|-?(?:\\b\\d+(?:\\.\\d+)?|\\B\\.\\d+)(?:%|[a-z]+\\b)?"),
+            rule("punctuation", "[(){};:,]"));
+
+    private static final List<Rule> YAML = grammar(
+            HASH_COMMENT,
+            rule("punctuation", "^---|^\\.\\.\\."),
+            rule("atrule", "(?<![^\\s{,-])[^\\s#:{}\\[\\],'\"-][^#:\\n]*?(?=\\s*:(?:\\s|$))"),
+            DOUBLE_STRING, SINGLE_STRING,
+            rule("important", "[&*][\\w-]+"),
+            keywords("boolean", "true false yes no on off True False"),
+            keywords("null keyword", "null"),
+            NUMBER,
+            rule("punctuation", "[-:{}\\[\\],|>]"));
+
+    private static final List<Rule> DOCKER = grammar(
+            HASH_COMMENT,
+            ruleIgnoreCase("keyword", "^\\s*(?:add|arg|cmd|copy|entrypoint|env|expose|from|healthcheck|label"
+                    + "|maintainer|onbuild|run|shell|stopsignal|user|volume|workdir)\\b|\\bAS\\b"),
+            DOUBLE_STRING, SINGLE_STRING,
+            rule("variable", "\\$(?:\\{[^}\\n]*}|\\w+)"),
+            rule("operator", "\\\\$|&&"),
+            NUMBER,
+            rule("punctuation", "[\\[\\],=]"));
+
+    private static final Map<String, List<Rule>> GRAMMARS = Map.ofEntries(
+            Map.entry("markup", MARKUP), Map.entry("css", CSS),
+            Map.entry("javascript", JAVASCRIPT), Map.entry("jsx", JSX),
+            Map.entry("typescript", TYPESCRIPT), Map.entry("tsx", TSX),
+            Map.entry("java", JAVA), Map.entry("python", PYTHON), Map.entry("sql", SQL),
+            Map.entry("bash", BASH), Map.entry("json", JSON), Map.entry("kotlin", KOTLIN),
+            Map.entry("dart", DART), Map.entry("php", PHP), Map.entry("c", C), Map.entry("cpp", CPP),
+            Map.entry("swift", SWIFT), Map.entry("go", GO), Map.entry("rust", RUST),
+            Map.entry("csharp", CSHARP), Map.entry("yaml", YAML), Map.entry("docker", DOCKER),
+            Map.entry("clike", CLIKE));
+
+    // ── Highlighting ──────────────────────────────────────────────────────────
+
+    /** HTML-escaped {@code code} with Prism token spans for the given Prism language id. */
+    public static String highlight(String code, String prismLanguage) {
+        if (code == null || code.isEmpty()) return "";
+        StringBuilder out = new StringBuilder(code.length() * 2);
+        tokenize(code, GRAMMARS.getOrDefault(prismLanguage, CLIKE), out);
+        return out.toString();
+    }
+
+    // Leftmost match wins, ties go to the rule listed first. Each rule's next
+    // match is cached until the scan passes its start, so every rule scans the
+    // text about once instead of once per token.
+    private static void tokenize(String text, List<Rule> rules, StringBuilder out) {
+        int n = rules.size();
+        Matcher[] matchers = new Matcher[n];
+        int[] starts = new int[n];
+        int[] ends = new int[n];
+        for (int i = 0; i < n; i++) {
+            matchers[i] = rules.get(i).pattern().matcher(text)
+                    .useTransparentBounds(true).useAnchoringBounds(false);
+            starts[i] = -1;
+        }
+
+        int pos = 0;
+        int length = text.length();
+        while (pos < length) {
+            int best = -1;
+            for (int i = 0; i < n; i++) {
+                if (starts[i] != Integer.MAX_VALUE && starts[i] < pos) {
+                    Matcher m = matchers[i];
+                    m.region(pos, length);
+                    if (m.find()) {
+                        starts[i] = m.start();
+                        ends[i] = m.end();
+                    } else {
+                        starts[i] = Integer.MAX_VALUE;
+                    }
+                }
+                if (starts[i] != Integer.MAX_VALUE && (best < 0 || starts[i] < starts[best])) best = i;
+            }
+            if (best < 0 || ends[best] == starts[best]) {
+                int stop = best < 0 ? length : starts[best] + 1;
+                escape(text, pos, stop, out);
+                pos = stop;
+                continue;
+            }
+
+            escape(text, pos, starts[best], out);
+            Rule rule = rules.get(best);
+            String token = text.substring(starts[best], ends[best]);
+            if (rule.inside() != null) tokenize(token, rule.inside(), out);
+            else span(rule.type(), token, out);
+            pos = ends[best];
+        }
+    }
+
+    // One span per line so that no span crosses a line break
+    private static void span(String type, String token, StringBuilder out) {
+        int from = 0;
+        while (from <= token.length()) {
+            int nl = token.indexOf('\n', from);
+            int to = nl < 0 ? token.length() : nl;
+            if (to > from) {
+                out.append("<span class=\"token ").append(type).append("\">");
+                escape(token, from, to, out);
+                out.append("</span>");
+            }
+            if (nl < 0) break;
+            out.append('\n');
+            from = nl + 1;
+        }
+    }
+
+    private static void escape(String text, int from, int to, StringBuilder out) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    // ── Language detection ────────────────────────────────────────────────────
+
+    private static final List<String> PLACEHOLDER_LANGUAGES = Arrays.asList(
+            "", "TXT", "TEXT", "PLAINTEXT", "CODE", "NONE", "NA", "N/A");
+
+    /** True when {@code language} carries no real information ("text", "code", blank …). */
+    public static boolean isPlaceholderLanguage(String language) {
+        String key = language == null ? "" : language.trim().toUpperCase()
+                .replace("-", "").replace("_", "").replace(" ", "");
+        return PLACEHOLDER_LANGUAGES.contains(key);
+    }
+
+    /** Canonical upper-case language label; placeholders are resolved from the code itself. */
+    public static String normalizeLanguage(String lang, String code) {
+        if (isPlaceholderLanguage(lang)) return detectLanguage(code);
+        String raw = lang.trim();
+        String key = raw.toUpperCase()
+                .replace("-", "").replace("_", "").replace(" ", "");
+        return switch (key) {
+            case "JS", "JAVASCRIPT", "NODE", "NODEJS" -> "JAVASCRIPT";
+            case "TS", "TYPESCRIPT"                    -> "TYPESCRIPT";
+            case "JSX", "REACT", "REACTJS",
+                 "NEXT", "NEXTJS"                      -> "JSX";
+            case "TSX"                                 -> "TSX";
+            case "HTML", "HTML5", "XHTML", "XML"       -> "HTML";
+            case "PY", "PYTHON"                        -> "PYTHON";
+            case "SHELL", "BASH", "SH", "ZSH"         -> "BASH";
+            case "C#", "CS", "CSHARP"                 -> "CSHARP";
+            default                                    -> raw.toUpperCase();
+        };
+    }
+
+    /** Best guess from the code's content; JavaScript when nothing stands out. */
+    public static String detectLanguage(String code) {
+        if (code == null || code.isBlank()) return "JAVASCRIPT";
+        String s = code.strip();
+        if (s.startsWith("{") || s.startsWith("["))                                      return "JSON";
+        if (s.contains("import React") || s.contains(" from 'react'")
+                || s.contains("</") || s.contains("<>") || s.contains("className="))    return "JSX";
+        if (s.startsWith("<!DOCTYPE") || s.contains("<html") || s.contains("<div"))     return "HTML";
+        if (s.contains("public class") || s.contains("System.out.println")
+                || s.contains("@SpringBootApplication"))                                 return "JAVA";
+        if (s.contains("def ") || s.contains("import pandas") || s.contains("print(")) return "PYTHON";
+        if (s.contains("SELECT ") || s.contains("INSERT INTO")
+                || s.contains("CREATE TABLE"))                                           return "SQL";
+        if (s.startsWith("#!/bin/bash") || s.startsWith("#!/usr/bin/env bash")
+                || s.contains("echo "))                                                  return "BASH";
+        return "JAVASCRIPT";
+    }
+}
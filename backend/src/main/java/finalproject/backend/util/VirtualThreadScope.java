@@ -0,0 +1,83 @@
+package finalproject.backend.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Fork/join scope over virtual threads, shaped like JDK 21's (preview)
+ * {@code StructuredTaskScope.ShutdownOnFailure}: {@link #fork} subtasks,
+ * {@link #join} once, then read the results.
+ *
+ * - The first failing subtask cancels all the others and is rethrown by
+ *   {@link #join} (unchecked exceptions as-is, checked ones wrapped).
+ * - At most {@code parallelism} subtasks run at a time — subtasks usually hold
+ *   a pooled JDBC connection and the pool is small.
+ * - {@link #close} interrupts whatever is still running; use try-with-resources.
+ */
+public final class VirtualThreadScope implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // Subtasks are reported in completion order — join() sees a failure as soon as it happens
+    private final CompletionService<Object> completions = new ExecutorCompletionService<>(executor);
+    private final Semaphore permits;
+    private final List<Future<?>> forked = new ArrayList<>();
+    private boolean joined;
+
+    public VirtualThreadScope(int parallelism) {
+        this.permits = new Semaphore(Math.max(1, parallelism));
+    }
+
+    /** Starts a subtask; the returned supplier may only be read after {@link #join}. */
+    public <T> Supplier<T> fork(Callable<T> task) {
+        Future<Object> future = completions.submit(() -> {
+            permits.acquire();
+            try {
+                return task.call();
+            } finally {
+                permits.release();
+            }
+        });
+        forked.add(future);
+        return () -> {
+            if (!joined) throw new IllegalStateException("join() has not been called");
+            @SuppressWarnings("unchecked")
+            T result = (T) future.resultNow();
+            return result;
+        };
+    }
+
+    /** Waits for every subtask; on the first failure cancels the rest and rethrows it. */
+    public void join() throws InterruptedException {
+        try {
+            for (int remaining = forked.size(); remaining > 0; remaining--) {
+                completions.take().get();
+            }
+            joined = true;
+        } catch (InterruptedException e) {
+            forked.forEach(f -> f.cancel(true));
+            throw e;
+        } catch (ExecutionException | CancellationException e) {
+            forked.forEach(f -> f.cancel(true));
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            if (cause instanceof Error error) throw error;
+            throw new IllegalStateException(cause.getMessage(), cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        executor.close();
+    }
+}
@@ -0,0 +1,98 @@
+package finalproject.backend.service;
+
+import finalproject.backend.modal.Chapter;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.destination.PDPageDestination;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoursePdfGeneratorServiceTest {
+
+    @TempDir
+    Path dir;
+
+    /** A PDF of {@code pages} blank pages, the first one tagged with {@code width} to recognise it later. */
+    private Path pdf(String name, int pages, float width) throws IOException {
+        Path file = dir.resolve(name);
+        try (PDDocument doc = new PDDocument()) {
+            for (int i = 0; i < pages; i++) {
+                doc.addPage(new PDPage(new PDRectangle(i == 0 ? width : 100, 100)));
+            }
+            doc.save(file.toFile(), CompressParameters.NO_COMPRESSION);
+        }
+        return file;
+    }
+
+    private static Chapter chapter(String title) {
+        Chapter chapter = new Chapter();
+        chapter.setTitle(title);
+        return chapter;
+    }
+
+    @Test
+    void countPagesCountsPageObjectsOnly() throws IOException {
+        Path file = dir.resolve("raw.pdf");
+        Files.writeString(file, """
+                %PDF-1.4
+                1 0 obj << /Type /Pages /Kids [2 0 R 3 0 R] /Count 2 >> endobj
+                2 0 obj << /Type /Page /Parent 1 0 R >> endobj
+                3 0 obj <</Type/Page/Parent 1 0 R>> endobj
+                4 0 obj << /Type
+                /Page >> endobj
+                5 0 obj << /Type /Catalog /Pages 1 0 R >> endobj
+                6 0 obj << /Type /Page""", StandardCharsets.ISO_8859_1);
+
+        assertThat(CoursePdfGeneratorService.countPages(file)).isEqualTo(4);
+    }
+
+    @Test
+    void countPagesOfAnEmptyFileIsZero() throws IOException {
+        Path file = Files.createFile(dir.resolve("empty.pdf"));
+        assertThat(CoursePdfGeneratorService.countPages(file)).isZero();
+    }
+
+    @Test
+    void mergeKeepsPartOrderAndBookmarksEveryChapter() throws IOException {
+        List<Path> parts = List.of(
+                pdf("front.pdf", 2, 201),
+                pdf("ch1.pdf", 3, 202),
+                pdf("ch2.pdf", 1, 203),
+                pdf("back.pdf", 1, 204));
+        Path target = dir.resolve("course.pdf");
+
+        CoursePdfGeneratorService.merge(parts, List.of(chapter("Basics"), chapter("Advanced")), target);
+
+        // Saved uncompressed — the streaming page count still works on the merged file
+        assertThat(CoursePdfGeneratorService.countPages(target)).isEqualTo(7);
+        try (PDDocument merged = Loader.loadPDF(target.toFile())) {
+            assertThat(merged.getNumberOfPages()).isEqualTo(7);
+            assertThat(merged.getPage(0).getMediaBox().getWidth()).isEqualTo(201);
+            assertThat(merged.getPage(2).getMediaBox().getWidth()).isEqualTo(202);
+            assertThat(merged.getPage(5).getMediaBox().getWidth()).isEqualTo(203);
+            assertThat(merged.getPage(6).getMediaBox().getWidth()).isEqualTo(204);
+
+            List<String> titles = new ArrayList<>();
+            List<Integer> firstPages = new ArrayList<>();
+            for (PDOutlineItem item : merged.getDocumentCatalog().getDocumentOutline().children()) {
+                titles.add(item.getTitle());
+                firstPages.add(((PDPageDestination) item.getDestination()).retrievePageNumber());
+            }
+            assertThat(titles).containsExactly("Chapter 1 · Basics", "Chapter 2 · Advanced");
+            assertThat(firstPages).containsExactly(2, 5);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package finalproject.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CourseViewCounterServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private CourseViewCounterService counter;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        counter = new CourseViewCounterService(jdbcTemplate, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void viewsRecordedDuringFlushAreKept() {
+        counter.recordView(1L);
+        counter.recordView(1L);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            // Still pending while the batch runs — and a concurrent view arrives
+            assertThat(counter.pendingViews(1L)).isEqualTo(2);
+            counter.recordView(1L);
+            return new int[]{1};
+        });
+
+        counter.flush();
+
+        assertThat(counter.pendingViews(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void currentViewsStayStableAcrossFlushes() {
+        long baseline = counter.persistedBaseline(3L, 100L);
+        counter.recordView(3L);
+        counter.recordView(3L);
+        assertThat(counter.currentViews(3L, baseline)).isEqualTo(102);
+
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+        counter.flush();
+
+        // Still 102 from the cached baseline, and a fresh baseline agrees with the new persisted count
+        assertThat(counter.currentViews(3L, baseline)).isEqualTo(102);
+        assertThat(counter.currentViews(3L, counter.persistedBaseline(3L, 102L))).isEqualTo(102);
+    }
+
+    @Test
+    void flushDuringReadIsReportedWithoutWaiting() {
+        long mark = counter.flushMark();
+        assertThat(counter.flushOverlapped(mark)).isFalse();
+
+        counter.recordView(4L);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            // Mid-flush: a read started now can't tell whether it sees the update
+            assertThat(counter.flushOverlapped(counter.flushMark())).isTrue();
+            return new int[]{1};
+        });
+        counter.flush();
+
+        assertThat(counter.flushOverlapped(mark)).isTrue();
+        assertThat(counter.flushOverlapped(counter.flushMark())).isFalse();
+    }
+
+    @Test
+    void failedFlushKeepsViewsPending() {
+        counter.recordView(7L);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        counter.flush();
+
+        assertThat(counter.pendingViews(7L)).isEqualTo(1);
+    }
+
+    @Test
+    void nothingPendingSkipsTheDatabase() {
+        counter.flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        assertThat(counter.pendingViews(1L)).isZero();
+        assertThat(counter.pendingViews(null)).isZero();
+    }
+
+    @Test
+    void batchCarriesEachCourseDelta() {
+        counter.recordView(1L);
+        counter.recordView(2L);
+        counter.recordView(2L);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> batch = invocation.getArgument(1);
+            assertThat(batch).extracting(row -> row[1] + "=" + row[0]).containsExactlyInAnyOrder("1=1", "2=2");
+            return new int[]{1, 1};
+        });
+
+        counter.flush();
+
+        assertThat(counter.pendingViews(1L)).isZero();
+        assertThat(counter.pendingViews(2L)).isZero();
+    }
+}
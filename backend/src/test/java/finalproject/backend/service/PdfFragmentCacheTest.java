@@ -0,0 +1,166 @@
+package finalproject.backend.service;
+
+import finalproject.backend.modal.Chapter;
+import finalproject.backend.modal.Lesson;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PdfFragmentCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private static Chapter chapter(String title, String lessonContent) {
+        Lesson lesson = new Lesson();
+        lesson.setTitle("Lesson");
+        lesson.setContent(lessonContent);
+        Chapter chapter = new Chapter();
+        chapter.setTitle(title);
+        chapter.getLessons().add(lesson);
+        return chapter;
+    }
+
+    private static Consumer<Path> writing(String content, AtomicInteger renders) {
+        return target -> {
+            renders.incrementAndGet();
+            try {
+                Files.writeString(target, content);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    @Test
+    void unchangedChapterIsRenderedOnce() throws IOException {
+        PdfFragmentCache cache = new PdfFragmentCache(dir.toString(), 1 << 20, 3600);
+        AtomicInteger renders = new AtomicInteger();
+
+        Path first;
+        Path second;
+        try (PdfFragmentCache.Session session = cache.open()) {
+            first = session.chapter(chapter("Intro", "text"), 1, writing("pdf-1", renders));
+        }
+        try (PdfFragmentCache.Session session = cache.open()) {
+            second = session.chapter(chapter("Intro", "text"), 1, writing("pdf-2", renders));
+        }
+
+        assertThat(second).isEqualTo(first);
+        assertThat(Files.readString(second)).isEqualTo("pdf-1");
+        assertThat(renders).hasValue(1);
+    }
+
+    @Test
+    void editedLessonOrNewPositionIsRenderedAgain() {
+        PdfFragmentCache cache = new PdfFragmentCache(dir.toString(), 1 << 20, 3600);
+        AtomicInteger renders = new AtomicInteger();
+
+        try (PdfFragmentCache.Session session = cache.open()) {
+            Path original = session.chapter(chapter("Intro", "text"), 1, writing("a", renders));
+            Path edited   = session.chapter(chapter("Intro", "text, edited"), 1, writing("b", renders));
+            Path moved    = session.chapter(chapter("Intro", "text"), 2, writing("c", renders));
+
+            assertThat(List.of(original, edited, moved)).doesNotHaveDuplicates();
+        }
+        assertThat(renders).hasValue(3);
+    }
+
+    @Test
+    void concurrentMissesRenderOnce() throws Exception {
+        PdfFragmentCache cache = new PdfFragmentCache(dir.toString(), 1 << 20, 3600);
+        AtomicInteger renders = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Consumer<Path> slow = target -> {
+            renders.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+                Files.writeString(target, "pdf");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        List<Future<Path>> results = new ArrayList<>();
+        try (PdfFragmentCache.Session session = cache.open();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> session.chapter(chapter("Intro", "text"), 1, slow)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<Path> result : results) assertThat(Files.readString(result.get())).isEqualTo("pdf");
+        }
+        assertThat(renders).hasValue(1);
+    }
+
+    @Test
+    void failedRenderLeavesNothingBehindAndIsRetried() throws IOException {
+        PdfFragmentCache cache = new PdfFragmentCache(dir.toString(), 1 << 20, 3600);
+        AtomicInteger renders = new AtomicInteger();
+
+        try (PdfFragmentCache.Session session = cache.open()) {
+            assertThatThrownBy(() -> session.chapter(chapter("Intro", "text"), 1, target -> {
+                throw new IllegalStateException("renderer down");
+            })).hasMessage("renderer down");
+
+            try (var files = Files.list(dir)) {
+                assertThat(files).isEmpty();
+            }
+            session.chapter(chapter("Intro", "text"), 1, writing("pdf", renders));
+        }
+        assertThat(renders).hasValue(1);
+    }
+
+    @Test
+    void leastRecentlyUsedFilesGoOnceTheBudgetIsExceeded() throws IOException {
+        PdfFragmentCache cache = new PdfFragmentCache(dir.toString(), 10, 3600);
+        AtomicInteger renders = new AtomicInteger();
+
+        Path older;
+        Path newer;
+        try (PdfFragmentCache.Session session = cache.open()) {
+            older = session.chapter(chapter("A", "a"), 1, writing("123456", renders));
+            Files.setLastModifiedTime(older, FileTime.from(Instant.now().minusSeconds(60)));
+            newer = session.chapter(chapter("B", "b"), 2, writing("abcdef", renders));
+            // Nothing is evicted while a session may still read the files
+            assertThat(older).exists();
+        }
+
+        assertThat(newer).exists();
+        assertThat(older).doesNotExist();
+    }
+
+    @Test
+    void expiredFilesGo() throws IOException {
+        PdfFragmentCache cache = new PdfFragmentCache(dir.toString(), 1 << 20, 60);
+
+        Path stale;
+        try (PdfFragmentCache.Session session = cache.open()) {
+            stale = session.chapter(chapter("A", "a"), 1, writing("pdf", new AtomicInteger()));
+            Files.setLastModifiedTime(stale, FileTime.from(Instant.now().minusSeconds(120)));
+        }
+
+        assertThat(stale).doesNotExist();
+    }
+}
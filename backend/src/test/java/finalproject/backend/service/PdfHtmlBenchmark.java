@@ -0,0 +1,138 @@
+package finalproject.backend.service;
+
+import finalproject.backend.config.DataInitializer;
+import finalproject.backend.modal.Category;
+import finalproject.backend.modal.Chapter;
+import finalproject.backend.modal.CodeSnippet;
+import finalproject.backend.modal.Course;
+import finalproject.backend.modal.Lesson;
+import finalproject.backend.modal.User;
+import finalproject.backend.repository.CategoryRepository;
+import finalproject.backend.repository.ChapterRepository;
+import finalproject.backend.repository.CodeSnippetRepository;
+import finalproject.backend.repository.CourseRepository;
+import finalproject.backend.repository.LessonRepository;
+import finalproject.backend.repository.RoleRepository;
+import finalproject.backend.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.mockito.stubbing.Answer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Time and allocation of building the PDF HTML for one course — everything
+ * {@link CoursePdfGeneratorService#generate} does before Chromium gets the page.
+ *
+ * The course is the one {@link DataInitializer} seeds, built without a database:
+ * the repositories are mocks whose {@code save} hands the entity back, so the
+ * seeder's own calls produce the course → chapters → lessons → snippets graph.
+ *
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec@jmh}; the profile passes
+ * {@code -prof gc}, whose {@code gc.alloc.rate.norm} is the allocation per render.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class PdfHtmlBenchmark {
+
+    /** The seeder method of the course — seedReact is the largest. */
+    @Param({"seedReact", "seedSpringBoot"})
+    public String seed;
+
+    private CoursePdfGeneratorService generator;
+    private Course course;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        generator = new CoursePdfGeneratorService(null, null);
+        course = seededCourse(seed);
+    }
+
+    @Benchmark
+    public List<String> render() {
+        return generator.htmlDocuments(course);
+    }
+
+    static Course seededCourse(String seed) throws ReflectiveOperationException {
+        // Ids are handed out on the first save, as the database would
+        Map<Object, Long> saved = new IdentityHashMap<>();
+        Answer<Object> repository = invocation -> {
+            if (!invocation.getMethod().getName().equals("save"))
+                return RETURNS_DEFAULTS.answer(invocation);
+            Object entity = invocation.getArgument(0);
+            if (saved.containsKey(entity)) return entity;
+            long id = saved.size() + 1;
+            saved.put(entity, id);
+            switch (entity) {
+                case Course c -> c.setId(id);
+                case Chapter ch -> ch.setId(id);
+                case Lesson l -> l.setId(id);
+                case CodeSnippet s -> s.setId(id);
+                default -> { }
+            }
+            return entity;
+        };
+
+        DataInitializer initializer = new DataInitializer(
+                mock(RoleRepository.class, repository),
+                mock(UserRepository.class, repository),
+                mock(CategoryRepository.class, repository),
+                mock(CourseRepository.class, repository),
+                mock(ChapterRepository.class, repository),
+                mock(LessonRepository.class, repository),
+                mock(CodeSnippetRepository.class, repository),
+                mock(PasswordEncoder.class),
+                mock(EntityManager.class));
+        Method seeder = DataInitializer.class.getDeclaredMethod(seed, User.class, int.class, Category[].class);
+        seeder.setAccessible(true);
+        seeder.invoke(initializer, User.builder().username("admin").build(), 1, new Category[0]);
+
+        // Wire the graph the way the mapped collections would load it
+        Course course = null;
+        List<Lesson> lessons = new ArrayList<>();
+        for (Object entity : saved.keySet()) {
+            switch (entity) {
+                case Course c -> course = c;
+                case Chapter ch -> ch.getCourse().getChapters().add(ch);
+                case Lesson l -> {
+                    if (l.getChapter().getLessons() == null) l.getChapter().setLessons(new ArrayList<>());
+                    l.getChapter().getLessons().add(l);
+                    lessons.add(l);
+                }
+                case CodeSnippet s -> s.getLesson().getCodeSnippets().add(s);
+                default -> { }
+            }
+        }
+        if (course == null) throw new IllegalStateException(seed + " saved no course");
+
+        course.getChapters().sort(Comparator.comparing(Chapter::getOrderIndex));
+        for (Chapter ch : course.getChapters()) ch.getLessons().sort(Comparator.comparing(Lesson::getOrderIndex));
+        for (Lesson l : lessons) l.getCodeSnippets().sort(Comparator.comparing(CodeSnippet::getOrderIndex));
+        course.setTotalLessons(lessons.size());
+        return course;
+    }
+}
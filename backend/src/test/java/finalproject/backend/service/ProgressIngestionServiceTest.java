@@ -0,0 +1,97 @@
+package finalproject.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProgressIngestionServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ProgressIngestionService ingestion;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        ingestion = new ProgressIngestionService(jdbcTemplate, mock(UserCourseProgressService.class),
+                mock(CompactProgressService.class), mock(PlatformTransactionManager.class), 3);
+    }
+
+    @Test
+    void heartbeatsCoalescePerLesson() {
+        ingestion.record(1, 10, 20, 5);
+        ingestion.record(1, 10, 40, 7);
+        ingestion.record(1, 11, 90, 1);
+
+        ProgressIngestionService.Pending pending = ingestion.peek(1, 10);
+        assertThat(pending.scrollPct()).isEqualTo(40);
+        assertThat(pending.readTimeSeconds()).isEqualTo(12);
+        assertThat(ingestion.peekUser(1)).containsOnlyKeys(10L, 11L);
+        assertThat(ingestion.pendingCount()).isEqualTo(2);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), anyInt(), any());
+    }
+
+    @Test
+    void takeRemovesTheEntry() {
+        ingestion.record(1, 10, 20, 5);
+
+        assertThat(ingestion.take(1, 10).readTimeSeconds()).isEqualTo(5);
+        assertThat(ingestion.peek(1, 10)).isNull();
+        assertThat(ingestion.pendingCount()).isZero();
+    }
+
+    @Test
+    void fullBufferFlushesOffTheRecordingThread() throws Exception {
+        Thread caller = Thread.currentThread();
+        CompletableFuture<Thread> flushThread = new CompletableFuture<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any())).thenAnswer(invocation -> {
+            flushThread.complete(Thread.currentThread());
+            return new int[][]{};
+        });
+
+        ingestion.record(1, 10, 10, 1);
+        ingestion.record(1, 11, 10, 1);
+        ingestion.record(2, 10, 10, 1);   // max-pending reached
+
+        assertThat(flushThread.get(5, TimeUnit.SECONDS)).isNotSameAs(caller);
+    }
+
+    @Test
+    void fullBufferDropsNewLessonsWhileTheDatabaseIsDown() {
+        ingestion.record(1, 10, 10, 1);
+        boolean[] accepted = new boolean[5];
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any())).thenAnswer(invocation -> {
+            // Recorded while the failing flush holds the lock
+            accepted[0] = ingestion.record(2, 10, 10, 1);
+            accepted[1] = ingestion.record(2, 11, 10, 1);
+            accepted[2] = ingestion.record(2, 12, 10, 1);   // max-pending reached
+            accepted[3] = ingestion.record(2, 13, 10, 1);
+            accepted[4] = ingestion.record(2, 10, 30, 1);   // already buffered — still coalesced
+            throw new DataAccessResourceFailureException("down");
+        });
+
+        ingestion.flush();
+
+        assertThat(accepted).containsExactly(true, true, true, false, true);
+        assertThat(ingestion.peek(2, 10).scrollPct()).isEqualTo(30);
+        assertThat(ingestion.peek(2, 13)).isNull();
+        // The failed entry is back; nothing new gets in until a flush drains the buffer
+        assertThat(ingestion.peek(1, 10)).isNotNull();
+        assertThat(ingestion.pendingCount()).isEqualTo(4);
+        assertThat(ingestion.record(3, 10, 10, 1)).isFalse();
+    }
+}
@@ -0,0 +1,52 @@
+package finalproject.backend.service.impl;
+
+import finalproject.backend.exception.CustomMessageException;
+import finalproject.backend.modal.Course;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CourseCursorTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2026, 3, 14, 9, 26, 53, 589_000_000);
+
+    @Test
+    void cursorRoundTripsTheSortKeyOfTheLastRow() {
+        Course last = Course.builder().id(42L).orderIndex(7).createdAt(CREATED).build();
+
+        String cursor = CourseServiceImpl.encodeCursor(last);
+
+        assertThat(cursor).doesNotContain("=", "+", "/");
+        assertThat(CourseServiceImpl.decodeCursor(cursor))
+                .isEqualTo(new CourseServiceImpl.CourseCursor(7, CREATED, 42L));
+    }
+
+    @Test
+    void missingOrderIndexEncodesAsZero() {
+        Course last = Course.builder().id(1L).orderIndex(null).createdAt(CREATED).build();
+
+        assertThat(CourseServiceImpl.decodeCursor(CourseServiceImpl.encodeCursor(last)).orderIndex()).isZero();
+    }
+
+    @Test
+    void noCursorMeansTheFirstPage() {
+        assertThat(CourseServiceImpl.decodeCursor(null)).isNull();
+        assertThat(CourseServiceImpl.decodeCursor("  ")).isNull();
+    }
+
+    @Test
+    void malformedCursorsAreBadRequests() {
+        String wrongFields = Base64.getUrlEncoder().encodeToString("7|yesterday|42".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : new String[]{"%%%", wrongFields, Base64.getUrlEncoder().encodeToString("7".getBytes())}) {
+            assertThatThrownBy(() -> CourseServiceImpl.decodeCursor(cursor))
+                    .isInstanceOf(CustomMessageException.class)
+                    .hasFieldOrPropertyWithValue("code", "400");
+        }
+    }
+}
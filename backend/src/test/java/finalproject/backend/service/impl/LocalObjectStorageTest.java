@@ -0,0 +1,84 @@
+package finalproject.backend.service.impl;
+
+import finalproject.backend.exception.FileStorageException;
+import finalproject.backend.service.ObjectStorage.ContentSource;
+import finalproject.backend.service.ObjectStorage.ObjectMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalObjectStorageTest {
+
+    private static final ObjectMetadata TEXT = new ObjectMetadata("text/plain", "no-cache", null);
+    private static final byte[] HELLO = "hello".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path dir;
+
+    private Path root;
+    private LocalObjectStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        root = dir.resolve("objects");
+        storage = new LocalObjectStorage(root, "http://localhost:8080/local-storage/");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"../outside.txt", "images/../../outside.txt", "/etc/passwd", "", " ", ".",
+            "images/..", ".meta", ".meta/images/a.png.properties"})
+    void keysThatLeaveTheRootOrHitMetadataAreRejected(String key) {
+        assertThatThrownBy(() -> storage.put(key, ContentSource.of(HELLO), HELLO.length, TEXT))
+                .isInstanceOf(FileStorageException.class);
+        assertThatThrownBy(() -> storage.find(key)).isInstanceOf(FileStorageException.class);
+        assertThatThrownBy(() -> storage.delete(key)).isInstanceOf(FileStorageException.class);
+        assertThat(dir.resolve("outside.txt")).doesNotExist();
+    }
+
+    @Test
+    void dotSegmentsThatStayInsideTheRootAreNormalised() {
+        storage.put("images/tmp/../a.txt", ContentSource.of(HELLO), HELLO.length, TEXT);
+
+        assertThat(root.resolve("images/a.txt")).hasBinaryContent(HELLO);
+        assertThat(storage.find("images/a.txt")).isPresent();
+    }
+
+    @Test
+    void storedObjectComesBackWithItsMetadata() throws IOException {
+        storage.put("images/a.txt", ContentSource.of(HELLO), HELLO.length, TEXT);
+
+        LocalObjectStorage.StoredFile stored = storage.find("images/a.txt").orElseThrow();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        storage.transferTo("images/a.txt", Channels.newChannel(out));
+
+        assertThat(stored.size()).isEqualTo(HELLO.length);
+        assertThat(stored.metadata()).isEqualTo(TEXT);
+        assertThat(out.toByteArray()).isEqualTo(HELLO);
+        assertThat(storage.publicBaseUrl()).isEqualTo("http://localhost:8080/local-storage");
+    }
+
+    @Test
+    void composeConcatenatesPartsAndDeleteRemovesObjectAndMetadata() throws IOException {
+        Path first = Files.writeString(dir.resolve("00001"), "hel");
+        Path second = Files.writeString(dir.resolve("00002"), "lo");
+
+        storage.compose("pdf/a.txt", java.util.List.of(first, second), TEXT);
+        assertThat(root.resolve("pdf/a.txt")).hasBinaryContent(HELLO);
+
+        storage.delete("pdf/a.txt");
+        assertThat(storage.find("pdf/a.txt")).isEmpty();
+        assertThat(root.resolve(".meta/pdf/a.txt.properties")).doesNotExist();
+    }
+}
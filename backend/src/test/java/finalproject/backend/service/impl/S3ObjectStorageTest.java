@@ -0,0 +1,140 @@
+package finalproject.backend.service.impl;
+
+import finalproject.backend.config.R2Config;
+import finalproject.backend.config.R2Properties;
+import finalproject.backend.config.S3StubServer;
+import finalproject.backend.service.ObjectStorage.ContentSource;
+import finalproject.backend.service.ObjectStorage.ObjectMetadata;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** The real SDK path of S3ObjectStorage against the in-process S3StubServer. */
+class S3ObjectStorageTest {
+
+    private static final String BUCKET = "codegrowthkh";
+    private static final ObjectMetadata PDF = new ObjectMetadata(
+            "application/pdf", "public, max-age=31536000, immutable", "inline; filename=\"course.pdf\"");
+
+    @TempDir
+    Path dir;
+
+    private S3StubServer stub;
+    private S3Client s3Client;
+    private S3ObjectStorage storage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        stub = new S3StubServer(port, dir.resolve("stub"));
+        stub.start();
+
+        R2Properties properties = new R2Properties();
+        properties.setEndpoint("http://localhost:" + port);
+        properties.setAccessKeyId("test");
+        properties.setSecretAccessKey("test");
+        properties.setBucketName(BUCKET);
+        properties.setPublicUrl("https://cdn.example.test/");
+        properties.setMultipartThresholdBytes(1024 * 1024);
+        properties.setMultipartPartSizeBytes(1);   // raised to the 5 MB S3 minimum
+        s3Client = new R2Config(properties).s3Client();
+        storage = new S3ObjectStorage(s3Client, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3Client.close();
+        stub.stop();
+    }
+
+    private static byte[] bytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private ResponseBytes<GetObjectResponse> get(String key) {
+        return s3Client.getObjectAsBytes(GetObjectRequest.builder().bucket(BUCKET).key(key).build());
+    }
+
+    @Test
+    void smallObjectGoesUpInOnePutWithItsMetadata() {
+        byte[] content = bytes(64 * 1024);
+
+        storage.put("course-pdfs/small.pdf", ContentSource.of(content), content.length, PDF);
+
+        ResponseBytes<GetObjectResponse> stored = get("course-pdfs/small.pdf");
+        assertThat(stored.asByteArray()).isEqualTo(content);
+        assertThat(stored.response().contentType()).isEqualTo(PDF.contentType());
+        assertThat(stored.response().cacheControl()).isEqualTo(PDF.cacheControl());
+        assertThat(stored.response().contentDisposition()).isEqualTo(PDF.contentDisposition());
+    }
+
+    @Test
+    void largeFileGoesUpAsMultipartAndIsReassembledInOrder() throws IOException {
+        // 5 MB + 5 MB + 1 MB parts
+        byte[] content = bytes(11 * 1024 * 1024);
+        Path file = Files.write(dir.resolve("large.pdf"), content);
+
+        storage.put("course-pdfs/large.pdf", file, PDF);
+
+        HeadObjectResponse head = s3Client.headObject(b -> b.bucket(BUCKET).key("course-pdfs/large.pdf"));
+        assertThat(head.contentLength()).isEqualTo(content.length);
+        assertThat(head.contentType()).isEqualTo(PDF.contentType());
+        assertThat(head.contentDisposition()).isEqualTo(PDF.contentDisposition());
+        assertThat(get("course-pdfs/large.pdf").asByteArray()).isEqualTo(content);
+        // Completed uploads leave no parts behind
+        try (Stream<Path> leftovers = Files.list(dir.resolve("stub/multipart"))) {
+            assertThat(leftovers.filter(Files::isDirectory)).isEmpty();
+        }
+    }
+
+    @Test
+    void putReplacesAnExistingObject() {
+        storage.put("images/a.png", ContentSource.of(bytes(10)), 10, PDF);
+        byte[] second = bytes(20);
+
+        storage.put("images/a.png", ContentSource.of(second), second.length,
+                new ObjectMetadata("image/png", null, null));
+
+        ResponseBytes<GetObjectResponse> stored = get("images/a.png");
+        assertThat(stored.asByteArray()).isEqualTo(second);
+        assertThat(stored.response().contentType()).isEqualTo("image/png");
+        assertThat(stored.response().contentDisposition()).isNull();
+    }
+
+    @Test
+    void deleteRemovesTheObjectAndIgnoresMissingKeys() {
+        storage.put("images/gone.png", ContentSource.of(bytes(10)), 10, PDF);
+
+        storage.delete("images/gone.png");
+        storage.delete("images/never-there.png");
+
+        assertThatThrownBy(() -> get("images/gone.png")).isInstanceOf(NoSuchKeyException.class);
+    }
+
+    @Test
+    void publicBaseUrlHasNoTrailingSlash() {
+        assertThat(storage.publicBaseUrl()).isEqualTo("https://cdn.example.test");
+    }
+}
@@ -0,0 +1,82 @@
+package finalproject.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageResizerTest {
+
+    private static BufferedImage image(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) image.setRGB(x, y, x < width / 2 ? Color.RED.getRGB() : Color.BLUE.getRGB());
+        }
+        return image;
+    }
+
+    private static byte[] png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void decodeSubsamplesLargeSourcesButKeepsTwiceTheTarget() throws IOException {
+        byte[] source = png(image(1600, 800, BufferedImage.TYPE_INT_RGB));
+
+        BufferedImage decoded = ImageResizer.decode(new ByteArrayInputStream(source), 200, 100);
+
+        // 1600 / (2 * 200) = 4
+        assertThat(decoded.getWidth()).isEqualTo(400);
+        assertThat(decoded.getHeight()).isEqualTo(200);
+    }
+
+    @Test
+    void decodeReturnsNullForUnknownFormats() throws IOException {
+        assertThat(ImageResizer.decode(new ByteArrayInputStream("not an image".getBytes()), 10, 10)).isNull();
+    }
+
+    @Test
+    void fitWidthKeepsTheAspectRatioAndNeverUpscales() {
+        BufferedImage source = image(1000, 500, BufferedImage.TYPE_INT_RGB);
+
+        BufferedImage scaled = ImageResizer.fitWidth(source, 300);
+
+        assertThat(scaled.getWidth()).isEqualTo(300);
+        assertThat(scaled.getHeight()).isEqualTo(150);
+        assertThat(ImageResizer.fitWidth(source, 1000)).isNull();
+    }
+
+    @Test
+    void cropSquareTakesTheCenter() {
+        // Left half red, right half blue — the centered square straddles both
+        BufferedImage square = ImageResizer.cropSquare(image(400, 200, BufferedImage.TYPE_INT_RGB), 100);
+
+        assertThat(square.getWidth()).isEqualTo(100);
+        assertThat(square.getHeight()).isEqualTo(100);
+        assertThat(new Color(square.getRGB(10, 50))).isEqualTo(Color.RED);
+        assertThat(new Color(square.getRGB(90, 50))).isEqualTo(Color.BLUE);
+        assertThat(ImageResizer.cropSquare(image(80, 200, BufferedImage.TYPE_INT_RGB), 100)).isNull();
+    }
+
+    @Test
+    void encodeWritesJpegForOpaqueAndPngForAlphaImages() throws IOException {
+        ImageResizer.Encoded opaque = ImageResizer.encode(image(64, 32, BufferedImage.TYPE_INT_RGB));
+        ImageResizer.Encoded alpha = ImageResizer.encode(image(64, 32, BufferedImage.TYPE_INT_ARGB));
+
+        assertThat(opaque.contentType()).isEqualTo("image/jpeg");
+        assertThat(opaque.extension()).isEqualTo(".jpg");
+        assertThat(alpha.contentType()).isEqualTo("image/png");
+        assertThat(alpha.extension()).isEqualTo(".png");
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(opaque.bytes()));
+        assertThat(decoded.getWidth()).isEqualTo(64);
+        assertThat(decoded.getHeight()).isEqualTo(32);
+    }
+}
@@ -0,0 +1,44 @@
+package finalproject.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RangeInputStreamTest {
+
+    private static final byte[] DATA = "0123456789".getBytes();
+
+    @Test
+    void stopsAfterTheRangeAndLeavesTheRestUnread() throws IOException {
+        InputStream source = new ByteArrayInputStream(DATA);
+
+        assertThat(new RangeInputStream(source, 4).readAllBytes()).isEqualTo("0123".getBytes());
+        assertThat(source.readAllBytes()).isEqualTo("456789".getBytes());
+    }
+
+    @Test
+    void singleByteReadsAndSkipAreBoundedToo() throws IOException {
+        InputStream range = new RangeInputStream(new ByteArrayInputStream(DATA), 3);
+
+        assertThat(range.read()).isEqualTo('0');
+        assertThat(range.available()).isEqualTo(2);
+        assertThat(range.skip(1)).isEqualTo(1);
+        assertThat(range.read()).isEqualTo('2');
+        assertThat(range.read()).isEqualTo(-1);
+        assertThat(range.skip(10)).isZero();
+        assertThat(range.read(new byte[4], 0, 4)).isEqualTo(-1);
+        assertThat(range.available()).isZero();
+    }
+
+    @Test
+    void shorterSourceEndsEarly() throws IOException {
+        InputStream range = new RangeInputStream(new ByteArrayInputStream(DATA), 100);
+
+        assertThat(range.readAllBytes()).isEqualTo(DATA);
+        assertThat(range.markSupported()).isFalse();
+    }
+}
@@ -0,0 +1,104 @@
+package finalproject.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchTextUtilTest {
+
+    // ភាសា — ភ ា ស ា
+    private static final String KHMER_WORD = "ភាសា";
+
+    @Test
+    void khmerRunsBecomeOverlappingBigrams() {
+        assertThat(SearchTextUtil.toIndexText(KHMER_WORD))
+                .isEqualTo("kh179717b6 kh17b6179f kh179f17b6");
+    }
+
+    @Test
+    void mixedTextSplitsIntoKhmerRunsAndLowerCasedWords() {
+        List<SearchTextUtil.Term> terms = SearchTextUtil.terms("Java" + KHMER_WORD + " <b>Spring</b>");
+
+        assertThat(terms).containsExactly(
+                new SearchTextUtil.Term("java", false),
+                new SearchTextUtil.Term(KHMER_WORD, true),
+                new SearchTextUtil.Term("b", false),
+                new SearchTextUtil.Term("spring", false),
+                new SearchTextUtil.Term("b", false));
+        assertThat(SearchTextUtil.toIndexText("<b>Spring</b> Boot")).isEqualTo("spring boot");
+    }
+
+    @Test
+    void zeroWidthSpacesDoNotBreakAKhmerRun() {
+        assertThat(SearchTextUtil.terms("ភា\u200Bសា"))
+                .containsExactly(new SearchTextUtil.Term(KHMER_WORD, true));
+    }
+
+    @Test
+    void khmerPunctuationEndsARun() {
+        // ។ (khan) is punctuation, not part of the word
+        assertThat(SearchTextUtil.terms(KHMER_WORD + "។"))
+                .containsExactly(new SearchTextUtil.Term(KHMER_WORD, true));
+    }
+
+    @Test
+    void queryTurnsKhmerIntoPhrasesAndWordsIntoPrefixes() {
+        assertThat(SearchTextUtil.toTsQuery("Java " + KHMER_WORD))
+                .isEqualTo("'java':* & ('kh179717b6' <-> 'kh17b6179f' <-> 'kh179f17b6')");
+        assertThat(SearchTextUtil.toTsQuery("ភ")).isEqualTo("'kh1797':*");
+        assertThat(SearchTextUtil.toTsQuery("  !? ")).isEmpty();
+    }
+
+    @Test
+    void shortTextIsOneChunk() {
+        assertThat(SearchTextUtil.chunks("short text", 100, 10)).containsExactly("short text");
+        assertThat(SearchTextUtil.chunks(null, 100, 10)).containsExactly("");
+    }
+
+    @Test
+    void chunksAreBoundedAndOverlapSoEveryShortPhraseFitsInOne() {
+        String text = KHMER_WORD.repeat(1_000);          // 4000 chars without a single space
+        int length = 500;
+        int overlap = 40;
+
+        List<String> chunks = SearchTextUtil.chunks(text, length, overlap);
+
+        assertThat(chunks).allSatisfy(chunk -> assertThat(chunk.length()).isLessThanOrEqualTo(length));
+        assertThat(chunks.getFirst()).isEqualTo(text.substring(0, length));
+        // Every window of `overlap` chars lies whole inside some chunk
+        for (int i = 0; i + overlap <= text.length(); i += 7) {
+            int from = i;
+            assertThat(chunks).anySatisfy(chunk -> assertThat(text.substring(from, from + overlap))
+                    .isSubstringOf(chunk));
+        }
+    }
+
+    @Test
+    void chunksPreferToCutAtWhitespace() {
+        String text = "alpha beta gamma delta epsilon zeta eta theta";
+
+        List<String> chunks = SearchTextUtil.chunks(text, 20, 6);
+
+        assertThat(chunks).allSatisfy(chunk -> {
+            assertThat(chunk.length()).isLessThanOrEqualTo(20);
+            assertThat(text).contains(chunk);
+        });
+        assertThat(chunks.getFirst()).isEqualTo("alpha beta gamma");
+        assertThat(chunks.getLast()).endsWith("theta");
+    }
+
+    @Test
+    void overlapMustBeSmallerThanTheChunk() {
+        assertThatThrownBy(() -> SearchTextUtil.chunks("text", 10, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void highlightEscapesHtmlAndMarksTerms() {
+        assertThat(SearchTextUtil.highlight("Learn <Java> fast", SearchTextUtil.terms("java")))
+                .isEqualTo("Learn &lt;<mark>Java</mark>&gt; fast");
+    }
+}
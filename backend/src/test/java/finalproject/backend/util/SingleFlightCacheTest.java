@@ -0,0 +1,124 @@
+package finalproject.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightCacheTest {
+
+    /** Value tagged by its first character, weighted by its length. */
+    private static SingleFlightCache<String, String> cache(long maxWeight, Duration ttl) {
+        return new SingleFlightCache<>("test", maxWeight, ttl, String::length, value -> value.charAt(0));
+    }
+
+    @Test
+    void secondReadIsAHit() {
+        SingleFlightCache<String, String> cache = cache(1_000, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("k", () -> "a" + loads.incrementAndGet());
+        String value = cache.get("k", () -> "a" + loads.incrementAndGet());
+
+        assertThat(value).isEqualTo("a1");
+        assertThat(loads).hasValue(1);
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        SingleFlightCache<String, String> cache = cache(1_000, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get("k", () -> {
+                    loads.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "value";
+                })));
+            }
+            TimeUnit.MILLISECONDS.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) assertThat(result.get()).isEqualTo("value");
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        SingleFlightCache<String, String> cache = cache(1_000, Duration.ofMinutes(1));
+
+        assertThatThrownBy(() -> cache.get("k", () -> {
+            throw new IllegalStateException("db down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.get("k", () -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    void invalidateTagDropsEveryKeyOfTheTag() {
+        SingleFlightCache<String, String> cache = cache(1_000, Duration.ofMinutes(1));
+        cache.get("one", () -> "a1");
+        cache.get("two", () -> "a2");
+        cache.get("three", () -> "b1");
+
+        cache.invalidateTag('a');
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get("one", () -> "a-reloaded")).isEqualTo("a-reloaded");
+        assertThat(cache.get("three", () -> "b-reloaded")).isEqualTo("b1");
+    }
+
+    @Test
+    void loadRacingAnInvalidationIsNotStored() {
+        SingleFlightCache<String, String> cache = cache(1_000, Duration.ofMinutes(1));
+
+        String value = cache.get("k", () -> {
+            cache.invalidateTag('a');   // an admin write lands while the old row is being read
+            return "a-stale";
+        });
+
+        assertThat(value).isEqualTo("a-stale");
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvictedOverTheWeightBound() {
+        SingleFlightCache<String, String> cache = cache(10, Duration.ofMinutes(1));
+        cache.get("first", () -> "aaaa");
+        cache.get("second", () -> "bbbb");
+        cache.get("first", () -> "unused");     // touch — "second" is now the eldest
+        cache.get("third", () -> "cccc");
+
+        assertThat(cache.evictionCount()).isEqualTo(1);
+        assertThat(cache.get("first", () -> "reloaded")).isEqualTo("aaaa");
+        assertThat(cache.get("second", () -> "reloaded")).isEqualTo("reloaded");
+    }
+
+    @Test
+    void expiredEntryIsReloaded() throws InterruptedException {
+        SingleFlightCache<String, String> cache = cache(1_000, Duration.ofMillis(20));
+        cache.get("k", () -> "old");
+        TimeUnit.MILLISECONDS.sleep(40);
+
+        assertThat(cache.get("k", () -> "new")).isEqualTo("new");
+    }
+}
@@ -0,0 +1,78 @@
+package finalproject.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyntaxHighlighterTest {
+
+    // Tags off, entities back — what the reader sees in the PDF
+    private static String visibleText(String html) {
+        return html.replaceAll("<[^>]+>", "")
+                .replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"").replace("&amp;", "&");
+    }
+
+    @Test
+    void javaKeywordsStringsAndCommentsGetPrismTokens() {
+        String html = SyntaxHighlighter.highlight("int x = \"a\"; // done", "java");
+
+        assertThat(html)
+                .contains("<span class=\"token keyword\">int</span>")
+                .contains("<span class=\"token string\">&quot;a&quot;</span>")
+                .contains("<span class=\"token comment\">// done</span>");
+    }
+
+    @Test
+    void outputIsEscapedAndKeepsEveryCharacter() {
+        String code = "if (a < b && c > d) {\n  s = \"<b>\" + '&';\n}";
+
+        String html = SyntaxHighlighter.highlight(code, "javascript");
+
+        assertThat(html).doesNotContain("<b>");
+        assertThat(visibleText(html)).isEqualTo(code);
+    }
+
+    @Test
+    void noSpanCrossesALineBreak() {
+        String code = "/* first\n   second\n   third */\nconst s = `a\nb`;";
+
+        String html = SyntaxHighlighter.highlight(code, "javascript");
+
+        for (String line : html.split("\n")) {
+            assertThat(line.split("<span", -1).length).isEqualTo(line.split("</span>", -1).length);
+        }
+        assertThat(html).contains("<span class=\"token comment\">/* first</span>\n");
+        assertThat(visibleText(html)).isEqualTo(code);
+    }
+
+    @Test
+    void markupTagsAreTokenizedInside() {
+        String html = SyntaxHighlighter.highlight("<a href=\"/x\">hi</a>", "markup");
+
+        assertThat(html)
+                .contains("<span class=\"token tag\">&lt;a</span>")
+                .contains("<span class=\"token attr-name\">href</span>")
+                .contains("<span class=\"token attr-value\">&quot;/x&quot;</span>");
+        assertThat(visibleText(html)).isEqualTo("<a href=\"/x\">hi</a>");
+    }
+
+    @Test
+    void unknownLanguageFallsBackToCLikeAndEmptyCodeToEmpty() {
+        assertThat(SyntaxHighlighter.highlight("foo(1);", "no-such-language"))
+                .contains("<span class=\"token function\">foo</span>")
+                .contains("<span class=\"token number\">1</span>");
+        assertThat(SyntaxHighlighter.highlight("", "java")).isEmpty();
+        assertThat(SyntaxHighlighter.highlight(null, "java")).isEmpty();
+    }
+
+    @Test
+    void placeholderLanguagesAreDetectedFromTheCode() {
+        assertThat(SyntaxHighlighter.isPlaceholderLanguage(" plain-text ")).isTrue();
+        assertThat(SyntaxHighlighter.isPlaceholderLanguage("java")).isFalse();
+        assertThat(SyntaxHighlighter.normalizeLanguage("text", "public class A {}")).isEqualTo("JAVA");
+        assertThat(SyntaxHighlighter.normalizeLanguage("Node.js", "x")).isEqualTo("NODE.JS");
+        assertThat(SyntaxHighlighter.normalizeLanguage("react", "x")).isEqualTo("JSX");
+        assertThat(SyntaxHighlighter.detectLanguage("{\"a\": 1}")).isEqualTo("JSON");
+        assertThat(SyntaxHighlighter.detectLanguage("SELECT * FROM t")).isEqualTo("SQL");
+    }
+}
@@ -0,0 +1,101 @@
+package finalproject.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class VirtualThreadScopeTest {
+
+    @Test
+    void joinReturnsResultsOfAllSubtasks() throws InterruptedException {
+        try (VirtualThreadScope scope = new VirtualThreadScope(4)) {
+            Supplier<Integer> a = scope.fork(() -> 1);
+            Supplier<String> b = scope.fork(() -> "two");
+            scope.join();
+
+            assertThat(a.get()).isEqualTo(1);
+            assertThat(b.get()).isEqualTo("two");
+        }
+    }
+
+    @Test
+    void resultBeforeJoinIsRejected() {
+        try (VirtualThreadScope scope = new VirtualThreadScope(1)) {
+            Supplier<Integer> a = scope.fork(() -> 1);
+
+            assertThatThrownBy(a::get).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void laterFailureCancelsEarlierSlowSubtaskImmediately() {
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch slowStarted = new CountDownLatch(1);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            try (VirtualThreadScope scope = new VirtualThreadScope(2)) {
+                // Forked first and never finishes on its own
+                scope.fork(() -> {
+                    slowStarted.countDown();
+                    try {
+                        Thread.sleep(Duration.ofMinutes(1));
+                    } catch (InterruptedException e) {
+                        interrupted.set(true);
+                        throw e;
+                    }
+                    return null;
+                });
+                scope.fork(() -> {
+                    slowStarted.await();
+                    throw new IllegalArgumentException("boom");
+                });
+
+                assertThatThrownBy(scope::join)
+                        .isInstanceOf(IllegalArgumentException.class)
+                        .hasMessage("boom");
+            }
+        });
+        assertThat(interrupted).isTrue();
+    }
+
+    @Test
+    void checkedFailureIsWrapped() {
+        try (VirtualThreadScope scope = new VirtualThreadScope(1)) {
+            scope.fork(() -> {
+                throw new java.io.IOException("io");
+            });
+
+            assertThatThrownBy(scope::join)
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasCauseInstanceOf(java.io.IOException.class);
+        }
+    }
+
+    @Test
+    void parallelismBoundsConcurrentSubtasks() throws InterruptedException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        try (VirtualThreadScope scope = new VirtualThreadScope(2)) {
+            for (int i = 0; i < 10; i++) {
+                scope.fork(() -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    TimeUnit.MILLISECONDS.sleep(20);
+                    running.decrementAndGet();
+                    return null;
+                });
+            }
+            scope.join();
+        }
+        assertThat(peak.get()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,10 @@
+import { NextRequest } from 'next/server'
+import { proxyToBackend } from '@/lib/proxy'
+
+export async function GET(
+  request: NextRequest,
+  { params }: { params: Promise<{ jobId: string }> }
+) {
+  const { jobId } = await params
+  return proxyToBackend(request, `/api/v1/course/pdf/jobs/${jobId}`)
+}
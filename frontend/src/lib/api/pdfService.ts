@@ -1,8 +1,12 @@
 import { get, post, del } from '@/lib/api/client'
-import type { CoursePdfExportResponse } from '@/types/coursePDFType'
+import type { CoursePdfExportResponse, PdfJobResponse } from '@/types/coursePDFType'
 import type { CourseFilterParams } from '@/types/api'
 
 const PDF_PATH = '/api/v1/course/pdf'
+const JOB_POLL_INTERVAL_MS = 2000
+const JOB_POLL_TIMEOUT_MS = 10 * 60 * 1000
+
+const sleep = (ms: number) => new Promise((resolve) => setTimeout(resolve, ms))
 
 export const pdfService = {
   /** GET / → CoursePdfExportResponse[] */
@@ -17,9 +21,30 @@ export const pdfService = {
   incrementDownload: (courseId: number): Promise<CoursePdfExportResponse> =>
     post<CoursePdfExportResponse>(`${PDF_PATH}/${courseId}/download`),
 
-  /** POST /:courseId/generate — [ADMIN] */
-  generate: (courseId: number): Promise<CoursePdfExportResponse> =>
-    post<CoursePdfExportResponse>(`${PDF_PATH}/${courseId}/generate`),
+  /**
+   * POST /:courseId/generate — [ADMIN] queues generation (202) and returns the job,
+   * or the current export (200, status DONE) when the content is unchanged unless `force`
+   */
+  startGeneration: (courseId: number, force = false): Promise<PdfJobResponse> =>
+    post<PdfJobResponse>(`${PDF_PATH}/${courseId}/generate`, {}, { params: { force } }),
+
+  /** GET /jobs/:jobId — [ADMIN] */
+  getJob: (jobId: number): Promise<PdfJobResponse> =>
+    get<PdfJobResponse>(`${PDF_PATH}/jobs/${jobId}`),
+
+  /** Queues generation and polls the job until the PDF is ready — [ADMIN] */
+  generate: async (courseId: number, force = false): Promise<CoursePdfExportResponse> => {
+    let job = await pdfService.startGeneration(courseId, force)
+    const deadline = Date.now() + JOB_POLL_TIMEOUT_MS
+    while (job.status !== 'DONE') {
+      if (job.status === 'FAILED') throw new Error(job.lastError || 'PDF generation failed')
+      if (Date.now() > deadline) throw new Error('PDF generation is taking too long — try again later')
+      await sleep(JOB_POLL_INTERVAL_MS)
+      job = await pdfService.getJob(job.jobId!)
+    }
+    if (!job.export) throw new Error('PDF generation finished without an export')
+    return job.export
+  },
 
   /** DELETE /:courseId — [ADMIN] */
   remove: (courseId: number): Promise<void> =>
@@ -18,3 +18,21 @@ export interface CoursePdfExportResponse {
   generatedAt?: string
   createdAt?: string
 }
+
+/** Asynchronous PDF generation job — `export` is set once the job is DONE */
+export type PdfJobStatus = 'QUEUED' | 'RENDERING' | 'UPLOADING' | 'DONE' | 'FAILED'
+
+export interface PdfJobResponse {
+  /** Absent when the export was already up to date and nothing was queued */
+  jobId?: number
+  courseId: number
+  status: PdfJobStatus
+  attempts: number
+  maxAttempts: number
+  nextAttemptAt?: string
+  lastError?: string
+  createdAt?: string
+  updatedAt?: string
+  finishedAt?: string
+  export?: CoursePdfExportResponse
+}
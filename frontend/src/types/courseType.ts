@@ -11,6 +11,8 @@ export interface CourseResponse {
   slug: string
   description?: string
   thumbnail?: string | null
+  /** Resized thumbnail renditions, e.g. { "480w": url, "1280w": url } — absent for older uploads */
+  thumbnailSrcset?: Record<string, string>
   featured: boolean
   isFeatured?: boolean
   comingSoon: boolean
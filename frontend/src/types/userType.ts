@@ -11,6 +11,8 @@ export interface UserResponse {
   /** Array of roles returned by the backend, e.g. ["USER", "ADMIN"] */
   roles: string[]
   profile_picture?: string | null
+  /** Square avatar renditions, e.g. { "96w": url, "192w": url } — absent for older uploads */
+  profile_picture_srcset?: Record<string, string>
   phoneNumber?: string | null
   address?: string | null
   bio?: string | null